@@ -0,0 +1,140 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import math.MinDistance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import trellises.BlockCodeTrellis;
+import trellises.CompactTrellis;
+import trellises.ITrellis;
+import trellises.TailbitingCodeTrellis;
+import codes.BlockCode;
+import codes.ConvCode;
+
+/**
+ * Поиск расстояний алгоритмом BEAST: свободное расстояние и его проверка для сверточных
+ * кодов, минимальное расстояние блокового и tailbiting кодов на решетках разных видов.
+ *
+ * @author stas
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeastBenchmarks {
+
+	/**
+	 * Решетки кодов из файла 3&amp;6&amp;6.txt.
+	 */
+	@State(Scope.Thread)
+	public static class ConvCodes {
+		List<ITrellis> trellises;
+		List<Integer> bounds;
+		/**
+		 * Проверяемые расстояния: половина кодов проходит проверку, половина отбраковывается.
+		 */
+		List<Integer> targets;
+
+		@Setup
+		public void setUp() throws Exception {
+			trellises = new ArrayList<ITrellis>();
+			bounds = new ArrayList<Integer>();
+			targets = new ArrayList<Integer>();
+			for (ConvCode code : BenchmarkData.readConvCodes(BenchmarkData.CONV_CODES)) {
+				trellises.add(code.getTrellis());
+				bounds.add(code.getN() * (code.getDelay() + 1));
+				targets.add(MinDistance.findFreeDist(code) + (targets.size() % 2 == 0 ? -2 : 1));
+			}
+		}
+	}
+
+	/**
+	 * Квазициклический [45, 30] код: решетка кода (<code>plain</code>) или
+	 * скомпилированная решетка по спеновой форме (<code>compiled</code>).
+	 */
+	@State(Scope.Thread)
+	public static class BlockCodeTrellises {
+		@Param({"plain", "compiled"})
+		public String trellisKind;
+
+		ITrellis trellis;
+		int n;
+
+		@Setup
+		public void setUp() throws Exception {
+			BlockCode code = BenchmarkData.blockCode(BenchmarkData.QUASICYCLIC_CODES, 30, 45);
+			trellis = trellisKind.equals("plain") ? code.getTrellis() : new BlockCodeTrellis(code.getGeneratorSpanForm(), true);
+			n = code.getN();
+		}
+	}
+
+	/**
+	 * Tailbiting решетка кода (133, 171): обычная, скомпилированная или компактная.
+	 */
+	@State(Scope.Thread)
+	public static class TailbitingTrellises {
+		@Param({"plain", "compiled", "compact"})
+		public String trellisKind;
+
+		ITrellis trellis;
+
+		@Setup
+		public void setUp() throws Exception {
+			ConvCode code = BenchmarkData.code133171();
+
+			if (trellisKind.equals("plain")) {
+				trellis = new TailbitingCodeTrellis(code.spanForm(), BenchmarkData.TB_CYCLES, false);
+			} else if (trellisKind.equals("compiled")) {
+				trellis = new TailbitingCodeTrellis(code.spanForm(), BenchmarkData.TB_CYCLES, true);
+			} else {
+				trellis = new CompactTrellis(new TailbitingCodeTrellis(code.spanForm(), BenchmarkData.TB_CYCLES, true), false, 0);
+			}
+		}
+	}
+
+	@Benchmark
+	public long freeDist(ConvCodes codes) {
+		long sum = 0;
+		for (int i = 0;i < codes.trellises.size(); ++i) {
+			sum += MinDistance.findMinDistWithBEAST(codes.trellises.get(i), 0, codes.bounds.get(i));
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long freeDistCheck(ConvCodes codes) {
+		long sum = 0;
+		for (int i = 0;i < codes.trellises.size(); ++i) {
+			if (MinDistance.hasMinDistAtLeastWithBEAST(codes.trellises.get(i), 0, codes.targets.get(i), null)) {
+				++sum;
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long minDistQc30x45(BlockCodeTrellises trellises) {
+		return MinDistance.findMinDistWithBEAST(trellises.trellis, 0, trellises.n);
+	}
+
+	@Benchmark
+	public long tailbitingDist133x171(TailbitingTrellises trellises) {
+		return BenchmarkData.tailbitingMinDist(trellises.trellis, 2 * BenchmarkData.TB_CYCLES);
+	}
+}
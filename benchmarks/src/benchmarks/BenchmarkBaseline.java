@@ -0,0 +1,105 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Базовые результаты тестов производительности, с которыми сравниваются новые измерения.
+ *
+ * Регрессией считается падение пропускной способности более чем на долю <code>tolerance</code>
+ * или рост выделяемой за операцию памяти более чем на ту же долю (с запасом в
+ * {@link #ALLOCATION_SLACK} байт, чтобы не реагировать на шум в несколько байт).
+ *
+ * @author stas
+ *
+ */
+public class BenchmarkBaseline {
+	/**
+	 * Абсолютный допуск на рост выделяемой памяти, байт на операцию.
+	 */
+	public static double ALLOCATION_SLACK = 64;
+
+	private final Map<String, BenchmarkResult> results = new LinkedHashMap<String, BenchmarkResult>();
+
+	public BenchmarkBaseline() {
+	}
+
+	public BenchmarkBaseline(Collection<BenchmarkResult> results) {
+		for (BenchmarkResult result : results) {
+			this.results.put(result.name(), result);
+		}
+	}
+
+	public BenchmarkResult get(String name) {
+		return results.get(name);
+	}
+
+	public static BenchmarkBaseline read(File file) throws IOException {
+		BenchmarkBaseline baseline = new BenchmarkBaseline();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				BenchmarkResult result = BenchmarkResult.parseLine(line);
+				baseline.results.put(result.name(), result);
+			}
+		} finally {
+			reader.close();
+		}
+		return baseline;
+	}
+
+	public void write(File file) throws IOException {
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		try {
+			writer.write("# name\tops/s\tbytes/op");
+			writer.newLine();
+			for (BenchmarkResult result : results.values()) {
+				writer.write(result.toLine());
+				writer.newLine();
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Сравнивает результаты с базовыми. Тесты, отсутствующие в базовых результатах, пропускаются.
+	 * @param tolerance допустимая доля ухудшения, например 0.1
+	 * @return описания найденных регрессий, пустой список, если регрессий нет
+	 */
+	public List<String> findRegressions(Collection<BenchmarkResult> current, double tolerance) {
+		List<String> regressions = new ArrayList<String>();
+
+		for (BenchmarkResult result : current) {
+			BenchmarkResult base = results.get(result.name());
+			if (base == null) {
+				continue;
+			}
+
+			if (result.opsPerSecond() < base.opsPerSecond() * (1 - tolerance)) {
+				regressions.add(String.format("%s: throughput %.3f ops/s, baseline %.3f ops/s",
+						result.name(), result.opsPerSecond(), base.opsPerSecond()));
+			}
+			if (result.bytesPerOp() != BenchmarkResult.UNKNOWN && base.bytesPerOp() != BenchmarkResult.UNKNOWN
+					&& result.bytesPerOp() > base.bytesPerOp() * (1 + tolerance) + ALLOCATION_SLACK) {
+				regressions.add(String.format("%s: allocation %.1f B/op, baseline %.1f B/op",
+						result.name(), result.bytesPerOp(), base.bytesPerOp()));
+			}
+		}
+
+		return regressions;
+	}
+}
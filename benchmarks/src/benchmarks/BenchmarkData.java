@@ -0,0 +1,160 @@
+package benchmarks;
+
+import in_out_interfaces.IOMatrix;
+import in_out_interfaces.IOPolyMatrix;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import math.BitArray;
+import math.Poly;
+import math.PolyMatrix;
+import trellises.ITrellis;
+import trellises.ITrellisIterator;
+import trellises.algorithms.BeastAlgorithm;
+import codes.BlockCode;
+import codes.ConvCode;
+
+/**
+ * Данные для тестов производительности.
+ *
+ * Коды берутся из файлов репозитория (TBCodes.txt, quasicyclic_codes.txt, 3&amp;6&amp;6.txt),
+ * поэтому результаты разных версий сравнимы между собой. Файлы ищутся в текущем каталоге,
+ * т.е. тесты запускаются из корня репозитория. Случайные данные порождаются с фиксированным зерном.
+ *
+ * @author stas
+ *
+ */
+public class BenchmarkData {
+	public static final String TB_CODES = "TBCodes.txt";
+	public static final String QUASICYCLIC_CODES = "quasicyclic_codes.txt";
+	public static final String CONV_CODES = "3&6&6.txt";
+
+	public static final long SEED = 20131017;
+	/**
+	 * Число циклов решетки tailbiting кода скорости 1/2, длина кода - 2 * TB_CYCLES.
+	 */
+	public static final int TB_CYCLES = 12;
+
+	/**
+	 * Читает блоковые коды в формате {@link search_procedures.block_codes.BlockCodesTable#writeCodes}:
+	 * строка "k = .., n = .., d = .." и k строк порождающей матрицы.
+	 */
+	public static List<BlockCode> readBlockCodes(File file) throws IOException {
+		Pattern header = Pattern.compile("k\\s*=\\s*(\\d+)\\s*,\\s*n\\s*=\\s*(\\d+)\\s*,\\s*d\\s*=\\s*(\\d+)");
+		List<BlockCode> codes = new ArrayList<BlockCode>();
+		Scanner scanner = new Scanner(file);
+
+		try {
+			while (scanner.hasNextLine()) {
+				Matcher matcher = header.matcher(scanner.nextLine());
+				if (!matcher.find()) {
+					continue;
+				}
+				int k = Integer.parseInt(matcher.group(1));
+				BlockCode code = new BlockCode(IOMatrix.readMatrix(scanner, k), true);
+				code.setMinDist(Integer.parseInt(matcher.group(3)));
+				codes.add(code);
+			}
+		} finally {
+			scanner.close();
+		}
+
+		return codes;
+	}
+
+	/**
+	 * Читает сверточные коды в формате файлов "b&amp;v&amp;d.txt": тип матрицы (g или pc), задержка,
+	 * число входов, строка "oct", длина многочленов и строки матрицы с многочленами в восьмеричной
+	 * записи через запятую. Коды разделяются пустой строкой.
+	 */
+	public static List<ConvCode> readConvCodes(String filename) throws IOException {
+		return readConvCodes(new File(filename));
+	}
+
+	public static List<ConvCode> readConvCodes(File file) throws IOException {
+		List<ConvCode> codes = new ArrayList<ConvCode>();
+		BufferedReader reader = new BufferedReader(new FileReader(file));
+
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				String type = line.trim();
+				if (type.isEmpty()) {
+					continue;
+				}
+				// задержка, число входов, "oct" и длина многочленов
+				for (int i = 0;i < 4; ++i) {
+					reader.readLine();
+				}
+
+				StringBuilder matrix = new StringBuilder();
+				while ((line = reader.readLine()) != null && !line.trim().isEmpty()) {
+					matrix.append(line.trim()).append('\n');
+				}
+				PolyMatrix polyMatrix = IOPolyMatrix.readMatrixOct(new BufferedReader(new StringReader(matrix.toString())));
+				codes.add(new ConvCode(polyMatrix, type.equals("g")));
+			}
+		} finally {
+			reader.close();
+		}
+
+		return codes;
+	}
+
+	public static BlockCode blockCode(String filename, int k, int n) throws IOException {
+		for (BlockCode code : readBlockCodes(new File(filename))) {
+			if (code.getK() == k && code.getN() == n) {
+				return code;
+			}
+		}
+		throw new IllegalArgumentException("No [" + n + ", " + k + "] code in " + filename);
+	}
+
+	public static BitArray randomBits(Random random, int size) {
+		BitArray bits = new BitArray(size);
+		for (int i = 0;i < size; ++i) {
+			bits.set(i, random.nextBoolean());
+		}
+		return bits;
+	}
+
+	public static Poly randomPoly(Random random, int degree) {
+		boolean coeffs[] = new boolean[degree + 1];
+		for (int i = 0;i < degree; ++i) {
+			coeffs[i] = random.nextBoolean();
+		}
+		coeffs[degree] = true;
+		return new Poly(coeffs);
+	}
+
+	/**
+	 * Сверточный код скорости 1/2 с порождающими многочленами 133, 171 (в восьмеричной записи).
+	 */
+	public static ConvCode code133171() throws IOException {
+		return new ConvCode(IOPolyMatrix.readMatrixOct(new BufferedReader(new StringReader("133, 171"))), true);
+	}
+
+	/**
+	 * Минимальное расстояние tailbiting кода: BEAST из каждой вершины нулевого яруса.
+	 * @param n длина кода, верхняя оценка расстояния
+	 */
+	public static int tailbitingMinDist(ITrellis trellis, int n) {
+		int minDist = Integer.MAX_VALUE;
+		for (long vertexIndex = 0;vertexIndex < trellis.layerSize(0); ++vertexIndex) {
+			ITrellisIterator root = trellis.iterator(0, vertexIndex);
+			ITrellisIterator toor = trellis.iterator(trellis.layersCount() - 1, vertexIndex);
+			minDist = Math.min(minDist, BeastAlgorithm.countMinDist(root, toor, 0, n));
+		}
+		return minDist;
+	}
+}
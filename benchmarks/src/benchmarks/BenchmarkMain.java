@@ -0,0 +1,88 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Запуск тестов производительности JMH из корня репозитория со сравнением с базовыми результатами.
+ *
+ * Тесты запускаются с профилировщиком GC, выделение памяти за операцию берется из его
+ * результата <code>gc.alloc.rate.norm</code>. Параметры:
+ * <ul>
+ * <li><code>-save file</code> - записать результаты как базовые;</li>
+ * <li><code>-baseline file</code> - сравнить с базовыми результатами, при регрессии
+ * процесс завершается с кодом 1;</li>
+ * <li><code>-tolerance x</code> - допустимая доля ухудшения при сравнении, по умолчанию 0.1;</li>
+ * <li>остальные параметры передаются JMH, например регулярное выражение для имен тестов,
+ * <code>-wi</code>, <code>-i</code>, <code>-r</code>, <code>-f</code>.</li>
+ * </ul>
+ *
+ * @author stas
+ *
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		List<String> jmhArgs = new ArrayList<String>();
+		File save = null;
+		File baselineFile = null;
+		double tolerance = 0.1;
+
+		for (int i = 0;i < args.length; ++i) {
+			String arg = args[i];
+
+			if (!arg.equals("-save") && !arg.equals("-baseline") && !arg.equals("-tolerance")) {
+				jmhArgs.add(arg);
+				continue;
+			}
+			if (i + 1 == args.length) {
+				throw new IllegalArgumentException("Missing value of " + arg);
+			}
+			String value = args[++i];
+
+			if (arg.equals("-save")) {
+				save = new File(value);
+			} else if (arg.equals("-baseline")) {
+				baselineFile = new File(value);
+			} else {
+				tolerance = Double.parseDouble(value);
+			}
+		}
+
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(jmhArgs.toArray(new String[jmhArgs.size()])))
+				.addProfiler(GCProfiler.class)
+				.build();
+
+		List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+		for (RunResult runResult : new Runner(options).run()) {
+			results.add(BenchmarkResult.of(runResult));
+		}
+
+		for (BenchmarkResult result : results) {
+			System.out.println(result);
+		}
+
+		if (save != null) {
+			new BenchmarkBaseline(results).write(save);
+		}
+
+		if (baselineFile != null) {
+			List<String> regressions = BenchmarkBaseline.read(baselineFile).findRegressions(results, tolerance);
+			for (String regression : regressions) {
+				System.out.println("REGRESSION " + regression);
+			}
+			if (!regressions.isEmpty()) {
+				System.exit(1);
+			}
+		}
+	}
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+
+/**
+ * Результат измерения: пропускная способность и объем памяти, выделяемой за одну операцию.
+ *
+ * @author stas
+ *
+ */
+public class BenchmarkResult {
+	/**
+	 * Значение {@link #bytesPerOp()}, если профилировщик GC не измерил выделение памяти.
+	 */
+	public static final double UNKNOWN = -1;
+
+	private final String name;
+	private final double opsPerSecond;
+	private final double bytesPerOp;
+
+	public BenchmarkResult(String name, double opsPerSecond, double bytesPerOp) {
+		this.name = name;
+		this.opsPerSecond = opsPerSecond;
+		this.bytesPerOp = bytesPerOp;
+	}
+
+	/**
+	 * Результат теста JMH в режиме пропускной способности (операций в секунду), запущенного
+	 * с профилировщиком GC. Имя - класс и метод теста без пакета и значения параметров,
+	 * например <code>PolyBenchmarks.mul:degree=256</code>.
+	 */
+	public static BenchmarkResult of(RunResult runResult) {
+		BenchmarkParams params = runResult.getParams();
+		String benchmark = params.getBenchmark();
+		StringBuilder name = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1));
+
+		for (String key : params.getParamsKeys()) {
+			name.append(':').append(key).append('=').append(params.getParam(key));
+		}
+
+		double bytesPerOp = UNKNOWN;
+		for (Map.Entry<String, Result> entry : runResult.getSecondaryResults().entrySet()) {
+			// в старых версиях JMH имена результатов профилировщиков начинаются с символа '·'
+			if (entry.getKey().endsWith("gc.alloc.rate.norm")) {
+				bytesPerOp = entry.getValue().getScore();
+			}
+		}
+
+		return new BenchmarkResult(name.toString(), runResult.getPrimaryResult().getScore(), bytesPerOp);
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public double opsPerSecond() {
+		return opsPerSecond;
+	}
+
+	public double bytesPerOp() {
+		return bytesPerOp;
+	}
+
+	/**
+	 * Строка файла базовых результатов: имя, операций в секунду и байт на операцию, разделенные табуляцией.
+	 */
+	public String toLine() {
+		return String.format(Locale.US, "%s\t%.3f\t%.1f", name, opsPerSecond, bytesPerOp);
+	}
+
+	/**
+	 * Разбирает строку, записанную {@link #toLine()}.
+	 */
+	public static BenchmarkResult parseLine(String line) {
+		String fields[] = line.trim().split("\t");
+		if (fields.length != 3) {
+			throw new IllegalArgumentException("Wrong benchmark result line: " + line);
+		}
+		return new BenchmarkResult(fields[0], Double.parseDouble(fields[1]), Double.parseDouble(fields[2]));
+	}
+
+	@Override
+	public String toString() {
+		String allocation = bytesPerOp == UNKNOWN ? "n/a" : String.format(Locale.US, "%.1f B/op", bytesPerOp);
+		return String.format(Locale.US, "%-56s %14.3f ops/s %18s", name, opsPerSecond, allocation);
+	}
+}
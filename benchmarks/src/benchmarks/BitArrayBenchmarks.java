@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import math.BitArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Операции над битовыми массивами: 72 бита помещаются в упакованное представление,
+ * 1024 - нет.
+ *
+ * @author stas
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BitArrayBenchmarks {
+	@Param({"72", "1024"})
+	public int size;
+
+	private BitArray a, b;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(BenchmarkData.SEED);
+		a = BenchmarkData.randomBits(random, size);
+		b = BenchmarkData.randomBits(random, size);
+	}
+
+	@Benchmark
+	public long xorCardinality() {
+		a.xor(b);
+		return a.cardinality();
+	}
+}
@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import math.PolyMatrix;
+import math.ConvCodeSpanForm.SpanFormException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import codes.ConvCode;
+import search_heuristics.CombinedHeuristic;
+import search_procedures.conv_codes.ExhaustiveHRCCEnumByCheckMatr;
+import search_tools.SeenCodesSet;
+
+/**
+ * Преобразования сверточных кодов: проверочная матрица по порождающей, спеновая форма
+ * и отсев эквивалентных кодов по канонической форме. Одна операция обрабатывает все коды набора.
+ *
+ * @author stas
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvCodeBenchmarks {
+
+	/**
+	 * Коды из файла 3&amp;6&amp;6.txt.
+	 */
+	@State(Scope.Thread)
+	public static class FileCodes {
+		List<PolyMatrix> generators;
+		/**
+		 * Коды, для которых строится спеновая форма.
+		 */
+		List<ConvCode> spanFormCodes;
+
+		@Setup
+		public void setUp() throws IOException {
+			generators = new ArrayList<PolyMatrix>();
+			spanFormCodes = new ArrayList<ConvCode>();
+			for (ConvCode code : BenchmarkData.readConvCodes(BenchmarkData.CONV_CODES)) {
+				generators.add(code.generator());
+				try {
+					new ConvCode(code.parityCheck(), false).spanForm();
+					spanFormCodes.add(code);
+				} catch (SpanFormException e) {
+					// коды, для которых спеновая форма не строится, в измерение не входят
+				}
+			}
+		}
+	}
+
+	/**
+	 * Все коды скорости 3/4 с задержкой 3, порождаемые перебором проверочных матриц.
+	 */
+	@State(Scope.Thread)
+	public static class EnumeratedCodes {
+		List<ConvCode> codes;
+
+		@Setup
+		public void setUp() {
+			codes = new ArrayList<ConvCode>();
+			ExhaustiveHRCCEnumByCheckMatr ccEnum = new ExhaustiveHRCCEnumByCheckMatr(3, 3, new CombinedHeuristic());
+			ConvCode code;
+			while ((code = ccEnum.next()) != null) {
+				codes.add(code);
+			}
+		}
+	}
+
+	@Benchmark
+	public long parityCheck(FileCodes codes) {
+		long sum = 0;
+		for (PolyMatrix generator : codes.generators) {
+			sum += new ConvCode(generator, true).parityCheck().getColumnCount();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long spanForm(FileCodes codes) throws Exception {
+		long sum = 0;
+		for (ConvCode code : codes.spanFormCodes) {
+			sum += new ConvCode(code.parityCheck(), false).spanForm().delay;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long dedup(EnumeratedCodes codes) {
+		SeenCodesSet seenCodes = new SeenCodesSet();
+		for (ConvCode code : codes.codes) {
+			seenCodes.add(code);
+		}
+		return seenCodes.size();
+	}
+}
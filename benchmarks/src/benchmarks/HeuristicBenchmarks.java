@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import codes.ConvCode;
+import search_heuristics.CombinedHeuristic;
+import search_heuristics.LinearDependenceCashingHeur;
+import search_procedures.conv_codes.ExhaustiveHRCCEnumByCheckMatr;
+
+/**
+ * Эвристики поиска сверточных кодов. Одна операция проверяет все коды скорости 3/4
+ * с задержкой 4 новым экземпляром эвристики, т.е. включает заполнение ее кеша.
+ *
+ * @author stas
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeuristicBenchmarks {
+	private List<ConvCode> codes;
+
+	@Setup
+	public void setUp() {
+		codes = new ArrayList<ConvCode>();
+		ExhaustiveHRCCEnumByCheckMatr ccEnum = new ExhaustiveHRCCEnumByCheckMatr(3, 4, new CombinedHeuristic());
+		ConvCode code;
+		while ((code = ccEnum.next()) != null) {
+			code.parityCheck();
+			codes.add(code);
+		}
+	}
+
+	@Benchmark
+	public long linearDependence() {
+		LinearDependenceCashingHeur heuristic = new LinearDependenceCashingHeur(5, 4,
+				new LinearDependenceCashingHeur.PolyLinearDependenceDataBase());
+		long passed = 0;
+		for (ConvCode code : codes) {
+			if (heuristic.check(code)) {
+				++passed;
+			}
+		}
+		return passed;
+	}
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import math.CodeWordsWeightScanner;
+import math.Matrix;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Операции над порождающими матрицами блоковых кодов из файлов репозитория и
+ * поиск минимального расстояния перебором кодовых слов.
+ *
+ * @author stas
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MatrixBenchmarks {
+	/**
+	 * Квазициклический [72, 54] код.
+	 */
+	private Matrix qcGen, qcGenT;
+	/**
+	 * Tailbiting [72, 55] код.
+	 */
+	private Matrix tbGen;
+	/**
+	 * Квазициклический [32, 24] код.
+	 */
+	private Matrix scanGen;
+
+	@Setup
+	public void setUp() throws IOException {
+		qcGen = BenchmarkData.blockCode(BenchmarkData.QUASICYCLIC_CODES, 54, 72).generator();
+		qcGenT = qcGen.transpose();
+		tbGen = BenchmarkData.blockCode(BenchmarkData.TB_CODES, 55, 72).generator();
+		scanGen = BenchmarkData.blockCode(BenchmarkData.QUASICYCLIC_CODES, 24, 32).generator();
+	}
+
+	@Benchmark
+	public long mulQc54x72() {
+		return qcGen.mul(qcGenT).getRow(0).cardinality();
+	}
+
+	@Benchmark
+	public long transposeTb55x72() {
+		return tbGen.transpose().getRowCount();
+	}
+
+	@Benchmark
+	public long minDistScanQc24x32() {
+		CodeWordsWeightScanner scanner = new CodeWordsWeightScanner(scanGen);
+		scanner.setThreads(1);
+		return scanner.findMinDist();
+	}
+}
@@ -0,0 +1,96 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import math.Poly;
+import math.PolyMatrix;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Умножение и деление многочленов, умножение полиномиальных матриц.
+ *
+ * @author stas
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolyBenchmarks {
+
+	@State(Scope.Thread)
+	public static class Polys {
+		@Param({"256", "4096"})
+		public int degree;
+
+		Poly a, b;
+
+		@Setup
+		public void setUp() {
+			Random random = new Random(BenchmarkData.SEED);
+			a = BenchmarkData.randomPoly(random, degree);
+			b = BenchmarkData.randomPoly(random, degree);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Division {
+		Poly dividend, divisor;
+
+		@Setup
+		public void setUp() {
+			Random random = new Random(BenchmarkData.SEED);
+			dividend = BenchmarkData.randomPoly(random, 256);
+			divisor = BenchmarkData.randomPoly(random, 100);
+		}
+	}
+
+	/**
+	 * Матрицы 8x8 из многочленов степени 16.
+	 */
+	@State(Scope.Thread)
+	public static class Matrices {
+		PolyMatrix a, b;
+
+		@Setup
+		public void setUp() {
+			Random random = new Random(BenchmarkData.SEED);
+			a = new PolyMatrix(8, 8);
+			b = new PolyMatrix(8, 8);
+			for (int i = 0;i < 8; ++i) {
+				for (int j = 0;j < 8; ++j) {
+					a.set(i, j, BenchmarkData.randomPoly(random, 16));
+					b.set(i, j, BenchmarkData.randomPoly(random, 16));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public long mul(Polys polys) {
+		return polys.a.mul(polys.b).getDegree();
+	}
+
+	@Benchmark
+	public long remainder256by100(Division division) {
+		return division.dividend.getRemainder(division.divisor).getDegree();
+	}
+
+	@Benchmark
+	public long matrixMul8x8(Matrices matrices) {
+		return matrices.a.mul(matrices.b).get(0, 0).getDegree();
+	}
+}
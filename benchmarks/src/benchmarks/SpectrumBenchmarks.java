@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import math.MinDistance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import trellises.algorithms.SpectrumCounter;
+import codes.ConvCode;
+
+/**
+ * Подсчет начала спектра кодов из файла 3&amp;6&amp;6.txt до веса на 2 больше свободного расстояния.
+ * Счетчики создаются один раз, поэтому таблицы ребер решеток заполнены уже после прогрева.
+ *
+ * @author stas
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpectrumBenchmarks {
+	private List<SpectrumCounter> counters;
+	private List<Integer> maxWeights;
+
+	@Setup
+	public void setUp() throws Exception {
+		counters = new ArrayList<SpectrumCounter>();
+		maxWeights = new ArrayList<Integer>();
+		for (ConvCode code : BenchmarkData.readConvCodes(BenchmarkData.CONV_CODES)) {
+			counters.add(new SpectrumCounter(code.getTrellis(), 0));
+			maxWeights.add(MinDistance.findFreeDist(code) + 2);
+		}
+	}
+
+	@Benchmark
+	public long spectrum() {
+		long sum = 0;
+		for (int i = 0;i < counters.size(); ++i) {
+			for (long paths : counters.get(i).findSpectrum(maxWeights.get(i))) {
+				sum += paths;
+			}
+		}
+		return sum;
+	}
+}
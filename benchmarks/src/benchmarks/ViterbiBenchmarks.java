@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import math.BitArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import trellises.TailbitingCodeTrellis;
+import trellises.Trellis;
+import trellises.algorithms.ListViterbiDecoder;
+import trellises.algorithms.ViterbiAlgorithm;
+import trellises.algorithms.ViterbiDecoder;
+import trellises.algorithms.WrapAroundViterbiDecoder;
+import codes.ConvCode;
+
+/**
+ * Алгоритм Витерби и декодеры на его основе. Принятые последовательности случайны,
+ * длиной 16 блоков кода для сверточного кода и длиной tailbiting кода для WAVA.
+ *
+ * @author stas
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ViterbiBenchmarks {
+	/**
+	 * Количество принятых последовательностей, декодируемых за одну операцию пакетного декодера.
+	 */
+	private static final int BATCH_SIZE = 64;
+
+	private Trellis trellis;
+	private ViterbiDecoder decoder;
+	private ListViterbiDecoder listDecoder;
+	private WrapAroundViterbiDecoder wrapAroundDecoder;
+	private BitArray received;
+	private BitArray receivedBatch[];
+	private BitArray receivedTailbiting;
+
+	@Setup
+	public void setUp() throws Exception {
+		ConvCode code = BenchmarkData.readConvCodes(BenchmarkData.CONV_CODES).get(0);
+		ConvCode tbCode = BenchmarkData.code133171();
+		Random random = new Random(BenchmarkData.SEED);
+
+		trellis = (Trellis)code.getTrellis();
+		decoder = new ViterbiDecoder(code.getTrellis(), true);
+		listDecoder = new ListViterbiDecoder(code.getTrellis(), true, 32);
+		wrapAroundDecoder = new WrapAroundViterbiDecoder(new TailbitingCodeTrellis(tbCode.spanForm(), BenchmarkData.TB_CYCLES, true), 4);
+
+		received = BenchmarkData.randomBits(random, 16 * code.getN());
+		receivedBatch = new BitArray[BATCH_SIZE];
+		for (int i = 0;i < receivedBatch.length; ++i) {
+			receivedBatch[i] = BenchmarkData.randomBits(random, 16 * code.getN());
+		}
+		receivedTailbiting = BenchmarkData.randomBits(random, 2 * BenchmarkData.TB_CYCLES);
+	}
+
+	@Benchmark
+	public long optimalPaths() {
+		ViterbiAlgorithm.Vertex layer[] = ViterbiAlgorithm.findOptimalPaths(trellis, 16 * trellis.Layers.length, 0, 1, 0);
+		return (long)layer[0].Metrics[0];
+	}
+
+	@Benchmark
+	public long decode() {
+		return (long)decoder.decode(received, 0, -1).metric;
+	}
+
+	@Benchmark
+	public long decodeBatch() {
+		return (long)decoder.decode(receivedBatch, 0, -1)[0].metric;
+	}
+
+	@Benchmark
+	public long listDecode() {
+		return (long)listDecoder.decode(received, 0, -1)[0].metric;
+	}
+
+	@Benchmark
+	public long wrapAroundDecode() {
+		return (long)wrapAroundDecoder.decode(receivedTailbiting).metric;
+	}
+}
@@ -8,7 +8,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.StreamTokenizer;
-import java.util.ArrayList;
 import java.util.Scanner;
 
 import ch.qos.logback.classic.Logger;
@@ -19,6 +18,7 @@ import codes.TBCode;
 import codes.ZTCode;
 
 import search_procedures.block_codes.BlockCodesTable;
+import search_tools.SeenCodesSet;
 import trellises.Trellis;
 import trellises.Trellises;
 
@@ -135,14 +135,13 @@ public class Main {
 	private static void cutSimilarCodes() throws IOException {
 		Scanner scanner = new Scanner(new File("_3&6&6.txt"));
 		BufferedWriter writer = new BufferedWriter(new FileWriter(new File("__3&6&6.txt")));
-		ArrayList<ConvCode> codesTable = new ArrayList<ConvCode>();		
+		SeenCodesSet codesTable = new SeenCodesSet();
 		
 		while (scanner.hasNext()) {
 			ConvCode code = IOConvCode.readConvCode(scanner);
 			
-			if (!codesTable.contains(code)) {
+			if (codesTable.add(code)) {
 				IOConvCode.writeConvCode(code, writer, "pc");
-				codesTable.add(code);
 			}
 		}
 		
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import trellises.ConvCodeTrellis;
+import trellises.ConvCodeTrellisBuilder;
 import trellises.ITrellis;
 import trellises.Trellis;
 import trellises.Trellises;
@@ -25,6 +26,10 @@ import math.SmithDecomposition;
  */
 public class ConvCode implements Code{
 	static private Logger logger = LoggerFactory.getLogger(ConvCode.class); 
+	/**
+	 * Множители декомпозиции Смита, которые использует построение ортогональной матрицы.
+	 */
+	private static final int ORTHOGONAL_FACTORS = SmithDecomposition.FACTOR_B | SmithDecomposition.FACTOR_INV_B;
 	
 	/**
 	 * Свободное расстояние кода
@@ -67,6 +72,11 @@ public class ConvCode implements Code{
 	private ConvCodeSpanForm spanForm = null;
 
 	private ITrellis trellis; 
+
+	/**
+	 * Построитель, переиспользующий решетки ранее построенных кодов, или null.
+	 */
+	private ConvCodeTrellisBuilder trellisBuilder;
 	
 	/**
 	 * @param matrix Порождающая или проверочная матрица в полиномиальном представлении
@@ -160,13 +170,21 @@ public class ConvCode implements Code{
 			if (genBlocks != null) {
 				genMatr = ConvCodeAlgs.buildPolyComposition(genBlocks);
 			} else {
-				genMatr = ConvCodeAlgs.getOrthogonalMatrix(new SmithDecomposition(checkMatr));
+				genMatr = ConvCodeAlgs.getOrthogonalMatrix(new SmithDecomposition(checkMatr, ORTHOGONAL_FACTORS));
 				ConvCodeAlgs.toMinimalForm(genMatr);
 			}
 		}
 		return genMatr;
 	}
 
+	/**
+	 * Проверяет, что порождающая матрица задает некатастрофический кодер, без построения 
+	 * проверочной матрицы и minimal-base формы.
+	 */
+	public boolean isNonCatastrophic() {
+		return SmithDecomposition.isNonCatastrophic(generator());
+	}
+
 	public boolean isGeneratorNull() {
 		return genMatr == null;
 	}
@@ -178,7 +196,7 @@ public class ConvCode implements Code{
 	public PolyMatrix parityCheck()
 	{
 		if (checkMatr == null) {
-			checkMatr = ConvCodeAlgs.getOrthogonalMatrix(new SmithDecomposition(generator()));
+			checkMatr = ConvCodeAlgs.getOrthogonalMatrix(new SmithDecomposition(generator(), ORTHOGONAL_FACTORS));
 			ConvCodeAlgs.toMinimalForm(checkMatr);
 		}
 		return checkMatr;
@@ -243,7 +261,7 @@ public class ConvCode implements Code{
 	public ITrellis getTrellis() throws SpanFormException {
 		if (trellis == null) {
 			if (checkMatr == null) {
-				ITrellis implicitTrellis = new ConvCodeTrellis(spanForm());
+				ITrellis implicitTrellis = trellisBuilder != null ? trellisBuilder.build(spanForm()) : new ConvCodeTrellis(spanForm());
 			//	try {
 			//		trellis = new LightTrellis(implicitTrellis);
 			//	} catch (Exception e) { //IllegalArgumentException e) {
@@ -258,6 +276,14 @@ public class ConvCode implements Code{
 		return trellis;
 	}
 	
+	/**
+	 * Задает построитель решетки по порождающей матрице, разделяемый с другими кодами (обычно
+	 * кодами одного перечислителя): решетка кода строится на основе последней построенной им.
+	 */
+	public void setTrellisBuilder(ConvCodeTrellisBuilder trellisBuilder) {
+		this.trellisBuilder = trellisBuilder;
+	}
+
 	public int getFreeDist() throws SpanFormException {
 		if (freeDist == -1) {
 			freeDist = MinDistance.findFreeDist(this);
@@ -265,6 +291,17 @@ public class ConvCode implements Code{
 		return freeDist;
 	}
 	
+	/**
+	 * Проверяет, что свободное расстояние кода не меньше <code>freeDist</code>. Если расстояние 
+	 * еще не вычислено, оно и не вычисляется: поиск в решетке прекращается, как только ответ известен.
+	 */
+	public boolean hasFreeDistAtLeast(int freeDist) throws SpanFormException {
+		if (this.freeDist != -1) {
+			return this.freeDist >= freeDist;
+		}
+		return MinDistance.hasFreeDistAtLeast(this, freeDist);
+	}
+	
 	// TODO: заменить на умный способ посчитать freeDist каким-нибудь методом (например, передав метод через интерфейс).
 	public void setFreeDist(int freeDist) {
 		this.freeDist = freeDist;
@@ -296,7 +333,8 @@ public class ConvCode implements Code{
 			
 			Matrix G[] = getGenBlocks();
 
-			int beginPos = Math.max(0, i - delay) * getK(); // позиция младшего бита, участвующего в текущей сумме
+			// блоки могут быть построены по minimal-base матрице, степень которой отличается от delay
+			int beginPos = Math.max(0, i - G.length + 1) * getK(); // позиция младшего бита, участвующего в текущей сумме
 			int endPos = i * getK() + getK() - 1; // позиция старшего бита, участвующего в сумме
 			
 			for (int bitPos = infSeq.nextSetBit(beginPos); bitPos <= endPos && bitPos >= 0; bitPos = infSeq.nextSetBit(bitPos + 1)) {
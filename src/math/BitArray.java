@@ -1,20 +1,39 @@
 package math;
 
 /**
- * Массив из фиксированного колличества битов. 
+ * Массив из фиксированного колличества битов.
+ *
+ * Массивы длины не более <code>PACKED_MAX_SIZE</code> (кодовые слова, синдромы, метки ребер)
+ * хранятся упакованными в два слова long без объекта BitSet, поэтому операции над ними
+ * сводятся к одной-двум машинным операциям и не выделяют память. Более длинные массивы
+ * хранятся в BitSet. Выбор представления происходит автоматически в конструкторе.
+ *
  * @author stas
  *
  */
 public class BitArray implements Cloneable{
+	/**
+	 * Максимальная длина массива, хранимого в упакованном виде.
+	 */
+	public static final int PACKED_MAX_SIZE = 2 * Long.SIZE;
+
+	/**
+	 * Биты массива, null для упакованного представления.
+	 */
 	protected BitSet bitSet;
 	int fixedSize;
+	/**
+	 * Слова упакованного представления, используются, если <code>bitSet == null</code>.
+	 */
+	private long word0;
+	private long word1;
 
 	protected BitArray() {
 		bitSet = null;
 	}
-	
+
     /**
-     * Creates a bit array with size <code>fixedSize</code>. All bits are 
+     * Creates a bit array with size <code>fixedSize</code>. All bits are
      * initially <code>false</code>.
      *
      * @param     fixedSize   the initial size of the bit array.
@@ -22,118 +41,323 @@ public class BitArray implements Cloneable{
      *               is negative.
      */
 	public BitArray(int fixedSize) {
-		this.bitSet = new BitSet(fixedSize);
+		if (fixedSize < 0) {
+			throw new NegativeArraySizeException("fixedSize < 0: " + fixedSize);
+		}
+		if (fixedSize > PACKED_MAX_SIZE) {
+			this.bitSet = new BitSet(fixedSize);
+		}
 		this.fixedSize = fixedSize;
 	}
 
 	public BitArray(int fixedSize, int bitIndices[]) {
-		this.bitSet = new BitSet(fixedSize);
+		this(fixedSize);
 		for (int bitIndex : bitIndices) {
-			this.bitSet.set(bitIndex);
+			set(bitIndex);
 		}
-		this.fixedSize = fixedSize;
 	}
-	
+
+	/**
+	 * Создает массив, младшие биты которого (не более 64) взяты из <code>bits</code>.
+	 * Биты <code>bits</code>, не попадающие в массив, игнорируются.
+	 */
+	public BitArray(int fixedSize, long bits) {
+		this(fixedSize);
+		setWord(0, bits);
+	}
+
 	public BitArray(BitArray array) {
-		this.bitSet = (BitSet) array.bitSet.clone();
+		if (array.bitSet != null) {
+			this.bitSet = (BitSet) array.bitSet.clone();
+		}
+		this.word0 = array.word0;
+		this.word1 = array.word1;
 		this.fixedSize = array.fixedSize;
 	}
-	
+
 	public BitArray(String array) {
-		bitSet = new BitSet();
-		fixedSize = array.length();
-		
+		this(array.length());
+
 		for (int i = 0;i < fixedSize; ++i) {
 			if (array.charAt(i) == '1') {
-				bitSet.set(i);
+				set(i);
 			}
 		}
 	}
-	
+
 	public int getFixedSize() {
 		return fixedSize;
 	}
-	
+
+	/**
+	 * Возвращает BitSet, хранящий биты массива. Упакованный массив при этом
+	 * переводится в представление BitSet, чтобы изменения BitSet отражались в массиве.
+	 */
 	public BitSet getBitSet() {
+		if (bitSet == null) {
+			bitSet = toBitSet();
+			word0 = word1 = 0;
+		}
 		return bitSet;
 	}
-	
-	public void and(BitArray array) { 
-		if (getFixedSize() != array.getFixedSize()) {
-			throw new IllegalArgumentException("Fixed sizes are different: " + getFixedSize() + ", " + array.getFixedSize());
+
+	/**
+	 * Возвращает слово с номером <code>wordIndex</code>: биты
+	 * [64 * wordIndex, 64 * wordIndex + 64), младший бит слова - бит с меньшим индексом.
+	 */
+	public long getWord(int wordIndex) {
+		if (wordIndex < 0) {
+			throw new IndexOutOfBoundsException("wordIndex < 0: " + wordIndex);
 		}
-		bitSet.and(array.bitSet);
+		if (bitSet == null) {
+			return packedWord(wordIndex);
+		}
+		return bitSet.word(wordIndex);
 	}
 
-	public void andNot(BitArray array) {
+	/**
+	 * Заменяет слово с номером <code>wordIndex</code>, биты за пределами массива отбрасываются.
+	 */
+	public void setWord(int wordIndex, long word) {
+		if (wordIndex < 0 || wordIndex >= wordsCount()) {
+			throw new IndexOutOfBoundsException("" + wordIndex);
+		}
+
+		word &= rangeMask(wordIndex, 0, fixedSize);
+		if (bitSet == null) {
+			if (wordIndex == 0) {
+				word0 = word;
+			} else {
+				word1 = word;
+			}
+		} else {
+			bitSet.setWord(wordIndex, word);
+		}
+	}
+
+	/**
+	 * @return количество слов, необходимое для хранения массива
+	 */
+	public int wordsCount() {
+		return (fixedSize + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	private long packedWord(int wordIndex) {
+		return wordIndex == 0 ? word0 : (wordIndex == 1 ? word1 : 0);
+	}
+
+	/**
+	 * Маска битов из [fromIndex, toIndex), попадающих в слово <code>wordIndex</code>.
+	 */
+	private static long rangeMask(int wordIndex, int fromIndex, int toIndex) {
+		int low = Math.max(fromIndex - wordIndex * Long.SIZE, 0);
+		int high = Math.min(toIndex - wordIndex * Long.SIZE, Long.SIZE);
+
+		if (low >= high) {
+			return 0;
+		}
+
+		return (high == Long.SIZE ? -1L : (1L << high) - 1) & (-1L << low);
+	}
+
+	/**
+	 * 64 бита, начиная с бита <code>fromIndex</code>, упакованного массива.
+	 */
+	private long packedBits(int fromIndex) {
+		int wordIndex = fromIndex >>> 6;
+		int offset = fromIndex & 63;
+		long bits = packedWord(wordIndex) >>> offset;
+
+		if (offset != 0) {
+			bits |= packedWord(wordIndex + 1) << (Long.SIZE - offset);
+		}
+
+		return bits;
+	}
+
+	private BitSet toBitSet() {
+		BitSet set = new BitSet(Math.max(fixedSize, 1));
+
+		set.setWord(0, word0);
+		set.setWord(1, word1);
+
+		return set;
+	}
+
+	private BitSet asBitSet(BitArray array) {
+		return array.bitSet != null ? array.bitSet : array.toBitSet();
+	}
+
+	private void checkSize(BitArray array) {
 		if (getFixedSize() != array.getFixedSize()) {
 			throw new IllegalArgumentException("Fixed sizes are different: " + getFixedSize() + ", " + array.getFixedSize());
 		}
+	}
 
-		bitSet.and(array.bitSet);
+	private static void checkRange(int fromIndex, int toIndex) {
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+		}
+		if (fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + " > toIndex: " + toIndex);
+		}
+	}
+
+	public void and(BitArray array) {
+		checkSize(array);
+		if (bitSet == null) {
+			word0 &= array.getWord(0);
+			word1 &= array.getWord(1);
+		} else {
+			bitSet.and(asBitSet(array));
+		}
+	}
+
+	public void andNot(BitArray array) {
+		checkSize(array);
+		if (bitSet == null) {
+			word0 &= ~array.getWord(0);
+			word1 &= ~array.getWord(1);
+		} else {
+			bitSet.andNot(asBitSet(array));
+		}
 	}
 
 	public int	cardinality() {
+		if (bitSet == null) {
+			return Long.bitCount(word0) + Long.bitCount(word1);
+		}
 		return bitSet.cardinality();
 	}
 
 	public void clear() {
-		bitSet.clear();
+		if (bitSet == null) {
+			word0 = word1 = 0;
+		} else {
+			bitSet.clear();
+		}
 	}
 
 	public void clear(int bitIndex) {
 		if (bitIndex > getFixedSize()) {
 			throw new IndexOutOfBoundsException("" + bitIndex);
 		}
-		
-		bitSet.clear(bitIndex);
+
+		if (bitSet == null) {
+			if (bitIndex < 0) {
+				throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+			}
+			if (bitIndex < Long.SIZE) {
+				word0 &= ~(1L << bitIndex);
+			} else {
+				word1 &= ~(1L << bitIndex);
+			}
+		} else {
+			bitSet.clear(bitIndex);
+		}
 	}
 
 	public void clear(int fromIndex, int toIndex) {
 		if (toIndex > getFixedSize()) {
 			throw new IndexOutOfBoundsException(fromIndex + ", " + toIndex);
 		}
-		
-		bitSet.clear(fromIndex, toIndex);
+
+		if (bitSet == null) {
+			checkRange(fromIndex, toIndex);
+			word0 &= ~rangeMask(0, fromIndex, toIndex);
+			word1 &= ~rangeMask(1, fromIndex, toIndex);
+		} else {
+			bitSet.clear(fromIndex, toIndex);
+		}
 	}
 
 	public BitArray clone() {
 		BitArray array = new BitArray();
-		array.bitSet = (BitSet) bitSet.clone();
+		if (bitSet != null) {
+			array.bitSet = (BitSet) bitSet.clone();
+		}
+		array.word0 = word0;
+		array.word1 = word1;
 		array.fixedSize = fixedSize;
-		
+
 		return array;
 	}
 
 	public boolean	equals(Object obj) {
+		if (!(obj instanceof BitArray)) {
+			return false;
+		}
 		BitArray array = (BitArray) obj;
-		if (array == null) {
+		if (array.getFixedSize() != getFixedSize()) {
 			return false;
 		}
-		return array.getFixedSize() == getFixedSize() && array.bitSet.equals(bitSet); 
+		if (bitSet == null && array.bitSet == null) {
+			return word0 == array.word0 && word1 == array.word1;
+		}
+		if (bitSet != null && array.bitSet != null) {
+			return array.bitSet.equals(bitSet);
+		}
+
+		int words = Math.max(usedWords(), array.usedWords());
+		for (int i = 0;i < words; ++i) {
+			if (getWord(i) != array.getWord(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int usedWords() {
+		if (bitSet == null) {
+			return word1 != 0 ? 2 : (word0 != 0 ? 1 : 0);
+		}
+		return bitSet.wordsInUse();
 	}
 
 	public void flip(int bitIndex) {
 		if (bitIndex >= getFixedSize()) {
 			throw new IndexOutOfBoundsException("" + bitIndex);
 		}
-		
-		bitSet.flip(bitIndex);
+
+		if (bitSet == null) {
+			if (bitIndex < 0) {
+				throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+			}
+			if (bitIndex < Long.SIZE) {
+				word0 ^= 1L << bitIndex;
+			} else {
+				word1 ^= 1L << bitIndex;
+			}
+		} else {
+			bitSet.flip(bitIndex);
+		}
 	}
 
 	public void flip(int fromIndex, int toIndex) {
 		if (toIndex > getFixedSize()) {
 			throw new IndexOutOfBoundsException(fromIndex + ", " + toIndex);
 		}
-		
-		bitSet.flip(fromIndex, toIndex);
+
+		if (bitSet == null) {
+			checkRange(fromIndex, toIndex);
+			word0 ^= rangeMask(0, fromIndex, toIndex);
+			word1 ^= rangeMask(1, fromIndex, toIndex);
+		} else {
+			bitSet.flip(fromIndex, toIndex);
+		}
 	}
 
 	public boolean get(int bitIndex) {
 		if (bitIndex >= getFixedSize()) {
 			throw new IndexOutOfBoundsException("bitIndex > fixedSize: " + bitIndex + " > " + getFixedSize());
 		}
-		
+
+		if (bitSet == null) {
+			if (bitIndex < 0) {
+				throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+			}
+			return ((bitIndex < Long.SIZE ? word0 : word1) & (1L << bitIndex)) != 0;
+		}
 		return bitSet.get(bitIndex);
 	}
 
@@ -153,59 +377,176 @@ public class BitArray implements Cloneable{
 		if (toIndex > getFixedSize()) {
 			throw new IndexOutOfBoundsException(fromIndex + ", " + toIndex);
 		}
-		
+
+		if (bitSet == null) {
+			if (fromIndex < 0 || toIndex < 0) {
+				throw new IndexOutOfBoundsException(fromIndex + ", " + toIndex);
+			}
+			if (toIndex < fromIndex) {
+				int tailSize = getFixedSize() - fromIndex;
+				BitArray array = new BitArray(tailSize + toIndex);
+
+				array.word0 = packedBits(fromIndex) & rangeMask(0, 0, tailSize);
+				array.word1 = packedBits(fromIndex + Long.SIZE) & rangeMask(1, 0, tailSize);
+				// голова массива дописывается после хвоста
+				long head0 = word0 & rangeMask(0, 0, toIndex);
+				long head1 = word1 & rangeMask(1, 0, toIndex);
+				if (tailSize >= Long.SIZE) {
+					array.word1 |= head0 << (tailSize - Long.SIZE);
+				} else if (tailSize > 0) {
+					array.word0 |= head0 << tailSize;
+					array.word1 |= (head0 >>> (Long.SIZE - tailSize)) | (head1 << tailSize);
+				} else {
+					array.word0 |= head0;
+					array.word1 |= head1;
+				}
+				return array;
+			}
+
+			int size = toIndex - fromIndex;
+			BitArray array = new BitArray(size);
+
+			array.word0 = packedBits(fromIndex) & rangeMask(0, 0, size);
+			array.word1 = packedBits(fromIndex + Long.SIZE) & rangeMask(1, 0, size);
+			return array;
+		}
+
 		if (toIndex < fromIndex) {
 			BitArray array = new BitArray(getFixedSize() - fromIndex + toIndex);
-			array.bitSet.or(bitSet.get(fromIndex, getFixedSize()));
+			array.orBitSet(bitSet.get(fromIndex, getFixedSize()));
 			for (int i = 0; i < toIndex; ++i) {
 				array.set(getFixedSize() - fromIndex + i, bitSet.get(i));
 			}
 			return array;
 		}
-		
+
 		BitArray array = new BitArray(toIndex - fromIndex);
-		array.bitSet.or(bitSet.get(fromIndex, toIndex));
-		
+		array.orBitSet(bitSet.get(fromIndex, toIndex));
+
 		return array;
 	}
 
+	private void orBitSet(BitSet set) {
+		if (bitSet == null) {
+			word0 |= set.word(0);
+			word1 |= set.word(1);
+		} else {
+			bitSet.or(set);
+		}
+	}
+
 	public int hashCode() {
+		if (bitSet == null) {
+			// совпадает с BitSet.hashCode() для тех же битов
+			long h = 1234;
+			h ^= word1 * 2;
+			h ^= word0;
+			return (int)((h >> 32) ^ h);
+		}
 		return bitSet.hashCode();
 	}
-	
+
 	public boolean intersects(BitSet set) {
+		if (bitSet == null) {
+			return (word0 & set.word(0)) != 0 || (word1 & set.word(1)) != 0;
+		}
 		return bitSet.intersects(set);
 	}
 
 	public boolean isEmpty() {
+		if (bitSet == null) {
+			return word0 == 0 && word1 == 0;
+		}
 		return bitSet.isEmpty();
 	}
 
 	public int length() {
+		if (bitSet == null) {
+			if (word1 != 0) {
+				return 2 * Long.SIZE - Long.numberOfLeadingZeros(word1);
+			}
+			return Long.SIZE - Long.numberOfLeadingZeros(word0);
+		}
 		return bitSet.length();
 	}
 
 	public int nextClearBit(int fromIndex) {
+		if (bitSet == null) {
+			if (fromIndex < 0) {
+				throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+			}
+			for (int i = fromIndex >>> 6; i < 2; ++i) {
+				long word = ~packedWord(i) & (i == fromIndex >>> 6 ? -1L << fromIndex : -1L);
+				if (word != 0) {
+					return i * Long.SIZE + Long.numberOfTrailingZeros(word);
+				}
+			}
+			return Math.max(fromIndex, PACKED_MAX_SIZE);
+		}
 		return bitSet.nextClearBit(fromIndex);
 	}
 
 	public int nextSetBit(int fromIndex) {
+		if (bitSet == null) {
+			if (fromIndex < 0) {
+				throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+			}
+			for (int i = fromIndex >>> 6; i < 2; ++i) {
+				long word = packedWord(i) & (i == fromIndex >>> 6 ? -1L << fromIndex : -1L);
+				if (word != 0) {
+					return i * Long.SIZE + Long.numberOfTrailingZeros(word);
+				}
+			}
+			return -1;
+		}
 		return bitSet.nextSetBit(fromIndex);
 	}
 
 	public void or(BitArray array) {
-		if (getFixedSize() != array.getFixedSize()) {
-			throw new IllegalArgumentException("Fixed sizes are different: " + getFixedSize() + ", " + array.getFixedSize());
+		checkSize(array);
+		if (bitSet == null) {
+			word0 |= array.getWord(0);
+			word1 |= array.getWord(1);
+		} else {
+			bitSet.or(asBitSet(array));
 		}
-
-		bitSet.or(array.bitSet);
 	}
 
 	public int previousClearBit(int fromIndex) {
+		if (bitSet == null) {
+			if (fromIndex < 0) {
+				throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+			}
+			if (fromIndex >= PACKED_MAX_SIZE) {
+				return fromIndex;
+			}
+			for (int i = fromIndex >>> 6; i >= 0; --i) {
+				long word = ~packedWord(i) & (i == fromIndex >>> 6 ? -1L >>> (Long.SIZE - 1 - (fromIndex & 63)) : -1L);
+				if (word != 0) {
+					return i * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
+				}
+			}
+			return -1;
+		}
 		return bitSet.previousClearBit(fromIndex);
 	}
 
 	public int previousSetBit(int fromIndex) {
+		if (bitSet == null) {
+			if (fromIndex < 0) {
+				throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+			}
+			if (fromIndex >= PACKED_MAX_SIZE) {
+				return length() - 1;
+			}
+			for (int i = fromIndex >>> 6; i >= 0; --i) {
+				long word = packedWord(i) & (i == fromIndex >>> 6 ? -1L >>> (Long.SIZE - 1 - (fromIndex & 63)) : -1L);
+				if (word != 0) {
+					return i * Long.SIZE + Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
+				}
+			}
+			return -1;
+		}
     	return bitSet.previousSetBit(fromIndex);
     }
 
@@ -214,15 +555,29 @@ public class BitArray implements Cloneable{
 			throw new IndexOutOfBoundsException("" + bitIndex);
 		}
 
-		bitSet.set(bitIndex);
+		if (bitSet == null) {
+			if (bitIndex < 0) {
+				throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+			}
+			if (bitIndex < Long.SIZE) {
+				word0 |= 1L << bitIndex;
+			} else {
+				word1 |= 1L << bitIndex;
+			}
+		} else {
+			bitSet.set(bitIndex);
+		}
 	}
 
 	public void set(int bitIndex, boolean value) {
-		if (bitIndex >= getFixedSize()) {
-			throw new IndexOutOfBoundsException("" + bitIndex);
+		if (value) {
+			set(bitIndex);
+		} else {
+			if (bitIndex >= getFixedSize()) {
+				throw new IndexOutOfBoundsException("" + bitIndex);
+			}
+			clear(bitIndex);
 		}
-
-		bitSet.set(bitIndex, value);
 	}
 
 	public void set(int fromIndex, int toIndex) {
@@ -230,47 +585,58 @@ public class BitArray implements Cloneable{
 			throw new IndexOutOfBoundsException(fromIndex + ", " + toIndex);
 		}
 
-		bitSet.set(fromIndex, toIndex);
+		if (bitSet == null) {
+			checkRange(fromIndex, toIndex);
+			word0 |= rangeMask(0, fromIndex, toIndex);
+			word1 |= rangeMask(1, fromIndex, toIndex);
+		} else {
+			bitSet.set(fromIndex, toIndex);
+		}
 	}
 
 	public void set(int fromIndex, int toIndex, boolean value) {
-		if (toIndex > getFixedSize()) {
-			throw new IndexOutOfBoundsException(fromIndex + ", " + toIndex);
+		if (value) {
+			set(fromIndex, toIndex);
+		} else {
+			clear(fromIndex, toIndex);
 		}
-
-		bitSet.set(fromIndex, toIndex, value);
 	}
 
 	public int size() {
+		if (bitSet == null) {
+			return fixedSize <= Long.SIZE ? Long.SIZE : PACKED_MAX_SIZE;
+		}
 		return bitSet.size();
 	}
 
 	public String toString() {
-		String bitString = new String();
+		StringBuilder bitString = new StringBuilder(getFixedSize());
 		for (int i = 0; i < getFixedSize(); ++i) {
-			bitString += bitSet.get(i) ? "1" : "0";
+			bitString.append(get(i) ? '1' : '0');
 		}
-		
-		return bitString;
+
+		return bitString.toString();
 	}
 
 	public void xor(BitArray array) {
-		if (getFixedSize() != array.getFixedSize()) {
-			throw new IllegalArgumentException("Fixed sizes are different: " + getFixedSize() + ", " + array.getFixedSize());
+		checkSize(array);
+		if (bitSet == null) {
+			word0 ^= array.getWord(0);
+			word1 ^= array.getWord(1);
+		} else {
+			bitSet.xor(asBitSet(array));
 		}
-		
-		bitSet.xor(array.bitSet);
 	}
-	
+
     public Boolean[] toArray()
     {
     	Boolean[] array = new Boolean[fixedSize];
-    	
+
     	for (int i = 0; i < fixedSize; i++)
     	{
-    		array[i] = bitSet.get(i);
+    		array[i] = get(i);
     	}
-    	
+
     	return array;
     }
 }
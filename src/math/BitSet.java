@@ -220,6 +220,33 @@ public class BitSet implements Cloneable, java.io.Serializable {
     	
     	return -1;
     }
+
+    /**
+     * Returns the <code>i</code>-th word, words beyond the logical size are zero.
+     */
+    long word(int i) {
+    	return i < wordsInUse ? words[i] : 0;
+    }
+
+    /**
+     * Returns the logical size of this bit set in words.
+     */
+    int wordsInUse() {
+    	return wordsInUse;
+    }
+
+    /**
+     * Replaces the <code>i</code>-th word.
+     */
+    void setWord(int i, long word) {
+    	if (i >= wordsInUse && word == 0) {
+    		return;
+    	}
+    	expandTo(i);
+    	words[i] = word;
+    	recalculateWordsInUse();
+    	checkInvariants();
+    }
     
     /**
      * Sets the bit at the specified index to the complement of its
@@ -0,0 +1,292 @@
+package math;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Полный перебор кодовых слов блокового кода в порядке кода Грея для вычисления
+ * минимального расстояния и весового спектра.
+ *
+ * Строки порождающей матрицы хранятся в плоском массиве long[], кодовое слово длины
+ * не более 128 держится в одной-двух локальных переменных, поэтому внутренний цикл
+ * (xor строки и подсчет единиц) не обращается к объектам и не выделяет память.
+ * Последовательность из 2^k кодовых слов делится на отрезки, которые обрабатываются
+ * параллельно: начальное слово отрезка вычисляется по коду Грея его первого номера.
+ *
+ * @author stas
+ *
+ */
+public class CodeWordsWeightScanner {
+	/**
+	 * Максимальная размерность кода.
+	 */
+	public static final int MAX_K = Long.SIZE - 2;
+	/**
+	 * Количество кодовых слов, начиная с которого перебор распараллеливается.
+	 */
+	static final long PARALLEL_THRESHOLD = 1L << 20;
+	/**
+	 * Количество отрезков на один поток, позволяет выровнять нагрузку потоков.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	private static ExecutorService executor;
+
+	private int k;
+	private int n;
+	private int words;
+	/**
+	 * Строки порождающей матрицы, i-я строка занимает слова [i * words, (i + 1) * words).
+	 */
+	private long rows[];
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	public CodeWordsWeightScanner(Matrix gen) {
+		if (gen.getRowCount() > MAX_K) {
+			throw new IllegalArgumentException("Code with input word length more, then " + MAX_K + ", is not supported.");
+		}
+
+		k = gen.getRowCount();
+		n = k > 0 ? gen.getColumnCount() : 0;
+		words = (n + Long.SIZE - 1) / Long.SIZE;
+		rows = new long[k * words];
+		for (int i = 0;i < k; ++i) {
+			for (int w = 0;w < words; ++w) {
+				rows[i * words + w] = gen.getRow(i).getWord(w);
+			}
+		}
+	}
+
+	/**
+	 * Устанавливает максимальное количество потоков, используемых при переборе.
+	 */
+	public void setThreads(int threads) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Number of threads should be positive: " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * Минимальный вес ненулевого кодового слова, Integer.MAX_VALUE, если ненулевых слов нет.
+	 */
+	public int findMinDist() {
+		long results[][] = scan(false);
+		int minDist = Integer.MAX_VALUE;
+
+		for (long result[] : results) {
+			minDist = Math.min(minDist, (int)result[0]);
+		}
+
+		return minDist;
+	}
+
+	/**
+	 * Весовой спектр кода: i-й элемент - количество кодовых слов (включая нулевое) веса i,
+	 * по одному на каждое информационное слово.
+	 */
+	public long[] findSpectrum() {
+		long results[][] = scan(true);
+		long spectrum[] = new long[n + 1];
+
+		for (long result[] : results) {
+			for (int i = 0;i <= n; ++i) {
+				spectrum[i] += result[i];
+			}
+		}
+
+		return spectrum;
+	}
+
+	private long[][] scan(final boolean spectrum) {
+		long total = 1L << k;
+		int chunks = total < PARALLEL_THRESHOLD || threads == 1 ? 1 : threads * CHUNKS_PER_THREAD;
+
+		if (chunks == 1) {
+			return new long[][] { scan(0, total, spectrum) };
+		}
+
+		ArrayList<Future<long[]>> futures = new ArrayList<Future<long[]>>(chunks);
+		for (int i = 0;i < chunks; ++i) {
+			final long start = total / chunks * i;
+			final long end = i == chunks - 1 ? total : total / chunks * (i + 1);
+
+			futures.add(getExecutor().submit(new Callable<long[]>() {
+				@Override
+				public long[] call() throws Exception {
+					return scan(start, end, spectrum);
+				}
+			}));
+		}
+
+		long results[][] = new long[chunks][];
+		try {
+			for (int i = 0;i < chunks; ++i) {
+				results[i] = futures.get(i).get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Code words scan was interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			for (Future<long[]> future : futures) {
+				future.cancel(true);
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Перебирает кодовые слова с номерами [start, end) последовательности кода Грея.
+	 * @return минимальный ненулевой вес в нулевой ячейке или спектр отрезка
+	 */
+	private long[] scan(long start, long end, boolean spectrum) {
+		long result[] = spectrum ? new long[n + 1] : new long[] { Integer.MAX_VALUE };
+
+		if (start >= end) {
+			return result;
+		}
+
+		switch (words) {
+		case 0:
+			if (spectrum) {
+				result[0] = end - start;
+			}
+			break;
+		case 1:
+			scan1(start, end, result, spectrum);
+			break;
+		case 2:
+			scan2(start, end, result, spectrum);
+			break;
+		default:
+			scanN(start, end, result, spectrum);
+		}
+
+		return result;
+	}
+
+	private void scan1(long start, long end, long result[], boolean spectrum) {
+		long word = 0;
+		long gray = start ^ (start >>> 1);
+		for (int i = 0;i < k; ++i) {
+			if ((gray & (1L << i)) != 0) {
+				word ^= rows[i];
+			}
+		}
+
+		int minDist = (int)result[0];
+		for (long m = start;;) {
+			int weight = Long.bitCount(word);
+
+			if (spectrum) {
+				++result[weight];
+			} else if (weight < minDist && weight != 0) {
+				minDist = weight;
+			}
+
+			if (++m == end) {
+				break;
+			}
+			word ^= rows[Long.numberOfTrailingZeros(m)];
+		}
+
+		if (!spectrum) {
+			result[0] = minDist;
+		}
+	}
+
+	private void scan2(long start, long end, long result[], boolean spectrum) {
+		long word0 = 0, word1 = 0;
+		long gray = start ^ (start >>> 1);
+		for (int i = 0;i < k; ++i) {
+			if ((gray & (1L << i)) != 0) {
+				word0 ^= rows[2 * i];
+				word1 ^= rows[2 * i + 1];
+			}
+		}
+
+		int minDist = (int)result[0];
+		for (long m = start;;) {
+			int weight = Long.bitCount(word0) + Long.bitCount(word1);
+
+			if (spectrum) {
+				++result[weight];
+			} else if (weight < minDist && weight != 0) {
+				minDist = weight;
+			}
+
+			if (++m == end) {
+				break;
+			}
+			int row = 2 * Long.numberOfTrailingZeros(m);
+			word0 ^= rows[row];
+			word1 ^= rows[row + 1];
+		}
+
+		if (!spectrum) {
+			result[0] = minDist;
+		}
+	}
+
+	private void scanN(long start, long end, long result[], boolean spectrum) {
+		long word[] = new long[words];
+		long gray = start ^ (start >>> 1);
+		for (int i = 0;i < k; ++i) {
+			if ((gray & (1L << i)) != 0) {
+				for (int w = 0;w < words; ++w) {
+					word[w] ^= rows[i * words + w];
+				}
+			}
+		}
+
+		int minDist = (int)result[0];
+		for (long m = start;;) {
+			int weight = 0;
+			for (int w = 0;w < words; ++w) {
+				weight += Long.bitCount(word[w]);
+			}
+
+			if (spectrum) {
+				++result[weight];
+			} else if (weight < minDist && weight != 0) {
+				minDist = weight;
+			}
+
+			if (++m == end) {
+				break;
+			}
+			int row = words * Long.numberOfTrailingZeros(m);
+			for (int w = 0;w < words; ++w) {
+				word[w] ^= rows[row + w];
+			}
+		}
+
+		if (!spectrum) {
+			result[0] = minDist;
+		}
+	}
+
+	private static synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newCachedThreadPool(new ThreadFactory() {
+				private int counter = 0;
+
+				@Override
+				public synchronized Thread newThread(Runnable task) {
+					Thread thread = new Thread(task, "weight-scanner-" + (counter++));
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+}
@@ -197,8 +197,9 @@ public class ConvCodeAlgs {
 		
 		for (int i = 0; i < matrix.getRowCount(); ++i) {
 			for (int j = 0; j < matrix.getColumnCount(); ++j) {
-				for (int pow = 0; pow <= matrix.get(i, j).getDegree(); ++pow) {
-					powerDecomposition[pow].set(i, j, matrix.get(i, j).getCoeff(pow));
+				Poly poly = matrix.get(i, j);
+				for (int pow = poly.nextSetBit(0); pow >= 0; pow = poly.nextSetBit(pow + 1)) {
+					powerDecomposition[pow].set(i, j, true);
 				}
 			}
 		}
@@ -226,10 +227,11 @@ public class ConvCodeAlgs {
 	 */
 	public static PolyMatrix buildPolyComposition(Matrix [] polyDecomposition) {
 		PolyMatrix matrix = new PolyMatrix(polyDecomposition[0].getRowCount(), polyDecomposition[0].getColumnCount());
-		for (int row = 0; row < matrix.getRowCount(); ++row) {
-			for (int column = 0; column < matrix.getColumnCount(); ++column) {
-				for (int power = 0; power < polyDecomposition.length; ++power) {
-					matrix.get(row, column).setCoeff(power, polyDecomposition[power].get(row, column));
+		for (int power = 0; power < polyDecomposition.length; ++power) {
+			for (int row = 0; row < matrix.getRowCount(); ++row) {
+				BitArray coeffs = polyDecomposition[power].getRow(row);
+				for (int column = coeffs.nextSetBit(0); column >= 0; column = coeffs.nextSetBit(column + 1)) {
+					matrix.get(row, column).setCoeff(power, true);
 				}
 			}
 		}
@@ -507,18 +509,18 @@ public class ConvCodeAlgs {
 	}
 
 	public static PolyMatrix getMinimalBaseGenerator(PolyMatrix G) {
-		return getMinimalBaseGenerator(new SmithDecomposition(G));
+		return getMinimalBaseGenerator(new SmithDecomposition(G, SmithDecomposition.FACTOR_B));
 	}
 
 	/**
 	 * Строит ортогональную матрицу в minimal base форме по декомпозиции Смита  
-	 * @param decomposition декомпозиция Смита
+	 * @param decomposition декомпозиция Смита с множителями B и InvB
 	 * @return ортогональная матрица в minimal base форме
 	 */
 	public static PolyMatrix getOrthogonalMatrix(SmithDecomposition decomp) {
 		if (!decomp.isBasic()) {
 			//throw new IllegalArgumentException("Impossible to find orthogonal matrix because matrix is not basic!");
-			decomp = new SmithDecomposition(ConvCodeAlgs.getMinimalBaseGenerator(decomp));
+			decomp = new SmithDecomposition(ConvCodeAlgs.getMinimalBaseGenerator(decomp), SmithDecomposition.FACTOR_INV_B);
 		}
 		
 		int k = decomp.getD().getRowCount();
@@ -0,0 +1,393 @@
+package math;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import codes.ConvCode;
+
+/**
+ * Каноническая форма сверточного кода и ее отпечаток для отсеивания эквивалентных кодов
+ * при переборе.
+ *
+ * Форма строится по координатам Плюккера порождающей матрицы G (k x n): минорам порядка k
+ * по всем k-подмножествам столбцов в лексикографическом порядке, деленным на их НОД. Этот
+ * вектор не меняется при невырожденных преобразованиях строк G над полем рациональных функций,
+ * то есть одинаков для всех порождающих матриц кода. Если известна только проверочная матрица H,
+ * используются ее миноры порядка n - k по дополнениям подмножеств: в характеристике 2 они
+ * совпадают с координатами G с точностью до общего множителя.
+ *
+ * Из всех векторов, получаемых перестановками столбцов, выбирается лексикографически
+ * наименьший, затем наименьший из него и вектора обращенного во времени кода. Для однострочной
+ * матрицы (k = 1 или n - k = 1) это просто отсортированные координаты, для остальных
+ * перебираются все перестановки, поэтому при n &gt; {@link #MAX_PERMUTED_COLUMNS} порядок
+ * столбцов сохраняется и форма инвариантна только к преобразованиям строк и обращению времени.
+ *
+ * @author stas
+ *
+ */
+public class ConvCodeCanonicalForm {
+	/**
+	 * Максимальная длина кода, при которой перебираются перестановки столбцов многострочной матрицы.
+	 */
+	public static final int MAX_PERMUTED_COLUMNS = 8;
+
+	/**
+	 * 128-битный отпечаток канонической формы. Совпадение отпечатков эквивалентных кодов
+	 * гарантировано, различие неэквивалентных - с вероятностью ошибки порядка 2^-128.
+	 * Годится и как ключ для любых наборов многочленов ({@link #of(long, Poly[])}).
+	 */
+	public static final class Fingerprint {
+		public final long high;
+		public final long low;
+
+		public Fingerprint(long high, long low) {
+			this.high = high;
+			this.low = low;
+		}
+
+		/**
+		 * Отпечаток последовательности многочленов, упакованных в слова.
+		 * @param salt число, подмешиваемое в оба слова отпечатка, например, параметры кода
+		 */
+		public static Fingerprint of(long salt, Poly polys[]) {
+			long high = 0x6a09e667f3bcc908L ^ salt;
+			long low = 0xbb67ae8584caa73bL ^ Long.rotateLeft(salt, 32);
+
+			for (Poly poly : polys) {
+				int words = poly.wordsInUse();
+				high = absorbHigh(high, words);
+				low = absorbLow(low, words);
+				for (int i = 0;i < words; ++i) {
+					high = absorbHigh(high, poly.word(i));
+					low = absorbLow(low, poly.word(i));
+				}
+			}
+
+			return new Fingerprint(mix(high ^ low), mix(low + high));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Fingerprint)) {
+				return false;
+			}
+			Fingerprint fingerprint = (Fingerprint)obj;
+			return high == fingerprint.high && low == fingerprint.low;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int)(low ^ (low >>> 32));
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%016x%016x", high, low);
+		}
+	}
+
+	public static Fingerprint fingerprint(ConvCode code) {
+		return fingerprint(code.getK(), code.getN(), canonicalForm(code));
+	}
+
+	public static Fingerprint fingerprint(int k, int n, Poly form[]) {
+		return Fingerprint.of(((long)k << 32) | n, form);
+	}
+
+	/**
+	 * Каноническая форма кода. Из матриц кода берется уже вычисленная, а если известны обе - та,
+	 * у которой меньше строк.
+	 */
+	public static Poly[] canonicalForm(ConvCode code) {
+		boolean byGenerator;
+
+		if (code.isGeneratorNull() == code.isParityCheckNull()) {
+			byGenerator = code.isGeneratorNull() || code.getK() <= code.getN() - code.getK();
+		} else {
+			byGenerator = !code.isGeneratorNull();
+		}
+
+		return byGenerator ? canonicalForm(code.generator(), true) : canonicalForm(code.parityCheck(), false);
+	}
+
+	/**
+	 * @param matrix порождающая или проверочная матрица полного ранга
+	 * @param isGenerator true, если <code>matrix</code> порождающая
+	 * @return координаты канонической формы, всего C(n, k)
+	 */
+	public static Poly[] canonicalForm(PolyMatrix matrix, boolean isGenerator) {
+		int n = matrix.getColumnCount();
+		int k = isGenerator ? matrix.getRowCount() : n - matrix.getRowCount();
+
+		if (k <= 0 || k > n) {
+			throw new IllegalArgumentException("Matrix should have from 1 to n rows: " + matrix.getRowCount());
+		}
+
+		int subsets[] = subsets(n, k);
+		Poly coords[] = pluckerVector(matrix, subsets, isGenerator ? 0 : (1 << n) - 1);
+		Poly reversed[] = permutationMinimum(reverse(coords), subsets, n, k);
+		Poly direct[] = permutationMinimum(coords, subsets, n, k);
+
+		return compare(direct, reversed) <= 0 ? direct : reversed;
+	}
+
+	/**
+	 * Возвращает лексикографический минимум по перестановкам столбцов, вектор coords не сохраняется.
+	 */
+	private static Poly[] permutationMinimum(Poly coords[], int subsets[], int n, int k) {
+		if (k == 1 || k == n - 1) {
+			// перестановки столбцов дают любой порядок координат
+			Arrays.sort(coords, new Comparator<Poly>() {
+				@Override
+				public int compare(Poly a, Poly b) {
+					return Poly.compareNumerically(a, b);
+				}
+			});
+			return coords;
+		}
+		if (n > MAX_PERMUTED_COLUMNS) {
+			return coords;
+		}
+
+		int indexBySubset[] = new int[1 << n];
+		for (int i = 0;i < subsets.length; ++i) {
+			indexBySubset[subsets[i]] = i;
+		}
+
+		Poly best[] = coords.clone();
+		int perm[] = new int[n];
+		for (int i = 0;i < n; ++i) {
+			perm[i] = i;
+		}
+
+		while (nextPermutation(perm)) {
+			for (int i = 0;i < subsets.length; ++i) {
+				int cmp = Poly.compareNumerically(coords[indexBySubset[permute(subsets[i], perm)]], best[i]);
+
+				if (cmp > 0) {
+					break;
+				}
+				if (cmp < 0) {
+					for (int j = i;j < subsets.length; ++j) {
+						best[j] = coords[indexBySubset[permute(subsets[j], perm)]];
+					}
+					break;
+				}
+			}
+		}
+
+		return best;
+	}
+
+	/**
+	 * Координаты Плюккера, деленные на НОД.
+	 * @param complement маска, с которой складываются подмножества: для проверочной матрицы
+	 * берутся миноры по дополнениям
+	 */
+	private static Poly[] pluckerVector(PolyMatrix matrix, int subsets[], int complement) {
+		int rows = matrix.getRowCount();
+		Poly coords[] = new Poly[subsets.length];
+		Poly minor[][] = new Poly[rows][rows];
+		Poly gcd = new Poly();
+
+		for (int i = 0;i < subsets.length; ++i) {
+			int columns = subsets[i] ^ complement;
+
+			for (int c = 0;c < rows; ++c) {
+				int column = Integer.numberOfTrailingZeros(columns);
+
+				columns &= columns - 1;
+				for (int r = 0;r < rows; ++r) {
+					minor[r][c] = matrix.get(r, column);
+				}
+			}
+			coords[i] = determinant(minor);
+			gcd = gcd(gcd, coords[i]);
+		}
+
+		if (!gcd.isZero() && !gcd.isUnit()) {
+			for (int i = 0;i < coords.length; ++i) {
+				coords[i] = coords[i].getQuotient(gcd);
+			}
+		}
+		return coords;
+	}
+
+	/**
+	 * Определитель методом Барейса: все деления точные, поэтому вычисления идут в кольце
+	 * многочленов. Знаки в характеристике 2 не важны. Матрица портится.
+	 */
+	private static Poly determinant(Poly matrix[][]) {
+		int size = matrix.length;
+		Poly prev = Poly.getUnitPoly();
+
+		if (size == 1) {
+			return matrix[0][0].clone();
+		}
+
+		for (int p = 0;p < size - 1; ++p) {
+			if (matrix[p][p].isZero()) {
+				int pivot = p + 1;
+
+				while (pivot < size && matrix[pivot][p].isZero()) {
+					++pivot;
+				}
+				if (pivot == size) {
+					return new Poly();
+				}
+
+				Poly row[] = matrix[p];
+				matrix[p] = matrix[pivot];
+				matrix[pivot] = row;
+			}
+
+			for (int i = p + 1;i < size; ++i) {
+				for (int j = p + 1;j < size; ++j) {
+					Poly value = matrix[i][j].mul(matrix[p][p]);
+
+					value.add(matrix[i][p].mul(matrix[p][j]));
+					matrix[i][j] = prev.isUnit() ? value : value.getQuotient(prev);
+				}
+			}
+			prev = matrix[p][p];
+		}
+
+		return matrix[size - 1][size - 1];
+	}
+
+	private static Poly gcd(Poly a, Poly b) {
+		while (!b.isZero()) {
+			Poly remainder = a.getRemainder(b);
+
+			a = b;
+			b = remainder;
+		}
+		return a;
+	}
+
+	/**
+	 * Координаты обращенного во времени кода: D^m p(1/D), где m - наибольшая степень координат.
+	 * НОД при этом остается единичным, так как координата степени m обращается в многочлен
+	 * с ненулевым свободным членом.
+	 */
+	private static Poly[] reverse(Poly coords[]) {
+		int degree = -1;
+
+		for (Poly poly : coords) {
+			degree = Math.max(degree, poly.getDegree());
+		}
+
+		Poly reversed[] = new Poly[coords.length];
+		for (int i = 0;i < coords.length; ++i) {
+			reversed[i] = new Poly();
+			for (int bit = coords[i].nextSetBit(0);bit >= 0;bit = coords[i].nextSetBit(bit + 1)) {
+				reversed[i].setCoeff(degree - bit, true);
+			}
+		}
+		return reversed;
+	}
+
+	/**
+	 * k-подмножества n столбцов в виде масок в лексикографическом порядке.
+	 */
+	private static int[] subsets(int n, int k) {
+		if (n >= Integer.SIZE - 1) {
+			throw new IllegalArgumentException("Too many columns: " + n);
+		}
+
+		int count = 1;
+		for (int i = 0;i < k; ++i) {
+			count = count * (n - i) / (i + 1);
+		}
+
+		int subsets[] = new int[count];
+		int columns[] = new int[k];
+		for (int i = 0;i < k; ++i) {
+			columns[i] = i;
+		}
+
+		for (int index = 0;index < count; ++index) {
+			int mask = 0;
+
+			for (int column : columns) {
+				mask |= 1 << column;
+			}
+			subsets[index] = mask;
+
+			int i = k - 1;
+			while (i >= 0 && columns[i] == n - k + i) {
+				--i;
+			}
+			if (i >= 0) {
+				++columns[i];
+				for (int j = i + 1;j < k; ++j) {
+					columns[j] = columns[j - 1] + 1;
+				}
+			}
+		}
+		return subsets;
+	}
+
+	private static int permute(int mask, int perm[]) {
+		int image = 0;
+
+		while (mask != 0) {
+			image |= 1 << perm[Integer.numberOfTrailingZeros(mask)];
+			mask &= mask - 1;
+		}
+		return image;
+	}
+
+	private static boolean nextPermutation(int perm[]) {
+		int i = perm.length - 2;
+
+		while (i >= 0 && perm[i] >= perm[i + 1]) {
+			--i;
+		}
+		if (i < 0) {
+			return false;
+		}
+
+		int j = perm.length - 1;
+		while (perm[j] <= perm[i]) {
+			--j;
+		}
+
+		int tmp = perm[i]; perm[i] = perm[j]; perm[j] = tmp;
+		for (int l = i + 1, r = perm.length - 1;l < r; ++l, --r) {
+			tmp = perm[l]; perm[l] = perm[r]; perm[r] = tmp;
+		}
+		return true;
+	}
+
+	private static int compare(Poly a[], Poly b[]) {
+		for (int i = 0;i < a.length; ++i) {
+			int cmp = Poly.compareNumerically(a[i], b[i]);
+
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Перемешивание из MurmurHash3.
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	private static long absorbHigh(long state, long value) {
+		return Long.rotateLeft(mix(state ^ value), 27) * 5 + 0x52dce729L;
+	}
+
+	private static long absorbLow(long state, long value) {
+		return Long.rotateLeft(mix(state + value * 0x9e3779b97f4a7c15L), 31) * 5 + 0x38495ab5L;
+	}
+}
@@ -70,7 +70,6 @@ public class MathAlgs {
 	public static Matrix findOrthogonalMatrix(Matrix mat, boolean allowModifications)
 	{
 		Matrix workingMat;
-		Matrix ortMat = new Matrix(mat.getColumnCount() - mat.getRowCount(), mat.getColumnCount());
 		//Позиции единичек в строчках перестановочной подматрицы 
 		int[] permutationRows = new int[mat.getRowCount()];
 		int[] invPermutationRows = new int[mat.getRowCount()];
@@ -93,26 +92,31 @@ public class MathAlgs {
 			}
 		}
 		
+		boolean[] isPermColumn = new boolean[workingMat.getColumnCount()];
+		for (int column : permSubmatrix.keySet()) {
+			isPermColumn[column] = true;
+		}
+		
+		// строки матрицы заполняются как столбцы транспонированной матрицы, 
+		// которая затем транспонируется блоками
+		Matrix ortMatTr = new Matrix(mat.getColumnCount(), mat.getColumnCount() - mat.getRowCount());
+		
 		permColumnsViwed = 0;
-		for (int i = 0;i < ortMat.getColumnCount();i ++) {
-			if (!permSubmatrix.containsKey(i)) {			
-				// заполнение строки единичной подматрицы
-				for (int j = 0;j < ortMat.getRowCount();j ++) {
-					// если диагональный элемент
-					if (j == i - permColumnsViwed) {
-						ortMat.set(j, i, true);
-					} else {
-						ortMat.set(j, i, false);
-					}
-				}				
+		for (int i = 0;i < ortMatTr.getRowCount();i ++) {
+			BitArray column = ortMatTr.getRow(i);
+			
+			if (!isPermColumn[i]) {			
+				// столбец единичной подматрицы
+				column.set(i - permColumnsViwed);
 			} else {
 				int j = 0;
 				// Расчет произведений permColumnsViwed-й строки транспонированной перестановочной матрицы
 				// на столбцы неперестановочной подматрицы исходной матрицы. Эти произведения по сути 
 				// представляют собой строчку исходной матрицы с номером permutationRows[permColumnsViwed]. 
+				BitArray row = workingMat.getRow(invPermutationRows[permColumnsViwed]);
 				for (int k = 0;k < workingMat.getColumnCount();k ++) {
-					if (!permSubmatrix.containsKey(k)) {
-						ortMat.set(j, i, workingMat.get(invPermutationRows[permColumnsViwed], k));
+					if (!isPermColumn[k]) {
+						column.set(j, row.get(k));
 						++ j;
 					}
 				}
@@ -120,7 +124,7 @@ public class MathAlgs {
 			}
 		}		
 		
-		return ortMat;
+		return ortMatTr.transpose();
 	}		
 	
 	/**
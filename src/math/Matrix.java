@@ -10,6 +10,15 @@ import codes.BlockCode;
  */
 public class Matrix implements Cloneable {			
 	
+	/**
+	 * Минимальное число строк, начиная с которого умножение выполняется методом четырех русских.
+	 */
+	private static final int FOUR_RUSSIANS_MIN_ROWS = 64;
+	/**
+	 * Размер группы строк в методе четырех русских.
+	 */
+	private static final int FOUR_RUSSIANS_BITS = 8;
+	
 	private BitArray[] data;
 	
 	public Matrix(int m, int n)
@@ -53,10 +62,7 @@ public class Matrix implements Cloneable {
 		
 		for(int i = 0;i < rows;i ++)
 		{
-			for(int j = 0;j < cols;j ++)
-			{
-				subMat.set(i, j, get(si + i,sj + j));
-			}
+			copyBits(data[si + i], sj, subMat.data[i], 0, cols);
 		}
 		
 		return subMat;
@@ -71,15 +77,8 @@ public class Matrix implements Cloneable {
 	{
 		for(int i = bi;i < bi + size;i ++)
 		{
-			for(int j = bj;j < bj + size;j ++)
-			{
-				if(i - bi == j - bj)
-				{
-					set(i, j, true);
-				}else{
-					set(i, j, false);
-				}
-			}
+			data[i].clear(bj, bj + size);
+			data[i].set(bj + i - bi);
 		}
 	}
 	
@@ -87,10 +86,7 @@ public class Matrix implements Cloneable {
 	{
 		for(int i = bi;i < bi + rows;i ++)
 		{
-			for(int j = bj;j < bj + cols;j ++)
-			{				
-				set(i, j, false);				
-			}
+			data[i].clear(bj, bj + cols);
 		}
 	}
 	
@@ -98,10 +94,7 @@ public class Matrix implements Cloneable {
 	{
 		for(int i = bi;i < bi + block.getRowCount();i ++)
 		{
-			for(int j = bj;j < bj + block.getColumnCount();j ++)
-			{				
-				set(i, j, block.get(i-bi, j-bj));				
-			}
+			copyBits(block.data[i - bi], 0, data[i], bj, block.getColumnCount());
 		}
 	}
 	
@@ -118,22 +111,69 @@ public class Matrix implements Cloneable {
 		}		
 	}
 	
+	/**
+	 * Произведение матриц. Строка результата - сумма строк <code>mat</code>, выбранных
+	 * единицами соответствующей строки данной матрицы. Для матриц с большим числом строк
+	 * используется метод четырех русских: строки <code>mat</code> разбиваются на группы по
+	 * <code>FOUR_RUSSIANS_BITS</code>, для каждой группы заранее вычисляются все суммы ее строк,
+	 * после чего каждая группа битов строки данной матрицы обрабатывается одним сложением.
+	 */
 	public Matrix mul(Matrix mat)
 	{
-		Matrix res = new Matrix(getRowCount(), mat.getColumnCount());
+		if (getColumnCount() != mat.getRowCount()) {
+			throw new IllegalArgumentException("Matrices can not be multiplied: " + getRowCount() + "x" + getColumnCount() + 
+					" and " + mat.getRowCount() + "x" + mat.getColumnCount());
+		}
 		
-		for(int i = 0;i < getRowCount();i ++)
-		{
-			for(int j = 0;j < mat.getColumnCount();j ++)
+		int words = wordsCount(mat.getColumnCount());
+		long[][] product = new long[getRowCount()][words];
+		
+		if (getRowCount() < FOUR_RUSSIANS_MIN_ROWS) {
+			for(int i = 0;i < getRowCount();i ++)
 			{
-				boolean val = false;
+				for (int k = data[i].nextSetBit(0);k >= 0; k = data[i].nextSetBit(k + 1)) {
+					BitArray row = mat.data[k];
+					
+					for (int w = 0;w < words; ++w) {
+						product[i][w] ^= row.getWord(w);
+					}
+				}
+			}
+		} else {
+			long[] sums = new long[(1 << FOUR_RUSSIANS_BITS) * words];
+			
+			for (int k = 0;k < getColumnCount(); k += FOUR_RUSSIANS_BITS) {
+				int groupSize = Math.min(FOUR_RUSSIANS_BITS, getColumnCount() - k);
 				
-				for(int k = 0;k < getColumnCount();k ++)
-				{
-					val ^= data[i].get(k) & mat.data[k].get(j);
+				// sums[g] = sums[g без младшего бита] + строка, соответствующая младшему биту g
+				for (int g = 1;g < (1 << groupSize); ++g) {
+					BitArray row = mat.data[k + Integer.numberOfTrailingZeros(g)];
+					int prev = (g & (g - 1)) * words;
+					
+					for (int w = 0;w < words; ++w) {
+						sums[g * words + w] = sums[prev + w] ^ row.getWord(w);
+					}
 				}
 				
-				res.data[i].set(j, val);
+				for(int i = 0;i < getRowCount();i ++)
+				{
+					int g = (int) getBits(data[i], k, groupSize);
+					
+					if (g != 0) {
+						for (int w = 0;w < words; ++w) {
+							product[i][w] ^= sums[g * words + w];
+						}
+					}
+				}
+			}
+		}
+		
+		Matrix res = new Matrix(getRowCount(), mat.getColumnCount());
+		
+		for(int i = 0;i < getRowCount();i ++)
+		{
+			for (int w = 0;w < words; ++w) {
+				res.data[i].setWord(w, product[i][w]);
 			}
 		}
 		
@@ -143,37 +183,113 @@ public class Matrix implements Cloneable {
 	public BitArray mul(BitArray vec)
 	{
 		BitArray res = new BitArray(getRowCount());
+		int words = wordsCount(getColumnCount());
 		
 		for(int i = 0;i < getRowCount();i ++)
 		{
-			boolean val = false;
+			long parity = 0;
 			
-			for(int j = 0;j < getColumnCount();j ++)
-			{
-				val ^= data[i].get(j) & vec.get(j);
+			for (int w = 0;w < words; ++w) {
+				parity ^= data[i].getWord(w) & vec.getWord(w);
 			}
 			
-			res.set(i, val);
+			if (Long.bitCount(parity) % 2 == 1) {
+				res.set(i);
+			}
 		}
 		
 		return res;
 	}
 	
+	/**
+	 * Транспонирование блоками 64x64: блок собирается из слов 64 строк, транспонируется
+	 * внутри массива long[64] и раскладывается по словам 64 строк результата.
+	 */
 	public Matrix transpose()
 	{
 		Matrix tr = new Matrix(getColumnCount(), getRowCount());
+		long[] block = new long[Long.SIZE];
 		
-		for(int i = 0;i < getRowCount();i ++)
-		{
-			for(int j = 0;j < getColumnCount();j ++)
-			{
-				tr.set(j, i, get(i, j));
+		for (int bi = 0;bi < getRowCount(); bi += Long.SIZE) {
+			int rows = Math.min(Long.SIZE, getRowCount() - bi);
+			
+			for (int bj = 0;bj < getColumnCount(); bj += Long.SIZE) {
+				int cols = Math.min(Long.SIZE, getColumnCount() - bj);
+				
+				for (int i = 0;i < Long.SIZE; ++i) {
+					block[i] = i < rows ? data[bi + i].getWord(bj / Long.SIZE) : 0;
+				}
+				
+				transpose64(block);
+				
+				for (int j = 0;j < cols; ++j) {
+					tr.data[bj + j].setWord(bi / Long.SIZE, block[j]);
+				}
 			}
 		}
 		
 		return tr;
 	}
 	
+	/**
+	 * Транспонирует квадратную битовую матрицу 64x64, j-й бит i-го слова - элемент (i, j).
+	 * На каждом шаге меняются местами внедиагональные подблоки размера half x half
+	 * всех диагональных блоков размера 2half x 2half.
+	 */
+	static void transpose64(long[] block) {
+		long mask = 0x00000000FFFFFFFFL;
+		
+		for (int half = Long.SIZE / 2;half != 0; half >>>= 1, mask ^= mask << half) {
+			for (int i = 0;i < Long.SIZE; i = ((i | half) + 1) & ~half) {
+				long t = ((block[i] >>> half) ^ block[i | half]) & mask;
+				
+				block[i] ^= t << half;
+				block[i | half] ^= t;
+			}
+		}
+	}
+	
+	private static int wordsCount(int bits) {
+		return (bits + Long.SIZE - 1) / Long.SIZE;
+	}
+	
+	/**
+	 * Возвращает <code>count</code> (не более 64) битов строки, начиная с бита <code>from</code>.
+	 */
+	private static long getBits(BitArray row, int from, int count) {
+		int offset = from % Long.SIZE;
+		long bits = row.getWord(from / Long.SIZE) >>> offset;
+		
+		if (offset != 0) {
+			bits |= row.getWord(from / Long.SIZE + 1) << (Long.SIZE - offset);
+		}
+		
+		return count == Long.SIZE ? bits : bits & ((1L << count) - 1);
+	}
+	
+	/**
+	 * Копирует <code>count</code> битов строки <code>src</code>, начиная с <code>srcFrom</code>, 
+	 * в строку <code>dest</code>, начиная с <code>destFrom</code>.
+	 */
+	private static void copyBits(BitArray src, int srcFrom, BitArray dest, int destFrom, int count) {
+		if (srcFrom + count > src.getFixedSize() || destFrom + count > dest.getFixedSize()) {
+			throw new IndexOutOfBoundsException(srcFrom + ", " + destFrom + ", " + count);
+		}
+		
+		while (count > 0) {
+			int offset = destFrom % Long.SIZE;
+			int chunk = Math.min(count, Long.SIZE - offset);
+			long mask = (chunk == Long.SIZE ? -1L : (1L << chunk) - 1) << offset;
+			int wordIndex = destFrom / Long.SIZE;
+			long word = dest.getWord(wordIndex);
+			
+			dest.setWord(wordIndex, (word & ~mask) | ((getBits(src, srcFrom, chunk) << offset) & mask));
+			srcFrom += chunk;
+			destFrom += chunk;
+			count -= chunk;
+		}
+	}
+	
 	public Matrix assureColumnCount(int count) {
 		if (count == getColumnCount()) {
 			return this;
@@ -182,12 +298,7 @@ public class Matrix implements Cloneable {
 		Matrix modified = new Matrix(getRowCount(), count);
 		
 		for (int i = 0;i < getRowCount(); ++i) {
-			for (int j = 0;j < Math.min(count, getColumnCount()); ++j) {
-				modified.set(i, j, get(i, j));
-			}
-			for (int j = getColumnCount();j < count; ++j) {
-				modified.set(i, j, false);
-			}
+			copyBits(data[i], 0, modified.data[i], 0, Math.min(count, getColumnCount()));
 		}
 		
 		return modified;
@@ -200,13 +311,8 @@ public class Matrix implements Cloneable {
 		
 		Matrix modified = new Matrix(count, getColumnCount());
 		
-		for (int i = 0;i < getColumnCount(); ++i) {
-			for (int j = 0;j < Math.min(count, getRowCount()); ++j) {
-				modified.set(j, i, get(j, i));
-			}
-			for (int j = getRowCount();j < count; ++j) {
-				modified.set(j, i, false);
-			}
+		for (int i = 0;i < Math.min(count, getRowCount()); ++i) {
+			modified.data[i] = data[i].clone();
 		}
 		
 		return modified;
@@ -218,10 +324,8 @@ public class Matrix implements Cloneable {
 	
 	public boolean isZero() {
 		for (int i = 0;i < getRowCount();i ++) {
-			for (int j = 0;j < getColumnCount();j ++) {
-				if (get(i, j) == true) {
-					return false;
-				}
+			if (!data[i].isEmpty()) {
+				return false;
 			}
 		}
 		return true;
@@ -264,16 +368,12 @@ public class Matrix implements Cloneable {
 	
 	@Override
 	public String toString() {
-		String str = new String();
+		StringBuilder str = new StringBuilder();
 		
 		for (int i = 0; i < getRowCount(); ++i) {
-			for (int j = 0; j < getColumnCount(); ++j) {
-				str += (get(i, j) ? "1" : "0"); 
-			}
-			
-			str += "\n";
+			str.append(data[i].toString()).append('\n');
 		}
 		
-		return str;
+		return str.toString();
 	}
 }
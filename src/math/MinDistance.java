@@ -1,6 +1,7 @@
 package math;
 
 import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
 
 import math.ConvCodeSpanForm.SpanFormException;
 
@@ -148,6 +149,30 @@ public class MinDistance {
 		return findMinDistWithBEAST(code.getTrellis(), 0, code.getN() * (code.getDelay() + 1));
 	}
 	
+	/**
+	 * Вычисляет свободное расстояние сверточного кода, раскрывая фронты алгоритма BEAST в пуле потоков <code>executor</code>.
+	 */
+	public static int findFreeDist(ConvCode code, ExecutorService executor) throws SpanFormException {
+		return findMinDistWithBEAST(code.getTrellis(), 0, code.getN() * (code.getDelay() + 1), executor);
+	}
+	
+	/**
+	 * Проверяет, что свободное расстояние сверточного кода не меньше <code>freeDist</code>, 
+	 * не вычисляя самого расстояния.
+	 * @see BeastAlgorithm#hasPathLighterThan(ITrellisIterator, ITrellisIterator, int, int)
+	 */
+	public static boolean hasFreeDistAtLeast(ConvCode code, int freeDist) throws SpanFormException {
+		return hasFreeDistAtLeast(code, freeDist, null);
+	}
+	
+	/**
+	 * Параллельный вариант {@link #hasFreeDistAtLeast(ConvCode, int)}.
+	 * @param executor пул потоков для раскрытия фронтов, <code>null</code> - последовательный алгоритм
+	 */
+	public static boolean hasFreeDistAtLeast(ConvCode code, int freeDist, ExecutorService executor) throws SpanFormException {
+		return hasMinDistAtLeastWithBEAST(code.getTrellis(), 0, freeDist, executor);
+	}
+	
 	/**
 	 * Вычисляет минимальное расстояние усеченного блокового кода.
 	 * @param code усеченного блоковый код
@@ -195,36 +220,54 @@ public class MinDistance {
 	 * @return минимальное расстояния кода
 	 */
 	public static int findMinDistWithBEAST(ITrellis trellis, int distanceMetric, int upperBound) {
+		return findMinDistWithBEAST(trellis, distanceMetric, upperBound, null);
+	}
+	
+	/**
+	 * Параллельный вариант {@link #findMinDistWithBEAST(ITrellis, int, int)}.
+	 * @param executor пул потоков для раскрытия фронтов, <code>null</code> - последовательный алгоритм
+	 */
+	public static int findMinDistWithBEAST(ITrellis trellis, int distanceMetric, int upperBound, ExecutorService executor) {
 		ITrellisIterator root = trellis.iterator(0, 0);
 		ITrellisIterator toor = trellis.iterator(trellis.layersCount() - 1, 0);
 		
-		return BeastAlgorithm.countMinDist(root, toor, distanceMetric, upperBound);
+		return BeastAlgorithm.countMinDist(root, toor, distanceMetric, upperBound, executor);
 	}
 	
 	/**
-	 * Находим мнимальное расстояние блокового кода, перебирая все слова по порождающей матрице.
+	 * Проверяет, что min/free dist решетки блокового или сверточного кода не меньше 
+	 * <code>minDist</code>: алгоритм BEAST останавливается, как только сумма порогов фронтов 
+	 * достигает <code>minDist</code> или найден ненулевой путь.
+	 * 
+	 * @param trellis решетка блокового или сверточного кода 
+	 * @param distanceMetric номер метрики в решетке для рассчета веса путей
+	 * @param minDist проверяемая нижняя оценка min/free dist
+	 * @param executor пул потоков для раскрытия фронтов, <code>null</code> - последовательный алгоритм
+	 * @return <code>true</code>, если в решетке нет ненулевого пути веса меньше <code>minDist</code>
+	 */
+	public static boolean hasMinDistAtLeastWithBEAST(ITrellis trellis, int distanceMetric, int minDist, ExecutorService executor) {
+		ITrellisIterator root = trellis.iterator(0, 0);
+		ITrellisIterator toor = trellis.iterator(trellis.layersCount() - 1, 0);
+		
+		return !BeastAlgorithm.hasPathLighterThan(root, toor, distanceMetric, minDist, executor);
+	}
+	
+	/**
+	 * Вычисляет минимальное расстояние блокового кода полным перебором кодовых слов.
 	 * @param gen порождающая матрица блокового кода
 	 * @return минимальное расстояние блокового кода
+	 * @see CodeWordsWeightScanner
 	 */
 	public static int findMinDist(Matrix gen) {
-		if (gen.getRowCount() > Integer.SIZE - 2) {
-			throw new IllegalArgumentException("Code with input word length more, then " + (Integer.SIZE - 2) + ", is not supported.");
-		}
-		
-		int minDist = Integer.MAX_VALUE;
-		BitArray codeWord = new BitArray(gen.getColumnCount());
-
-		for (int w = 1; w < (1<<gen.getRowCount()); w++) {			
-			int changedBit = GrayCode.getChangedPosition(w);
-			
-			codeWord.xor(gen.getRow(changedBit));
-			int weight = codeWord.cardinality();
-			if (weight < minDist && weight != 0) {
-				minDist = weight;
-			}
-		}
-		
-		return minDist;
+		return new CodeWordsWeightScanner(gen).findMinDist();
+	}
+	
+	/**
+	 * Вычисляет весовой спектр блокового кода полным перебором кодовых слов.
+	 * @return массив длины n + 1, i-й элемент - количество кодовых слов веса i
+	 */
+	public static long[] findSpectrum(Matrix gen) {
+		return new CodeWordsWeightScanner(gen).findSpectrum();
 	}
 	
 	public static int minN(int k, int minDist) {
@@ -1,5 +1,6 @@
 package math;
 
+import java.util.Arrays;
 import java.util.StringTokenizer;
 
 /**
@@ -7,15 +8,30 @@ import java.util.StringTokenizer;
  * Класс является реализацией многочлена с бинарными коэффициентами (из GF(2)).
  * Реализованы многие опрерации, такие как сложение, умножение, деление и т.п.
  * 
- * В данной реалицации коэффициенты хранятся в булевом векторе. Младшие 
- * коэффициенты хранятся в начале вектора, старшие в конце.
+ * В данной реалицации коэффициенты упакованы в массив слов long: коэффициент при D^i - 
+ * бит (i % 64) слова (i / 64). Все операции выполняются над словами целиком, 
+ * многочлены степени меньше 64 (почти все многочлены порождающих и проверочных матриц) 
+ * обрабатываются отдельно как одно слово. Умножение - карацубовское для многочленов 
+ * от {@link #KARATSUBA_THRESHOLD} слов, ниже порога - школьное умножение слов без переносов.
  * 
  * @author fedor
  *
  */
 
 public class Poly implements Cloneable, Comparable<Poly> {
-	private BitSet polyCoeffs = new BitSet(); 
+	/**
+	 * Количество слов, начиная с которого многочлены умножаются методом Карацубы.
+	 */
+	public static final int KARATSUBA_THRESHOLD = 8;
+	
+	private static final long[] EMPTY_WORDS = new long[0];
+	
+	/**
+	 * Слова многочлена, слова начиная с <code>wordsInUse</code> нулевые, 
+	 * слово <code>wordsInUse - 1</code> ненулевое.
+	 */
+	private long words[] = EMPTY_WORDS;
+	private int wordsInUse = 0;
 
 	public Poly() {
 	}
@@ -26,10 +42,9 @@ public class Poly implements Cloneable, Comparable<Poly> {
 			throw new IllegalArgumentException("polyCoeffs length is zero.");
 		}
 		
-		this.polyCoeffs = new BitSet(polyCoeffs.length);
 		for(int i = 0;i < polyCoeffs.length;i ++)
 		{
-			this.polyCoeffs.set(i, polyCoeffs[i]);
+			setCoeff(i, polyCoeffs[i]);
 		}
 	}
 	
@@ -39,52 +54,97 @@ public class Poly implements Cloneable, Comparable<Poly> {
 			throw new IllegalArgumentException("polyCoeffs length is zero.");
 		}
 		
-		this.polyCoeffs = new BitSet(polyCoeffs.length);
 		for(int i = 0;i < polyCoeffs.length;i ++)
 		{
-			this.polyCoeffs.set(i, polyCoeffs[i]);
+			setCoeff(i, polyCoeffs[i]);
 		}
 	}
 
 	public Poly(int powers[]) {
 		for (int power : powers) {
-			polyCoeffs.set(power, true);
+			setCoeff(power, true);
 		}
 	}
 	
 	public Poly(BitSet polyCoeffs) {
-		this(polyCoeffs, true);
+		words = new long[polyCoeffs.wordsInUse()];
+		for (int i = 0;i < words.length; ++i) {
+			words[i] = polyCoeffs.word(i);
+		}
+		wordsInUse = words.length;
 	}
 	
-	private Poly(BitSet polyCoeffs, boolean clone) {
-		this.polyCoeffs = (clone ? (BitSet) polyCoeffs.clone() : polyCoeffs);
+	/**
+	 * Многочлен над массивом слов <code>words</code> без копирования.
+	 */
+	private Poly(long words[], int wordsInUse) {
+		this.words = words;
+		this.wordsInUse = wordsInUse;
+		trim();
 	}
 	
 	public Poly(Poly poly)
 	{
-		this(poly.polyCoeffs);
+		words = (poly.wordsInUse == 0 ? EMPTY_WORDS : Arrays.copyOf(poly.words, poly.wordsInUse));
+		wordsInUse = poly.wordsInUse;
 	}
 	
+	/**
+	 * Возвращает коэффициенты многочлена в виде битового множества. Множество - копия, 
+	 * его изменение не меняет многочлен.
+	 */
 	public BitSet getBitSet() {
+		BitSet polyCoeffs = new BitSet(wordsInUse * Long.SIZE);
+		for (int i = 0;i < wordsInUse; ++i) {
+			polyCoeffs.setWord(i, words[i]);
+		}
 		return polyCoeffs;
 	}
 	
 	public int getDegree()
 	{
-		return Math.max(polyCoeffs.length() - 1, 0);
+		if (wordsInUse == 0) {
+			return 0;
+		}
+		return wordsInUse * Long.SIZE - 1 - Long.numberOfLeadingZeros(words[wordsInUse - 1]);
 	}
 	
 	public Boolean getCoeff(int index)
 	{
-		return polyCoeffs.get(index);
+		int wordIndex = index >>> 6;
+		return wordIndex < wordsInUse && (words[wordIndex] & (1L << index)) != 0;
 	}
 	
 	public void setCoeff(int index, Boolean val) {
-		polyCoeffs.set(index, val);
+		if (index < 0) {
+			throw new IndexOutOfBoundsException("index < 0: " + index);
+		}
+		
+		int wordIndex = index >>> 6;
+		if (val) {
+			if (wordIndex >= wordsInUse) {
+				ensureCapacity(wordIndex + 1);
+				wordsInUse = wordIndex + 1;
+			}
+			words[wordIndex] |= 1L << index;
+		} else if (wordIndex < wordsInUse) {
+			words[wordIndex] &= ~(1L << index);
+			trim();
+		}
 	}
 	
 	public void add(Poly poly) {
-		polyCoeffs.xor(poly.polyCoeffs);
+		int polyWords = poly.wordsInUse;
+		if (polyWords > wordsInUse) {
+			ensureCapacity(polyWords);
+			wordsInUse = polyWords;
+		}
+		
+		long polyCoeffs[] = poly.words;
+		for (int i = 0;i < polyWords; ++i) {
+			words[i] ^= polyCoeffs[i];
+		}
+		trim();
 	}
 	
 	public Poly sum(Poly poly)
@@ -98,34 +158,106 @@ public class Poly implements Cloneable, Comparable<Poly> {
 	
 	public Poly mul(Poly poly)
 	{
-		Poly res = new Poly();
-
-		Poly tmp = new Poly(this);
-		int lastMulPow = 0;
-		for(int i = 0;i <= poly.getDegree();i ++)
-		{
-			if(poly.getCoeff(i))
-			{			
-				tmp.increaseDegree(i - lastMulPow);
-				lastMulPow = i;
-				res.add(tmp);
+		if (isZero() || poly.isZero()) {
+			return new Poly();
+		}
+		
+		if (wordsInUse == 1 && poly.wordsInUse == 1) {
+			long a = words[0], b = poly.words[0];
+			if (getDegree() + poly.getDegree() < Long.SIZE) {
+				return new Poly(new long[] { mulShort(a, b) }, 1);
 			}
+			long res[] = new long[2], table[] = new long[16];
+			fillProductTable(a, table);
+			mulWord(table, a, b, res, 0);
+			return new Poly(res, 2);
 		}
 		
-		return res;
+		long res[] = new long[wordsInUse + poly.wordsInUse];
+		mul(words, 0, wordsInUse, poly.words, 0, poly.wordsInUse, res, 0);
+		
+		return new Poly(res, res.length);
+	}
+	
+	/**
+	 * Прибавляет к многочлену произведение <code>a * b</code>, не создавая многочлен-произведение.
+	 */
+	void addProduct(Poly a, Poly b) {
+		if (a.isZero() || b.isZero()) {
+			return;
+		}
+		if (a == this || b == this) {
+			add(a.mul(b));
+			return;
+		}
+		
+		if (a.wordsInUse == 1 && b.wordsInUse == 1 && a.getDegree() + b.getDegree() < Long.SIZE) {
+			if (wordsInUse == 0) {
+				ensureCapacity(1);
+				wordsInUse = 1;
+			}
+			words[0] ^= mulShort(a.words[0], b.words[0]);
+			trim();
+			return;
+		}
+		
+		int productWords = a.wordsInUse + b.wordsInUse;
+		ensureCapacity(productWords);
+		mul(a.words, 0, a.wordsInUse, b.words, 0, b.wordsInUse, words, 0);
+		wordsInUse = Math.max(wordsInUse, productWords);
+		trim();
+	}
+	
+	/**
+	 * @return <code>true</code>, если многочлен равен 1
+	 */
+	public boolean isUnit() {
+		return wordsInUse == 1 && words[0] == 1;
+	}
+	
+	/**
+	 * @return <code>true</code>, если многочлен - ненулевой одночлен D^i
+	 */
+	public boolean isMonomial() {
+		if (wordsInUse == 0) {
+			return false;
+		}
+		for (int i = 0;i < wordsInUse - 1; ++i) {
+			if (words[i] != 0) {
+				return false;
+			}
+		}
+		return Long.bitCount(words[wordsInUse - 1]) == 1;
 	}
 	
 	public void increaseDegree(int pow) {
+		if (pow < 0) {
+			throw new IllegalArgumentException("Negative power: " + pow);
+		}
 		if (isZero() || pow == 0) {
 			return ;
 		}
 		
-		BitSet newCoeffs = new BitSet();
-		for (int bitIndex = polyCoeffs.nextSetBit(0); bitIndex >= 0; bitIndex = polyCoeffs.nextSetBit(bitIndex + 1)) {
-			newCoeffs.set(bitIndex + pow);
+		int wordShift = pow >>> 6, bitShift = pow & 63;
+		int newWordsInUse = wordsInUse + wordShift + 1;
+		long newWords[] = (words.length >= newWordsInUse ? words : new long[newWordsInUse]);
+		
+		// сдвиг от старших слов к младшим, чтобы сдвигать на месте
+		newWords[newWordsInUse - 1] = 0;
+		for (int i = wordsInUse - 1; i >= 0; --i) {
+			long word = words[i];
+			if (bitShift == 0) {
+				newWords[i + wordShift] = word;
+			} else {
+				newWords[i + wordShift + 1] |= word >>> (Long.SIZE - bitShift);
+				newWords[i + wordShift] = word << bitShift;
+			}
 		}
+		Arrays.fill(newWords, 0, wordShift, 0);
 		
-		polyCoeffs = newCoeffs;
+		words = newWords;
+		wordsInUse = newWordsInUse;
+		trim();
 	}
 	
 	public Poly mulPow(int pow)
@@ -138,6 +270,11 @@ public class Poly implements Cloneable, Comparable<Poly> {
 	}
 	
 	public Poly getQuotient(Poly poly)
+	{
+		return divide(poly)[0];
+	}
+	
+	public Poly getRemainder(Poly poly)
 	{
 		if (poly.isZero()) {
 			throw new IllegalArgumentException("Division by zero!");
@@ -145,70 +282,62 @@ public class Poly implements Cloneable, Comparable<Poly> {
 		
 		if (getDegree() < poly.getDegree())
 		{
-			return new Poly();
+			return new Poly(this);
 		}
-
-		Poly tempPoly = new Poly(this);
 		
-		BitSet quotient = new BitSet(getDegree() - poly.getDegree() + 1);
-		
-		while (tempPoly.getDegree() >= poly.getDegree() && !tempPoly.isZero())
-		{
-			/*if(tempPoly.getCoeff(tempPoly.getDegree()) == false)
-			{
-				tempCoeffs.remove(tempCoeffs.size()-1);
-				continue;
-			}/**/
-			quotient.set(tempPoly.getDegree() - poly.getDegree(), true);
-			
-			Poly subPoly = poly.mulPow(tempPoly.getDegree() - poly.getDegree());
-			
-			tempPoly = tempPoly.sum(subPoly);
+		if (wordsInUse == 1 && poly.wordsInUse == 1) {
+			return new Poly(new long[] { remainderShort(words[0], poly.words[0], null) }, 1);
 		}
 		
-		return new Poly(quotient, false);
+		long remainder[] = Arrays.copyOf(words, wordsInUse);
+		reduce(remainder, poly, null);
+		return new Poly(remainder, remainder.length);
 	}
 	
-	public Poly getRemainder(Poly poly)
+	/**
+	 * Деление с остатком.
+	 * @return массив из частного и остатка
+	 */
+	public Poly[] divide(Poly poly)
 	{
-		Poly remainder = new Poly(this);
+		if (poly.isZero()) {
+			throw new IllegalArgumentException("Division by zero!");
+		}
 		
-		if(getDegree() < poly.getDegree())
+		if (getDegree() < poly.getDegree())
 		{
-			return remainder;
+			return new Poly[]{ new Poly(), new Poly(this) };
 		}
 		
-		Poly quotient = getQuotient(poly);
-				
-		remainder = remainder.sum(quotient.mul(poly));
-		
-		return remainder;
-	}
-	
-	public Poly[] divide(Poly poly)
-	{
-		Poly remainder = new Poly(this);
-		
-		if(getDegree() < poly.getDegree())
-		{
-			return new Poly[]{ new Poly(), remainder };
+		if (wordsInUse == 1 && poly.wordsInUse == 1) {
+			long quotient[] = new long[1];
+			long remainder = remainderShort(words[0], poly.words[0], quotient);
+			return new Poly[]{ new Poly(quotient, 1), new Poly(new long[] { remainder }, 1) };
 		}
 		
-		Poly quotient = getQuotient(poly);
-				
-		remainder = remainder.sum(quotient.mul(poly));
+		long remainder[] = Arrays.copyOf(words, wordsInUse);
+		long quotient[] = new long[((getDegree() - poly.getDegree()) >>> 6) + 1];
+		reduce(remainder, poly, quotient);
 		
-		return new Poly[]{quotient, remainder};
+		return new Poly[]{ new Poly(quotient, quotient.length), new Poly(remainder, remainder.length) };
 	}
 	
 	public boolean equals(Poly poly)
 	{
-		return polyCoeffs.equals(poly.polyCoeffs);
+		if (wordsInUse != poly.wordsInUse) {
+			return false;
+		}
+		for (int i = 0;i < wordsInUse; ++i) {
+			if (words[i] != poly.words[i]) {
+				return false;
+			}
+		}
+		return true;
 	}
 	
 	public boolean isZero()
 	{
-		return polyCoeffs.length() == 0;
+		return wordsInUse == 0;
 	}
 	
 	public Poly clone()
@@ -218,7 +347,249 @@ public class Poly implements Cloneable, Comparable<Poly> {
 	
 	public static Poly getUnitPoly()
 	{
-		return new Poly(new boolean[]{ true });
+		return new Poly(new long[] { 1 }, 1);
+	}
+	
+	/**
+	 * Количество слов многочлена, старшее из них ненулевое.
+	 */
+	int wordsInUse() {
+		return wordsInUse;
+	}
+	
+	/**
+	 * Слово <code>i</code> многочлена, слова за пределами многочлена нулевые.
+	 */
+	long word(int i) {
+		return i < wordsInUse ? words[i] : 0;
+	}
+	
+	/**
+	 * Многочлен из слов words[offset...offset + length).
+	 */
+	static Poly fromWords(long words[], int offset, int length) {
+		while (length > 0 && words[offset + length - 1] == 0) {
+			--length;
+		}
+		if (length == 0) {
+			return new Poly();
+		}
+		return new Poly(Arrays.copyOfRange(words, offset, offset + length), length);
+	}
+	
+	/**
+	 * Сравнивает многочлены как двоичные числа (старший коэффициент - старший разряд).
+	 * @return -1, 0 или 1
+	 */
+	static int compareNumerically(Poly a, Poly b) {
+		if (a.wordsInUse != b.wordsInUse) {
+			return a.wordsInUse < b.wordsInUse ? -1 : 1;
+		}
+		for (int i = a.wordsInUse - 1; i >= 0; --i) {
+			if (a.words[i] != b.words[i]) {
+				return (a.words[i] ^ Long.MIN_VALUE) < (b.words[i] ^ Long.MIN_VALUE) ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+	
+	private void ensureCapacity(int wordsRequired) {
+		if (words.length < wordsRequired) {
+			words = Arrays.copyOf(words, Math.max(2 * words.length, wordsRequired));
+		}
+	}
+	
+	private void trim() {
+		while (wordsInUse > 0 && words[wordsInUse - 1] == 0) {
+			--wordsInUse;
+		}
+	}
+	
+	int nextSetBit(int fromIndex) {
+		int wordIndex = fromIndex >>> 6;
+		if (wordIndex >= wordsInUse) {
+			return -1;
+		}
+		
+		long word = words[wordIndex] & (-1L << fromIndex);
+		while (word == 0) {
+			if (++wordIndex == wordsInUse) {
+				return -1;
+			}
+			word = words[wordIndex];
+		}
+		return wordIndex * Long.SIZE + Long.numberOfTrailingZeros(word);
+	}
+	
+	/**
+	 * Деление многочленов степени меньше 64.
+	 * @param quotient если не <code>null</code>, в quotient[0] записывается частное
+	 * @return остаток
+	 */
+	private static long remainderShort(long a, long b, long quotient[]) {
+		int divisorDegree = Long.SIZE - 1 - Long.numberOfLeadingZeros(b);
+		long q = 0;
+		for (int degree = Long.SIZE - 1 - Long.numberOfLeadingZeros(a); degree >= divisorDegree; --degree) {
+			if ((a & (1L << degree)) != 0) {
+				a ^= b << (degree - divisorDegree);
+				q |= 1L << (degree - divisorDegree);
+			}
+		}
+		if (quotient != null) {
+			quotient[0] = q;
+		}
+		return a;
+	}
+	
+	/**
+	 * Заменяет многочлен в словах <code>remainder</code> на остаток от деления на <code>divisor</code>: 
+	 * для каждого ненулевого старшего коэффициента вычитается сдвинутый делитель.
+	 * @param quotient если не <code>null</code>, в него записывается частное
+	 */
+	private static void reduce(long remainder[], Poly divisor, long quotient[]) {
+		int divisorDegree = divisor.getDegree();
+		long divisorWords[] = divisor.words;
+		int divisorWordsInUse = divisor.wordsInUse;
+		
+		for (int degree = remainder.length * Long.SIZE - 1; degree >= divisorDegree; --degree) {
+			int wordIndex = degree >>> 6;
+			if (remainder[wordIndex] == 0) {
+				// пропускаем нулевое слово целиком
+				degree = wordIndex * Long.SIZE;
+				continue;
+			}
+			if ((remainder[wordIndex] & (1L << degree)) == 0) {
+				continue;
+			}
+			
+			int shift = degree - divisorDegree;
+			int wordShift = shift >>> 6, bitShift = shift & 63;
+			for (int i = 0;i < divisorWordsInUse; ++i) {
+				long word = divisorWords[i];
+				remainder[i + wordShift] ^= word << bitShift;
+				if (bitShift != 0 && i + wordShift + 1 < remainder.length) {
+					remainder[i + wordShift + 1] ^= word >>> (Long.SIZE - bitShift);
+				}
+			}
+			if (quotient != null) {
+				quotient[wordShift] |= 1L << bitShift;
+			}
+		}
+	}
+	
+	/**
+	 * Произведение многочленов a и b, степень которого меньше 64.
+	 */
+	static long mulShort(long a, long b) {
+		if (Long.bitCount(a) < Long.bitCount(b)) {
+			long tmp = a;
+			a = b;
+			b = tmp;
+		}
+		
+		long res = 0;
+		for (; b != 0; b &= b - 1) {
+			res ^= a << Long.numberOfTrailingZeros(b);
+		}
+		return res;
+	}
+	
+	/**
+	 * Заполняет таблицу произведений слова a на все многочлены степени меньше 4 
+	 * (старшие биты произведений отбрасываются).
+	 */
+	static void fillProductTable(long a, long table[]) {
+		table[1] = a;
+		for (int i = 2;i < 16; i += 2) {
+			table[i] = table[i >>> 1] << 1;
+			table[i + 1] = table[i] ^ a;
+		}
+	}
+	
+	/**
+	 * Прибавляет произведение без переносов слов a и b к словам res[index] (младшее слово) и 
+	 * res[index + 1] (старшее). Слово b обрабатывается по 4 бита с таблицей 
+	 * {@link #fillProductTable(long, long[])} для a, затем восстанавливаются старшие биты a, 
+	 * выпавшие из таблицы при сдвиге.
+	 */
+	static void mulWord(long table[], long a, long b, long res[], int index) {
+		long low = table[(int)b & 15], high = 0;
+		for (int i = 4;i < Long.SIZE; i += 4) {
+			long product = table[(int)(b >>> i) & 15];
+			low ^= product << i;
+			high ^= product >>> (Long.SIZE - i);
+		}
+		
+		// биты a << k (k = 1..3), вышедшие за слово
+		for (int k = 1;k < 4; ++k) {
+			long lost = a >>> (Long.SIZE - k);
+			long positions = (b >>> k) & 0x1111111111111111L;
+			for (; lost != 0; lost &= lost - 1) {
+				high ^= positions << Long.numberOfTrailingZeros(lost);
+			}
+		}
+		
+		res[index] ^= low;
+		res[index + 1] ^= high;
+	}
+	
+	/**
+	 * Прибавляет к словам res[resOffset...] произведение многочленов из слов 
+	 * a[aOffset...aOffset + aLength) и b[bOffset...bOffset + bLength).
+	 */
+	private static void mul(long a[], int aOffset, int aLength, long b[], int bOffset, int bLength, long res[], int resOffset) {
+		if (aLength < bLength) {
+			mul(b, bOffset, bLength, a, aOffset, aLength, res, resOffset);
+			return;
+		}
+		
+		if (bLength < Math.max(KARATSUBA_THRESHOLD, 2)) {
+			long table[] = new long[16];
+			for (int i = 0;i < aLength; ++i) {
+				long word = a[aOffset + i];
+				if (word == 0) {
+					continue;
+				}
+				fillProductTable(word, table);
+				for (int j = 0;j < bLength; ++j) {
+					mulWord(table, word, b[bOffset + j], res, resOffset + i + j);
+				}
+			}
+			return;
+		}
+		
+		if (aLength > bLength) {
+			// длинный множитель режется на куски длины короткого
+			for (int i = 0;i < aLength; i += bLength) {
+				mul(a, aOffset + i, Math.min(bLength, aLength - i), b, bOffset, bLength, res, resOffset + i);
+			}
+			return;
+		}
+		
+		// Карацуба: (a0 + x a1)(b0 + x b1) = a0 b0 + x ((a0 + a1)(b0 + b1) + a0 b0 + a1 b1) + x^2 a1 b1
+		int low = aLength / 2, high = aLength - low;
+		long low0[] = new long[2 * low], high1[] = new long[2 * high], middle[] = new long[2 * high];
+		mul(a, aOffset, low, b, bOffset, low, low0, 0);
+		mul(a, aOffset + low, high, b, bOffset + low, high, high1, 0);
+		
+		long aSum[] = new long[high], bSum[] = new long[high];
+		for (int i = 0;i < high; ++i) {
+			aSum[i] = a[aOffset + low + i] ^ (i < low ? a[aOffset + i] : 0);
+			bSum[i] = b[bOffset + low + i] ^ (i < low ? b[bOffset + i] : 0);
+		}
+		mul(aSum, 0, high, bSum, 0, high, middle, 0);
+		
+		for (int i = 0;i < low0.length; ++i) {
+			middle[i] ^= low0[i];
+			res[resOffset + i] ^= low0[i];
+		}
+		for (int i = 0;i < high1.length; ++i) {
+			middle[i] ^= high1[i];
+			res[resOffset + 2 * low + i] ^= high1[i];
+		}
+		for (int i = 0;i < middle.length; ++i) {
+			res[resOffset + low + i] ^= middle[i];
+		}
 	}
 	
 	/**
@@ -263,14 +634,12 @@ public class Poly implements Cloneable, Comparable<Poly> {
 			return degreeComp;
 		}
 		
-		int degree = getDegree();
-		
-		for (int i = 0; i <= degree; ++i) {
-			if (getCoeff(i) && !poly.getCoeff(i)) {
-				return 1;
-			}
-			if (!getCoeff(i) && poly.getCoeff(i)) {
-				return -1;
+		// при равных степенях число слов может различаться только у многочленов 0 и 1 
+		for (int i = 0; i < Math.max(wordsInUse, poly.wordsInUse); ++i) {
+			long word = (i < wordsInUse ? words[i] : 0);
+			long diff = word ^ (i < poly.wordsInUse ? poly.words[i] : 0);
+			if (diff != 0) {
+				return (word & Long.lowestOneBit(diff)) != 0 ? 1 : -1;
 			}
 		}
 		
@@ -285,7 +654,7 @@ public class Poly implements Cloneable, Comparable<Poly> {
 		
 		String str = new String();
 
-		int power = polyCoeffs.nextSetBit(0);
+		int power = nextSetBit(0);
 		switch (power) {
 		case 0:
 			str += "1";
@@ -298,7 +667,7 @@ public class Poly implements Cloneable, Comparable<Poly> {
 			break;
 		}
 
-		for (power = polyCoeffs.nextSetBit(power + 1); power >= 0; power = polyCoeffs.nextSetBit(power + 1)) {
+		for (power = nextSetBit(power + 1); power >= 0; power = nextSetBit(power + 1)) {
 			str += "+D" + ((power > 1) ? power : "");
 		}
 		
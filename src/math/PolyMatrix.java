@@ -1,9 +1,26 @@
 package math;
 
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Матрица многочленов над GF(2).
+ * 
+ * Элементы хранятся как объекты {@link Poly} (их можно менять через {@link #get(int, int)}), 
+ * но произведение, транспонирование и сортировка столбцов работают со словами многочленов 
+ * и не создают промежуточных объектов: в произведении создаются только элементы результата.
+ */
 public class PolyMatrix {
 
 	private Poly[][] data;
 	
+	/**
+	 * Матрица над массивом строк <code>data</code>, элементы не копируются.
+	 */
+	private PolyMatrix(Poly[][] data) {
+		this.data = data;
+	}
+	
 	public PolyMatrix(int m, int n)
 	{
 		data = new Poly[m][n];
@@ -70,36 +87,86 @@ public class PolyMatrix {
 	
 	public PolyMatrix mul(PolyMatrix mat)
 	{
-		PolyMatrix res = new PolyMatrix(getRowCount(), mat.getColumnCount());
+		int rows = getRowCount(), inner = getColumnCount(), columns = mat.getColumnCount();
+		Poly res[][] = new Poly[rows][columns];
 		
-		for(int i = 0;i < getRowCount();i ++)
-		{
-			for(int j = 0;j < mat.getColumnCount();j ++)
-			{
-				Poly val = new Poly();
-				
-				for(int k = 0;k < getColumnCount();k ++)
-				{
-					val = val.sum(get(i, k).mul(mat.get(k, j)));
+		int maxDegree = getMaxDegree(), matMaxDegree = mat.getMaxDegree();
+		if (maxDegree < Long.SIZE && matMaxDegree < Long.SIZE) {
+			// многочлены степени меньше 64: элемент произведения накапливается в одном или двух словах
+			long matWords[] = new long[inner * columns];
+			for (int k = 0;k < inner; ++k) {
+				for (int j = 0;j < columns; ++j) {
+					matWords[k * columns + j] = mat.data[k][j].word(0);
+				}
+			}
+			
+			boolean shortProducts = maxDegree + matMaxDegree < Long.SIZE;
+			long products[] = new long[2 * columns], table[] = new long[16];
+			for (int i = 0;i < rows; ++i) {
+				Arrays.fill(products, 0);
+				for (int k = 0;k < inner; ++k) {
+					long word = data[i][k].word(0);
+					if (word == 0) {
+						continue;
+					}
+					if (!shortProducts) {
+						Poly.fillProductTable(word, table);
+					}
+					for (int j = 0;j < columns; ++j) {
+						long matWord = matWords[k * columns + j];
+						if (matWord == 0) {
+							continue;
+						}
+						if (shortProducts) {
+							products[2 * j] ^= Poly.mulShort(word, matWord);
+						} else {
+							Poly.mulWord(table, word, matWord, products, 2 * j);
+						}
+					}
+				}
+				for (int j = 0;j < columns; ++j) {
+					res[i][j] = Poly.fromWords(products, 2 * j, 2);
+				}
+			}
+		} else {
+			for (int i = 0;i < rows; ++i) {
+				for (int j = 0;j < columns; ++j) {
+					Poly val = new Poly();
+					for (int k = 0;k < inner; ++k) {
+						val.addProduct(data[i][k], mat.data[k][j]);
+					}
+					res[i][j] = val;
 				}
-				
-				res.set(i, j, val);
 			}
 		}
 		
-		return res;
+		return new PolyMatrix(res);
+	}
+	
+	/**
+	 * @return максимальная степень элементов матрицы
+	 */
+	public int getMaxDegree() {
+		int maxDegree = 0;
+		for (Poly row[] : data) {
+			for (Poly poly : row) {
+				maxDegree = Math.max(maxDegree, poly.getDegree());
+			}
+		}
+		return maxDegree;
 	}
 	
 	public PolyMatrix transpose() {
-		PolyMatrix tr = new PolyMatrix(getColumnCount(), getRowCount());
+		Poly tr[][] = new Poly[getColumnCount()][getRowCount()];
 		
-		for (int i = 0;i < getColumnCount(); ++i) {
-			for (int j = 0;j < getRowCount(); ++j) {
-				tr.set(i, j, get(j, i));
+		for (int i = 0;i < getRowCount(); ++i) {
+			Poly row[] = data[i];
+			for (int j = 0;j < row.length; ++j) {
+				tr[j][i] = row[j];
 			}
 		}
 		
-		return tr;
+		return new PolyMatrix(tr);
 	}
 	
 	public boolean isZero() {
@@ -118,17 +185,17 @@ public class PolyMatrix {
 	
 	public PolyMatrix clone()
 	{
-		PolyMatrix clon = new PolyMatrix(getRowCount(), getColumnCount());
+		Poly clon[][] = new Poly[getRowCount()][getColumnCount()];
 		
 		for(int i = 0;i < getRowCount();i ++)
 		{
 			for(int j = 0;j < getColumnCount();j ++)
 			{
-				clon.set(i, j, get(i, j).clone());
+				clon[i][j] = data[i][j].clone();
 			}
 		}
 		
-		return clon;
+		return new PolyMatrix(clon);
 	}
 	
 	public static PolyMatrix getIdentity(int size)
@@ -181,20 +248,16 @@ public class PolyMatrix {
 		return str;
 	}
 	
+	/**
+	 * Сравнивает столбцы как двоичные числа: старшие разряды - последняя строка, в строке 
+	 * старший разряд - старший коэффициент многочлена.
+	 * @return -1, 0 или 1
+	 */
 	public int compareColumns(int i, int j) {
 		for (int k = getRowCount() - 1;k >= 0; --k) {
-			Poly pi = get(k, i);
-			Poly pj = get(k, j);
-			
-			for (int c = Math.max(pi.getDegree(), pj.getDegree()); c >= 0; --c) {				
-				boolean bi = pi.getDegree() < c ? false : pi.getCoeff(c);
-				boolean bj = pj.getDegree() < c ? false : pj.getCoeff(c);
-				
-				if (bi && !bj) {
-					return 1;
-				} else if (!bi && bj) {
-					return -1;
-				}
+			int comp = Poly.compareNumerically(data[k][i], data[k][j]);
+			if (comp != 0) {
+				return comp;
 			}
 		}
 		
@@ -210,13 +273,27 @@ public class PolyMatrix {
 		}
 	}
 	
-	public void sortColumns() {		
-		for (int i = 0;i < getColumnCount() - 1; ++i) {
-			for (int j = i + 1;j > 0; --j) {
-				if (compareColumns(j, j - 1) == -1) {
-					swapColumns(j, j - 1);
-				}
+	/**
+	 * Устойчивая сортировка столбцов по возрастанию в порядке {@link #compareColumns(int, int)}.
+	 */
+	public void sortColumns() {
+		Integer order[] = new Integer[getColumnCount()];
+		for (int i = 0;i < order.length; ++i) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i, Integer j) {
+				return compareColumns(i, j);
+			}
+		});
+		
+		for (Poly row[] : data) {
+			Poly sorted[] = new Poly[row.length];
+			for (int i = 0;i < sorted.length; ++i) {
+				sorted[i] = row[order[i]];
 			}
+			System.arraycopy(sorted, 0, row, 0, row.length);
 		}
 	}
 }
@@ -1,100 +1,232 @@
 package math;
 
+/**
+ * Декомпозиция Смита полиномиальной матрицы G размера b x c: G = A * D * B, где A и B -
+ * обратимые полиномиальные матрицы, D - диагональная матрица инвариантных множителей.
+ *
+ * Элементарные преобразования выполняются на месте над строками матриц. Множители A, InvA,
+ * B и InvB накапливаются только если они запрошены в конструкторе (флаги {@link #FACTOR_A},
+ * {@link #FACTOR_INV_A}, {@link #FACTOR_B}, {@link #FACTOR_INV_B}), D вычисляется всегда.
+ *
+ * Для проверок {@link #isBasic(PolyMatrix)} и {@link #isNonCatastrophic(PolyMatrix)} множители
+ * не накапливаются вовсе, а декомпозиция прекращается на первом неподходящем инвариантном множителе.
+ */
+public class SmithDecomposition {
+	public static final int FACTOR_A = 1;
+	public static final int FACTOR_INV_A = 2;
+	public static final int FACTOR_B = 4;
+	public static final int FACTOR_INV_B = 8;
+	public static final int ALL_FACTORS = FACTOR_A | FACTOR_INV_A | FACTOR_B | FACTOR_INV_B;
+
+	private static final int CHECK_NONE = 0;
+	private static final int CHECK_BASIC = 1;
+	private static final int CHECK_NON_CATASTROPHIC = 2;
 
-public class SmithDecomposition {	
 	private int b;
 	private int c;
-	
+
 	private PolyMatrix A;
 	private PolyMatrix InvA;
 	private PolyMatrix D;
 	private PolyMatrix B;
 	private PolyMatrix InvB;
-	
+
+	/**
+	 * Строки матриц, элементы меняются на месте. Для незапрошенных множителей - <code>null</code>.
+	 */
+	private Poly dRows[][];
+	private Poly aRows[][];
+	private Poly invARows[][];
+	private Poly bRows[][];
+	private Poly invBRows[][];
+
+	private final int check;
+	private boolean checkPassed = true;
+
 	public SmithDecomposition(PolyMatrix G) {
+		this(G, ALL_FACTORS);
+	}
+
+	/**
+	 * @param factors флаги вычисляемых множителей, например, <code>FACTOR_B | FACTOR_INV_B</code>
+	 */
+	public SmithDecomposition(PolyMatrix G, int factors) {
+		this(G, factors, CHECK_NONE);
+	}
+
+	private SmithDecomposition(PolyMatrix G, int factors, int check) {
 		b = G.getRowCount();
 		c = G.getColumnCount();
-		
-		A = PolyMatrix.getIdentity(b);
-		InvA = PolyMatrix.getIdentity(b);
-		B = PolyMatrix.getIdentity(c);
-		InvB = PolyMatrix.getIdentity(c);
+		this.check = check;
+
 		D = G.clone();
-		
+		dRows = rows(D);
+		if ((factors & FACTOR_A) != 0) {
+			A = PolyMatrix.getIdentity(b);
+			aRows = rows(A);
+		}
+		if ((factors & FACTOR_INV_A) != 0) {
+			InvA = PolyMatrix.getIdentity(b);
+			invARows = rows(InvA);
+		}
+		if ((factors & FACTOR_B) != 0) {
+			B = PolyMatrix.getIdentity(c);
+			bRows = rows(B);
+		}
+		if ((factors & FACTOR_INV_B) != 0) {
+			InvB = PolyMatrix.getIdentity(c);
+			invBRows = rows(InvB);
+		}
+
+		if (check != CHECK_NONE && b > c) {
+			// строки линейно зависимы
+			checkPassed = false;
+			return;
+		}
+
+		if (check != CHECK_NONE && b == 1) {
+			checkRow();
+			return;
+		}
+
 		decomposeSubmatrix(0);
 	}
-	
+
+	/**
+	 * Проверяет, что матрица G - базисная, т.е. все ее инвариантные множители равны 1.
+	 */
+	public static boolean isBasic(PolyMatrix G) {
+		return new SmithDecomposition(G, 0, CHECK_BASIC).checkPassed;
+	}
+
+	/**
+	 * Проверяет, что порождающая матрица G задает некатастрофический кодер: строки G
+	 * линейно независимы и все ее инвариантные множители - одночлены D^i.
+	 */
+	public static boolean isNonCatastrophic(PolyMatrix G) {
+		return new SmithDecomposition(G, 0, CHECK_NON_CATASTROPHIC).checkPassed;
+	}
+
 	public PolyMatrix getA() {
-		return A;
+		return requested(A, "A");
 	}
-	
+
 	public PolyMatrix getInvA() {
-		return InvA;
+		return requested(InvA, "InvA");
 	}
-	
+
 	public PolyMatrix getB() {
-		return B;
+		return requested(B, "B");
 	}
-	
+
 	public PolyMatrix getInvB() {
-		return InvB;
+		return requested(InvB, "InvB");
 	}
-	
+
 	public PolyMatrix getD() {
-		return D;		
+		return D;
 	}
-	
+
 	public boolean isBasic() {
 		for (int i = 0;i < b; ++i) {
-			if (!D.get(i, i).equals(Poly.getUnitPoly())) {
+			if (!D.get(i, i).isUnit()) {
 				return false;
 			}
 		}
-		
+
 		return true;
 	}
-	
+
+	private static PolyMatrix requested(PolyMatrix factor, String name) {
+		if (factor == null) {
+			throw new IllegalStateException("Factor " + name + " wasn't requested");
+		}
+		return factor;
+	}
+
+	private static Poly[][] rows(PolyMatrix matrix) {
+		Poly rows[][] = new Poly[matrix.getRowCount()][];
+		for (int i = 0;i < rows.length; ++i) {
+			rows[i] = matrix.getRow(i);
+		}
+		return rows;
+	}
+
+	private boolean isAcceptableFactor(Poly factor) {
+		return check == CHECK_BASIC ? factor.isUnit() : factor.isMonomial();
+	}
+
+	/**
+	 * Проверка для матрицы из одной строки: единственный инвариантный множитель - НОД
+	 * элементов строки. НОД, ставший 1 (одночленом), таким и останется, на этом проверка заканчивается.
+	 */
+	private void checkRow() {
+		Poly gcd = new Poly();
+		for (int j = 0;j < c; ++j) {
+			Poly item = dRows[0][j];
+			while (!item.isZero()) {
+				Poly remainder = gcd.getRemainder(item);
+				gcd = item;
+				item = remainder;
+			}
+			if (!gcd.isZero() && isAcceptableFactor(gcd)) {
+				return;
+			}
+		}
+		checkPassed = false;
+	}
+
 	private void decomposeSubmatrix(int diagInd)
 	{
-		if (D.get(diagInd, diagInd).isZero()) {
+		if (dRows[diagInd][diagInd].isZero()) {
 			trySetNonZeroCorner(diagInd);
-			
-			if (D.get(diagInd, diagInd).isZero()) {
+
+			if (dRows[diagInd][diagInd].isZero()) {
+				checkPassed = false;
 				return ;
 			}
 		}
-		
-		cleanRow(diagInd);		
-		cleanColumn(diagInd);		
-		
+
+		cleanRow(diagInd);
+		cleanColumn(diagInd);
+
 		while(true)
-		{	
-			Poly corner = D.get(diagInd, diagInd);
+		{
+			Poly corner = dRows[diagInd][diagInd];
+			if (corner.isUnit()) {
+				// на 1 делится все
+				break;
+			}
 			int badRow = -1;
-			
-		badRowSearch: 
+
+		badRowSearch:
 			for (int i = diagInd + 1; i < b; ++i)
 			{
 				for (int j = diagInd + 1; j < c; ++j)
 				{
-					if(!D.get(i, j).getRemainder(corner).isZero())
+					if(!dRows[i][j].isZero() && !dRows[i][j].getRemainder(corner).isZero())
 					{
 						badRow = i;
 						break badRowSearch;
 					}
 				}
 			}
-			
-			
+
+
 			if(badRow == -1)
 			{
 				break;
 			}
-			
-			addRows(diagInd, badRow, Poly.getUnitPoly());
-			cleanRow(diagInd);			
+
+			addRows(diagInd, badRow);
+			cleanRow(diagInd);
 		}
-		
+
+		if (check != CHECK_NONE && !isAcceptableFactor(dRows[diagInd][diagInd])) {
+			checkPassed = false;
+			return;
+		}
+
 		if(diagInd < Math.min(b - 1, c - 1))
 		{
 			decomposeSubmatrix(diagInd + 1);
@@ -104,7 +236,7 @@ public class SmithDecomposition {
 	private void trySetNonZeroCorner(int diagInd) {
 		for (int i = diagInd; i < b; ++i) {
 			for (int j = diagInd; j < c; ++j) {
-				if (!D.get(i, j).isZero()) {
+				if (!dRows[i][j].isZero()) {
 					if (i != diagInd) {
 						swapRows(diagInd, i);
 					}
@@ -115,143 +247,171 @@ public class SmithDecomposition {
 			}
 		}
 	}
-	
+
 	private void cleanRow(int diagInd)
 	{
-		Poly corner = D.get(diagInd, diagInd);
-		
+		Poly corner = dRows[diagInd][diagInd];
+
 		if(corner.isZero())
 		{
 			// just for debug. In correct program this exception shouldn't be thrown.
 			throw new IllegalStateException("The corner shouldn't be zero!");
 		}
-		
+
 		for(int i = diagInd + 1;i < c;i ++)
 		{
-			Poly rowItem = D.get(diagInd, i);
-			
+			Poly rowItem = dRows[diagInd][i];
+
 			if(rowItem.isZero())
 			{
 				continue;
 			}
-			
+
 			Poly[] gcdCoeffs = Poly.extendedEuclid(corner, rowItem);
 			Poly x = gcdCoeffs[0], y = gcdCoeffs[1], gcd = gcdCoeffs[2];
 			Poly qy = rowItem.getQuotient(gcd);
-			Poly qx = corner.getQuotient(gcd);			
-						
-			specialColumnCombination(diagInd, i, x, y, qx, qy);			
-			
+			Poly qx = corner.getQuotient(gcd);
+
+			specialColumnCombination(diagInd, i, x, y, qx, qy);
+
 			corner = gcd;
 		}
 	}
-	
+
 	private void cleanColumn(int diagInd)
 	{
-		Poly corner = D.get(diagInd, diagInd);
-		
+		Poly corner = dRows[diagInd][diagInd];
+
 		if(corner.isZero())
 		{
 			// just for debug. In correct program this exception shouldn't be thrown.
 			throw new IllegalStateException("The corner shouldn't be zero!");
 		}
-		
+
 		for(int i = diagInd + 1;i < b;i ++)
 		{
-			Poly columnItem = D.get(i, diagInd);
-			
+			Poly columnItem = dRows[i][diagInd];
+
 			if(columnItem.isZero())
 			{
 				continue;
 			}
-			
+
 			Poly[] gcdCoeffs = Poly.extendedEuclid(corner, columnItem);
 			Poly x = gcdCoeffs[0], y = gcdCoeffs[1], gcd = gcdCoeffs[2];
 			Poly qy = columnItem.getQuotient(gcd);
 			Poly qx = corner.getQuotient(gcd);
-			
-			specialRowCombination(diagInd, i, x, y, qx, qy);	
-			
+
+			specialRowCombination(diagInd, i, x, y, qx, qy);
+
 			corner = gcd;
 		}
 	}
-	
+
+	/**
+	 * Линейная комбинация <code>p * x + q * y</code>. Если комбинация совпадает с <code>p</code>,
+	 * возвращается сам <code>p</code>, иначе - новый многочлен.
+	 */
+	private static Poly combine(Poly p, Poly x, Poly q, Poly y) {
+		if (x.isUnit() && (y.isZero() || q.isZero())) {
+			return p;
+		}
+
+		Poly res = new Poly();
+		if (x.isUnit()) {
+			res.add(p);
+		} else {
+			res.addProduct(p, x);
+		}
+		if (y.isUnit()) {
+			res.add(q);
+		} else {
+			res.addProduct(q, y);
+		}
+		return res;
+	}
+
+	private static void swap(Poly rows[][], int i, int j) {
+		Poly row[] = rows[i];
+		rows[i] = rows[j];
+		rows[j] = row;
+	}
+
+	private static void swapInRows(Poly rows[][], int i, int j) {
+		for (Poly row[] : rows) {
+			Poly tmp = row[i];
+			row[i] = row[j];
+			row[j] = tmp;
+		}
+	}
+
 	private void swapRows(int i, int j)
 	{
 		// D
-		for(int k = 0;k < c;k ++)
-		{
-			Poly tmp = D.get(i, k);
-			
-			D.set(i, k, D.get(j, k));
-			D.set(j, k, tmp);
-		}
+		swap(dRows, i, j);
+		D.setRow(i, dRows[i]);
+		D.setRow(j, dRows[j]);
 		// InvA
-		for(int k = 0;k < b;k ++)
-		{
-			Poly tmp = InvA.get(i, k);
-			
-			InvA.set(i, k, InvA.get(j, k));
-			InvA.set(j, k, tmp);
+		if (InvA != null) {
+			swap(invARows, i, j);
+			InvA.setRow(i, invARows[i]);
+			InvA.setRow(j, invARows[j]);
 		}
 		// A
-		for(int k = 0;k < b;k ++)
-		{
-			Poly tmp = A.get(k, i);
-			
-			A.set(k, i, A.get(k, j));
-			A.set(k, j, tmp);
+		if (A != null) {
+			swapInRows(aRows, i, j);
 		}
 	}
-	
-	private void addRows(int i, int j, Poly factor)
+
+	/**
+	 * Прибавляет к строке <code>i</code> строку <code>j</code>.
+	 */
+	private void addRows(int i, int j)
 	{
+		Poly rowI[] = dRows[i], rowJ[] = dRows[j];
 		for(int k = 0;k < c;k ++)
-		{			
-			D.set(i, k, D.get(i, k).sum(D.get(j, k).mul(factor)));			
-		}
-		
-		for(int k = 0;k < b;k ++)
 		{
-			A.set(k, j, A.get(k, j).sum(A.get(k, i).mul(factor)));
-			InvA.set(i, k, InvA.get(i, k).sum(InvA.get(j, k).mul(factor)));
+			if (!rowJ[k].isZero()) {
+				rowI[k] = rowI[k].sum(rowJ[k]);
+			}
 		}
-	}	
-	
+
+		if (A != null) {
+			for (Poly row[] : aRows) {
+				row[j] = row[j].sum(row[i]);
+			}
+		}
+		if (InvA != null) {
+			Poly invRowI[] = invARows[i], invRowJ[] = invARows[j];
+			for(int k = 0;k < b;k ++)
+			{
+				invRowI[k] = invRowI[k].sum(invRowJ[k]);
+			}
+		}
+	}
+
 	private void swapColumns(int i, int j)
 	{
 		// D
-		for(int k = 0;k < b;k ++)
-		{
-			Poly tmp = D.get(k, i);
-			
-			D.set(k, i, D.get(k, j));
-			D.set(k, j, tmp);
-		}
+		swapInRows(dRows, i, j);
 		// InvB
-		for(int k = 0;k < c;k ++)
-		{
-			Poly tmp = InvB.get(k, i);
-			
-			InvB.set(k, i, InvB.get(k, j));
-			InvB.set(k, j, tmp);			
+		if (InvB != null) {
+			swapInRows(invBRows, i, j);
 		}
 		//B
-		for(int k = 0;k < c;k ++)
-		{
-			Poly tmp = B.get(i, k);
-			
-			B.set(i, k, B.get(j, k));
-			B.set(j, k, tmp);			
+		if (B != null) {
+			swap(bRows, i, j);
+			B.setRow(i, bRows[i]);
+			B.setRow(j, bRows[j]);
 		}
 	}
-	
+
 	/**
-	 * Операция рассчитана на то, что в <code>diagInd</code> элемент 
-	 * <code>i</code>-ого ряда нужно поместить gcd, а в <code>diagInd</code> 
-	 * элемент <code>j</code>-ого ряда нужно обнулить. Другие элементы рядов 
+	 * Операция рассчитана на то, что в <code>diagInd</code> элемент
+	 * <code>i</code>-ого ряда нужно поместить gcd, а в <code>diagInd</code>
+	 * элемент <code>j</code>-ого ряда нужно обнулить. Другие элементы рядов
 	 * преобразуются соотвествующим образом.
-	 * 
+	 *
 	 * @param i
 	 * @param j
 	 * @param x
@@ -260,71 +420,74 @@ public class SmithDecomposition {
 	 * @param qy
 	 */
 	private void specialRowCombination(int i, int j, Poly x, Poly y, Poly qx, Poly qy)
-	{				
-		for(int k = 0;k < c;k ++)
-		{
-			Poly pi = D.get(i, k).clone();
-			Poly pj = D.get(j, k).clone();
-			
-			D.set(i, k, pi.mul(x).sum(pj.mul(y)));
-			D.set(j, k, pi.mul(qy).sum(pj.mul(qx)));
-		}
-		
-		for(int k = 0;k < b;k ++)
-		{
-			Poly pi = A.get(k, i).clone();
-			Poly pj = A.get(k, j).clone();
-			
-			A.set(k, i, pi.mul(qx).sum(pj.mul(qy)));
-			A.set(k, j, pi.mul(y).sum(pj.mul(x)));	
-			
-			pi = InvA.get(i, k).clone();
-			pj = InvA.get(j, k).clone();
-			
-			InvA.set(i, k, pi.mul(x).sum(pj.mul(y)));
-			InvA.set(j, k, pi.mul(qy).sum(pj.mul(qx)));
+	{
+		combineRows(dRows[i], dRows[j], x, y, qx, qy);
+
+		if (A != null) {
+			for (Poly row[] : aRows) {
+				Poly pi = row[i];
+				Poly pj = row[j];
+
+				row[i] = combine(pi, qx, pj, qy);
+				row[j] = combine(pj, x, pi, y);
+			}
+		}
+		if (InvA != null) {
+			combineRows(invARows[i], invARows[j], x, y, qx, qy);
 		}
 	}
-	
+
 	private void specialColumnCombination(int i, int j, Poly x, Poly y, Poly qx, Poly qy)
-	{				
-		for(int k = 0;k < b;k ++)
-		{
-			Poly pi = D.get(k, i).clone();
-			Poly pj = D.get(k, j).clone();
-			
-			D.set(k, i, pi.mul(x).sum(pj.mul(y)));
-			D.set(k, j, pi.mul(qy).sum(pj.mul(qx)));
+	{
+		for (Poly row[] : dRows) {
+			combineInRow(row, i, j, x, y, qx, qy);
 		}
-		
-		for(int k = 0;k < c;k ++)
-		{
-			Poly pi = B.get(i, k).clone();
-			Poly pj = B.get(j, k).clone();
-			
-			B.set(i, k, pi.mul(qx).sum(pj.mul(qy)));
-			B.set(j, k, pi.mul(y).sum(pj.mul(x)));	
-			
-			pi = InvB.get(k, i).clone();
-			pj = InvB.get(k, j).clone();
-			
-			InvB.set(k, i, pi.mul(x).sum(pj.mul(y)));
-			InvB.set(k, j, pi.mul(qy).sum(pj.mul(qx)));
+
+		if (B != null) {
+			Poly rowI[] = bRows[i], rowJ[] = bRows[j];
+			for(int k = 0;k < c;k ++)
+			{
+				Poly pi = rowI[k];
+				Poly pj = rowJ[k];
+
+				rowI[k] = combine(pi, qx, pj, qy);
+				rowJ[k] = combine(pj, x, pi, y);
+			}
+		}
+		if (InvB != null) {
+			for (Poly row[] : invBRows) {
+				combineInRow(row, i, j, x, y, qx, qy);
+			}
 		}
 	}
-	
-	private void addColumns(int i, int j, Poly factor)
-	{
-		for(int k = 0;k < b;k ++)
-		{			
-			D.set(k, i, D.get(k, i).sum(D.get(k, j).mul(factor)));			
+
+	/**
+	 * rowI = x * rowI + y * rowJ, rowJ = qy * rowI + qx * rowJ.
+	 */
+	private static void combineRows(Poly rowI[], Poly rowJ[], Poly x, Poly y, Poly qx, Poly qy) {
+		for (int k = 0;k < rowI.length; ++k) {
+			Poly pi = rowI[k];
+			Poly pj = rowJ[k];
+			if (pi.isZero() && pj.isZero()) {
+				continue;
+			}
+
+			rowI[k] = combine(pi, x, pj, y);
+			rowJ[k] = combine(pj, qx, pi, qy);
 		}
-		
-		for(int k = 0;k < c;k ++)
-		{
-			B.set(j, k, B.get(j, k).sum(B.get(i, k).mul(factor)));
-			InvB.set(k, i, InvB.get(k, i).sum(InvB.get(k, j).mul(factor)));
+	}
+
+	/**
+	 * row[i] = x * row[i] + y * row[j], row[j] = qy * row[i] + qx * row[j].
+	 */
+	private static void combineInRow(Poly row[], int i, int j, Poly x, Poly y, Poly qx, Poly qy) {
+		Poly pi = row[i];
+		Poly pj = row[j];
+		if (pi.isZero() && pj.isZero()) {
+			return;
 		}
-	}	
-	
+
+		row[i] = combine(pi, x, pj, y);
+		row[j] = combine(pj, qx, pi, qy);
+	}
 }
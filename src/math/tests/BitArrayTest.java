@@ -0,0 +1,188 @@
+package math.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import math.BitArray;
+import math.BitSet;
+
+import org.junit.Test;
+
+public class BitArrayTest {
+	private static final int SIZES[] = new int[] {1, 7, 63, 64, 65, 100, 127, 128, 129, 200};
+
+	private BitArray randomArray(Random random, int size) {
+		BitArray array = new BitArray(size);
+		for (int i = 0;i < size; ++i) {
+			if (random.nextBoolean()) {
+				array.set(i);
+			}
+		}
+		return array;
+	}
+
+	private boolean[] bits(BitArray array) {
+		boolean bits[] = new boolean[array.getFixedSize()];
+		for (int i = 0;i < bits.length; ++i) {
+			bits[i] = array.get(i);
+		}
+		return bits;
+	}
+
+	private void assertBits(boolean expected[], BitArray array) {
+		assertEquals(expected.length, array.getFixedSize());
+		int cardinality = 0;
+		for (int i = 0;i < expected.length; ++i) {
+			assertEquals(expected[i], array.get(i));
+			cardinality += expected[i] ? 1 : 0;
+		}
+		assertEquals(cardinality, array.cardinality());
+		assertEquals(cardinality == 0, array.isEmpty());
+	}
+
+	@Test
+	public void logicalOperations() {
+		Random random = new Random(1);
+
+		for (int size : SIZES) {
+			for (int test = 0;test < 20; ++test) {
+				BitArray a = randomArray(random, size), b = randomArray(random, size);
+				boolean x[] = bits(a), y[] = bits(b);
+				boolean and[] = new boolean[size], andNot[] = new boolean[size], or[] = new boolean[size], xor[] = new boolean[size];
+				for (int i = 0;i < size; ++i) {
+					and[i] = x[i] & y[i];
+					andNot[i] = x[i] & !y[i];
+					or[i] = x[i] | y[i];
+					xor[i] = x[i] ^ y[i];
+				}
+
+				BitArray c = a.clone();
+				c.and(b);
+				assertBits(and, c);
+				c = a.clone();
+				c.andNot(b);
+				assertBits(andNot, c);
+				c = new BitArray(a);
+				c.or(b);
+				assertBits(or, c);
+				c = a.clone();
+				c.xor(b);
+				assertBits(xor, c);
+				assertBits(x, a);
+			}
+		}
+	}
+
+	@Test
+	public void cyclicRanges() {
+		Random random = new Random(2);
+
+		for (int size : SIZES) {
+			BitArray a = randomArray(random, size);
+			boolean x[] = bits(a);
+
+			for (int from = 0;from < size; ++from) {
+				for (int to = 0;to <= size; to += 1 + random.nextInt(5)) {
+					int length = to >= from ? to - from : size - from + to;
+					boolean expected[] = new boolean[length];
+					for (int i = 0;i < length; ++i) {
+						expected[i] = x[(from + i) % size];
+					}
+					assertBits(expected, a.get(from, to));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void rangeModifications() {
+		Random random = new Random(3);
+
+		for (int size : SIZES) {
+			for (int test = 0;test < 50; ++test) {
+				BitArray a = randomArray(random, size);
+				boolean x[] = bits(a);
+				int from = random.nextInt(size + 1);
+				int to = from + random.nextInt(size - from + 1);
+
+				switch (test % 3) {
+				case 0:
+					a.set(from, to);
+					break;
+				case 1:
+					a.clear(from, to);
+					break;
+				default:
+					a.flip(from, to);
+				}
+				for (int i = from;i < to; ++i) {
+					x[i] = test % 3 == 0 ? true : (test % 3 == 1 ? false : !x[i]);
+				}
+				assertBits(x, a);
+			}
+		}
+	}
+
+	@Test
+	public void bitSearch() {
+		Random random = new Random(4);
+
+		for (int size : SIZES) {
+			BitArray a = randomArray(random, size);
+			BitSet reference = new BitSet();
+			for (int i = 0;i < size; ++i) {
+				reference.set(i, a.get(i));
+			}
+
+			assertEquals(reference.length(), a.length());
+			for (int i = 0;i < size; ++i) {
+				assertEquals(reference.nextSetBit(i), a.nextSetBit(i));
+				assertEquals(reference.nextClearBit(i), a.nextClearBit(i));
+				assertEquals(reference.previousSetBit(i), a.previousSetBit(i));
+				assertEquals(reference.previousClearBit(i), a.previousClearBit(i));
+			}
+			assertEquals(reference.hashCode(), a.hashCode());
+		}
+	}
+
+	@Test
+	public void wordsAndRepresentations() {
+		Random random = new Random(5);
+
+		for (int size : SIZES) {
+			BitArray a = randomArray(random, size);
+			BitArray b = new BitArray(size);
+			for (int i = 0;i < a.wordsCount(); ++i) {
+				b.setWord(i, a.getWord(i));
+			}
+			assertEquals(a, b);
+			assertEquals(a.hashCode(), b.hashCode());
+
+			// массив, переведенный в представление BitSet, равен упакованному
+			BitArray c = a.clone();
+			c.getBitSet();
+			assertEquals(a, c);
+			assertEquals(c, a);
+			assertEquals(a.hashCode(), c.hashCode());
+			c.xor(a);
+			assertTrue(c.isEmpty());
+		}
+
+		BitArray d = new BitArray(10, -1L);
+		assertEquals(10, d.cardinality());
+		assertEquals(0x3ffL, d.getWord(0));
+		assertEquals(0L, d.getWord(1));
+	}
+
+	@Test
+	public void bitSetChangesAreVisible() {
+		BitArray a = new BitArray(10);
+		a.getBitSet().set(3);
+		assertTrue(a.get(3));
+		assertEquals("0001000000", a.toString());
+		assertFalse(a.equals(new BitArray(10)));
+	}
+}
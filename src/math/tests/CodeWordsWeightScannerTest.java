@@ -0,0 +1,85 @@
+package math.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import math.BitArray;
+import math.CodeWordsWeightScanner;
+import math.Matrix;
+
+import org.junit.Test;
+
+public class CodeWordsWeightScannerTest {
+
+	private Matrix randomMatrix(Random random, int rows, int cols) {
+		Matrix matrix = new Matrix(rows, cols);
+		for (int i = 0;i < rows; ++i) {
+			for (int j = 0;j < cols; ++j) {
+				matrix.set(i, j, random.nextBoolean());
+			}
+		}
+		return matrix;
+	}
+
+	private long[] naiveSpectrum(Matrix gen) {
+		long spectrum[] = new long[gen.getColumnCount() + 1];
+
+		for (int m = 0;m < (1 << gen.getRowCount()); ++m) {
+			BitArray word = new BitArray(gen.getColumnCount());
+			for (int i = 0;i < gen.getRowCount(); ++i) {
+				if ((m & (1 << i)) != 0) {
+					word.xor(gen.getRow(i));
+				}
+			}
+			++spectrum[word.cardinality()];
+		}
+
+		return spectrum;
+	}
+
+	@Test
+	public void spectrumAndDistance() {
+		Random random = new Random(1);
+
+		for (int n : new int[] {10, 64, 100, 200}) {
+			Matrix gen = randomMatrix(random, 8, n);
+			long expected[] = naiveSpectrum(gen);
+			int minDist = Integer.MAX_VALUE;
+			for (int w = expected.length - 1;w > 0; --w) {
+				if (expected[w] > 0) {
+					minDist = w;
+				}
+			}
+
+			CodeWordsWeightScanner scanner = new CodeWordsWeightScanner(gen);
+			assertArrayEquals(expected, scanner.findSpectrum());
+			assertEquals(minDist, scanner.findMinDist());
+		}
+	}
+
+	@Test
+	public void parallelScanMatchesSerial() {
+		Random random = new Random(2);
+
+		for (int n : new int[] {40, 90, 150}) {
+			Matrix gen = randomMatrix(random, 21, n);
+			CodeWordsWeightScanner scanner = new CodeWordsWeightScanner(gen);
+
+			scanner.setThreads(1);
+			long serialSpectrum[] = scanner.findSpectrum();
+			int serialMinDist = scanner.findMinDist();
+
+			scanner.setThreads(3);
+			assertArrayEquals(serialSpectrum, scanner.findSpectrum());
+			assertEquals(serialMinDist, scanner.findMinDist());
+
+			long total = 0;
+			for (long count : serialSpectrum) {
+				total += count;
+			}
+			assertEquals(1L << 21, total);
+		}
+	}
+}
@@ -0,0 +1,162 @@
+package math.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import math.ConvCodeAlgs;
+import math.ConvCodeCanonicalForm;
+import math.Poly;
+import math.PolyMatrix;
+
+import org.junit.Test;
+
+import codes.ConvCode;
+
+public class ConvCodeCanonicalFormTest {
+
+	@Test
+	public void rowOperationsShouldNotChangeForm() {
+		Random random = new Random(1);
+
+		for (int test = 0;test < 50; ++test) {
+			PolyMatrix generator = randomFullRankMatrix(random, 2, 4, 3);
+			PolyMatrix transform;
+			do {
+				transform = randomMatrix(random, 2, 2, 2);
+			} while (transform.get(0, 0).mul(transform.get(1, 1)).sum(transform.get(0, 1).mul(transform.get(1, 0))).isZero());
+
+			assertFormsEqual(ConvCodeCanonicalForm.canonicalForm(generator, true),
+					ConvCodeCanonicalForm.canonicalForm(transform.mul(generator), true));
+		}
+	}
+
+	@Test
+	public void generatorAndParityCheckShouldGiveSameForm() {
+		Random random = new Random(2);
+		int sizes[][] = {{1, 3}, {2, 3}, {2, 4}, {3, 5}};
+
+		for (int size[] : sizes) {
+			for (int test = 0;test < 10; ++test) {
+				ConvCode code = new ConvCode(randomFullRankMatrix(random, size[0], size[1], 2), true);
+				ConvCode dual = new ConvCode(code.parityCheck(), false);
+
+				assertTrue(dual.isGeneratorNull());
+				assertFormsEqual(ConvCodeCanonicalForm.canonicalForm(code.generator(), true),
+						ConvCodeCanonicalForm.canonicalForm(dual.parityCheck(), false));
+				assertEquals(ConvCodeCanonicalForm.fingerprint(code), ConvCodeCanonicalForm.fingerprint(dual));
+			}
+		}
+	}
+
+	@Test
+	public void columnPermutationAndReversalShouldNotChangeForm() {
+		Random random = new Random(3);
+
+		for (int test = 0;test < 50; ++test) {
+			PolyMatrix generator = randomFullRankMatrix(random, 2, 5, 3);
+			PolyMatrix permuted = generator.transpose().transpose();
+			for (int j = permuted.getColumnCount() - 1;j > 0; --j) {
+				permuted.swapColumns(j, random.nextInt(j + 1));
+			}
+
+			Poly form[] = ConvCodeCanonicalForm.canonicalForm(generator, true);
+			assertFormsEqual(form, ConvCodeCanonicalForm.canonicalForm(permuted, true));
+			assertFormsEqual(form, ConvCodeCanonicalForm.canonicalForm(reverse(generator), true));
+		}
+	}
+
+	@Test
+	public void fingerprintsShouldDistinguishCodes() throws Exception {
+		// (7, 5) и (7, 6): свободные расстояния 5 и 4
+		PolyMatrix first = new PolyMatrix(1, 2);
+		first.set(0, 0, new Poly(new int[] {0, 1, 2}));
+		first.set(0, 1, new Poly(new int[] {0, 2}));
+		PolyMatrix second = new PolyMatrix(1, 2);
+		second.set(0, 0, new Poly(new int[] {0, 1, 2}));
+		second.set(0, 1, new Poly(new int[] {1, 2}));
+
+		ConvCode firstCode = new ConvCode(first, true);
+		ConvCode secondCode = new ConvCode(second, true);
+		assertEquals(5, firstCode.getFreeDist());
+		assertEquals(4, secondCode.getFreeDist());
+		assertFalse(ConvCodeCanonicalForm.fingerprint(firstCode).equals(ConvCodeCanonicalForm.fingerprint(secondCode)));
+
+		Random random = new Random(4);
+		for (int test = 0;test < 200; ++test) {
+			PolyMatrix a = randomFullRankMatrix(random, 2, 3, 1);
+			PolyMatrix b = randomFullRankMatrix(random, 2, 3, 1);
+			Poly aForm[] = ConvCodeCanonicalForm.canonicalForm(a, true);
+			Poly bForm[] = ConvCodeCanonicalForm.canonicalForm(b, true);
+
+			assertEquals(formsEqual(aForm, bForm),
+					ConvCodeCanonicalForm.fingerprint(2, 3, aForm).equals(ConvCodeCanonicalForm.fingerprint(2, 3, bForm)));
+		}
+	}
+
+	/**
+	 * Обращение времени: строка степени m заменяется на D^m g(1/D).
+	 */
+	private PolyMatrix reverse(PolyMatrix matrix) {
+		int degrees[] = ConvCodeAlgs.getRowDegrees(matrix);
+		PolyMatrix reversed = new PolyMatrix(matrix.getRowCount(), matrix.getColumnCount());
+
+		for (int i = 0;i < matrix.getRowCount(); ++i) {
+			for (int j = 0;j < matrix.getColumnCount(); ++j) {
+				Poly poly = new Poly();
+				for (int d = 0;d <= matrix.get(i, j).getDegree(); ++d) {
+					if (matrix.get(i, j).getCoeff(d)) {
+						poly.setCoeff(degrees[i] - d, true);
+					}
+				}
+				reversed.set(i, j, poly);
+			}
+		}
+		return reversed;
+	}
+
+	private boolean formsEqual(Poly a[], Poly b[]) {
+		if (a.length != b.length) {
+			return false;
+		}
+		for (int i = 0;i < a.length; ++i) {
+			if (!a[i].equals(b[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void assertFormsEqual(Poly expected[], Poly actual[]) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0;i < expected.length; ++i) {
+			assertTrue(expected[i] + " != " + actual[i], expected[i].equals(actual[i]));
+		}
+	}
+
+	private PolyMatrix randomFullRankMatrix(Random random, int rows, int columns, int maxDegree) {
+		while (true) {
+			PolyMatrix matrix = randomMatrix(random, rows, columns, maxDegree);
+
+			for (Poly coord : ConvCodeCanonicalForm.canonicalForm(matrix, true)) {
+				if (!coord.isZero()) {
+					return matrix;
+				}
+			}
+		}
+	}
+
+	private PolyMatrix randomMatrix(Random random, int rows, int columns, int maxDegree) {
+		PolyMatrix matrix = new PolyMatrix(rows, columns);
+		for (int i = 0;i < rows; ++i) {
+			for (int j = 0;j < columns; ++j) {
+				Poly poly = new Poly();
+				for (int d = 0;d <= maxDegree; ++d) {
+					poly.setCoeff(d, random.nextBoolean());
+				}
+				matrix.set(i, j, poly);
+			}
+		}
+		return matrix;
+	}
+}
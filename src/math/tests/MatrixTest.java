@@ -0,0 +1,123 @@
+package math.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import math.BitArray;
+import math.MathAlgs;
+import math.Matrix;
+
+import org.junit.Test;
+
+public class MatrixTest {
+	private static final int SIZES[] = new int[] {1, 5, 63, 64, 65, 130, 200};
+
+	private Matrix randomMatrix(Random random, int rows, int cols) {
+		Matrix matrix = new Matrix(rows, cols);
+		for (int i = 0;i < rows; ++i) {
+			for (int j = 0;j < cols; ++j) {
+				matrix.set(i, j, random.nextBoolean());
+			}
+		}
+		return matrix;
+	}
+
+	@Test
+	public void multiplication() {
+		Random random = new Random(1);
+
+		for (int rows : SIZES) {
+			for (int inner : SIZES) {
+				int cols = SIZES[random.nextInt(SIZES.length)];
+				Matrix a = randomMatrix(random, rows, inner);
+				Matrix b = randomMatrix(random, inner, cols);
+				Matrix product = a.mul(b);
+
+				assertEquals(rows, product.getRowCount());
+				assertEquals(cols, product.getColumnCount());
+				for (int i = 0;i < rows; ++i) {
+					for (int j = 0;j < cols; ++j) {
+						boolean val = false;
+						for (int k = 0;k < inner; ++k) {
+							val ^= a.get(i, k) & b.get(k, j);
+						}
+						assertEquals(val, product.get(i, j));
+					}
+				}
+
+				BitArray vec = b.transpose().getRow(0);
+				BitArray vecProduct = a.mul(vec);
+				for (int i = 0;i < rows; ++i) {
+					assertEquals(product.get(i, 0), vecProduct.get(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void transposition() {
+		Random random = new Random(2);
+
+		for (int rows : SIZES) {
+			for (int cols : SIZES) {
+				Matrix a = randomMatrix(random, rows, cols);
+				Matrix tr = a.transpose();
+
+				assertEquals(cols, tr.getRowCount());
+				assertEquals(rows, tr.getColumnCount());
+				for (int i = 0;i < rows; ++i) {
+					for (int j = 0;j < cols; ++j) {
+						assertEquals(a.get(i, j), tr.get(j, i));
+					}
+				}
+				assertEquals(a, tr.transpose());
+			}
+		}
+	}
+
+	@Test
+	public void blocks() {
+		Random random = new Random(3);
+		Matrix a = randomMatrix(random, 150, 150);
+		Matrix sub = a.getSubMatrix(10, 37, 100, 90);
+
+		for (int i = 0;i < 100; ++i) {
+			for (int j = 0;j < 90; ++j) {
+				assertEquals(a.get(10 + i, 37 + j), sub.get(i, j));
+			}
+		}
+
+		Matrix b = (Matrix) a.clone();
+		b.setBlock(50, 60, sub);
+		for (int i = 0;i < 150; ++i) {
+			for (int j = 0;j < 150; ++j) {
+				boolean inBlock = i >= 50 && j >= 60 && j < 150 && i < 150;
+				assertEquals(inBlock ? sub.get(i - 50, j - 60) : a.get(i, j), b.get(i, j));
+			}
+		}
+
+		Matrix c = a.assureColumnCount(70).assureColumnCount(100);
+		for (int j = 0;j < 100; ++j) {
+			assertEquals(j < 70 && a.get(3, j), c.get(3, j));
+		}
+	}
+
+	@Test
+	public void orthogonalMatrix() {
+		Random random = new Random(4);
+
+		for (int n : new int[] {10, 80, 150}) {
+			int k = n / 3;
+			// систематическая матрица [I | A]
+			Matrix gen = new Matrix(k, n);
+			gen.setIdentityBlock(0, 0, k);
+			gen.setBlock(0, k, randomMatrix(random, k, n - k));
+
+			Matrix ort = MathAlgs.findOrthogonalMatrix(gen, false);
+
+			assertEquals(n - k, ort.getRowCount());
+			assertEquals(new Matrix(k, n - k), gen.mul(ort.transpose()));
+		}
+	}
+}
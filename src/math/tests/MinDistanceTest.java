@@ -1,6 +1,7 @@
 package math.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import in_out_interfaces.IOTrellis;
 
@@ -8,6 +9,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Random;
 
 import math.ConvCodeAlgs;
 import math.ConvCodeSpanForm;
@@ -69,4 +71,42 @@ public class MinDistanceTest {
 		assertEquals(TrivialMinDist, BEASTminDist);
 		assertEquals(VDminDist, BEASTminDist);
 	}
+
+	@Test
+	public void freeDistDecisionShouldMatchFreeDist() throws SpanFormException {
+		Random random = new Random(7);
+		
+		int checked = 0;
+		for (int test = 0;test < 30; ++test) {
+			int n = 2 + test % 2, degree = 2 + test % 5;
+			PolyMatrix G = new PolyMatrix(1, n);
+			for (int j = 0;j < n; ++j) {
+				Poly poly = new Poly();
+				for (int d = 0;d <= degree; ++d) {
+					if (random.nextBoolean()) {
+						poly.setCoeff(d, true);
+					}
+				}
+				G.set(0, j, poly);
+			}
+			G.get(0, 0).setCoeff(0, true);
+			G.get(0, 1).setCoeff(0, true);
+			G.get(0, 1).setCoeff(degree, true);
+			
+			int freeDist;
+			try {
+				freeDist = MinDistance.findFreeDist(new ConvCode(G, false));
+			} catch (RuntimeException e) {
+				// катастрофический код
+				continue;
+			}
+
+			for (int d = 0;d <= freeDist + 2; ++d) {
+				// каждый раз новый код, чтобы не использовалось вычисленное расстояние
+				assertEquals("d = " + d + ", " + G, freeDist >= d, new ConvCode(G, false).hasFreeDistAtLeast(d));
+			}
+			++checked;
+		}
+		assertTrue(checked > 15);
+	}
 }
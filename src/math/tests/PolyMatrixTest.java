@@ -0,0 +1,122 @@
+package math.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import math.ConvCodeAlgs;
+import math.Poly;
+import math.PolyMatrix;
+
+import org.junit.Test;
+
+public class PolyMatrixTest {
+
+	@Test
+	public void mulShouldMatchElementwiseMul() {
+		Random random = new Random(1);
+		// короткие произведения, произведения в два слова, многочлены из нескольких слов
+		int degrees[][] = {{3, 5}, {40, 50}, {63, 63}, {100, 7}, {130, 200}};
+
+		for (int degree[] : degrees) {
+			PolyMatrix a = randomMatrix(random, 3, 4, degree[0]);
+			PolyMatrix b = randomMatrix(random, 4, 5, degree[1]);
+			PolyMatrix product = a.mul(b);
+
+			assertEquals(3, product.getRowCount());
+			assertEquals(5, product.getColumnCount());
+			for (int i = 0;i < 3; ++i) {
+				for (int j = 0;j < 5; ++j) {
+					Poly expected = new Poly();
+					for (int k = 0;k < 4; ++k) {
+						expected = expected.sum(a.get(i, k).mul(b.get(k, j)));
+					}
+					assertTrue(expected.equals(product.get(i, j)));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void transposeShouldSwapIndices() {
+		PolyMatrix matrix = randomMatrix(new Random(2), 2, 3, 4);
+		PolyMatrix tr = matrix.transpose();
+
+		assertEquals(3, tr.getRowCount());
+		assertEquals(2, tr.getColumnCount());
+		for (int i = 0;i < 2; ++i) {
+			for (int j = 0;j < 3; ++j) {
+				assertTrue(matrix.get(i, j).equals(tr.get(j, i)));
+			}
+		}
+		assertTrue(matrix.equals(tr.transpose()));
+	}
+
+	@Test
+	public void sortColumnsShouldBeStableAscendingSort() {
+		Random random = new Random(3);
+
+		for (int test = 0;test < 100; ++test) {
+			// малые степени, чтобы были равные столбцы
+			PolyMatrix matrix = randomMatrix(random, 2, 8, random.nextInt(3));
+			// копия с теми же объектами элементов
+			PolyMatrix expected = matrix.transpose().transpose();
+			for (int i = 0;i < expected.getColumnCount() - 1; ++i) {
+				for (int j = i + 1;j > 0; --j) {
+					if (expected.compareColumns(j, j - 1) < 0) {
+						expected.swapColumns(j, j - 1);
+					}
+				}
+			}
+
+			matrix.sortColumns();
+			assertTrue(expected.equals(matrix));
+			for (int j = 0;j < 8; ++j) {
+				// равные столбцы сохраняют порядок: переставлены те же объекты
+				assertSame(expected.get(0, j), matrix.get(0, j));
+			}
+			for (int j = 0;j < matrix.getColumnCount() - 1; ++j) {
+				assertTrue(matrix.compareColumns(j, j + 1) <= 0);
+			}
+		}
+	}
+
+	@Test
+	public void compareColumnsShouldCompareLastRowsFirst() {
+		PolyMatrix matrix = new PolyMatrix(2, 3);
+		matrix.set(0, 0, new Poly(new int[] {5}));
+		matrix.set(1, 0, new Poly(new int[] {0}));
+		matrix.set(0, 1, new Poly(new int[] {0}));
+		matrix.set(1, 1, new Poly(new int[] {1}));
+		matrix.set(0, 2, new Poly(new int[] {0, 70}));
+		matrix.set(1, 2, new Poly(new int[] {1}));
+
+		assertEquals(-1, matrix.compareColumns(0, 1));
+		assertEquals(-1, matrix.compareColumns(1, 2));
+		assertEquals(1, matrix.compareColumns(2, 0));
+		assertEquals(0, matrix.compareColumns(2, 2));
+	}
+
+	@Test
+	public void compositionShouldInvertPowerDecomposition() {
+		PolyMatrix matrix = randomMatrix(new Random(4), 3, 5, 6);
+
+		assertTrue(matrix.equals(ConvCodeAlgs.buildPolyComposition(ConvCodeAlgs.buildPowerDecomposition(matrix))));
+	}
+
+	private PolyMatrix randomMatrix(Random random, int rows, int columns, int maxDegree) {
+		PolyMatrix matrix = new PolyMatrix(rows, columns);
+		for (int i = 0;i < rows; ++i) {
+			for (int j = 0;j < columns; ++j) {
+				Poly poly = new Poly();
+				for (int d = 0;d <= maxDegree; ++d) {
+					poly.setCoeff(d, random.nextBoolean());
+				}
+				matrix.set(i, j, poly);
+			}
+		}
+		// хотя бы один элемент максимальной степени
+		matrix.get(0, 0).setCoeff(maxDegree, true);
+		return matrix;
+	}
+}
@@ -2,6 +2,8 @@ package math.tests;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import math.Poly;
 
 import org.junit.Test;
@@ -182,6 +184,91 @@ public class PolyTest {
 		assertTrue(isPolyCorrect(euclid[2]));
 	}
 	
+	@Test // mul
+	public void mulShouldMatchNaiveMul() {
+		Random random = new Random(1);
+		// от 500 (8 слов) - метод Карацубы, 700 и 1500 (11 и 24 слова) - неравные половины и несколько уровней
+		int degrees[] = {0, 1, 5, 31, 32, 63, 64, 65, 127, 200, 500, 700, 1000, 1500};
+		
+		for (int aDegree : degrees) {
+			for (int bDegree : degrees) {
+				Poly a = randomPoly(random, aDegree), b = randomPoly(random, bDegree);
+				Poly product = a.mul(b);
+				
+				assertTrue(naiveMul(a, b).equals(product));
+				assertEquals(aDegree + bDegree, product.getDegree());
+				assertTrue(isPolyCorrect(product));
+			}
+		}
+	}
+	
+	@Test // divide
+	public void divisionShouldSatisfyDivisionIdentity() {
+		Random random = new Random(2);
+		int degrees[] = {0, 1, 7, 63, 64, 65, 130, 300};
+		for (int aDegree : degrees) {
+			for (int bDegree : degrees) {
+				Poly a = randomPoly(random, aDegree), b = randomPoly(random, bDegree);
+				Poly division[] = a.divide(b);
+				
+				assertTrue(division[1].isZero() || division[1].getDegree() < b.getDegree());
+				assertTrue(a.equals(division[0].mul(b).sum(division[1])));
+				assertTrue(division[0].equals(a.getQuotient(b)));
+				assertTrue(division[1].equals(a.getRemainder(b)));
+			}
+		}
+	}
+	
+	@Test // increaseDegree
+	public void increaseDegreeShouldShiftCoeffs() {
+		Random random = new Random(3);
+		for (int pow : new int[] {1, 7, 63, 64, 65, 130}) {
+			Poly poly = randomPoly(random, 100);
+			Poly shifted = poly.mulPow(pow);
+			
+			assertEquals(100 + pow, shifted.getDegree());
+			for (int i = 0;i <= shifted.getDegree(); ++i) {
+				assertEquals(i >= pow && poly.getCoeff(i - pow), shifted.getCoeff(i));
+			}
+			
+			poly.setCoeff(200, true);
+			poly.setCoeff(200, false);
+			poly.increaseDegree(pow);
+			assertTrue(shifted.equals(poly));
+		}
+	}
+	
+	@Test // compareTo
+	public void comparisonShouldBeLexicographicFromLowestCoeff() {
+		assertTrue(new Poly(new int[] {0, 2}).compareTo(new Poly(new int[] {1, 2})) > 0);
+		assertTrue(new Poly(new int[] {1, 2}).compareTo(new Poly(new int[] {0, 1, 2})) < 0);
+		assertTrue(new Poly(new int[] {70}).compareTo(new Poly(new int[] {0, 70})) < 0);
+		assertTrue(new Poly(new int[] {3}).compareTo(new Poly(new int[] {0, 70})) < 0);
+		assertEquals(0, new Poly(new int[] {0, 70}).compareTo(new Poly(new int[] {70, 0})));
+		assertTrue(new Poly().compareTo(Poly.getUnitPoly()) < 0);
+	}
+	
+	private Poly randomPoly(Random random, int degree) {
+		Poly poly = new Poly();
+		for (int i = 0;i < degree; ++i) {
+			poly.setCoeff(i, random.nextBoolean());
+		}
+		poly.setCoeff(degree, true);
+		return poly;
+	}
+	
+	private Poly naiveMul(Poly a, Poly b) {
+		Poly res = new Poly();
+		for (int i = 0;i <= a.getDegree(); ++i) {
+			for (int j = 0;j <= b.getDegree(); ++j) {
+				if (a.getCoeff(i) && b.getCoeff(j)) {
+					res.setCoeff(i + j, !res.getCoeff(i + j));
+				}
+			}
+		}
+		return res;
+	}
+	
 	private boolean isPolyCorrect(Poly poly) {
 		return poly.getDegree() == 0 ||
 			poly.getCoeff(poly.getDegree()) != false;
@@ -2,6 +2,8 @@ package math.tests;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
+
 import math.Poly;
 import math.PolyMatrix;
 import math.SmithDecomposition;
@@ -168,6 +170,75 @@ public class SmithDecompositionTest {
 		assertTrue(decomposition2.getD().equals(D));
 	}
 	
+	@Test
+	public void basicAndNonCatastrophicChecksExamples() {
+		PolyMatrix G = new PolyMatrix(1, 2);
+		// (1 + D + D^2, 1 + D^2) - базисная
+		G.set(0, 0, new Poly(new int[] {0, 1, 2}));
+		G.set(0, 1, new Poly(new int[] {0, 2}));
+		assertTrue(SmithDecomposition.isBasic(G));
+		assertTrue(SmithDecomposition.isNonCatastrophic(G));
+		
+		// (D + D^2, D^3) - некатастрофическая, но не базисная
+		G.set(0, 0, new Poly(new int[] {1, 2}));
+		G.set(0, 1, new Poly(new int[] {3}));
+		assertFalse(SmithDecomposition.isBasic(G));
+		assertTrue(SmithDecomposition.isNonCatastrophic(G));
+		
+		// (1 + D, 1 + D^2) - катастрофическая
+		G.set(0, 0, new Poly(new int[] {0, 1}));
+		G.set(0, 1, new Poly(new int[] {0, 2}));
+		assertFalse(SmithDecomposition.isBasic(G));
+		assertFalse(SmithDecomposition.isNonCatastrophic(G));
+		
+		// строки линейно зависимы
+		G = new PolyMatrix(2, 2);
+		G.set(0, 0, new Poly(new int[] {0, 1}));
+		G.set(0, 1, new Poly(new int[] {1}));
+		G.set(1, 0, new Poly(new int[] {0, 2}));
+		G.set(1, 1, new Poly(new int[] {1, 2}));
+		assertFalse(SmithDecomposition.isNonCatastrophic(G));
+	}
+	
+	@Test
+	public void checksAndRequestedFactorsShouldMatchFullDecomposition() {
+		Random random = new Random(1);
+		
+		for (int test = 0;test < 2000; ++test) {
+			int k = 1 + random.nextInt(3), n = k + random.nextInt(3);
+			PolyMatrix G = new PolyMatrix(k, n);
+			for (int i = 0;i < k; ++i) {
+				for (int j = 0;j < n; ++j) {
+					Poly poly = new Poly();
+					for (int d = 0;d <= 3; ++d) {
+						poly.setCoeff(d, random.nextBoolean());
+					}
+					G.set(i, j, poly);
+				}
+			}
+			
+			SmithDecomposition decomposition = new SmithDecomposition(G);
+			assertTrue(G.equals(decomposition.getA().mul(decomposition.getD().mul(decomposition.getB()))));
+			
+			boolean nonCatastrophic = true;
+			for (int i = 0;i < k; ++i) {
+				nonCatastrophic &= decomposition.getD().get(i, i).isMonomial();
+			}
+			assertEquals(decomposition.isBasic(), SmithDecomposition.isBasic(G));
+			assertEquals(nonCatastrophic, SmithDecomposition.isNonCatastrophic(G));
+			
+			SmithDecomposition partial = new SmithDecomposition(G, SmithDecomposition.FACTOR_B | SmithDecomposition.FACTOR_INV_B);
+			assertTrue(decomposition.getD().equals(partial.getD()));
+			assertTrue(decomposition.getB().equals(partial.getB()));
+			assertTrue(decomposition.getInvB().equals(partial.getInvB()));
+			try {
+				partial.getA();
+				fail("Factor A wasn't requested");
+			} catch (IllegalStateException e) {
+			}
+		}
+	}
+	
 	/**
 	 * Тестирует реализацию алгоритма декомпозиции Смита на заданой матрице G.
 	 * @param G матрица для декомпозиции
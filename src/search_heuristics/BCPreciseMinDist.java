@@ -8,6 +8,15 @@ import in_out_interfaces.IOMatrix;
 import codes.BlockCode;
 import codes.Code;
 
+/**
+ * Проверяет, что минимальное расстояние кода не меньше заданного.
+ * 
+ * Эвристика не имеет изменяемого состояния, поэтому один экземпляр может использоваться
+ * несколькими потоками поиска (см. {@link search_procedures.ParallelCodesSearchScheme}).
+ * 
+ * @author stas
+ *
+ */
 public class BCPreciseMinDist implements IHeuristic {
 	private int minDist;
 	private boolean checkGenRowIndependence; 
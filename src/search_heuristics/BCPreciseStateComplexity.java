@@ -4,6 +4,15 @@ import trellises.TrellisUtils;
 import codes.BlockCode;
 import codes.Code;
 
+/**
+ * Проверяет, что сложность минимальной решетки кода не больше заданной.
+ * 
+ * Эвристика не имеет изменяемого состояния, поэтому один экземпляр может использоваться
+ * несколькими потоками поиска (см. {@link search_procedures.ParallelCodesSearchScheme}).
+ * 
+ * @author stas
+ *
+ */
 public class BCPreciseStateComplexity implements IHeuristic {
 	private int stateComplexity;
 	private boolean checkGenRowIndependence;
@@ -0,0 +1,22 @@
+package search_heuristics;
+
+import codes.Code;
+import codes.ConvCode;
+
+/**
+ * Отбрасывает катастрофические сверточные коды (и коды с линейно зависимыми строками 
+ * порождающей матрицы). Проверка - декомпозиция Смита без накопления множителей, 
+ * прерываемая на первом инвариантном множителе, отличном от D^i, поэтому ее стоит 
+ * ставить перед эвристиками, строящими решетку кода.
+ * 
+ * @author stas
+ *
+ */
+public class CCNonCatastrophicHeur implements IHeuristic {
+
+	@Override
+	public boolean check(Code code) {
+		return ((ConvCode)code).isNonCatastrophic();
+	}
+
+}
@@ -13,7 +13,7 @@ public class CCPreciseFreeDist implements IHeuristic  {
 	@Override
 	public boolean check(Code code) {
 		try {
-			if (((ConvCode)code).getFreeDist() < freeDist) {
+			if (!((ConvCode)code).hasFreeDistAtLeast(freeDist)) {
 				return false;
 			}
 		} catch (Exception e) {
@@ -2,14 +2,40 @@ package search_heuristics;
 
 import java.util.Hashtable;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicLong;
+
+import search_procedures.ICheckpointable;
+import search_procedures.SearchCheckpoint;
 
 import codes.Code;
 
-public class CombinedHeuristic implements IHeuristic {
+/**
+ * Последовательно применяет эвристики в порядке приоритетов и считает, сколько кодов 
+ * проверено и отвергнуто каждой из них.
+ * 
+ * После добавления всех эвристик метод {@link #check(Code)} потокобезопасен, если 
+ * потокобезопасны вложенные эвристики: счетчики атомарны, а таблицы после настройки только читаются.
+ * 
+ * @author stas
+ *
+ */
+public class CombinedHeuristic implements IHeuristic, ICheckpointable {
+	private static final String KEY = "CombinedHeuristic.";
+	
 	private Hashtable<Integer, IHeuristic> heuristics = new Hashtable<Integer, IHeuristic>(); 
+	/**
+	 * Количество кодов, проверенных эвристикой с данным приоритетом
+	 */
+	private Hashtable<Integer, AtomicLong> checked = new Hashtable<Integer, AtomicLong>();
+	/**
+	 * Количество кодов, отвергнутых эвристикой с данным приоритетом
+	 */
+	private Hashtable<Integer, AtomicLong> rejected = new Hashtable<Integer, AtomicLong>();
 	
 	public void addHeuristic(int priority, IHeuristic heuristic) {
 		heuristics.put(priority, heuristic);
+		checked.put(priority, new AtomicLong());
+		rejected.put(priority, new AtomicLong());
 	}
 	
 	@Override
@@ -17,7 +43,9 @@ public class CombinedHeuristic implements IHeuristic {
 		for(Entry<Integer, IHeuristic> entry : heuristics.entrySet()) {
 			IHeuristic heuristic = entry.getValue();
 			
+			checked.get(entry.getKey()).incrementAndGet();
 			if (!heuristic.check(code)) {
+				rejected.get(entry.getKey()).incrementAndGet();
 				return false;
 			}
 		}
@@ -25,4 +53,43 @@ public class CombinedHeuristic implements IHeuristic {
 		return true;
 	}
 
+	public long getCheckedCount(int priority) {
+		return checked.get(priority).get();
+	}
+	
+	public long getRejectedCount(int priority) {
+		return rejected.get(priority).get();
+	}
+	
+	/**
+	 * @return строка вида "priority: rejected/checked" для каждой эвристики
+	 */
+	public String getStatistics() {
+		StringBuilder statistics = new StringBuilder();
+		
+		for (Integer priority : heuristics.keySet()) {
+			if (statistics.length() > 0) {
+				statistics.append(", ");
+			}
+			statistics.append(priority + ": " + rejected.get(priority) + "/" + checked.get(priority));
+		}
+		
+		return statistics.toString();
+	}
+
+	@Override
+	public void saveState(SearchCheckpoint checkpoint) {
+		for (Integer priority : heuristics.keySet()) {
+			checkpoint.put(KEY + priority + ".checked", checked.get(priority).get());
+			checkpoint.put(KEY + priority + ".rejected", rejected.get(priority).get());
+		}
+	}
+
+	@Override
+	public void restoreState(SearchCheckpoint checkpoint) {
+		for (Integer priority : heuristics.keySet()) {
+			checked.get(priority).set(checkpoint.getLong(KEY + priority + ".checked", 0));
+			rejected.get(priority).set(checkpoint.getLong(KEY + priority + ".rejected", 0));
+		}
+	}
 }
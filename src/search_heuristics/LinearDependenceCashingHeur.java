@@ -2,11 +2,12 @@ package search_heuristics;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
-import java.util.TreeMap;
 
+import math.ConvCodeCanonicalForm.Fingerprint;
 import math.Poly;
 import search_tools.CEnumerator;
+import search_tools.FingerprintCache;
+import search_tools.MappedFingerprintTable;
 import codes.Code;
 import codes.ConvCode;
 
@@ -15,63 +16,62 @@ public class LinearDependenceCashingHeur implements IHeuristic {
 	private int maxDelay;
 	private PolyLinearDependenceDataBase dataBase;
 	
+	/**
+	 * Найденные веса линейных зависимостей наборов младших коэффициентов проверочных многочленов.
+	 * Набор упорядочивается и хранится как 128-битный отпечаток в {@link FingerprintCache}
+	 * ограниченного размера, поэтому долгий поиск не исчерпывает кучу, а параллельные потоки,
+	 * проверяющие коды с общей базой, пользуются результатами друг друга. Вес зависимости -
+	 * верхняя оценка свободного расстояния кода, так что потеря вытесненной записи приводит
+	 * лишь к повторному вычислению.
+	 *
+	 * Вес зависит от задержки, до которой усекаются многочлены и по которой перебираются
+	 * множители, поэтому задержка входит в отпечаток вместе с размером набора, и одну базу
+	 * могут использовать эвристики с разными задержками.
+	 */
 	public static class PolyLinearDependenceDataBase {
+		/**
+		 * Метка файла вытесненных записей: вес линейной зависимости по набору, задержке и размеру
+		 * набора. Таблица с другой меткой хранит записи с другими ключами и не подходит базе.
+		 */
+		public static final long SPILL_TAG = 0x4c696e4465700001L;
 		
-		static class PolyComparator implements Comparator<Poly> {
-
-			@Override
-			public int compare(Poly p1, Poly p2) {
-				
-				if (p1.getDegree() != p2.getDegree()) {
-					return p1.getDegree() - p2.getDegree();
-				}
-				
-				for (int j = 0;j < p1.getDegree(); ++j) {
-					if (p1.getCoeff(j) != p2.getCoeff(j)) {
-						return p1.getCoeff(j) ? 1 : -1;
-					}
-				}
-				
-				return 0;
-			}
-			
+		/**
+		 * Количество наборов, хранимых в памяти по умолчанию.
+		 */
+		public static final int DEFAULT_CAPACITY = 1 << 18;
+		
+		private final FingerprintCache data;
+		
+		public PolyLinearDependenceDataBase() {
+			this(DEFAULT_CAPACITY);
 		}
 		
-		static class PolyArrayComparator implements Comparator<ArrayList<Poly>> {
-
-			@Override
-			public int compare(ArrayList<Poly> list1, ArrayList<Poly> list2) {
-				if (list1.size() != list2.size()) {
-					return list1.size() - list2.size();
-				}
-				
-				PolyComparator polyComparator = new PolyComparator();
-				for (int i = 0;i < list1.size(); ++i) {
-					Poly p1 = list1.get(i);
-					Poly p2 = list2.get(i);
-					int cmp = polyComparator.compare(p1, p2);
-					
-					if (cmp != 0) {
-						return cmp;
-					}
-				}
-				
-				return 0;
-			}
-
-			
+		public PolyLinearDependenceDataBase(int capacity) {
+			data = new FingerprintCache(capacity);
 		}
 		
-		private TreeMap<ArrayList<Poly>, Integer> data = new TreeMap<ArrayList<Poly>, Integer>(new PolyArrayComparator());
+		/**
+		 * @param spill файл, в который сохраняются вытесненные из памяти наборы, с меткой {@link #SPILL_TAG}
+		 */
+		public PolyLinearDependenceDataBase(int capacity, MappedFingerprintTable spill) {
+			if (spill != null && spill.getTag() != SPILL_TAG) {
+				throw new IllegalArgumentException("Spill table tag " + Long.toHexString(spill.getTag()) + " does not match " + Long.toHexString(SPILL_TAG));
+			}
+			data = new FingerprintCache(capacity, spill);
+		}
 		
-		public PolyLinearDependenceDataBase() {
-			
+		public FingerprintCache getCache() {
+			return data;
 		}
 		
-		public int checkPolys(ArrayList<Poly> polys) {
-			Collections.sort(polys, new PolyComparator());
+		/**
+		 * @param maxDelay задержка, до которой усечены многочлены набора
+		 * @return вес зависимости или -1, если набора нет в базе
+		 */
+		public int checkPolys(ArrayList<Poly> polys, int maxDelay) {
+			Collections.sort(polys);
 			
-			Integer value = data.get(polys);
+			Integer value = data.get(key(polys, maxDelay));
 			
 			if (value == null) {
 				return -1;
@@ -80,10 +80,14 @@ public class LinearDependenceCashingHeur implements IHeuristic {
 			return value;
 		}
 		
-		public void addPolysCombination(ArrayList<Poly> polys, int weight) {
-			Collections.sort(polys, new PolyComparator());
+		public void addPolysCombination(ArrayList<Poly> polys, int maxDelay, int weight) {
+			Collections.sort(polys);
 			
-			data.put(polys, weight);
+			data.put(key(polys, maxDelay), weight);
+		}
+		
+		private static Fingerprint key(ArrayList<Poly> polys, int maxDelay) {
+			return Fingerprint.of(((long)maxDelay << 32) | polys.size(), polys.toArray(new Poly[polys.size()]));
 		}
 	}
 	
@@ -142,7 +146,7 @@ public class LinearDependenceCashingHeur implements IHeuristic {
 			parityCheckPolies.add(poly);
 			
 			if (parityCheckPolies.size() >= 2) {
-				int cashedWeight = dataBase.checkPolys(parityCheckPolies);
+				int cashedWeight = dataBase.checkPolys(parityCheckPolies, maxDelay);
 				
 				if (cashedWeight == -1) {
 					int weight = checkWeightOfCombination(parityCheckPolies, freeDist - 1);
@@ -151,7 +155,7 @@ public class LinearDependenceCashingHeur implements IHeuristic {
 						continue;
 					}
 					
-					dataBase.addPolysCombination(parityCheckPolies, weight);
+					dataBase.addPolysCombination(parityCheckPolies, maxDelay, weight);
 					return false;
 				}
 				
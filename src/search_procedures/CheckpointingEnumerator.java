@@ -0,0 +1,126 @@
+package search_procedures;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import codes.Code;
+
+/**
+ * Перечислитель, периодически сохраняющий контрольную точку поиска в файл.
+ * 
+ * Точка сохраняется перед выдачей очередного кандидата, т.е. предполагается, что все 
+ * ранее выданные кандидаты уже обработаны, а подходящие коды переданы в <code>codeFound</code>.
+ * Поэтому перечислитель следует использовать в последовательном цикле поиска.
+ * 
+ * @author stas
+ *
+ */
+public class CheckpointingEnumerator<SomeCode extends Code> implements ICodeEnumerator<SomeCode> {
+	static final private Logger logger = LoggerFactory.getLogger(CheckpointingEnumerator.class);
+	
+	private ICodeEnumerator<SomeCode> enumerator;
+	private ArrayList<ICheckpointable> components = new ArrayList<ICheckpointable>();
+	private ArrayList<String> foundCodes = new ArrayList<String>();
+	private File file;
+	private long interval;
+	private long lastCheckpoint;
+	
+	/**
+	 * @param enumerator перечислитель, состояние которого сохраняется
+	 * @param file файл контрольной точки
+	 * @param interval минимальный интервал между сохранениями в миллисекундах
+	 */
+	public <CheckpointableEnumerator extends ICodeEnumerator<SomeCode> & ICheckpointable> 
+			CheckpointingEnumerator(CheckpointableEnumerator enumerator, File file, long interval) {
+		this.enumerator = enumerator;
+		this.file = file;
+		this.interval = interval;
+		this.lastCheckpoint = System.currentTimeMillis();
+		components.add(enumerator);
+	}
+	
+	/**
+	 * Добавляет объект (например, эвристику со статистикой), состояние которого сохраняется вместе с перечислителем.
+	 */
+	public void addComponent(ICheckpointable component) {
+		components.add(component);
+	}
+	
+	/**
+	 * Восстанавливает состояние из файла контрольной точки, если он существует.
+	 * 
+	 * @return true, если состояние восстановлено
+	 */
+	public boolean resume() throws IOException {
+		SearchCheckpoint checkpoint = SearchCheckpoint.read(file);
+		
+		if (checkpoint == null) {
+			return false;
+		}
+		
+		for (ICheckpointable component : components) {
+			component.restoreState(checkpoint);
+		}
+		foundCodes.clear();
+		foundCodes.addAll(checkpoint.getFoundCodes());
+		
+		logger.info("resumed from " + file + ", codes found before: " + foundCodes.size());
+		return true;
+	}
+	
+	/**
+	 * Запоминает найденный код, он будет сохранен в следующей контрольной точке.
+	 */
+	public void codeFound(String code) {
+		foundCodes.add(code);
+	}
+	
+	public List<String> getFoundCodes() {
+		return foundCodes;
+	}
+	
+	public void saveCheckpoint() throws IOException {
+		SearchCheckpoint checkpoint = new SearchCheckpoint();
+		
+		for (ICheckpointable component : components) {
+			component.saveState(checkpoint);
+		}
+		for (String code : foundCodes) {
+			checkpoint.addFoundCode(code);
+		}
+		
+		checkpoint.write(file);
+		lastCheckpoint = System.currentTimeMillis();
+	}
+	
+	@Override
+	public void reset() {
+		enumerator.reset();
+		foundCodes.clear();
+	}
+
+	@Override
+	public SomeCode next() {
+		if (System.currentTimeMillis() - lastCheckpoint >= interval) {
+			try {
+				saveCheckpoint();
+			} catch (IOException e) {
+				logger.error("cannot save checkpoint to " + file, e);
+				lastCheckpoint = System.currentTimeMillis();
+			}
+		}
+		
+		return enumerator.next();
+	}
+
+	@Override
+	public BigInteger count() {
+		return enumerator.count();
+	}
+}
@@ -7,24 +7,37 @@ import java.util.Iterator;
 
 import codes.Code;
 
-public class CollectionEnumerator<CodeType extends Code> implements ICodeEnumerator<CodeType> {
+/**
+ * Перечислитель кодов коллекции. Контрольная точка хранит количество выданных кодов,
+ * поэтому восстановление корректно, только если порядок обхода коллекции не меняется.
+ *
+ * @author stas
+ *
+ */
+public class CollectionEnumerator<CodeType extends Code> implements ICodeEnumerator<CodeType>, ICheckpointable {
+	private static final String KEY = "CollectionEnumerator.";
+
 	private Iterator<CodeType> iterator;
 	private Collection<CodeType> collection;
+	private long position;
 	
 	public CollectionEnumerator(Collection<CodeType> collection) {
 		this.collection = collection;
 		this.iterator = this.collection.iterator();
+		this.position = 0;
 	}
 
 	@Override
 	public void reset() {
 		this.iterator = this.collection.iterator();
+		this.position = 0;
 	}
 
 	@Override
 	public CodeType next() {
 		if (!iterator.hasNext())
 			return null;
+		++position;
 		return iterator.next();
 	}
 
@@ -32,4 +45,22 @@ public class CollectionEnumerator<CodeType extends Code> implements ICodeEnumera
 	public BigInteger count() {
 		return BigInteger.valueOf(collection.size());
 	}
+
+	@Override
+	public void saveState(SearchCheckpoint checkpoint) {
+		checkpoint.put(KEY + "size", collection.size());
+		checkpoint.put(KEY + "position", position);
+	}
+
+	@Override
+	public void restoreState(SearchCheckpoint checkpoint) {
+		if (checkpoint.getLong(KEY + "size") != collection.size()) {
+			throw new IllegalArgumentException("Checkpoint was saved for other collection.");
+		}
+
+		long restoredPosition = checkpoint.getLong(KEY + "position");
+
+		reset();
+		while (position < restoredPosition && next() != null);
+	}
 }
@@ -7,7 +7,7 @@ import org.slf4j.LoggerFactory;
 
 import codes.Code;
 
-public class EnumeratorLogger<SomeCode extends Code> implements ICodeEnumerator<SomeCode> {
+public class EnumeratorLogger<SomeCode extends Code> implements ICodeEnumerator<SomeCode>, ICheckpointable {
 	static final private Logger logger = LoggerFactory.getLogger(EnumeratorLogger.class);
 	private ICodeEnumerator<SomeCode> enumerator;
 	private double totalCodesCount;
@@ -73,4 +73,24 @@ public class EnumeratorLogger<SomeCode extends Code> implements ICodeEnumerator<
 	public BigInteger count() {		
 		return enumerator.count();
 	}
+
+	/**
+	 * Счетчики просмотренных кодов не сохраняются, после восстановления скорость считается заново.
+	 */
+	@Override
+	public void saveState(SearchCheckpoint checkpoint) {
+		checkpointable().saveState(checkpoint);
+	}
+
+	@Override
+	public void restoreState(SearchCheckpoint checkpoint) {
+		checkpointable().restoreState(checkpoint);
+	}
+	
+	private ICheckpointable checkpointable() {
+		if (!(enumerator instanceof ICheckpointable)) {
+			throw new UnsupportedOperationException(enumerator.getClass().getName() + " does not support checkpoints.");
+		}
+		return (ICheckpointable)enumerator;
+	}
 }
@@ -0,0 +1,52 @@
+package search_procedures;
+
+import java.math.BigInteger;
+
+import codes.Code;
+
+/**
+ * Разбиение перебора на части для запуска на нескольких потоках или машинах.
+ * 
+ * @author stas
+ *
+ */
+public class EnumeratorSplitter {
+
+	/**
+	 * Разбивает [0, count) на <code>parts</code> последовательных диапазонов, размеры которых 
+	 * отличаются не более чем на единицу.
+	 * 
+	 * @return массив границ длины parts + 1, i-тый диапазон - [bounds[i], bounds[i + 1])
+	 */
+	public static BigInteger[] split(BigInteger count, int parts) {
+		if (parts <= 0) {
+			throw new IllegalArgumentException("Number of parts should be positive: " + parts);
+		}
+		
+		BigInteger[] bounds = new BigInteger[parts + 1];
+		BigInteger[] sizeAndRest = count.divideAndRemainder(BigInteger.valueOf(parts));
+		
+		bounds[0] = BigInteger.ZERO;
+		for (int i = 0;i < parts; ++i) {
+			bounds[i + 1] = bounds[i].add(sizeAndRest[0]);
+			if (BigInteger.valueOf(i).compareTo(sizeAndRest[1]) < 0) {
+				bounds[i + 1] = bounds[i + 1].add(BigInteger.ONE);
+			}
+		}
+		
+		return bounds;
+	}
+	
+	/**
+	 * Ограничивает перебор частью <code>part</code> из <code>parts</code>.
+	 */
+	public static <SomeCode extends Code> void selectPart(ISplittableCodeEnumerator<SomeCode> enumerator, int part, int parts) {
+		if (part < 0 || part >= parts) {
+			throw new IndexOutOfBoundsException("Part " + part + " of " + parts);
+		}
+		
+		BigInteger[] bounds = split(enumerator.positionsCount(), parts);
+		
+		enumerator.setRange(bounds[part], bounds[part + 1]);
+	}
+}
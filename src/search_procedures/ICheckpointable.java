@@ -0,0 +1,16 @@
+package search_procedures;
+
+/**
+ * Объект, состояние которого сохраняется в контрольной точке поиска 
+ * и восстанавливается при перезапуске.
+ * 
+ * @author stas
+ *
+ */
+public interface ICheckpointable {
+
+	public void saveState(SearchCheckpoint checkpoint);
+	
+	public void restoreState(SearchCheckpoint checkpoint);
+	
+}
@@ -0,0 +1,31 @@
+package search_procedures;
+
+import java.math.BigInteger;
+
+import codes.Code;
+
+/**
+ * Перечислитель кодов, перебор которого можно разбить на независимые диапазоны.
+ * Перебор состоит из <code>positionsCount()</code> позиций, каждая позиция дает 
+ * один или несколько кандидатов. Диапазоны [from, to) с непересекающимися позициями 
+ * дают непересекающиеся множества кандидатов, а их объединение в порядке возрастания 
+ * from совпадает с полным перебором.
+ * 
+ * @author stas
+ *
+ */
+public interface ISplittableCodeEnumerator<SomeCode extends Code> extends ICodeEnumerator<SomeCode> {
+
+	/**
+	 * @return количество позиций полного перебора
+	 */
+	public BigInteger positionsCount();
+
+	/**
+	 * Ограничивает перебор позициями [from, to). Следующий вызов <code>next()</code> 
+	 * вернет первого кандидата позиции <code>from</code>, <code>reset()</code> возвращает 
+	 * к началу диапазона.
+	 */
+	public void setRange(BigInteger from, BigInteger to);
+
+}
@@ -0,0 +1,177 @@
+package search_procedures;
+
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import codes.Code;
+
+/**
+ * Параллельная схема поиска. Кандидаты берутся из перечислителя в вызывающем потоке,
+ * а метод <code>process</code> вложенной схемы (эвристики, вычисление расстояния и т.д.)
+ * выполняется в пуле потоков.
+ *
+ * Результаты возвращаются в том же порядке, что и при последовательном поиске
+ * вложенной схемой: <code>findNext()</code> всегда возвращает первый по порядку перечисления
+ * подходящий код. Для этого поддерживается окно из <code>window</code> кандидатов, отправленных
+ * на обработку, а ответы забираются строго из головы окна.
+ *
+ * Метод <code>process</code> вложенной схемы должен быть потокобезопасным. Из эвристик
+ * потокобезопасны BCPreciseMinDist, BCPreciseStateComplexity, LinearDependenceCashingHeur
+ * и составленная из них CombinedHeuristic; CosetCodeSearcher и BasicBlockCodesSearcher не изменяют своего
+ * состояния в <code>process</code>. Используется в block_codes.SearchMain. Перечислитель
+ * вызывается только из потока, вызвавшего <code>findNext()</code>, поэтому существующие
+ * перечислители (ExhaustiveCCEnumByGenMatr, ExhaustiveHRCCEnumByCheckMatr, TruncatedCodeEnumerator и т.д.)
+ * можно использовать без изменений. Следует учитывать, что перечислитель уходит вперед
+ * не более чем на <code>window</code> кандидатов относительно последнего возвращенного кода.
+ *
+ * @author stas
+ *
+ */
+public class ParallelCodesSearchScheme<DesiredCode extends Code> extends CodesBaseSearchScheme<DesiredCode> {
+	static final private Logger logger = LoggerFactory.getLogger(ParallelCodesSearchScheme.class);
+
+	/**
+	 * Количество кандидатов в окне на один поток по умолчанию.
+	 */
+	public static final int DEFAULT_WINDOW_PER_THREAD = 16;
+
+	private CodesBaseSearchScheme<DesiredCode> scheme;
+	private ExecutorService executor;
+	private int threads;
+	private int window;
+	/**
+	 * Кандидаты, отправленные на обработку, в порядке перечисления.
+	 */
+	private LinkedList<Future<DesiredCode>> pending = new LinkedList<Future<DesiredCode>>();
+	private boolean enumExhausted = false;
+
+	public ParallelCodesSearchScheme(CodesBaseSearchScheme<DesiredCode> scheme) {
+		this(scheme, Runtime.getRuntime().availableProcessors());
+	}
+
+	public ParallelCodesSearchScheme(CodesBaseSearchScheme<DesiredCode> scheme, int threads) {
+		this(scheme, threads, threads * DEFAULT_WINDOW_PER_THREAD);
+	}
+
+	/**
+	 * @param scheme схема поиска, метод <code>process</code> которой выполняется параллельно
+	 * @param threads количество рабочих потоков
+	 * @param window максимальное количество кандидатов, одновременно находящихся в обработке
+	 */
+	public ParallelCodesSearchScheme(CodesBaseSearchScheme<DesiredCode> scheme, int threads, int window) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Number of threads should be positive: " + threads);
+		}
+		if (window < threads) {
+			throw new IllegalArgumentException("Window (" + window + ") should not be less than number of threads (" + threads + ")");
+		}
+
+		this.scheme = scheme;
+		this.threads = threads;
+		this.window = window;
+		this.candidateEnum = scheme.candidateEnum;
+
+		executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private int counter = 0;
+
+			@Override
+			public synchronized Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "search-worker-" + (counter++));
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	public int getThreads() {
+		return threads;
+	}
+
+	@Override
+	public void setCandidateEnumerator(ICodeEnumerator<? extends DesiredCode> candidateEnum) {
+		cancelPending();
+		super.setCandidateEnumerator(candidateEnum);
+		scheme.setCandidateEnumerator(candidateEnum);
+		enumExhausted = false;
+	}
+
+	@Override
+	public DesiredCode findNext() {
+		while (true) {
+			fillWindow();
+
+			if (pending.isEmpty()) {
+				return null;
+			}
+
+			DesiredCode processedCode = waitFor(pending.removeFirst());
+
+			if (processedCode != null) {
+				return processedCode;
+			}
+		}
+	}
+
+	@Override
+	protected DesiredCode process(DesiredCode candidate) {
+		return scheme.process(candidate);
+	}
+
+	/**
+	 * Останавливает рабочие потоки. После вызова схема больше не может использоваться.
+	 */
+	public void shutdown() {
+		cancelPending();
+		executor.shutdownNow();
+	}
+
+	private void fillWindow() {
+		while (!enumExhausted && pending.size() < window) {
+			final DesiredCode candidate = candidateEnum.next();
+
+			if (candidate == null) {
+				enumExhausted = true;
+				break;
+			}
+
+			pending.addLast(executor.submit(new Callable<DesiredCode>() {
+				@Override
+				public DesiredCode call() throws Exception {
+					return scheme.process(candidate);
+				}
+			}));
+		}
+	}
+
+	private DesiredCode waitFor(Future<DesiredCode> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			cancelPending();
+			throw new IllegalStateException("Search was interrupted", e);
+		} catch (ExecutionException e) {
+			logger.error("Candidate processing failed", e.getCause());
+			cancelPending();
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private void cancelPending() {
+		for (Future<DesiredCode> future : pending) {
+			future.cancel(true);
+		}
+		pending.clear();
+	}
+}
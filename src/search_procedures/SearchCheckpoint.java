@@ -0,0 +1,190 @@
+package search_procedures;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Контрольная точка поиска: состояние перечислителя, статистика эвристик и найденные коды.
+ * Хранится в текстовом файле в формате <code>java.util.Properties</code>.
+ * 
+ * @author stas
+ *
+ */
+public class SearchCheckpoint {
+	private static final String FOUND_CODES_COUNT = "found.count";
+	private static final String FOUND_CODE = "found.";
+	
+	private Properties values = new Properties();
+	private ArrayList<String> foundCodes = new ArrayList<String>();
+	
+	public boolean contains(String key) {
+		return values.containsKey(key);
+	}
+	
+	public void put(String key, String value) {
+		values.setProperty(key, value);
+	}
+	
+	public void put(String key, long value) {
+		put(key, Long.toString(value));
+	}
+	
+	public void put(String key, BigInteger value) {
+		put(key, value.toString());
+	}
+	
+	public void put(String key, int value[]) {
+		StringBuilder builder = new StringBuilder();
+		
+		for (int i = 0;i < value.length; ++i) {
+			if (i != 0) {
+				builder.append(' ');
+			}
+			builder.append(value[i]);
+		}
+		
+		put(key, builder.toString());
+	}
+	
+	public void put(String key, long value[]) {
+		StringBuilder builder = new StringBuilder();
+		
+		for (int i = 0;i < value.length; ++i) {
+			if (i != 0) {
+				builder.append(' ');
+			}
+			builder.append(value[i]);
+		}
+		
+		put(key, builder.toString());
+	}
+	
+	public String getString(String key) {
+		String value = values.getProperty(key);
+		
+		if (value == null) {
+			throw new IllegalArgumentException("There is no value for " + key + " in checkpoint.");
+		}
+		
+		return value;
+	}
+	
+	public long getLong(String key) {
+		return Long.parseLong(getString(key));
+	}
+	
+	public long getLong(String key, long defaultValue) {
+		return contains(key) ? getLong(key) : defaultValue;
+	}
+	
+	public BigInteger getBigInteger(String key) {
+		return new BigInteger(getString(key));
+	}
+	
+	public int[] getIntArray(String key) {
+		String value = getString(key).trim();
+		
+		if (value.length() == 0) {
+			return new int[0];
+		}
+		
+		String items[] = value.split(" ");
+		int array[] = new int[items.length];
+		
+		for (int i = 0;i < items.length; ++i) {
+			array[i] = Integer.parseInt(items[i]);
+		}
+		
+		return array;
+	}
+	
+	public long[] getLongArray(String key) {
+		String value = getString(key).trim();
+		
+		if (value.length() == 0) {
+			return new long[0];
+		}
+		
+		String items[] = value.split(" ");
+		long array[] = new long[items.length];
+		
+		for (int i = 0;i < items.length; ++i) {
+			array[i] = Long.parseLong(items[i]);
+		}
+		
+		return array;
+	}
+	
+	public void addFoundCode(String code) {
+		foundCodes.add(code);
+	}
+	
+	public List<String> getFoundCodes() {
+		return foundCodes;
+	}
+	
+	/**
+	 * Записывает контрольную точку. Сначала пишется временный файл, который затем 
+	 * замещает <code>file</code>, поэтому сбой во время записи не портит предыдущую точку.
+	 */
+	public void write(File file) throws IOException {
+		Properties output = new Properties();
+		
+		output.putAll(values);
+		output.setProperty(FOUND_CODES_COUNT, Integer.toString(foundCodes.size()));
+		for (int i = 0;i < foundCodes.size(); ++i) {
+			output.setProperty(FOUND_CODE + i, foundCodes.get(i));
+		}
+		
+		File tmpFile = new File(file.getPath() + ".tmp");
+		FileOutputStream stream = new FileOutputStream(tmpFile);
+		
+		try {
+			output.store(stream, "search checkpoint");
+			stream.getFD().sync();
+		} finally {
+			stream.close();
+		}
+		
+		if (!tmpFile.renameTo(file)) {
+			// на некоторых системах переименование не замещает существующий файл
+			if (!file.delete() || !tmpFile.renameTo(file)) {
+				throw new IOException("Cannot replace checkpoint " + file);
+			}
+		}
+	}
+	
+	/**
+	 * @return прочитанная контрольная точка или null, если файла нет
+	 */
+	public static SearchCheckpoint read(File file) throws IOException {
+		if (!file.exists()) {
+			return null;
+		}
+		
+		SearchCheckpoint checkpoint = new SearchCheckpoint();
+		InputStream stream = new FileInputStream(file);
+		
+		try {
+			checkpoint.values.load(stream);
+		} finally {
+			stream.close();
+		}
+		
+		int codesCount = Integer.parseInt(checkpoint.values.getProperty(FOUND_CODES_COUNT, "0"));
+		
+		checkpoint.values.remove(FOUND_CODES_COUNT);
+		for (int i = 0;i < codesCount; ++i) {
+			checkpoint.foundCodes.add((String)checkpoint.values.remove(FOUND_CODE + i));
+		}
+		
+		return checkpoint;
+	}
+}
@@ -74,12 +74,12 @@ public class DZTCodeSearcher extends BasicBlockCodesSearcher<BlockCode> {
 		int i;
 		for (i = 0; i < zt1.generator().getRowCount(); ++i) {
 			generator.setRow(i, new BitArray(n));
-			generator.getRow(i).getBitSet().or(zt1.generator().getRow(i).getBitSet());
+			generator.getRow(i).or(zt1.generator().getRow(i));
 		}
 
 		for (int j = 0; i < k; ++i, ++j) {
 			generator.setRow(i, new BitArray(n));
-			generator.getRow(i).getBitSet().or(zt2.generator().getRow(j).getBitSet());
+			generator.getRow(i).or(zt2.generator().getRow(j));
 		}
 		
 		return new BlockCode(generator, true);
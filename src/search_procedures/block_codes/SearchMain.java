@@ -15,6 +15,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.StreamTokenizer;
+import java.io.StringWriter;
 import java.math.BigInteger;
 import java.util.Arrays;
 
@@ -35,9 +36,11 @@ import search_heuristics.CCPreciseFreeDist;
 import search_heuristics.CombinedHeuristic;
 import search_heuristics.IHeuristic;
 import search_heuristics.LinearDependenceCashingHeur;
+import search_procedures.CheckpointingEnumerator;
 import search_procedures.CollectionEnumerator;
 import search_procedures.EnumeratorLogger;
 import search_procedures.ICodeEnumerator;
+import search_procedures.ParallelCodesSearchScheme;
 import search_procedures.conv_codes.ExhaustiveHRCCEnumByCheckMatr;
 import search_procedures.conv_codes.FileCCEnumerator;
 import search_procedures.conv_codes.SiftingCCEnumerator;
@@ -51,6 +54,7 @@ import database.CodesMongoDB;
 public class SearchMain {
 	
 	private static final int freqCPU = (int)2400e6;
+	private static final long CHECKPOINT_INTERVAL = 60 * 1000;
 	static final private Logger logger = LoggerFactory.getLogger(SearchMain.class);
 	
 	private static class CodeLogger implements ICodeEnumerator<BlockCode> {
@@ -267,11 +271,22 @@ public class SearchMain {
 		cosetSearcher.setHeuristic(tb_heuristic);
 		cosetSearcher.setCandidateEnumerator(loggerEnum);
 		
-		task.Algorithm = cosetSearcher;
+		// кандидаты обрабатываются параллельно: эвристики BCPreciseStateComplexity и BCPreciseMinDist 
+		// не имеют состояния, счетчики CombinedHeuristic атомарны, а CosetCodeSearcher.process 
+		// работает только с кандидатом. Перечислитель (loggerEnum) вызывается из этого потока.
+		ParallelCodesSearchScheme<BlockCode> parallelSearcher = new ParallelCodesSearchScheme<BlockCode>(cosetSearcher);
+		
+		task.Algorithm = parallelSearcher;
 		pool.Tasks.add(task);
 		
 		BlockCodesSearcher searcher = new BlockCodesSearcher();
-		BlockCode[] codes = searcher.searchTruncatedCodes(new BlockCodesSearcher.TaskPool[] { pool });
+		BlockCode[] codes;
+		
+		try {
+			codes = searcher.searchTruncatedCodes(new BlockCodesSearcher.TaskPool[] { pool });
+		} finally {
+			parallelSearcher.shutdown();
+		}
 		
 		BlockCodesTable.writeCodes(codes, new BufferedWriter(new FileWriter(new File("TBCodes.txt"))));
 	}
@@ -321,7 +336,13 @@ public class SearchMain {
 	private static void searchNewCodes() throws IOException {		
 		CodesMongoDB truncDB = new CodesMongoDB("truncated_codes");
 		CodesMongoDB newDB = new CodesMongoDB("new_codes");
-		CollectionEnumerator<BlockCode> bcEnum = new CollectionEnumerator<BlockCode>(truncDB.getBlockCodes());
+		CollectionEnumerator<BlockCode> truncEnum = new CollectionEnumerator<BlockCode>(truncDB.getBlockCodes());
+		// точка сохраняется перед взятием следующего укороченного кода, т.е. после перебора
+		// всех подкодов предыдущего, поэтому при перезапуске поиск продолжается с этого кода
+		CheckpointingEnumerator<BlockCode> bcEnum = new CheckpointingEnumerator<BlockCode>(truncEnum, 
+				new File("bc_search_checkpoint.txt"), CHECKPOINT_INTERVAL);
+		
+		bcEnum.resume();
 		
 		int[][] lowerBounds = DistanceBoundsParser.parse(false);
 		int[][] upperBounds = DistanceBoundsParser.parse(true);
@@ -393,6 +414,7 @@ public class SearchMain {
 							
 							logger.info("writing");
 							newDB.addBlockCode(extendedCode, true);
+							bcEnum.codeFound(codeToString(extendedCode));
 							break;
 						}
 					} catch (Exception e) {					
@@ -402,9 +424,20 @@ public class SearchMain {
 				}
 			}	
 		}
-				
+		
+		bcEnum.saveCheckpoint();
 	}	
 	
+	private static String codeToString(BlockCode code) throws IOException {
+		StringWriter stringWriter = new StringWriter();
+		BufferedWriter writer = new BufferedWriter(stringWriter);
+		
+		IOMatrix.writeMatrix(code.generator(), writer);
+		writer.flush();
+		
+		return stringWriter.toString();
+	}
+	
 	public static void main(String[] args) throws Exception {
 		/*CombinedHeuristic heuristic = new CombinedHeuristic();		
 		
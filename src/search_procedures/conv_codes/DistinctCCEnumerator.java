@@ -0,0 +1,104 @@
+package search_procedures.conv_codes;
+
+import java.math.BigInteger;
+
+import codes.ConvCode;
+import search_procedures.ICheckpointable;
+import search_procedures.ICodeEnumerator;
+import search_procedures.SearchCheckpoint;
+import search_tools.SeenCodesSet;
+
+/**
+ * Пропускает коды, эквивалентные уже выданным (перестановка столбцов, преобразования строк,
+ * обращение времени), до построения решеток и вычисления расстояний. Множество просмотренных
+ * кодов может быть общим для нескольких перечислителей, например, для частей параллельного перебора.
+ *
+ * Просмотренные коды сохраняются в контрольной точке вместе с состоянием вложенного перечислителя,
+ * поэтому после восстановления коды, эквивалентные выданным до нее, снова не выдаются. Для этого
+ * перечислитель должен быть обернут в {@link search_procedures.CheckpointingEnumerator}, а не
+ * оборачивать его: иначе множество не попадает в точку.
+ */
+public class DistinctCCEnumerator implements ICodeEnumerator<ConvCode>, ICheckpointable {
+	private static final String KEY = "DistinctCCEnumerator.";
+
+	private ICodeEnumerator<ConvCode> ccEnum;
+	private SeenCodesSet seenCodes;
+	private long skippedCodes = 0;
+
+	public DistinctCCEnumerator(ICodeEnumerator<ConvCode> ccEnum) {
+		this(ccEnum, new SeenCodesSet());
+	}
+
+	public DistinctCCEnumerator(ICodeEnumerator<ConvCode> ccEnum, SeenCodesSet seenCodes) {
+		this.ccEnum = ccEnum;
+		this.seenCodes = seenCodes;
+	}
+
+	/**
+	 * Перезапускает перечислитель и очищает множество просмотренных кодов.
+	 */
+	@Override
+	public void reset() {
+		ccEnum.reset();
+		seenCodes.clear();
+		skippedCodes = 0;
+	}
+
+	@Override
+	public ConvCode next() {
+		ConvCode convCode;
+
+		while ((convCode = ccEnum.next()) != null) {
+			if (!seenCodes.add(convCode)) {
+				++skippedCodes;
+				continue;
+			}
+
+			return convCode;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Верхняя оценка: количество кодов вложенного перечислителя.
+	 */
+	@Override
+	public BigInteger count() {
+		return ccEnum.count();
+	}
+
+	public long getSkippedCount() {
+		return skippedCodes;
+	}
+
+	/**
+	 * Сохраняет состояние вложенного перечислителя и отпечатки просмотренных кодов.
+	 */
+	@Override
+	public void saveState(SearchCheckpoint checkpoint) {
+		checkpointable().saveState(checkpoint);
+		checkpoint.put(KEY + "bloomFilter", Boolean.toString(seenCodes.isBloomFilter()));
+		checkpoint.put(KEY + "seenCount", seenCodes.size());
+		checkpoint.put(KEY + "seen", seenCodes.toArray());
+		checkpoint.put(KEY + "skipped", skippedCodes);
+	}
+
+	@Override
+	public void restoreState(SearchCheckpoint checkpoint) {
+		if (Boolean.parseBoolean(checkpoint.getString(KEY + "bloomFilter")) != seenCodes.isBloomFilter()) {
+			throw new IllegalArgumentException("Checkpoint was saved for other kind of seen codes set.");
+		}
+
+		checkpointable().restoreState(checkpoint);
+		seenCodes.load(checkpoint.getLongArray(KEY + "seen"), checkpoint.getLong(KEY + "seenCount"));
+		skippedCodes = checkpoint.getLong(KEY + "skipped");
+	}
+
+	private ICheckpointable checkpointable() {
+		if (!(ccEnum instanceof ICheckpointable)) {
+			throw new UnsupportedOperationException(ccEnum.getClass().getName() + " does not support checkpoints.");
+		}
+		return (ICheckpointable)ccEnum;
+	}
+}
@@ -1,19 +1,32 @@
 package search_procedures.conv_codes;
 
 import java.math.BigInteger;
+import java.util.Arrays;
 
 import math.Matrix;
 import math.Poly;
 import math.PolyMatrix;
 import codes.ConvCode;
-import search_procedures.ICodeEnumerator;
+import search_procedures.ICheckpointable;
+import search_procedures.ISplittableCodeEnumerator;
+import search_procedures.SearchCheckpoint;
 import search_tools.MatrixEnumerator;
+import trellises.ConvCodeTrellisBuilder;
+
+public class ExhaustiveCCEnumByGenMatr implements ISplittableCodeEnumerator<ConvCode>, ICheckpointable {
+	private static final String KEY = "ExhaustiveCCEnumByGenMatr.";
 
-public class ExhaustiveCCEnumByGenMatr implements ICodeEnumerator<ConvCode> {
 	private int k;
 	private int n;
 	private int delay;
 	private MatrixEnumerator matEnum;
+	private BigInteger rangeFrom = null;
+	private BigInteger rangeTo = null;
+	/**
+	 * Соседние коды перебора отличаются несколькими коэффициентами, поэтому их решетки
+	 * строятся на основе решетки предыдущего кода.
+	 */
+	private ConvCodeTrellisBuilder trellisBuilder = new ConvCodeTrellisBuilder();
 	
 	public ExhaustiveCCEnumByGenMatr(int k, int n, int delay) {
 		this.k = k;
@@ -42,12 +55,17 @@ public class ExhaustiveCCEnumByGenMatr implements ICodeEnumerator<ConvCode> {
 			}
 		}
 		
-		return new ConvCode(polyGen, true);
+		ConvCode code = new ConvCode(polyGen, true);
+		code.setTrellisBuilder(trellisBuilder);
+		return code;
 	}
 
 	@Override
 	public void reset() {
-		matEnum = new MatrixEnumerator(k, n * (delay + 1));
+		matEnum = new MatrixEnumerator(k * (delay + 1), n);
+		if (rangeFrom != null) {
+			matEnum.setRange(rangeFrom, rangeTo);
+		}
 	}
 
 	@Override
@@ -55,4 +73,40 @@ public class ExhaustiveCCEnumByGenMatr implements ICodeEnumerator<ConvCode> {
 		return matEnum.count();
 	}
 
+	/**
+	 * Позиция перебора - номер матрицы коэффициентов в <code>MatrixEnumerator</code>, 
+	 * каждой позиции соответствует ровно один код.
+	 */
+	@Override
+	public BigInteger positionsCount() {
+		return matEnum.count();
+	}
+
+	@Override
+	public void setRange(BigInteger from, BigInteger to) {
+		rangeFrom = from;
+		rangeTo = to;
+		reset();
+	}
+
+	@Override
+	public void saveState(SearchCheckpoint checkpoint) {
+		checkpoint.put(KEY + "parameters", new int[] {k, n, delay});
+		checkpoint.put(KEY + "position", matEnum.position());
+		checkpoint.put(KEY + "from", rangeFrom != null ? rangeFrom : BigInteger.ZERO);
+		checkpoint.put(KEY + "to", rangeTo != null ? rangeTo : matEnum.count());
+	}
+
+	@Override
+	public void restoreState(SearchCheckpoint checkpoint) {
+		if (!Arrays.equals(checkpoint.getIntArray(KEY + "parameters"), new int[] {k, n, delay})) {
+			throw new IllegalArgumentException("Checkpoint was saved for other code parameters.");
+		}
+		
+		matEnum = new MatrixEnumerator(k * (delay + 1), n);
+		rangeFrom = checkpoint.getBigInteger(KEY + "from");
+		rangeTo = checkpoint.getBigInteger(KEY + "to");
+		matEnum.setRange(checkpoint.getBigInteger(KEY + "position"), rangeTo);
+	}
+
 }
@@ -10,17 +10,23 @@ import math.PolyMatrix;
 import codes.ConvCode;
 import search_heuristics.IHeuristic;
 import search_procedures.CodesCounter;
-import search_procedures.ICodeEnumerator;
+import search_procedures.ICheckpointable;
+import search_procedures.ISplittableCodeEnumerator;
+import search_procedures.SearchCheckpoint;
 import search_tools.HammingBallEnumerator;
 import search_tools.MatrixEnumerator;
 
-public class ExhaustiveHRCCEnumByCheckMatr implements ICodeEnumerator<ConvCode> {
+public class ExhaustiveHRCCEnumByCheckMatr implements ISplittableCodeEnumerator<ConvCode>, ICheckpointable {
+	private static final String KEY = "ExhaustiveHRCCEnumByCheckMatr.";
+
 	private int k;
 	private int delay;
 	private MatrixEnumerator parityCheckEnum;
 	private HammingBallEnumerator topRowEnum;
 	private PolyMatrix currentParityCheck;
 	private IHeuristic checker;
+	private BigInteger rangeFrom = null;
+	private BigInteger rangeTo = null;
 	
 	public ExhaustiveHRCCEnumByCheckMatr(int k, int delay, IHeuristic checker) {
 		this.k = k;
@@ -38,7 +44,28 @@ public class ExhaustiveHRCCEnumByCheckMatr implements ICodeEnumerator<ConvCode>
 	@Override
 	public void reset() {				
 		parityCheckEnum = new MatrixEnumerator(delay - 1, k + 1);		
+		if (rangeFrom != null) {
+			parityCheckEnum.setRange(rangeFrom, rangeTo);
+		}
 		currentParityCheck = null;
+		topRowEnum = null;
+	}
+	
+	/**
+	 * Позиция перебора - номер матрицы младших коэффициентов проверочной матрицы 
+	 * в <code>MatrixEnumerator</code>. Каждой позиции соответствует группа кодов, 
+	 * отличающихся старшими коэффициентами.
+	 */
+	@Override
+	public BigInteger positionsCount() {
+		return new MatrixEnumerator(delay - 1, k + 1).count();
+	}
+
+	@Override
+	public void setRange(BigInteger from, BigInteger to) {
+		rangeFrom = from;
+		rangeTo = to;
+		reset();
 	}
 	
 	private int firstPolyInGroup(int group) {
@@ -110,6 +137,28 @@ public class ExhaustiveHRCCEnumByCheckMatr implements ICodeEnumerator<ConvCode>
 		return -1;
 	}
 
+	/**
+	 * Заполняет младшие коэффициенты текущей проверочной матрицы и создает перечислитель старших коэффициентов.
+	 */
+	private void loadParityCheck(Matrix content) {
+		currentParityCheck = new PolyMatrix(1, k + 1);
+		
+		for (int i = 0;i < k + 1; ++i) {
+			Poly p = new Poly();
+			
+			p.setCoeff(0, true);
+			for (int c = 1;c < delay; ++c) {
+				p.setCoeff(c, content.get(c - 1, i));
+			}
+			
+			currentParityCheck.set(0, i, p);
+		}
+		
+		int polyGroups = numberOfPolyGroups(); 
+		
+		topRowEnum = new HammingBallEnumerator(polyGroups, Math.min(2, polyGroups));
+	}
+
 	@Override
 	public ConvCode next() {
 		if (topRowEnum != null && topRowEnum.hasNext()) {
@@ -128,18 +177,7 @@ public class ExhaustiveHRCCEnumByCheckMatr implements ICodeEnumerator<ConvCode>
 			
 			Matrix content = parityCheckEnum.getNext();//badColumn == -1 ? parityCheckEnum.getNext() : parityCheckEnum.getNext(badColumn);
 			
-			currentParityCheck = new PolyMatrix(1, k + 1);
-			
-			for (int i = 0;i < k + 1; ++i) {
-				Poly p = new Poly();
-				
-				p.setCoeff(0, true);
-				for (int c = 1;c < delay; ++c) {
-					p.setCoeff(c, content.get(c - 1, i));
-				}
-				
-				currentParityCheck.set(0, i, p);
-			}
+			loadParityCheck(content);
 			
 		//	badColumn = checkSubmatrices(); 
 		//	if (badColumn == -1) {
@@ -147,9 +185,6 @@ public class ExhaustiveHRCCEnumByCheckMatr implements ICodeEnumerator<ConvCode>
 		//	}
 		//}
 		
-		int polyGroups = numberOfPolyGroups(); 
-		
-		topRowEnum = new HammingBallEnumerator(polyGroups, Math.min(2, polyGroups));
 		fillTopRow();		
 		
 		PolyMatrix parityCheck = currentParityCheck.clone();
@@ -158,6 +193,43 @@ public class ExhaustiveHRCCEnumByCheckMatr implements ICodeEnumerator<ConvCode>
 		return new ConvCode(parityCheck, false);
 	}
 	
+	/**
+	 * Сохраняет номер текущей матрицы младших коэффициентов и позицию в переборе старших коэффициентов.
+	 */
+	@Override
+	public void saveState(SearchCheckpoint checkpoint) {
+		checkpoint.put(KEY + "parameters", new int[] {k, delay});
+		checkpoint.put(KEY + "from", rangeFrom != null ? rangeFrom : BigInteger.ZERO);
+		checkpoint.put(KEY + "to", rangeTo != null ? rangeTo : positionsCount());
+		
+		if (topRowEnum != null && topRowEnum.hasNext()) {
+			checkpoint.put(KEY + "position", parityCheckEnum.position().subtract(BigInteger.ONE));
+			checkpoint.put(KEY + "topRow", topRowEnum.position());
+		} else {
+			checkpoint.put(KEY + "position", parityCheckEnum.position());
+		}
+	}
+
+	@Override
+	public void restoreState(SearchCheckpoint checkpoint) {
+		if (!Arrays.equals(checkpoint.getIntArray(KEY + "parameters"), new int[] {k, delay})) {
+			throw new IllegalArgumentException("Checkpoint was saved for other code parameters.");
+		}
+		
+		rangeFrom = checkpoint.getBigInteger(KEY + "from");
+		rangeTo = checkpoint.getBigInteger(KEY + "to");
+		
+		parityCheckEnum = new MatrixEnumerator(delay - 1, k + 1);
+		parityCheckEnum.setRange(checkpoint.getBigInteger(KEY + "position"), rangeTo);
+		currentParityCheck = null;
+		topRowEnum = null;
+		
+		if (checkpoint.contains(KEY + "topRow")) {
+			loadParityCheck(parityCheckEnum.getNext());
+			topRowEnum.seek(checkpoint.getBigInteger(KEY + "topRow"));
+		}
+	}
+	
 	private static Random rnd = new Random();
 	
 	public ConvCode random() {
@@ -13,6 +13,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.StreamTokenizer;
+import java.io.StringWriter;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Scanner;
@@ -34,12 +35,16 @@ import search_heuristics.CCWeightsDistHeur;
 import search_heuristics.CombinedHeuristic;
 import search_heuristics.IHeuristic;
 import search_heuristics.LinearDependenceCashingHeur;
+import search_procedures.CheckpointingEnumerator;
 import search_procedures.EnumeratorLogger;
 import search_procedures.ICodeEnumerator;
-import sun.net.www.content.audio.wav;
 
 public class SearchMain {
 	static final private Logger logger = LoggerFactory.getLogger(SearchMain.class);
+	/**
+	 * Интервал между контрольными точками исчерпывающего поиска, мс
+	 */
+	private static final long CHECKPOINT_INTERVAL = 60 * 1000;
 
 	private static class RandomEnumerator implements ICodeEnumerator<ConvCode> {		
 		private ExhaustiveHRCCEnumByCheckMatr ccEnum;
@@ -76,12 +81,20 @@ public class SearchMain {
 		
 		ICodeEnumerator<ConvCode> ccEnum;
 		ExhaustiveHRCCEnumByCheckMatr exEnum = new ExhaustiveHRCCEnumByCheckMatr(k, v, heuristic);
+		CheckpointingEnumerator<ConvCode> checkpointEnum = null;
 		
 		if (random) {
 			RandomEnumerator randEnum = new RandomEnumerator(exEnum);
-			ccEnum = randEnum;
+			// эквивалентные коды имеют одинаковое свободное расстояние, проверяется один из класса
+			ccEnum = new DistinctCCEnumerator(randEnum);
 		} else {
-			ccEnum = exEnum;
+			// при перезапуске исчерпывающий поиск продолжается с последней контрольной точки,
+			// просмотренные коды сохраняются в ней вместе с позицией перебора
+			checkpointEnum = new CheckpointingEnumerator<ConvCode>(new DistinctCCEnumerator(exEnum), 
+					new File("cc_search_checkpoint_b" + k + "v" + v + "d" + d + ".txt"), CHECKPOINT_INTERVAL);
+			checkpointEnum.addComponent(heuristic);
+			checkpointEnum.resume();
+			ccEnum = checkpointEnum;
 		}
 		
 		CodesMongoDB db = new CodesMongoDB("convolutional_codes");
@@ -95,6 +108,9 @@ public class SearchMain {
 				if (heuristic.check(code)){
 					db.addConvCode(code, false);
 					++foundedCodes;
+					if (checkpointEnum != null) {
+						checkpointEnum.codeFound(codeToString(code));
+					}
 				}/**/
 			} catch (Exception e) 
 			{
@@ -103,9 +119,23 @@ public class SearchMain {
 			
 			if (System.currentTimeMillis() - lastTimestamp > 1000) {
 				lastTimestamp = System.currentTimeMillis();
-				logger.info("codes found: " + foundedCodes);
+				logger.info("codes found: " + foundedCodes + ", rejected/checked: " + heuristic.getStatistics());
 			}
 		}
+		
+		if (checkpointEnum != null) {
+			checkpointEnum.saveCheckpoint();
+		}
+	}
+	
+	private static String codeToString(ConvCode code) throws IOException {
+		StringWriter stringWriter = new StringWriter();
+		BufferedWriter writer = new BufferedWriter(stringWriter);
+		
+		IOConvCode.writeConvCode(code, writer, "pc");
+		writer.flush();
+		
+		return stringWriter.toString();
 	}
 	
 	private static String menu(int b, int v, int d, boolean random) {
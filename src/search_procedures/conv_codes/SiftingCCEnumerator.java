@@ -4,9 +4,11 @@ import java.math.BigInteger;
 
 import codes.ConvCode;
 import search_heuristics.IHeuristic;
+import search_procedures.ICheckpointable;
 import search_procedures.ICodeEnumerator;
+import search_procedures.SearchCheckpoint;
 
-public class SiftingCCEnumerator implements ICodeEnumerator<ConvCode> {
+public class SiftingCCEnumerator implements ICodeEnumerator<ConvCode>, ICheckpointable {
 	private IHeuristic heuristic;	
 	private ICodeEnumerator<ConvCode> ccEnum;
 	
@@ -39,4 +41,24 @@ public class SiftingCCEnumerator implements ICodeEnumerator<ConvCode> {
 	public BigInteger count() {		
 		return ccEnum.count();
 	}
+
+	/**
+	 * Сохраняет состояние вложенного перечислителя, если он его поддерживает.
+	 */
+	@Override
+	public void saveState(SearchCheckpoint checkpoint) {
+		checkpointable().saveState(checkpoint);
+	}
+
+	@Override
+	public void restoreState(SearchCheckpoint checkpoint) {
+		checkpointable().restoreState(checkpoint);
+	}
+	
+	private ICheckpointable checkpointable() {
+		if (!(ccEnum instanceof ICheckpointable)) {
+			throw new UnsupportedOperationException(ccEnum.getClass().getName() + " does not support checkpoints.");
+		}
+		return (ICheckpointable)ccEnum;
+	}
 }
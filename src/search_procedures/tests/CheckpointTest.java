@@ -0,0 +1,160 @@
+package search_procedures.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import codes.ConvCode;
+import search_heuristics.CombinedHeuristic;
+import search_procedures.CheckpointingEnumerator;
+import search_procedures.CollectionEnumerator;
+import search_procedures.SearchCheckpoint;
+import search_procedures.conv_codes.ExhaustiveCCEnumByGenMatr;
+import search_procedures.conv_codes.ExhaustiveHRCCEnumByCheckMatr;
+import search_tools.AEnumerator;
+import search_tools.CEnumerator;
+import search_tools.HammingBallEnumerator;
+import search_tools.MatrixEnumerator;
+import search_tools.SumDecomposition;
+
+public class CheckpointTest {
+
+	@Test
+	public void positionsFollowEnumeration() {
+		CEnumerator combinations = new CEnumerator(8, 3);
+		for (int i = 0;combinations.hasNext(); ++i) {
+			assertEquals(BigInteger.valueOf(i), combinations.position());
+			combinations.next();
+		}
+		assertEquals(combinations.count(), combinations.position());
+		
+		HammingBallEnumerator ball = new HammingBallEnumerator(6, 3);
+		for (int i = 0;ball.hasNext(); ++i) {
+			assertEquals(BigInteger.valueOf(i), ball.position());
+			ball.next();
+		}
+		
+		MatrixEnumerator matrices = new MatrixEnumerator(3, 4);
+		for (int i = 0;matrices.hasNext(); ++i) {
+			assertEquals(BigInteger.valueOf(i), matrices.position());
+			matrices.getNext();
+		}
+		assertEquals(matrices.count(), matrices.position());
+		
+		AEnumerator arrangements = new AEnumerator(5, 3);
+		for (int i = 0;arrangements.hasNext(); ++i) {
+			assertEquals(BigInteger.valueOf(i), arrangements.position());
+			arrangements.next();
+		}
+		assertEquals(arrangements.count(), arrangements.position());
+	}
+	
+	@Test
+	public void sumDecompositionStateRestores() {
+		SumDecomposition full = new SumDecomposition(12, 4, 6, 1);
+		ArrayList<int[]> all = new ArrayList<int[]>();
+		while (full.hasNext()) {
+			all.add(full.next().clone());
+		}
+		
+		SumDecomposition first = new SumDecomposition(12, 4, 6, 1);
+		first.next();
+		first.next();
+		
+		SumDecomposition second = new SumDecomposition(12, 4, 6, 1);
+		second.restoreState(first.getState());
+		for (int i = 2;i < all.size(); ++i) {
+			assertArrayEquals(all.get(i), second.next());
+		}
+		assertFalse(second.hasNext());
+	}
+	
+	private ArrayList<ConvCode> enumerate(ExhaustiveHRCCEnumByCheckMatr enumerator, int limit) {
+		ArrayList<ConvCode> codes = new ArrayList<ConvCode>();
+		ConvCode code;
+		
+		while (codes.size() < limit && (code = enumerator.next()) != null) {
+			codes.add(code);
+		}
+		
+		return codes;
+	}
+	
+	@Test
+	public void searchResumesFromCheckpoint() throws IOException {
+		ArrayList<ConvCode> all = enumerate(new ExhaustiveHRCCEnumByCheckMatr(3, 3, new CombinedHeuristic()), Integer.MAX_VALUE);
+		File file = File.createTempFile("checkpoint", ".txt");
+		
+		for (int stop = 0;stop <= all.size(); stop += 5) {
+			ExhaustiveHRCCEnumByCheckMatr enumerator = new ExhaustiveHRCCEnumByCheckMatr(3, 3, new CombinedHeuristic());
+			CheckpointingEnumerator<ConvCode> checkpointEnum = new CheckpointingEnumerator<ConvCode>(enumerator, file, Long.MAX_VALUE);
+			
+			for (int i = 0;i < stop; ++i) {
+				checkpointEnum.next();
+			}
+			checkpointEnum.codeFound("code " + stop);
+			checkpointEnum.saveCheckpoint();
+			
+			ExhaustiveHRCCEnumByCheckMatr restored = new ExhaustiveHRCCEnumByCheckMatr(3, 3, new CombinedHeuristic());
+			CheckpointingEnumerator<ConvCode> restoredEnum = new CheckpointingEnumerator<ConvCode>(restored, file, Long.MAX_VALUE);
+			
+			assertTrue(restoredEnum.resume());
+			assertEquals(1, restoredEnum.getFoundCodes().size());
+			assertEquals("code " + stop, restoredEnum.getFoundCodes().get(0));
+			
+			ArrayList<ConvCode> rest = enumerate(restored, Integer.MAX_VALUE);
+			assertEquals(all.size() - stop, rest.size());
+			for (int i = 0;i < rest.size(); ++i) {
+				assertEquals(all.get(stop + i).parityCheck(), rest.get(i).parityCheck());
+			}
+		}
+		
+		file.delete();
+	}
+	
+	@Test
+	public void collectionEnumeratorResumesFromCheckpoint() throws IOException {
+		ArrayList<ConvCode> all = enumerate(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()), Integer.MAX_VALUE);
+		File file = File.createTempFile("checkpoint", ".txt");
+		CheckpointingEnumerator<ConvCode> checkpointEnum = new CheckpointingEnumerator<ConvCode>(new CollectionEnumerator<ConvCode>(all), file, Long.MAX_VALUE);
+		
+		for (int i = 0;i < 3; ++i) {
+			checkpointEnum.next();
+		}
+		checkpointEnum.saveCheckpoint();
+		
+		CollectionEnumerator<ConvCode> restored = new CollectionEnumerator<ConvCode>(all);
+		assertTrue(new CheckpointingEnumerator<ConvCode>(restored, file, Long.MAX_VALUE).resume());
+		for (int i = 3;i < all.size(); ++i) {
+			assertSame(all.get(i), restored.next());
+		}
+		assertNull(restored.next());
+		
+		file.delete();
+	}
+	
+	@Test
+	public void generatorEnumeratorStateRestores() {
+		ExhaustiveCCEnumByGenMatr enumerator = new ExhaustiveCCEnumByGenMatr(1, 2, 1);
+		for (int i = 0;i < 7; ++i) {
+			enumerator.next();
+		}
+		
+		SearchCheckpoint checkpoint = new SearchCheckpoint();
+		enumerator.saveState(checkpoint);
+		
+		ExhaustiveCCEnumByGenMatr restored = new ExhaustiveCCEnumByGenMatr(1, 2, 1);
+		restored.restoreState(checkpoint);
+		
+		ConvCode code;
+		while ((code = enumerator.next()) != null) {
+			assertEquals(code.generator(), restored.next().generator());
+		}
+		assertNull(restored.next());
+	}
+}
@@ -0,0 +1,140 @@
+package search_procedures.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import math.ConvCodeCanonicalForm;
+import math.ConvCodeCanonicalForm.Fingerprint;
+
+import org.junit.Test;
+
+import codes.ConvCode;
+import search_heuristics.CombinedHeuristic;
+import search_procedures.CheckpointingEnumerator;
+import search_procedures.ICodeEnumerator;
+import search_procedures.conv_codes.DistinctCCEnumerator;
+import search_procedures.conv_codes.ExhaustiveHRCCEnumByCheckMatr;
+import search_tools.SeenCodesSet;
+
+public class DistinctCCEnumeratorTest {
+
+	@Test
+	public void distinctEnumeratorShouldSkipOnlyEquivalentCodes() throws Exception {
+		ArrayList<ConvCode> all = enumerate(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()));
+		DistinctCCEnumerator distinctEnum = new DistinctCCEnumerator(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()));
+		ArrayList<ConvCode> distinct = enumerate(distinctEnum);
+
+		assertTrue(distinct.size() < all.size());
+		assertEquals(all.size(), distinct.size() + distinctEnum.getSkippedCount());
+
+		Map<Fingerprint, ConvCode> representatives = new HashMap<Fingerprint, ConvCode>();
+		for (ConvCode code : distinct) {
+			assertNull(representatives.put(ConvCodeCanonicalForm.fingerprint(code), code));
+		}
+		for (ConvCode code : all) {
+			ConvCode representative = representatives.get(ConvCodeCanonicalForm.fingerprint(code));
+
+			assertNotNull(representative);
+			assertEquals(representative.getFreeDist(), code.getFreeDist());
+		}
+
+		distinctEnum.reset();
+		assertEquals(distinct.size(), enumerate(distinctEnum).size());
+	}
+
+	@Test
+	public void bloomFilterShouldRejectSeenCodes() {
+		ArrayList<ConvCode> all = enumerate(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()));
+		SeenCodesSet exact = new SeenCodesSet();
+		SeenCodesSet bloom = SeenCodesSet.withBloomFilter(all.size(), 0.01);
+
+		assertTrue(bloom.isBloomFilter());
+		for (ConvCode code : all) {
+			boolean added = bloom.add(code);
+
+			// фильтр Блума может только ошибочно отвергнуть новый код
+			if (added) {
+				assertTrue(exact.add(code));
+			} else {
+				exact.add(code);
+			}
+		}
+		for (ConvCode code : all) {
+			assertFalse(bloom.add(code));
+		}
+		assertTrue(bloom.size() <= exact.size());
+
+		bloom.clear();
+		assertEquals(0, bloom.size());
+		assertTrue(bloom.add(all.get(0)));
+	}
+
+	@Test
+	public void seenCodesShouldSurviveResume() throws IOException {
+		File file = File.createTempFile("checkpoint", ".txt");
+
+		for (boolean bloom : new boolean[] {false, true}) {
+			DistinctCCEnumerator uninterrupted = new DistinctCCEnumerator(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()), seenCodes(bloom));
+			ArrayList<ConvCode> distinct = enumerate(uninterrupted);
+
+			for (int stop = 0;stop <= distinct.size(); stop += 3) {
+				DistinctCCEnumerator distinctEnum = new DistinctCCEnumerator(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()), seenCodes(bloom));
+				CheckpointingEnumerator<ConvCode> checkpointEnum = new CheckpointingEnumerator<ConvCode>(distinctEnum, file, Long.MAX_VALUE);
+
+				for (int i = 0;i < stop; ++i) {
+					checkpointEnum.next();
+				}
+				checkpointEnum.saveCheckpoint();
+
+				DistinctCCEnumerator restored = new DistinctCCEnumerator(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()), seenCodes(bloom));
+				assertTrue(new CheckpointingEnumerator<ConvCode>(restored, file, Long.MAX_VALUE).resume());
+
+				// после восстановления выдаются только коды, не эквивалентные выданным до точки
+				ArrayList<ConvCode> rest = enumerate(restored);
+				assertEquals(distinct.size() - stop, rest.size());
+				for (int i = 0;i < rest.size(); ++i) {
+					assertEquals(distinct.get(stop + i).parityCheck(), rest.get(i).parityCheck());
+				}
+				assertEquals(uninterrupted.getSkippedCount(), restored.getSkippedCount());
+			}
+		}
+
+		file.delete();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkpointWithOtherSetKindShouldBeRejected() throws IOException {
+		File file = File.createTempFile("checkpoint", ".txt");
+
+		try {
+			CheckpointingEnumerator<ConvCode> checkpointEnum = new CheckpointingEnumerator<ConvCode>(
+					new DistinctCCEnumerator(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic())), file, Long.MAX_VALUE);
+			checkpointEnum.next();
+			checkpointEnum.saveCheckpoint();
+
+			new CheckpointingEnumerator<ConvCode>(new DistinctCCEnumerator(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()),
+					seenCodes(true)), file, Long.MAX_VALUE).resume();
+		} finally {
+			file.delete();
+		}
+	}
+
+	private SeenCodesSet seenCodes(boolean bloom) {
+		return bloom ? SeenCodesSet.withBloomFilter(1000, 1e-6) : new SeenCodesSet();
+	}
+
+	private ArrayList<ConvCode> enumerate(ICodeEnumerator<ConvCode> ccEnum) {
+		ArrayList<ConvCode> codes = new ArrayList<ConvCode>();
+		ConvCode code;
+
+		while ((code = ccEnum.next()) != null) {
+			codes.add(code);
+		}
+		return codes;
+	}
+}
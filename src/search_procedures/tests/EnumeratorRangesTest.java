@@ -0,0 +1,159 @@
+package search_procedures.tests;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import math.Matrix;
+
+import org.junit.Test;
+
+import codes.ConvCode;
+import search_heuristics.CombinedHeuristic;
+import search_procedures.EnumeratorSplitter;
+import search_procedures.ISplittableCodeEnumerator;
+import search_procedures.conv_codes.ExhaustiveCCEnumByGenMatr;
+import search_procedures.conv_codes.ExhaustiveHRCCEnumByCheckMatr;
+import search_tools.AEnumerator;
+import search_tools.CEnumerator;
+import search_tools.MatrixEnumerator;
+import search_tools.PEnumerator;
+
+public class EnumeratorRangesTest {
+
+	@Test
+	public void splitBoundsCoverCount() {
+		BigInteger bounds[] = EnumeratorSplitter.split(BigInteger.valueOf(10), 3);
+		
+		assertEquals(4, bounds.length);
+		assertEquals(BigInteger.ZERO, bounds[0]);
+		assertEquals(BigInteger.valueOf(4), bounds[1]);
+		assertEquals(BigInteger.valueOf(7), bounds[2]);
+		assertEquals(BigInteger.valueOf(10), bounds[3]);
+	}
+	
+	@Test
+	public void combinationsRangesMatchFullEnumeration() {
+		ArrayList<long[]> all = new ArrayList<long[]>();
+		CEnumerator full = new CEnumerator(7, 3);
+		while (full.hasNext()) {
+			all.add(full.next());
+		}
+		
+		for (int i = 0;i < all.size(); ++i) {
+			CEnumerator enumerator = new CEnumerator(7, 3);
+			enumerator.seek(BigInteger.valueOf(i));
+			assertArrayEquals(all.get(i), enumerator.next());
+		}
+		
+		for (int parts = 1;parts <= 5; ++parts) {
+			ArrayList<long[]> joined = new ArrayList<long[]>();
+			BigInteger bounds[] = EnumeratorSplitter.split(full.count(), parts);
+			
+			for (int part = 0;part < parts; ++part) {
+				CEnumerator enumerator = new CEnumerator(7, 3);
+				enumerator.setRange(bounds[part], bounds[part + 1]);
+				while (enumerator.hasNext()) {
+					joined.add(enumerator.next());
+				}
+			}
+			
+			assertEquals(all.size(), joined.size());
+			for (int i = 0;i < all.size(); ++i) {
+				assertArrayEquals(all.get(i), joined.get(i));
+			}
+		}
+	}
+
+	@Test
+	public void matricesRangesMatchFullEnumeration() {
+		ArrayList<Matrix> all = new ArrayList<Matrix>();
+		MatrixEnumerator full = new MatrixEnumerator(3, 4);
+		while (full.hasNext()) {
+			all.add(full.getNext());
+		}
+		assertEquals(full.count().intValue(), all.size());
+		
+		for (int i = 0;i < all.size(); ++i) {
+			MatrixEnumerator enumerator = new MatrixEnumerator(3, 4);
+			enumerator.seek(BigInteger.valueOf(i));
+			assertEquals(all.get(i), enumerator.getNext());
+		}
+
+		ArrayList<Matrix> joined = new ArrayList<Matrix>();
+		BigInteger bounds[] = EnumeratorSplitter.split(full.count(), 7);
+		for (int part = 0;part < 7; ++part) {
+			MatrixEnumerator enumerator = new MatrixEnumerator(3, 4);
+			enumerator.setRange(bounds[part], bounds[part + 1]);
+			while (enumerator.hasNext()) {
+				joined.add(enumerator.getNext());
+			}
+		}
+		assertEquals(all, joined);
+	}
+
+	@Test
+	public void permutationsAndArrangementsSeek() {
+		PEnumerator permutations = new PEnumerator(4);
+		for (int i = 0;permutations.hasNext(); ++i) {
+			int expected[] = permutations.next().clone();
+			PEnumerator enumerator = new PEnumerator(4);
+			enumerator.seek(BigInteger.valueOf(i));
+			assertTrue(Arrays.equals(expected, enumerator.next()));
+		}
+
+		AEnumerator arrangements = new AEnumerator(5, 3);
+		int count = 0;
+		for (int i = 0;arrangements.hasNext(); ++i, ++count) {
+			long expected[] = arrangements.next();
+			AEnumerator enumerator = new AEnumerator(5, 3);
+			enumerator.setRange(BigInteger.valueOf(i), BigInteger.valueOf(i + 1));
+			assertArrayEquals(expected, enumerator.next());
+			assertFalse(enumerator.hasNext());
+		}
+		assertEquals(arrangements.count().intValue(), count);
+	}
+
+	private ArrayList<ConvCode> enumerate(ISplittableCodeEnumerator<ConvCode> enumerator) {
+		ArrayList<ConvCode> codes = new ArrayList<ConvCode>();
+		ConvCode code;
+		
+		while ((code = enumerator.next()) != null) {
+			codes.add(code);
+		}
+		
+		return codes;
+	}
+	
+	@Test
+	public void convCodesPartsMatchFullEnumeration() {
+		ArrayList<ConvCode> all = enumerate(new ExhaustiveCCEnumByGenMatr(1, 2, 1));
+		ArrayList<ConvCode> joined = new ArrayList<ConvCode>();
+		
+		for (int part = 0;part < 3; ++part) {
+			ExhaustiveCCEnumByGenMatr enumerator = new ExhaustiveCCEnumByGenMatr(1, 2, 1);
+			EnumeratorSplitter.selectPart(enumerator, part, 3);
+			joined.addAll(enumerate(enumerator));
+		}
+		
+		assertEquals(all.size(), joined.size());
+		for (int i = 0;i < all.size(); ++i) {
+			assertEquals(all.get(i).generator(), joined.get(i).generator());
+		}
+
+		all = enumerate(new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic()));
+		joined.clear();
+		for (int part = 0;part < 4; ++part) {
+			ExhaustiveHRCCEnumByCheckMatr enumerator = new ExhaustiveHRCCEnumByCheckMatr(2, 3, new CombinedHeuristic());
+			EnumeratorSplitter.selectPart(enumerator, part, 4);
+			joined.addAll(enumerate(enumerator));
+		}
+
+		assertEquals(all.size(), joined.size());
+		for (int i = 0;i < all.size(); ++i) {
+			assertEquals(all.get(i).parityCheck(), joined.get(i).parityCheck());
+		}
+	}
+}
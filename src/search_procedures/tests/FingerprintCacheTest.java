@@ -0,0 +1,175 @@
+package search_procedures.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import math.ConvCodeCanonicalForm.Fingerprint;
+import math.Poly;
+
+import org.junit.Test;
+
+import codes.ConvCode;
+import search_heuristics.CombinedHeuristic;
+import search_heuristics.LinearDependenceCashingHeur;
+import search_procedures.conv_codes.ExhaustiveHRCCEnumByCheckMatr;
+import search_tools.FingerprintCache;
+import search_tools.MappedFingerprintTable;
+
+public class FingerprintCacheTest {
+
+	@Test
+	public void cacheShouldStayBoundedAndKeepFrequentEntries() {
+		FingerprintCache cache = new FingerprintCache(100);
+
+		for (int i = 0;i < 10; ++i) {
+			cache.put(key(i), i);
+			assertEquals(Integer.valueOf(i), cache.get(key(i)));
+		}
+		// однократные обращения не вытесняют защищенные записи
+		for (int i = 10;i < 1010; ++i) {
+			cache.put(key(i), i);
+			assertTrue(cache.size() <= 100);
+		}
+
+		for (int i = 0;i < 10; ++i) {
+			assertEquals(Integer.valueOf(i), cache.get(key(i)));
+		}
+		assertNull(cache.get(key(10)));
+		assertEquals(Integer.valueOf(1009), cache.get(key(1009)));
+		assertEquals(910, cache.getEvictionsCount());
+	}
+
+	@Test
+	public void evictedEntriesShouldBeReadFromSpill() throws Exception {
+		File file = File.createTempFile("fingerprints", ".bin");
+		file.deleteOnExit();
+
+		MappedFingerprintTable table = new MappedFingerprintTable(file, 4096);
+		FingerprintCache cache = new FingerprintCache(10, table);
+		for (int i = 0;i < 200; ++i) {
+			cache.put(key(i), i);
+		}
+		for (int i = 0;i < 200; ++i) {
+			assertEquals(Integer.valueOf(i), cache.get(key(i)));
+		}
+		assertTrue(cache.getSpillHitsCount() > 0);
+		assertEquals(0, cache.getMissesCount());
+		assertNull(cache.get(key(200)));
+		table.close();
+
+		// записи сохраняются между запусками
+		MappedFingerprintTable reopened = new MappedFingerprintTable(file, 4096);
+		assertEquals(table.size(), reopened.size());
+		assertEquals(Integer.valueOf(0), reopened.get(key(0)));
+		reopened.close();
+	}
+
+	@Test
+	public void concurrentAccessShouldKeepValues() throws Exception {
+		final FingerprintCache cache = new FingerprintCache(1000);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<Void>> futures = new ArrayList<Future<Void>>();
+
+		for (int t = 0;t < 4; ++t) {
+			final Random random = new Random(t);
+			futures.add(executor.submit(new Callable<Void>() {
+				@Override
+				public Void call() {
+					for (int i = 0;i < 100000; ++i) {
+						int id = random.nextInt(5000);
+						Integer value = cache.get(key(id));
+
+						if (value == null) {
+							cache.put(key(id), 3 * id);
+						} else {
+							assertEquals(3 * id, value.intValue());
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		for (Future<Void> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		assertTrue(cache.size() <= cache.getCapacity());
+		assertEquals(1000, cache.getCapacity());
+	}
+
+	@Test
+	public void heuristicShouldNotDependOnCacheSize() {
+		LinearDependenceCashingHeur.PolyLinearDependenceDataBase smallBase = new LinearDependenceCashingHeur.PolyLinearDependenceDataBase(1);
+		LinearDependenceCashingHeur.PolyLinearDependenceDataBase largeBase = new LinearDependenceCashingHeur.PolyLinearDependenceDataBase();
+		LinearDependenceCashingHeur small = new LinearDependenceCashingHeur(4, 3, smallBase);
+		LinearDependenceCashingHeur large = new LinearDependenceCashingHeur(4, 3, largeBase);
+		ExhaustiveHRCCEnumByCheckMatr ccEnum = new ExhaustiveHRCCEnumByCheckMatr(3, 3, new CombinedHeuristic());
+		ConvCode code;
+		int rejected = 0;
+
+		while ((code = ccEnum.next()) != null) {
+			boolean result = large.check(code);
+
+			assertEquals(result, small.check(code));
+			if (!result) {
+				++rejected;
+			}
+		}
+		assertTrue(rejected > 0);
+		assertTrue(largeBase.getCache().getHitsCount() > 0);
+		assertTrue(smallBase.getCache().size() <= 1);
+	}
+
+	@Test
+	public void spillWithOtherTagShouldBeCleared() throws Exception {
+		File file = File.createTempFile("fingerprints", ".bin");
+		file.deleteOnExit();
+
+		MappedFingerprintTable table = new MappedFingerprintTable(file, 64, 1);
+		table.put(key(1), 5);
+		table.close();
+
+		MappedFingerprintTable sameTag = new MappedFingerprintTable(file, 64, 1);
+		assertEquals(Integer.valueOf(5), sameTag.get(key(1)));
+		sameTag.close();
+
+		MappedFingerprintTable otherTag = new MappedFingerprintTable(file, 64, 2);
+		assertEquals(0, otherTag.size());
+		assertNull(otherTag.get(key(1)));
+		otherTag.close();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void dataBaseShouldRejectSpillWithOtherTag() throws Exception {
+		File file = File.createTempFile("fingerprints", ".bin");
+		file.deleteOnExit();
+
+		new LinearDependenceCashingHeur.PolyLinearDependenceDataBase(16, new MappedFingerprintTable(file, 64));
+	}
+
+	@Test
+	public void weightsShouldBeKeyedByDelay() {
+		LinearDependenceCashingHeur.PolyLinearDependenceDataBase dataBase = new LinearDependenceCashingHeur.PolyLinearDependenceDataBase();
+		ArrayList<Poly> polys = new ArrayList<Poly>();
+
+		polys.add(new Poly(new boolean[] {true, true}));
+		polys.add(new Poly(new boolean[] {true}));
+		dataBase.addPolysCombination(polys, 2, 3);
+
+		assertEquals(3, dataBase.checkPolys(polys, 2));
+		assertEquals(-1, dataBase.checkPolys(polys, 4));
+	}
+
+	private static Fingerprint key(int id) {
+		return new Fingerprint(id * 0x9e3779b97f4a7c15L, id);
+	}
+}
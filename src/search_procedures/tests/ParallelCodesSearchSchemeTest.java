@@ -0,0 +1,68 @@
+package search_procedures.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import math.Matrix;
+import math.MinDistance;
+
+import org.junit.Test;
+
+import codes.BlockCode;
+import codes.Code;
+import search_heuristics.IHeuristic;
+import search_procedures.CollectionEnumerator;
+import search_procedures.ParallelCodesSearchScheme;
+import search_procedures.block_codes.BasicBlockCodesSearcher;
+import search_tools.MatrixEnumerator;
+
+public class ParallelCodesSearchSchemeTest {
+
+	private ArrayList<BlockCode> allCodes(int k, int n) {
+		ArrayList<BlockCode> codes = new ArrayList<BlockCode>();
+		MatrixEnumerator enumerator = new MatrixEnumerator(k, n);
+
+		while (enumerator.hasNext()) {
+			codes.add(new BlockCode(enumerator.getNext(), true));
+		}
+
+		return codes;
+	}
+
+	private BasicBlockCodesSearcher<BlockCode> searcher(final int minDist) {
+		BasicBlockCodesSearcher<BlockCode> searcher = new BasicBlockCodesSearcher<BlockCode>();
+
+		searcher.setHeuristic(new IHeuristic() {
+			@Override
+			public boolean check(Code code) {
+				Matrix gen = ((BlockCode)code).generator();
+				return gen.getRowCount() > 0 && MinDistance.findMinDist(gen) >= minDist;
+			}
+		});
+
+		return searcher;
+	}
+
+	@Test
+	public void sameOrderAsSerial() {
+		ArrayList<BlockCode> codes = allCodes(3, 6);
+
+		BasicBlockCodesSearcher<BlockCode> serial = searcher(3);
+		serial.setCandidateEnumerator(new CollectionEnumerator<BlockCode>(codes));
+
+		ParallelCodesSearchScheme<BlockCode> parallel = new ParallelCodesSearchScheme<BlockCode>(searcher(3), 4, 7);
+		parallel.setCandidateEnumerator(new CollectionEnumerator<BlockCode>(codes));
+
+		int found = 0;
+		BlockCode expected;
+		while ((expected = serial.findNext()) != null) {
+			assertSame(expected, parallel.findNext());
+			++found;
+		}
+		assertNull(parallel.findNext());
+		assertTrue(found > 0);
+
+		parallel.shutdown();
+	}
+}
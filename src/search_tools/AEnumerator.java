@@ -1,5 +1,6 @@
 package search_tools;
 
+import java.math.BigInteger;
 import java.util.NoSuchElementException;
 
 
@@ -12,6 +13,10 @@ public class AEnumerator {
 	private long combination[] = null;
 	private CEnumerator cenumerator;
 	private PEnumerator penumerator;
+	/**
+	 * Количество размещений, оставшихся в диапазоне перебора, null - перебор до конца.
+	 */
+	private BigInteger remaining = null;
 	
 	public AEnumerator(long n, int k) {
 		cenumerator = new CEnumerator(n, k);
@@ -26,10 +31,69 @@ public class AEnumerator {
 		return cenumerator.getK();
 	}
 	
+	public BigInteger count() {
+		return cenumerator.count().multiply(penumerator.count());
+	}
+	
 	public boolean hasNext() {
+		if (remaining != null) {
+			return remaining.signum() > 0;
+		}
 		return combination == null || cenumerator.hasNext() || penumerator.hasNext();
 	}
 	
+	/**
+	 * Переходит к размещению с номером <code>index</code>: следующий вызов <code>next()</code> вернет именно его.
+	 * Размещения упорядочены по сочетанию (порядок <code>CEnumerator</code>), затем по перестановке 
+	 * (порядок <code>PEnumerator</code>). Граница диапазона, заданная <code>setRange</code>, при этом сбрасывается.
+	 * 
+	 * @param index номер размещения, 0 <= index < count()
+	 */
+	public void seek(BigInteger index) {
+		if (index.signum() < 0 || index.compareTo(count()) >= 0) {
+			throw new IndexOutOfBoundsException("Arrangement index is out of range: " + index);
+		}
+		
+		BigInteger[] combinationAndPermutation = index.divideAndRemainder(penumerator.count());
+		
+		remaining = null;
+		cenumerator.seek(combinationAndPermutation[0]);
+		combination = cenumerator.next();
+		penumerator = new PEnumerator(getK());
+		penumerator.seek(combinationAndPermutation[1]);
+	}
+	
+	/**
+	 * @return номер размещения, которое вернет следующий вызов <code>next()</code>, 
+	 * или count(), если перебор окончен
+	 */
+	public BigInteger position() {
+		if (combination == null) {
+			return BigInteger.ZERO;
+		}
+		
+		BigInteger combinationIndex = cenumerator.position().subtract(BigInteger.ONE);
+		
+		return combinationIndex.multiply(penumerator.count()).add(penumerator.position());
+	}
+	
+	/**
+	 * Ограничивает перебор размещениями с номерами из [from, to).
+	 * После вызова <code>next()</code> вернет размещение с номером <code>from</code>.
+	 */
+	public void setRange(BigInteger from, BigInteger to) {
+		BigInteger count = count();
+		
+		if (from.signum() < 0 || from.compareTo(to) > 0 || to.compareTo(count) > 0) {
+			throw new IndexOutOfBoundsException("Wrong range of arrangements: [" + from + ", " + to + ")");
+		}
+		
+		if (from.compareTo(count) < 0) {
+			seek(from);
+		}
+		remaining = to.subtract(from);
+	}
+	
 	public long[] next() {
 		if (!hasNext()) {
 			throw new NoSuchElementException("There is no next arragement.");
@@ -44,6 +108,10 @@ public class AEnumerator {
 			penumerator = new PEnumerator(getK());
 		}
 
+		if (remaining != null) {
+			remaining = remaining.subtract(BigInteger.ONE);
+		}
+
 		int i = 0;
 		long arragement[] = new long[getK()];
 		for (int p : penumerator.next()) {
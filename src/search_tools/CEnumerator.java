@@ -19,6 +19,14 @@ public class CEnumerator {
 	private long n;
 	private int k;
 	private long[] sequence;
+	/**
+	 * Последнее сочетание диапазона перебора (включительно), null - перебор до конца.
+	 */
+	private long[] last = null;
+	/**
+	 * true, если диапазон перебора пуст.
+	 */
+	private boolean emptyRange = false;
 	
 	
 	public CEnumerator(long n, int k)
@@ -60,9 +68,94 @@ public class CEnumerator {
 	}
 	
 	public boolean hasNext() {
+		if (emptyRange) {
+			return false;
+		}
+		if (last != null && sequence != null && compare(sequence, last) >= 0) {
+			return false;
+		}
 		return sequence == null || (k > 0 && sequence[0] != (n-k));
 	}
 	
+	/**
+	 * Переходит к сочетанию с номером <code>index</code> в лексикографическом порядке:
+	 * следующий вызов <code>next()</code> вернет именно его. Граница диапазона, 
+	 * заданная <code>setRange</code>, при этом сбрасывается.
+	 * 
+	 * @param index номер сочетания, 0 <= index < count()
+	 */
+	public void seek(BigInteger index) {
+		if (index.signum() < 0 || index.compareTo(count()) >= 0) {
+			throw new IndexOutOfBoundsException("Combination index is out of range: " + index);
+		}
+		
+		last = null;
+		emptyRange = false;
+		sequence = index.signum() == 0 ? null : getByIndex(index.subtract(BigInteger.ONE));
+	}
+	
+	/**
+	 * Ограничивает перебор сочетаниями с номерами из [from, to).
+	 * После вызова <code>next()</code> вернет сочетание с номером <code>from</code>.
+	 */
+	public void setRange(BigInteger from, BigInteger to) {
+		if (from.signum() < 0 || from.compareTo(to) > 0 || to.compareTo(count()) > 0) {
+			throw new IndexOutOfBoundsException("Wrong range of combinations: [" + from + ", " + to + ")");
+		}
+		
+		if (from.equals(to)) {
+			emptyRange = true;
+			return;
+		}
+		
+		seek(from);
+		last = getByIndex(to.subtract(BigInteger.ONE));
+	}
+	
+	/**
+	 * @return номер сочетания, которое вернет следующий вызов <code>next()</code>, 
+	 * или count(), если перебор окончен
+	 */
+	public BigInteger position() {
+		if (sequence == null) {
+			return BigInteger.ZERO;
+		}
+		return indexOf(sequence).add(BigInteger.ONE);
+	}
+	
+	/**
+	 * Вычисляет номер сочетания в лексикографическом порядке. Обратная операция к <code>getByIndex</code>.
+	 */
+	public BigInteger indexOf(long[] combination) {
+		BigInteger index = BigInteger.ZERO;
+		long prev = -1;
+		
+		// количество сочетаний, у которых i-тый элемент лежит в (prev, combination[i]), 
+		// по тождеству хоккейной клюшки равно C(n-prev-1, k-i) - C(n-combination[i], k-i)
+		for (int i = 0;i < k; ++i) {
+			index = index.add(binomial(n - prev - 1, k - i)).subtract(binomial(n - combination[i], k - i));
+			prev = combination[i];
+		}
+		
+		return index;
+	}
+	
+	private static BigInteger binomial(long n, int k) {
+		if (k < 0 || n < k) {
+			return BigInteger.ZERO;
+		}
+		return new CEnumerator(n, k).count();
+	}
+	
+	private static int compare(long[] a, long[] b) {
+		for (int i = 0;i < a.length; ++i) {
+			if (a[i] != b[i]) {
+				return a[i] < b[i] ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+	
 	public long[] current() {
 		return sequence;
 	}
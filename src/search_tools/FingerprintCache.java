@@ -0,0 +1,201 @@
+package search_tools;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import math.ConvCodeCanonicalForm.Fingerprint;
+
+/**
+ * Потокобезопасный кеш ограниченного размера "отпечаток - неотрицательное число" с вытеснением
+ * segmented LRU. Новая запись попадает в испытательный сегмент, повторное обращение переводит
+ * ее в защищенный сегмент ({@link #PROTECTED_RATIO} емкости), вытесняются в первую очередь
+ * давно не использованные записи испытательного сегмента. Поэтому однократные обращения
+ * длинного перебора не вымывают часто используемые записи.
+ *
+ * Кеш разбит на независимые части по отпечатку, каждая со своей блокировкой, чтобы параллельные
+ * потоки поиска редко ждали друг друга. Вытесненные записи могут сохраняться в
+ * {@link MappedFingerprintTable}, откуда возвращаются в кеш при следующем обращении.
+ *
+ * @author stas
+ *
+ */
+public class FingerprintCache {
+	/**
+	 * Доля емкости части кеша, отводимая защищенному сегменту.
+	 */
+	public static final double PROTECTED_RATIO = 0.8;
+	/**
+	 * Минимальная емкость одной части кеша.
+	 */
+	private static final int MIN_SEGMENT_CAPACITY = 256;
+	private static final int MAX_SEGMENTS = 16;
+
+	private final Segment segments[];
+	private final MappedFingerprintTable spill;
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong spillHits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+
+	public FingerprintCache(int capacity) {
+		this(capacity, null);
+	}
+
+	/**
+	 * @param capacity наибольшее количество записей в памяти
+	 * @param spill таблица для вытесненных записей или <code>null</code>
+	 */
+	public FingerprintCache(int capacity, MappedFingerprintTable spill) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Cache capacity should be positive: " + capacity);
+		}
+
+		int segmentsCount = 1;
+		while (segmentsCount < MAX_SEGMENTS && capacity / (2 * segmentsCount) >= MIN_SEGMENT_CAPACITY) {
+			segmentsCount *= 2;
+		}
+
+		this.spill = spill;
+		segments = new Segment[segmentsCount];
+		for (int i = 0;i < segmentsCount; ++i) {
+			// остаток емкости распределяется по первым частям
+			segments[i] = new Segment(capacity / segmentsCount + (i < capacity % segmentsCount ? 1 : 0));
+		}
+	}
+
+	/**
+	 * @return значение или <code>null</code>, если записи нет ни в памяти, ни в файле
+	 */
+	public Integer get(Fingerprint key) {
+		Segment segment = segmentFor(key);
+		Integer value = segment.get(key);
+
+		if (value != null) {
+			hits.incrementAndGet();
+			return value;
+		}
+
+		if (spill != null) {
+			value = spill.get(key);
+			if (value != null) {
+				spillHits.incrementAndGet();
+				segment.put(key, value);
+				return value;
+			}
+		}
+
+		misses.incrementAndGet();
+		return null;
+	}
+
+	public void put(Fingerprint key, int value) {
+		if (value < 0) {
+			throw new IllegalArgumentException("Value should be non-negative: " + value);
+		}
+		segmentFor(key).put(key, value);
+	}
+
+	/**
+	 * Количество записей в памяти.
+	 */
+	public int size() {
+		int size = 0;
+
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	public int getCapacity() {
+		int capacity = 0;
+
+		for (Segment segment : segments) {
+			capacity += segment.capacity;
+		}
+		return capacity;
+	}
+
+	public long getHitsCount() {
+		return hits.get();
+	}
+
+	public long getSpillHitsCount() {
+		return spillHits.get();
+	}
+
+	public long getMissesCount() {
+		return misses.get();
+	}
+
+	public long getEvictionsCount() {
+		return evictions.get();
+	}
+
+	private Segment segmentFor(Fingerprint key) {
+		return segments[(int)(key.high >>> 32) & (segments.length - 1)];
+	}
+
+	private class Segment {
+		final int capacity;
+		final int protectedCapacity;
+		final LinkedHashMap<Fingerprint, Integer> probation = new LinkedHashMap<Fingerprint, Integer>(16, 0.75f, true);
+		final LinkedHashMap<Fingerprint, Integer> protectedEntries = new LinkedHashMap<Fingerprint, Integer>(16, 0.75f, true);
+
+		Segment(int capacity) {
+			this.capacity = capacity;
+			this.protectedCapacity = Math.min(capacity - 1, (int)(capacity * PROTECTED_RATIO));
+		}
+
+		synchronized Integer get(Fingerprint key) {
+			Integer value = protectedEntries.get(key);
+
+			if (value != null) {
+				return value;
+			}
+
+			value = probation.remove(key);
+			if (value != null) {
+				protectedEntries.put(key, value);
+				if (protectedEntries.size() > protectedCapacity) {
+					// вытесненная из защищенного сегмента запись получает еще одну попытку
+					Map.Entry<Fingerprint, Integer> eldest = removeEldest(protectedEntries);
+					probation.put(eldest.getKey(), eldest.getValue());
+				}
+			}
+			return value;
+		}
+
+		synchronized void put(Fingerprint key, int value) {
+			if (protectedEntries.containsKey(key)) {
+				protectedEntries.put(key, value);
+				return;
+			}
+
+			probation.put(key, value);
+			if (probation.size() + protectedEntries.size() > capacity) {
+				Map.Entry<Fingerprint, Integer> eldest = removeEldest(probation.isEmpty() ? protectedEntries : probation);
+
+				evictions.incrementAndGet();
+				if (spill != null) {
+					spill.put(eldest.getKey(), eldest.getValue());
+				}
+			}
+		}
+
+		synchronized int size() {
+			return probation.size() + protectedEntries.size();
+		}
+
+		private Map.Entry<Fingerprint, Integer> removeEldest(LinkedHashMap<Fingerprint, Integer> entries) {
+			Iterator<Map.Entry<Fingerprint, Integer>> iterator = entries.entrySet().iterator();
+			Map.Entry<Fingerprint, Integer> eldest = new AbstractMap.SimpleEntry<Fingerprint, Integer>(iterator.next());
+
+			iterator.remove();
+			return eldest;
+		}
+	}
+}
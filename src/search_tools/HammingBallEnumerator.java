@@ -26,7 +26,7 @@ public class HammingBallEnumerator {
 		BigInteger cnt = BigInteger.ZERO;
 		
 		for (int r = 1;r <= k; ++r) {
-			cnt = cnt.add(sphereEnum.count());
+			cnt = cnt.add(new CEnumerator(n, r).count());
 		}
 				
 		return cnt;
@@ -49,4 +49,42 @@ public class HammingBallEnumerator {
 		return sphereEnum.next();
 	}
 	
+	/**
+	 * @return номер элемента шара, который вернет следующий вызов <code>next()</code>
+	 */
+	public BigInteger position() {
+		BigInteger position = sphereEnum.position();
+		
+		for (int r = 1;r < sphereEnum.getK(); ++r) {
+			position = position.add(new CEnumerator(n, r).count());
+		}
+		
+		return position;
+	}
+	
+	/**
+	 * Переходит к элементу шара с номером <code>index</code>: 
+	 * следующий вызов <code>next()</code> вернет именно его.
+	 * Элементы нумеруются по сферам в порядке возрастания радиуса, внутри сферы - лексикографически.
+	 */
+	public void seek(BigInteger index) {
+		if (index.signum() < 0) {
+			throw new IndexOutOfBoundsException("Negative index: " + index);
+		}
+		
+		for (int r = 1;r <= k; ++r) {
+			CEnumerator sphere = new CEnumerator(n, r);
+			BigInteger sphereSize = sphere.count();
+			
+			if (index.compareTo(sphereSize) < 0) {
+				sphere.seek(index);
+				sphereEnum = sphere;
+				return;
+			}
+			index = index.subtract(sphereSize);
+		}
+		
+		throw new IndexOutOfBoundsException("Index is out of the ball.");
+	}
+	
 }
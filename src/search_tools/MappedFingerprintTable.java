@@ -0,0 +1,166 @@
+package search_tools;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import math.ConvCodeCanonicalForm.Fingerprint;
+
+/**
+ * Хеш-таблица фиксированного размера "отпечаток - неотрицательное число" в отображенном
+ * в память файле. Используется как второй уровень {@link FingerprintCache}: вытесненные из
+ * памяти записи сохраняются здесь, и объем таблицы не зависит от кучи.
+ *
+ * Запись занимает {@link #RECORD_SIZE} байт: два слова отпечатка и значение, увеличенное на 1
+ * (нулевое поле - пустая ячейка). Коллизии разрешаются линейным пробированием не более чем на
+ * {@link #MAX_PROBES} ячеек, после чего запись замещает первую из них: таблица - кеш и может
+ * терять записи.
+ *
+ * Файл начинается с заголовка ({@link #HEADER_SIZE} байт): сигнатура, количество ячеек и метка,
+ * которую задает владелец таблицы и которая описывает, как построены ключи и что означают значения
+ * (например, параметры вычисления). Если файл уже существует и его заголовок совпадает, содержимое
+ * используется, так что таблица сохраняется между запусками. Иначе файл очищается: записи,
+ * сделанные с другими параметрами, не должны попадать в ответы.
+ *
+ * @author stas
+ *
+ */
+public class MappedFingerprintTable implements Closeable {
+	public static final int RECORD_SIZE = 24;
+	public static final int HEADER_SIZE = 24;
+	public static final int MAX_PROBES = 16;
+	private static final long MAGIC = 0x46505461626c6531L;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int slots;
+	private final long tag;
+	private int size = 0;
+
+	public MappedFingerprintTable(File path, int slots) throws IOException {
+		this(path, slots, 0);
+	}
+
+	/**
+	 * @param tag метка содержимого, записи файла с другой меткой не используются
+	 */
+	public MappedFingerprintTable(File path, int slots, long tag) throws IOException {
+		int maxSlots = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+
+		if (slots <= 0 || slots > maxSlots) {
+			throw new IllegalArgumentException("Number of slots should be in [1, " + maxSlots + "]: " + slots);
+		}
+
+		long length = HEADER_SIZE + (long)slots * RECORD_SIZE;
+		this.slots = slots;
+		this.tag = tag;
+		file = new RandomAccessFile(path, "rw");
+
+		boolean reuse = file.length() == length;
+		if (reuse) {
+			file.seek(0);
+			reuse = file.readLong() == MAGIC && file.readLong() == slots && file.readLong() == tag;
+		}
+		if (!reuse) {
+			// записи таблицы другого размера лежат не в своих ячейках, а с другой меткой - не подходят
+			file.setLength(0);
+			file.setLength(length);
+		}
+		channel = file.getChannel();
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+		buffer.putLong(0, MAGIC);
+		buffer.putLong(8, slots);
+		buffer.putLong(16, tag);
+
+		for (int slot = 0;slot < slots; ++slot) {
+			if (buffer.getInt(offset(slot) + 16) != 0) {
+				++size;
+			}
+		}
+	}
+
+	/**
+	 * @return значение или <code>null</code>, если отпечатка нет в таблице
+	 */
+	public synchronized Integer get(Fingerprint key) {
+		int start = startSlot(key);
+
+		for (int i = 0;i < MAX_PROBES && i < slots; ++i) {
+			int offset = offset((start + i) % slots);
+			int value = buffer.getInt(offset + 16);
+
+			if (value == 0) {
+				return null;
+			}
+			if (buffer.getLong(offset) == key.high && buffer.getLong(offset + 8) == key.low) {
+				return value - 1;
+			}
+		}
+		return null;
+	}
+
+	public synchronized void put(Fingerprint key, int value) {
+		if (value < 0 || value == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Value should be in [0, " + (Integer.MAX_VALUE - 1) + "]: " + value);
+		}
+
+		int start = startSlot(key);
+		int offset = offset(start);
+
+		for (int i = 0;i < MAX_PROBES && i < slots; ++i) {
+			int probe = offset((start + i) % slots);
+			int stored = buffer.getInt(probe + 16);
+
+			if (stored == 0) {
+				++size;
+				offset = probe;
+				break;
+			}
+			if (buffer.getLong(probe) == key.high && buffer.getLong(probe + 8) == key.low) {
+				offset = probe;
+				break;
+			}
+		}
+
+		buffer.putLong(offset, key.high);
+		buffer.putLong(offset + 8, key.low);
+		buffer.putInt(offset + 16, value + 1);
+	}
+
+	/**
+	 * Количество занятых ячеек.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	public int getSlotsCount() {
+		return slots;
+	}
+
+	public long getTag() {
+		return tag;
+	}
+
+	/**
+	 * Сбрасывает записи на диск и закрывает файл. Отображение освобождается сборщиком мусора.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		buffer.force();
+		channel.close();
+		file.close();
+	}
+
+	private static int offset(int slot) {
+		return HEADER_SIZE + slot * RECORD_SIZE;
+	}
+
+	private int startSlot(Fingerprint key) {
+		return (int)((key.low & Long.MAX_VALUE) % slots);
+	}
+}
@@ -2,6 +2,7 @@ package search_tools;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.NoSuchElementException;
 import java.util.Random;
 
 import math.Matrix;
@@ -25,6 +26,11 @@ public class MatrixEnumerator {
 	
 	private CEnumerator columnDestribution = null;
 	
+	/**
+	 * Количество матриц, оставшихся в диапазоне перебора, null - перебор до конца.
+	 */
+	private BigInteger remaining = null;
+	
 	public MatrixEnumerator(int rows, int columns) {
 		k = rows;
 		n = columns;
@@ -50,9 +56,87 @@ public class MatrixEnumerator {
 	}
 			
 	public boolean hasNext() {
+		if (remaining != null) {
+			return remaining.signum() > 0;
+		}
 		return (columnDestribution == null) || columnDestribution.hasNext() || columnEnum.hasNext();
 	}
 	
+	/**
+	 * Переходит к матрице с номером <code>index</code>: следующий вызов <code>getNext()</code> вернет именно ее.
+	 * Матрицы упорядочены по количеству различных столбцов r, затем по набору различных столбцов 
+	 * (порядок <code>HammingBallEnumerator</code>), затем по распределению столбцов (порядок <code>CEnumerator</code>).
+	 * Граница диапазона, заданная <code>setRange</code>, при этом не учитывается и сбрасывается.
+	 * 
+	 * @param index номер матрицы, 0 <= index < count()
+	 */
+	public void seek(BigInteger index) {
+		if (index.signum() < 0) {
+			throw new IndexOutOfBoundsException("Negative matrix index: " + index);
+		}
+		
+		remaining = null;
+		BigInteger ballOffset = BigInteger.ZERO;
+		for (int r = 1;r <= columnEnum.getK(); ++r) {
+			BigInteger distrCnt = (new CEnumerator(n - 1, r - 1)).count();
+			BigInteger columnsCnt = (new CEnumerator(columnEnum.getN(), r)).count();
+			BigInteger blockCnt = distrCnt.multiply(columnsCnt);
+			
+			if (index.compareTo(blockCnt) < 0) {
+				BigInteger[] columnsAndDistr = index.divideAndRemainder(distrCnt);
+				
+				columnEnum.seek(ballOffset.add(columnsAndDistr[0]));
+				columnEnum.next();
+				columnDestribution = new CEnumerator(n - 1, r - 1);
+				columnDestribution.seek(columnsAndDistr[1]);
+				return;
+			}
+			
+			index = index.subtract(blockCnt);
+			ballOffset = ballOffset.add(columnsCnt);
+		}
+		
+		throw new IndexOutOfBoundsException("Matrix index is out of range.");
+	}
+	
+	/**
+	 * @return номер матрицы, которую вернет следующий вызов <code>getNext()</code>, 
+	 * или count(), если перебор окончен
+	 */
+	public BigInteger position() {
+		if (columnDestribution == null) {
+			return BigInteger.ZERO;
+		}
+		
+		long[] columns = columnEnum.current();
+		BigInteger position = BigInteger.ZERO;
+		
+		for (int r = 1;r < columns.length; ++r) {
+			position = position.add((new CEnumerator(n - 1, r - 1)).count().multiply(new CEnumerator(columnEnum.getN(), r).count()));
+		}
+		
+		BigInteger columnsIndex = new CEnumerator(columnEnum.getN(), columns.length).indexOf(columns);
+		
+		return position.add(columnsIndex.multiply(columnDestribution.count())).add(columnDestribution.position());
+	}
+	
+	/**
+	 * Ограничивает перебор матрицами с номерами из [from, to).
+	 * После вызова <code>getNext()</code> вернет матрицу с номером <code>from</code>.
+	 */
+	public void setRange(BigInteger from, BigInteger to) {
+		BigInteger count = count();
+		
+		if (from.signum() < 0 || from.compareTo(to) > 0 || to.compareTo(count) > 0) {
+			throw new IndexOutOfBoundsException("Wrong range of matrices: [" + from + ", " + to + ")");
+		}
+		
+		if (from.compareTo(count) < 0) {
+			seek(from);
+		}
+		remaining = to.subtract(from);
+	}
+	
 	private long[] redestributeColumns() {
 		long[] destribution = new long[n];
 		long[] columns = columnEnum.current();
@@ -72,6 +156,13 @@ public class MatrixEnumerator {
 	}
 	
 	public Matrix getNext() {
+		if (remaining != null) {
+			if (remaining.signum() <= 0) {
+				throw new NoSuchElementException("There is no next matrix in the range.");
+			}
+			remaining = remaining.subtract(BigInteger.ONE);
+		}
+		
 		if (columnDestribution != null && columnDestribution.hasNext()) {
 			return matrixByColumns(redestributeColumns());
 		}
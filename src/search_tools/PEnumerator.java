@@ -1,5 +1,6 @@
 package search_tools;
 
+import java.math.BigInteger;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -19,6 +20,10 @@ public class PEnumerator {
 	private int permutation[];
 	private List<Integer> numbers;
 	private boolean hasNext;
+	/**
+	 * Количество перестановок, оставшихся в диапазоне перебора, null - перебор до конца.
+	 */
+	private BigInteger remaining = null;
 	
 	public PEnumerator(int n) {
 		if (n <= 0) {
@@ -48,8 +53,75 @@ public class PEnumerator {
 		return n;
 	}
 	
+	public BigInteger count() {
+		BigInteger count = BigInteger.ONE;
+		
+		for (int i = 2; i <= n; ++i) {
+			count = count.multiply(BigInteger.valueOf(i));
+		}
+		
+		return count;
+	}
+	
 	public boolean hasNext() {
-		return hasNext;
+		return hasNext && (remaining == null || remaining.signum() > 0);
+	}
+	
+	/**
+	 * Переходит к перестановке с номером <code>index</code>: следующий вызов <code>next()</code> вернет именно ее.
+	 * Номер перестановки - это ее инверсия, записанная в смешанной системе счисления 
+	 * (основание разряда i равно n - i). Граница диапазона, заданная <code>setRange</code>, при этом сбрасывается.
+	 * 
+	 * @param index номер перестановки, 0 <= index < n!
+	 */
+	public void seek(BigInteger index) {
+		if (index.signum() < 0 || index.compareTo(count()) >= 0) {
+			throw new IndexOutOfBoundsException("Permutation index is out of range: " + index);
+		}
+		
+		for (int i = n - 1; i >= 0; --i) {
+			BigInteger[] quotientAndDigit = index.divideAndRemainder(BigInteger.valueOf(n - i));
+			
+			invertion[i] = quotientAndDigit[1].intValue();
+			index = quotientAndDigit[0];
+		}
+		hasNext = true;
+		remaining = null;
+	}
+
+	/**
+	 * @return номер перестановки, которую вернет следующий вызов <code>next()</code>, 
+	 * или n!, если перебор окончен
+	 */
+	public BigInteger position() {
+		if (!hasNext) {
+			return count();
+		}
+		
+		BigInteger position = BigInteger.ZERO;
+		
+		for (int i = 0; i < n; ++i) {
+			position = position.multiply(BigInteger.valueOf(n - i)).add(BigInteger.valueOf(invertion[i]));
+		}
+		
+		return position;
+	}
+
+	/**
+	 * Ограничивает перебор перестановками с номерами из [from, to).
+	 * После вызова <code>next()</code> вернет перестановку с номером <code>from</code>.
+	 */
+	public void setRange(BigInteger from, BigInteger to) {
+		BigInteger count = count();
+		
+		if (from.signum() < 0 || from.compareTo(to) > 0 || to.compareTo(count) > 0) {
+			throw new IndexOutOfBoundsException("Wrong range of permutations: [" + from + ", " + to + ")");
+		}
+		
+		if (from.compareTo(count) < 0) {
+			seek(from);
+		}
+		remaining = to.subtract(from);
 	}
 
 	public int[] next() {
@@ -58,6 +130,9 @@ public class PEnumerator {
 		}
 
 		makePermutation();
+		if (remaining != null) {
+			remaining = remaining.subtract(BigInteger.ONE);
+		}
 		
 		// получаем следующую инверсию инкрементированием текущей как числа в переменной системе счисления
 		int i = n - 2;
@@ -0,0 +1,187 @@
+package search_tools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import codes.ConvCode;
+import math.ConvCodeCanonicalForm;
+import math.ConvCodeCanonicalForm.Fingerprint;
+
+/**
+ * Потокобезопасное множество просмотренных сверточных кодов, хранящее отпечатки их канонических
+ * форм ({@link ConvCodeCanonicalForm}). Эквивалентные коды дают один отпечаток, поэтому второй
+ * и последующие коды класса эквивалентности отвергаются.
+ *
+ * Для очень больших переборов множество можно заменить фильтром Блума фиксированного размера:
+ * память не растет, но с заданной вероятностью новый код ошибочно считается просмотренным.
+ *
+ * @author stas
+ *
+ */
+public class SeenCodesSet {
+	private final Set<Fingerprint> fingerprints;
+	private final AtomicLongArray bloom;
+	private final long bloomBits;
+	private final int bloomHashes;
+	private final AtomicLong size = new AtomicLong();
+
+	public SeenCodesSet() {
+		fingerprints = Collections.newSetFromMap(new ConcurrentHashMap<Fingerprint, Boolean>());
+		bloom = null;
+		bloomBits = 0;
+		bloomHashes = 0;
+	}
+
+	private SeenCodesSet(long expectedCodes, double falsePositiveRate) {
+		if (expectedCodes <= 0) {
+			throw new IllegalArgumentException("Expected number of codes should be positive: " + expectedCodes);
+		}
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("False positive rate should be in (0, 1): " + falsePositiveRate);
+		}
+
+		double bits = -expectedCodes * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+		long words = Math.max(1, (long)Math.ceil(bits / Long.SIZE));
+		if (words > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Bloom filter is too large: " + words + " words");
+		}
+
+		fingerprints = null;
+		bloom = new AtomicLongArray((int)words);
+		bloomBits = words * Long.SIZE;
+		bloomHashes = Math.max(1, (int)Math.round(bloomBits * Math.log(2) / expectedCodes));
+	}
+
+	/**
+	 * Множество на основе фильтра Блума.
+	 * @param expectedCodes ожидаемое число различных кодов
+	 * @param falsePositiveRate вероятность отвергнуть новый код после добавления expectedCodes кодов
+	 */
+	public static SeenCodesSet withBloomFilter(long expectedCodes, double falsePositiveRate) {
+		return new SeenCodesSet(expectedCodes, falsePositiveRate);
+	}
+
+	public boolean isBloomFilter() {
+		return bloom != null;
+	}
+
+	/**
+	 * @return true, если эквивалентный код еще не встречался
+	 */
+	public boolean add(ConvCode code) {
+		return add(ConvCodeCanonicalForm.fingerprint(code));
+	}
+
+	public boolean add(Fingerprint fingerprint) {
+		boolean added = bloom == null ? fingerprints.add(fingerprint) : addToBloom(fingerprint);
+
+		if (added) {
+			size.incrementAndGet();
+		}
+		return added;
+	}
+
+	/**
+	 * Количество принятых кодов.
+	 */
+	public long size() {
+		return size.get();
+	}
+
+	/**
+	 * Очищает множество. Не должен выполняться одновременно с добавлением.
+	 */
+	public void clear() {
+		if (bloom == null) {
+			fingerprints.clear();
+		} else {
+			for (int i = 0;i < bloom.length(); ++i) {
+				bloom.set(i, 0);
+			}
+		}
+		size.set(0);
+	}
+
+	/**
+	 * Содержимое множества для сохранения: старшее и младшее слова каждого отпечатка
+	 * или слова фильтра Блума. Не должен выполняться одновременно с добавлением.
+	 */
+	public long[] toArray() {
+		if (bloom != null) {
+			long words[] = new long[bloom.length()];
+
+			for (int i = 0;i < words.length; ++i) {
+				words[i] = bloom.get(i);
+			}
+			return words;
+		}
+
+		ArrayList<Fingerprint> list = new ArrayList<Fingerprint>(fingerprints);
+		long words[] = new long[2 * list.size()];
+
+		for (int i = 0;i < list.size(); ++i) {
+			words[2 * i] = list.get(i).high;
+			words[2 * i + 1] = list.get(i).low;
+		}
+		return words;
+	}
+
+	/**
+	 * Замещает содержимое множества сохраненным {@link #toArray()}. Не должен выполняться
+	 * одновременно с добавлением.
+	 * @param size количество принятых кодов на момент сохранения
+	 */
+	public void load(long words[], long size) {
+		if (bloom != null) {
+			if (words.length != bloom.length()) {
+				throw new IllegalArgumentException("Bloom filter size mismatch: " + words.length + " words instead of " + bloom.length());
+			}
+			for (int i = 0;i < words.length; ++i) {
+				bloom.set(i, words[i]);
+			}
+		} else {
+			if (words.length != 2 * size) {
+				throw new IllegalArgumentException("Wrong number of fingerprint words: " + words.length + " for " + size + " codes");
+			}
+			fingerprints.clear();
+			for (int i = 0;i < words.length; i += 2) {
+				fingerprints.add(new Fingerprint(words[i], words[i + 1]));
+			}
+		}
+		this.size.set(size);
+	}
+
+	/**
+	 * Устанавливает биты отпечатка. Позиции получаются двойным хешированием
+	 * high + i * low, половины отпечатка независимы.
+	 * @return true, если хотя бы один бит был сброшен
+	 */
+	private boolean addToBloom(Fingerprint fingerprint) {
+		boolean added = false;
+		long hash = fingerprint.high;
+
+		for (int i = 0;i < bloomHashes; ++i) {
+			long bit = (hash >>> 1) % bloomBits;
+			int word = (int)(bit >>> 6);
+			long mask = 1L << bit;
+
+			while (true) {
+				long value = bloom.get(word);
+
+				if ((value & mask) != 0) {
+					break;
+				}
+				if (bloom.compareAndSet(word, value, value | mask)) {
+					added = true;
+					break;
+				}
+			}
+			hash += fingerprint.low;
+		}
+		return added;
+	}
+}
@@ -133,6 +133,35 @@ public class SumDecomposition {
 		return items;
 	}
 	
+	/**
+	 * Возвращает состояние перебора: слагаемые следующего разложения, 
+	 * индекс последнего ненулевого слагаемого и признак окончания перебора.
+	 */
+	public int[] getState() {
+		int state[] = new int[nextItems.length + 2];
+		
+		System.arraycopy(nextItems, 0, state, 0, nextItems.length);
+		state[nextItems.length] = last;
+		state[nextItems.length + 1] = hasNext ? 1 : 0;
+		
+		return state;
+	}
+	
+	/**
+	 * Восстанавливает состояние, полученное методом <code>getState()</code> 
+	 * у разложения с теми же параметрами.
+	 */
+	public void restoreState(int state[]) {
+		if (state.length != nextItems.length + 2) {
+			throw new IllegalArgumentException("Wrong length of state: " + state.length);
+		}
+		
+		nextItems = new int[nextItems.length];
+		System.arraycopy(state, 0, nextItems, 0, nextItems.length);
+		last = state[nextItems.length];
+		hasNext = state[nextItems.length + 1] != 0;
+	}
+	
 	@Override
 	public String toString() {
 		if (!hasNext()) {
@@ -0,0 +1,50 @@
+package simulation;
+
+import java.util.Random;
+
+import math.BitArray;
+
+/**
+ * Канал с аддитивным белым гауссовским шумом и модуляцией BPSK. Дисперсия шума задается
+ * отношением энергии на информационный бит к спектральной плотности шума:
+ * <code>sigma^2 = 1 / (2 * R * Eb/N0)</code>, где R - скорость кода.
+ *
+ * @author stas
+ *
+ */
+public class AWGNChannel implements IChannel {
+	private final double ebN0Db;
+	private final float sigma;
+
+	/**
+	 * @param ebN0Db отношение Eb/N0 в децибелах
+	 * @param rate скорость кода
+	 */
+	public AWGNChannel(double ebN0Db, double rate) {
+		if (rate <= 0 || rate > 1) {
+			throw new IllegalArgumentException("Wrong code rate: " + rate);
+		}
+		this.ebN0Db = ebN0Db;
+		this.sigma = (float)Math.sqrt(1 / (2 * rate * Math.pow(10, ebN0Db / 10)));
+	}
+
+	public double getEbN0Db() {
+		return ebN0Db;
+	}
+
+	public double getSigma() {
+		return sigma;
+	}
+
+	@Override
+	public void transmit(BitArray codeWord, float received[], Random random) {
+		for (int i = 0;i < codeWord.getFixedSize(); ++i) {
+			received[i] = (codeWord.get(i) ? -1 : 1) + sigma * (float)random.nextGaussian();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "AWGN(Eb/N0 = " + ebN0Db + " dB)";
+	}
+}
@@ -0,0 +1,40 @@
+package simulation;
+
+import java.util.Random;
+
+import math.BitArray;
+
+/**
+ * Двоичный симметричный канал: каждый бит независимо инвертируется с вероятностью <code>p</code>.
+ * Выход - жесткое решение в виде ±1.
+ *
+ * @author stas
+ *
+ */
+public class BSChannel implements IChannel {
+	private final double errorProbability;
+
+	public BSChannel(double errorProbability) {
+		if (errorProbability < 0 || errorProbability > 1) {
+			throw new IllegalArgumentException("Wrong error probability: " + errorProbability);
+		}
+		this.errorProbability = errorProbability;
+	}
+
+	public double getErrorProbability() {
+		return errorProbability;
+	}
+
+	@Override
+	public void transmit(BitArray codeWord, float received[], Random random) {
+		for (int i = 0;i < codeWord.getFixedSize(); ++i) {
+			boolean bit = codeWord.get(i) ^ (random.nextDouble() < errorProbability);
+			received[i] = bit ? -1 : 1;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "BSC(p = " + errorProbability + ")";
+	}
+}
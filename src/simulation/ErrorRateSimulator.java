@@ -0,0 +1,305 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import codes.BlockCode;
+import codes.Code;
+import codes.ConvCode;
+import codes.TBCode;
+import math.BitArray;
+import trellises.algorithms.ViterbiDecoder;
+import trellises.algorithms.WrapAroundViterbiDecoder;
+
+/**
+ * Оценка вероятностей ошибки на кадр (FER) и на бит (BER) кода методом Монте-Карло.
+ *
+ * Кадр - случайное информационное слово, закодированное <code>encodeSeq</code>, переданное через
+ * канал и декодированное по решетке кода мягким решением:
+ * <ul>
+ * <li>{@link TBCode} - {@link WrapAroundViterbiDecoder} по tailbiting решетке;</li>
+ * <li>{@link BlockCode} - {@link ViterbiDecoder} по решетке блокового кода;</li>
+ * <li>{@link ConvCode} - {@link ViterbiDecoder} по циклической решетке, кадр из <code>convFrames</code>
+ * информационных блоков, завершенный нулевым хвостом.</li>
+ * </ul>
+ * Информационные биты по кодовому слову не восстанавливаются, поэтому BER считается по битам
+ * кодового слова.
+ *
+ * Кадры моделируются в нескольких потоках, пока не набрано заданное число ошибочных кадров
+ * или не исчерпан лимит кадров. У каждого потока свой декодер и свой генератор, зерна
+ * которых берутся из общего зерна, счетчики общие и не блокируются (AtomicLong). Поэтому
+ * число кадров в результате может немного превышать момент достижения цели: потоки
+ * досчитывают начатые кадры.
+ *
+ * @author stas
+ *
+ */
+public class ErrorRateSimulator {
+	static final private Logger logger = LoggerFactory.getLogger(ErrorRateSimulator.class);
+
+	/**
+	 * Количество информационных блоков в кадре сверточного кода по умолчанию (без хвоста).
+	 */
+	public static final int DEFAULT_CONV_FRAMES = 32;
+	/**
+	 * Максимальное количество проходов декодера tailbiting кодов по умолчанию.
+	 */
+	public static final int DEFAULT_WAVA_ITERATIONS = 4;
+
+	/**
+	 * Результат моделирования.
+	 */
+	public static class Result {
+		public final long frames;
+		public final long frameErrors;
+		public final long bitErrors;
+		/**
+		 * Длина кодового слова кадра.
+		 */
+		public final int frameLength;
+
+		public Result(long frames, long frameErrors, long bitErrors, int frameLength) {
+			this.frames = frames;
+			this.frameErrors = frameErrors;
+			this.bitErrors = bitErrors;
+			this.frameLength = frameLength;
+		}
+
+		public double getFrameErrorRate() {
+			return frames == 0 ? 0 : (double)frameErrors / frames;
+		}
+
+		public double getBitErrorRate() {
+			return frames == 0 ? 0 : (double)bitErrors / (frames * frameLength);
+		}
+
+		@Override
+		public String toString() {
+			return "frames = " + frames + ", FER = " + getFrameErrorRate() + ", BER = " + getBitErrorRate();
+		}
+	}
+
+	private final Code code;
+	private final int threads;
+	private final int convFrames;
+	private final int wavaIterations;
+
+	public ErrorRateSimulator(Code code) {
+		this(code, Runtime.getRuntime().availableProcessors());
+	}
+
+	public ErrorRateSimulator(Code code, int threads) {
+		this(code, threads, DEFAULT_CONV_FRAMES);
+	}
+
+	/**
+	 * @param code моделируемый код
+	 * @param threads количество рабочих потоков
+	 * @param convFrames количество информационных блоков в кадре сверточного кода
+	 */
+	public ErrorRateSimulator(Code code, int threads, int convFrames) {
+		this(code, threads, convFrames, DEFAULT_WAVA_ITERATIONS);
+	}
+
+	/**
+	 * @param code моделируемый код
+	 * @param threads количество рабочих потоков
+	 * @param convFrames количество информационных блоков в кадре сверточного кода
+	 * @param wavaIterations максимальное количество проходов декодера tailbiting кода
+	 */
+	public ErrorRateSimulator(Code code, int threads, int convFrames, int wavaIterations) {
+		if (threads <= 0) {
+			throw new IllegalArgumentException("Number of threads should be positive: " + threads);
+		}
+		if (convFrames <= 0) {
+			throw new IllegalArgumentException("Number of convolutional code frames should be positive: " + convFrames);
+		}
+		if (wavaIterations <= 0) {
+			throw new IllegalArgumentException("Number of wrap-around decoder iterations should be positive: " + wavaIterations);
+		}
+		this.code = code;
+		this.threads = threads;
+		this.convFrames = convFrames;
+		this.wavaIterations = wavaIterations;
+	}
+
+	/**
+	 * Моделирует передачу кадров через канал.
+	 * @param targetFrameErrors число ошибочных кадров, после которого моделирование останавливается
+	 * @param maxFrames максимальное число кадров
+	 * @param seed зерно, из которого получаются генераторы потоков
+	 * @throws Exception если не удалось построить решетку кода
+	 */
+	public Result simulate(IChannel channel, long targetFrameErrors, long maxFrames, long seed) throws Exception {
+		if (targetFrameErrors <= 0) {
+			throw new IllegalArgumentException("Target number of frame errors should be positive: " + targetFrameErrors);
+		}
+
+		// декодеры строятся в вызывающем потоке: решетки кода строятся лениво и не потокобезопасны
+		Random seeds = new Random(seed);
+		List<Worker> workers = new ArrayList<Worker>();
+		Counters counters = new Counters();
+		for (int i = 0;i < threads; ++i) {
+			workers.add(new Worker(createCodec(), channel, new Random(seeds.nextLong()), counters, targetFrameErrors, maxFrames));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private int counter = 0;
+
+			@Override
+			public synchronized Thread newThread(Runnable task) {
+				Thread thread = new Thread(task, "simulation-worker-" + (counter++));
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		try {
+			List<Future<Void>> futures = executor.invokeAll(workers);
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Simulation was interrupted", e);
+		} catch (ExecutionException e) {
+			logger.error("Simulation failed", e.getCause());
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+
+		Result result = new Result(counters.frames.get(), counters.frameErrors.get(), counters.bitErrors.get(),
+				workers.get(0).codec.codeLength);
+		logger.debug("{}: {}", channel, result);
+		return result;
+	}
+
+	private Codec createCodec() throws Exception {
+		if (code instanceof TBCode) {
+			final WrapAroundViterbiDecoder decoder = new WrapAroundViterbiDecoder(((TBCode)code).getTrellis(), wavaIterations);
+			return new Codec(code.getK(), code.getK(), code.getN()) {
+				@Override
+				BitArray decode(float received[]) {
+					return decoder.decode(received).codeWord;
+				}
+			};
+		}
+		if (code instanceof BlockCode) {
+			final ViterbiDecoder decoder = new ViterbiDecoder(((BlockCode)code).getTrellis(), false);
+			return new Codec(code.getK(), code.getK(), code.getN()) {
+				@Override
+				BitArray decode(float received[]) {
+					return decoder.decode(received, 0, 0).codeWord;
+				}
+			};
+		}
+		if (code instanceof ConvCode) {
+			ConvCode convCode = (ConvCode)code;
+			final ViterbiDecoder decoder = new ViterbiDecoder(convCode.getTrellis(), true);
+			// хвост по блокам, которыми кодирует encodeSeq
+			int tail = convCode.getGenBlocks().length - 1;
+			return new Codec(convCode.getK() * convFrames, convCode.getK() * (convFrames + tail),
+					convCode.getN() * (convFrames + tail)) {
+				@Override
+				BitArray decode(float received[]) {
+					return decoder.decode(received, 0, 0).codeWord;
+				}
+			};
+		}
+		throw new IllegalArgumentException("Unsupported code: " + code.getClass().getName());
+	}
+
+	/**
+	 * Кодер и декодер одного потока.
+	 */
+	private abstract class Codec {
+		/**
+		 * Количество случайных информационных бит, остальные биты информационного слова нулевые.
+		 */
+		final int infBits;
+		final int infLength;
+		final int codeLength;
+
+		Codec(int infBits, int infLength, int codeLength) {
+			this.infBits = infBits;
+			this.infLength = infLength;
+			this.codeLength = codeLength;
+			// первое кодирование заполняет лениво вычисляемые матрицы кода до запуска потоков
+			if (encode(new BitArray(infLength)).getFixedSize() != codeLength) {
+				throw new IllegalStateException("Code word length doesn't match " + codeLength);
+			}
+		}
+
+		BitArray encode(BitArray infWord) {
+			return code.encodeSeq(infWord);
+		}
+
+		abstract BitArray decode(float received[]);
+	}
+
+	private static class Counters {
+		final AtomicLong frames = new AtomicLong();
+		final AtomicLong frameErrors = new AtomicLong();
+		final AtomicLong bitErrors = new AtomicLong();
+	}
+
+	private static class Worker implements Callable<Void> {
+		final Codec codec;
+		final IChannel channel;
+		final Random random;
+		final Counters counters;
+		final long targetFrameErrors;
+		final long maxFrames;
+
+		Worker(Codec codec, IChannel channel, Random random, Counters counters, long targetFrameErrors, long maxFrames) {
+			this.codec = codec;
+			this.channel = channel;
+			this.random = random;
+			this.counters = counters;
+			this.targetFrameErrors = targetFrameErrors;
+			this.maxFrames = maxFrames;
+		}
+
+		@Override
+		public Void call() {
+			BitArray infWord = new BitArray(codec.infLength);
+			float received[] = new float[codec.codeLength];
+
+			while (counters.frameErrors.get() < targetFrameErrors && !Thread.currentThread().isInterrupted()) {
+				if (counters.frames.getAndIncrement() >= maxFrames) {
+					counters.frames.decrementAndGet();
+					break;
+				}
+
+				for (int i = 0;i < codec.infBits; ++i) {
+					infWord.set(i, random.nextBoolean());
+				}
+				BitArray codeWord = codec.encode(infWord);
+				channel.transmit(codeWord, received, random);
+				BitArray decoded = codec.decode(received);
+
+				decoded.xor(codeWord);
+				int errors = decoded.cardinality();
+				if (errors > 0) {
+					counters.frameErrors.incrementAndGet();
+					counters.bitErrors.addAndGet(errors);
+				}
+			}
+			return null;
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package simulation;
+
+import java.util.Random;
+
+import math.BitArray;
+
+/**
+ * Модель канала связи с двоичным входом. Выход канала - вещественные значения, положительные
+ * соответствуют переданному нулю (модуляция BPSK: 0 передается как +1, 1 как -1).
+ *
+ * Канал не хранит изменяемого состояния, весь случайный шум берется из переданного генератора,
+ * поэтому один канал можно использовать из нескольких потоков, каждый со своим генератором.
+ *
+ * @author stas
+ *
+ */
+public interface IChannel {
+	/**
+	 * Передает кодовое слово через канал.
+	 * @param codeWord переданное слово
+	 * @param received массив для принятых значений, длина не меньше длины слова
+	 * @param random генератор шума вызывающего потока
+	 */
+	public void transmit(BitArray codeWord, float received[], Random random);
+}
@@ -0,0 +1,112 @@
+package simulation.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import simulation.AWGNChannel;
+import simulation.BSChannel;
+import simulation.ErrorRateSimulator;
+import codes.BlockCode;
+import codes.ConvCode;
+import codes.TBCode;
+import math.BitArray;
+import math.Matrix;
+import math.Poly;
+import math.PolyMatrix;
+
+public class ErrorRateSimulatorTest {
+	BlockCode blockCode;
+	ConvCode convCode;
+
+	public ErrorRateSimulatorTest() {
+		BitArray row0 = new BitArray(6); row0.set(0); row0.set(1); row0.set(3);
+		BitArray row1 = new BitArray(6); row1.set(1); row1.set(4); row1.set(5);
+		BitArray row2 = new BitArray(6); row2.set(2); row2.set(3); row2.set(4);
+		blockCode = new BlockCode(new Matrix(new BitArray[] { row0, row1, row2 }), true);
+
+		PolyMatrix generator = new PolyMatrix(2, 3);
+		generator.set(0, 0, new Poly(new int [] {0, 1}));
+		generator.set(0, 1, new Poly(new int [] {0}));
+		generator.set(0, 2, new Poly(new int [] {0, 1}));
+		generator.set(1, 0, new Poly(new int [] {1}));
+		generator.set(1, 1, new Poly(new int [] {0, 1}));
+		generator.set(1, 2, new Poly(new int [] {0}));
+		convCode = new ConvCode(generator, true);
+	}
+
+	@Test
+	public void noiselessChannelShouldGiveNoErrors() throws Exception {
+		BSChannel channel = new BSChannel(0);
+
+		ErrorRateSimulator.Result result = new ErrorRateSimulator(blockCode, 2).simulate(channel, 1, 200, 1);
+		assertEquals(200, result.frames);
+		assertEquals(0, result.frameErrors);
+
+		result = new ErrorRateSimulator(convCode, 2, 10).simulate(channel, 1, 200, 1);
+		assertEquals(200, result.frames);
+		assertEquals(0, result.frameErrors);
+
+		result = new ErrorRateSimulator(new TBCode(convCode, 3), 2).simulate(channel, 1, 200, 1);
+		assertEquals(200, result.frames);
+		assertEquals(0, result.frameErrors);
+	}
+
+	@Test
+	public void simulationShouldStopAtTargetErrors() throws Exception {
+		ErrorRateSimulator simulator = new ErrorRateSimulator(convCode, 4, 10);
+		ErrorRateSimulator.Result result = simulator.simulate(new BSChannel(0.2), 50, 1000000, 1);
+
+		assertTrue(result.frameErrors >= 50);
+		// потоки досчитывают начатые кадры
+		assertTrue(result.frameErrors < 50 + 4);
+		assertTrue(result.frames < 1000000);
+		assertTrue(result.getBitErrorRate() > 0);
+		assertTrue(result.getFrameErrorRate() <= 1);
+	}
+
+	@Test
+	public void frameErrorRateShouldDecreaseWithSnr() throws Exception {
+		ErrorRateSimulator simulator = new ErrorRateSimulator(new TBCode(convCode, 3), 2);
+
+		ErrorRateSimulator.Result noisy = simulator.simulate(new AWGNChannel(0, 0.5), 100, 100000, 1);
+		ErrorRateSimulator.Result clean = simulator.simulate(new AWGNChannel(6, 0.5), 100, 100000, 1);
+
+		assertTrue(noisy.getFrameErrorRate() > clean.getFrameErrorRate());
+	}
+
+	@Test
+	public void moreWrapAroundIterationsShouldNotIncreaseErrors() throws Exception {
+		TBCode tbCode = new TBCode(convCode, 3);
+		ErrorRateSimulator.Result single = new ErrorRateSimulator(tbCode, 1, 10, 1).simulate(new AWGNChannel(2, 0.5), 2000, 2000, 1);
+		ErrorRateSimulator.Result several = new ErrorRateSimulator(tbCode, 1, 10, 4).simulate(new AWGNChannel(2, 0.5), 2000, 2000, 1);
+
+		// одинаковые зерна дают одинаковые кадры, дополнительные проходы только уточняют решение
+		assertEquals(single.frames, several.frames);
+		assertTrue(several.frameErrors <= single.frameErrors);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nonPositiveWrapAroundIterationsShouldBeRejected() {
+		new ErrorRateSimulator(convCode, 1, 10, 0);
+	}
+
+	@Test
+	public void awgnNoiseShouldHaveGivenVariance() {
+		AWGNChannel channel = new AWGNChannel(3, 0.5);
+		Random random = new Random(1);
+		BitArray word = new BitArray(100000);
+		float received[] = new float[word.getFixedSize()];
+		channel.transmit(word, received, random);
+
+		double sum = 0, sumSquares = 0;
+		for (float value : received) {
+			sum += value - 1;
+			sumSquares += (value - 1) * (value - 1);
+		}
+		double variance = sumSquares / received.length - (sum / received.length) * (sum / received.length);
+		assertEquals(channel.getSigma() * channel.getSigma(), variance, 0.01);
+	}
+}
@@ -0,0 +1,624 @@
+package trellises;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import math.BitArray;
+import math.Matrix;
+
+import trellises.TrellisSection.Boundary;
+
+/**
+ * Таблица активных рядов ярусов неявной решетки и переходов между ними.
+ *
+ * Для каждого яруса хранится упорядоченный массив номеров активных рядов, i-й бит индекса
+ * вершины соответствует i-му активному ряду. Поэтому множество суммируемых рядов вершины
+ * совпадает с ее индексом, а переход по секции сводится к перестановке битов индекса
+ * по заранее вычисленным позициям: не нужны ни множества рядов, ни поиск позиций в них.
+ *
+ * Номера рядов каждого яруса записаны в системе отсчета этого яруса. При переходе
+ * через последнюю секцию циклической решетки ряды следующего яруса сдвигаются на <code>wrapShift</code>.
+ *
+ * @author stas
+ *
+ */
+final class ActiveRowsTable {
+	private final Matrix matrix;
+	/**
+	 * Активные ряды ярусов по возрастанию.
+	 */
+	private final int layerRows[][];
+	/**
+	 * Ряды, начинающиеся и заканчивающиеся в секции, в системе отсчета яруса перед секцией.
+	 */
+	private final int headRows[][];
+	private final int tailRows[][];
+	/**
+	 * Позиции в следующем ярусе: активных рядов яруса (-1, если ряд заканчивается в секции) и начинающихся рядов
+	 * (-1, если ряд заканчивается в той же секции).
+	 */
+	private final int forwardPositions[][];
+	private final int headPositions[][];
+	/**
+	 * Позиции в предыдущем ярусе: активных рядов яруса (-1, если ряд начинается в секции) и заканчивающихся рядов
+	 * (-1, если ряд начинается в той же секции).
+	 */
+	private final int backwardPositions[][];
+	private final int tailPositions[][];
+	/**
+	 * Биты индекса вершины, соответствующие рядам, которые заканчиваются (начинаются) в секции
+	 * после (перед) ярусом.
+	 */
+	private final long endingMasks[];
+	private final long startingMasks[];
+	private final int wrapShift;
+	/**
+	 * Скомпилированные метки: вклад каждого ряда в метку ребра секции, упакованный в слова.
+	 * Для яруса - вклады его активных рядов в секцию после яруса (<code>rowLabels</code>) и
+	 * в секцию перед ярусом (<code>prevRowLabels</code>), ряд j занимает слова [j * words, (j + 1) * words).
+	 * До вызова {@link #compileLabels(int[], int[])} равны null.
+	 */
+	private long rowLabels[][];
+	private long prevRowLabels[][];
+	private long headLabels[][];
+	private long tailLabels[][];
+	/**
+	 * Ширина секции в битах и число слов в метке ребра секции.
+	 */
+	private int labelWidths[];
+	private int labelWords[];
+
+	/**
+	 * @param matrix матрица, ряды которой образуют метки на ребрах
+	 * @param layerRows активные ряды ярусов
+	 * @param sections секции решетки, секция i расположена между ярусами i и i + 1
+	 * @param transitions количество секций, по которым возможен переход
+	 * @param wrapShift сдвиг номеров рядов при переходе из последнего яруса в нулевой
+	 */
+	ActiveRowsTable(Matrix matrix, int layerRows[][], TrellisSection sections[], int transitions, int wrapShift) {
+		int layers = layerRows.length;
+		for (int layer = 0;layer < layers; ++layer) {
+			if (layerRows[layer].length >= Long.SIZE) {
+				throw new IllegalArgumentException("Too many active rows in layer " + layer + ": " + layerRows[layer].length);
+			}
+		}
+
+		this.matrix = matrix;
+		this.layerRows = layerRows;
+		this.wrapShift = wrapShift;
+
+		headRows = new int[layers][];
+		tailRows = new int[layers][];
+		forwardPositions = new int[layers][];
+		headPositions = new int[layers][];
+		backwardPositions = new int[layers][];
+		tailPositions = new int[layers][];
+		endingMasks = new long[layers];
+		startingMasks = new long[layers];
+
+		for (int layer = 0;layer < transitions; ++layer) {
+			int nextLayer = (layer + 1) % layers;
+			int rows[] = layerRows[layer];
+			// активные ряды следующего яруса в системе отсчета текущего
+			int nextRows[] = layerRows[nextLayer].clone();
+			if (nextLayer == 0) {
+				for (int i = 0;i < nextRows.length; ++i) {
+					nextRows[i] -= wrapShift;
+				}
+			}
+
+			headRows[layer] = rowsOf(sections[layer].spanHeads);
+			tailRows[layer] = rowsOf(sections[layer].spanTails);
+			forwardPositions[layer] = positions(rows, nextRows);
+			headPositions[layer] = positions(headRows[layer], nextRows);
+			backwardPositions[nextLayer] = positions(nextRows, rows);
+			tailPositions[layer] = positions(tailRows[layer], rows);
+
+			for (int i = 0;i < rows.length; ++i) {
+				if (forwardPositions[layer][i] < 0) {
+					endingMasks[layer] |= 1L << i;
+				}
+			}
+			for (int i = 0;i < nextRows.length; ++i) {
+				if (backwardPositions[nextLayer][i] < 0) {
+					startingMasks[nextLayer] |= 1L << i;
+				}
+			}
+
+			if (Long.bitCount(endingMasks[layer]) != countPositive(tailPositions[layer])
+					|| Long.bitCount(startingMasks[nextLayer]) != countPositive(headPositions[layer])) {
+				throw new IllegalArgumentException("Active rows of layers " + layer + " and " + nextLayer + " don't match section " + sections[layer]);
+			}
+		}
+	}
+
+	/**
+	 * Таблица с теми же активными рядами и переходами, что и <code>table</code>, но с метками из
+	 * другой матрицы той же формы. Массивы переходов общие, метки нужно скомпилировать заново.
+	 */
+	ActiveRowsTable(ActiveRowsTable table, Matrix matrix) {
+		if (matrix.getRowCount() != table.matrix.getRowCount() || matrix.getColumnCount() != table.matrix.getColumnCount()) {
+			throw new IllegalArgumentException("Matrix sizes differ: " + matrix.getRowCount() + "x" + matrix.getColumnCount()
+					+ ", " + table.matrix.getRowCount() + "x" + table.matrix.getColumnCount());
+		}
+
+		this.matrix = matrix;
+		this.layerRows = table.layerRows;
+		this.wrapShift = table.wrapShift;
+		this.headRows = table.headRows;
+		this.tailRows = table.tailRows;
+		this.forwardPositions = table.forwardPositions;
+		this.headPositions = table.headPositions;
+		this.backwardPositions = table.backwardPositions;
+		this.tailPositions = table.tailPositions;
+		this.endingMasks = table.endingMasks;
+		this.startingMasks = table.startingMasks;
+	}
+
+	private static int countPositive(int positions[]) {
+		int count = 0;
+		for (int position : positions) {
+			if (position >= 0) {
+				++count;
+			}
+		}
+		return count;
+	}
+
+	private static int[] rowsOf(Collection<Boundary> boundaries) {
+		int rows[] = new int[boundaries.size()];
+		int i = 0;
+		for (Boundary boundary : boundaries) {
+			rows[i++] = boundary.row;
+		}
+		return rows;
+	}
+
+	/**
+	 * @return позиции рядов <code>rows</code> в упорядоченном массиве <code>sortedRows</code>, -1 для отсутствующих
+	 */
+	private static int[] positions(int rows[], int sortedRows[]) {
+		int positions[] = new int[rows.length];
+		for (int i = 0;i < rows.length; ++i) {
+			positions[i] = Math.max(Arrays.binarySearch(sortedRows, rows[i]), -1);
+		}
+		return positions;
+	}
+
+	/**
+	 * Бит индекса вершины для позиции ряда, 0 для ряда, не активного в ярусе.
+	 */
+	private static long bit(int position) {
+		return position < 0 ? 0 : 1L << position;
+	}
+
+	int layersCount() {
+		return layerRows.length;
+	}
+
+	int activeRowsCount(int layer) {
+		return layerRows[layer].length;
+	}
+
+	int headsCount(int layer) {
+		return headRows[layer].length;
+	}
+
+	int tailsCount(int layer) {
+		return tailRows[layer].length;
+	}
+
+	/**
+	 * Вычисляет вклады рядов в метки ребер. Метка ребра линейна по индексу вершины и
+	 * выбранным ребром рядам, поэтому после компиляции метка - это xor нескольких слов,
+	 * а сумма рядов вершины не нужна.
+	 * @param fromColumns начала секций
+	 * @param toColumns концы секций (не включительно)
+	 */
+	void compileLabels(int fromColumns[], int toColumns[]) {
+		compileLabels(fromColumns, toColumns, null);
+	}
+
+	/**
+	 * Вычисляет вклады рядов в метки ребер, беря готовые метки секций, столбцы которых в матрице
+	 * не изменились, из таблицы <code>previous</code>. Таблица <code>previous</code> должна иметь те же
+	 * активные ряды (см. {@link #ActiveRowsTable(ActiveRowsTable, Matrix)}) и те же границы секций.
+	 * @param previous таблица с уже скомпилированными метками или null
+	 * @return количество секций, метки которых взяты из <code>previous</code>
+	 */
+	int compileLabels(int fromColumns[], int toColumns[], ActiveRowsTable previous) {
+		int layers = layerRows.length;
+		rowLabels = new long[layers][];
+		prevRowLabels = new long[layers][];
+		headLabels = new long[layers][];
+		tailLabels = new long[layers][];
+		labelWidths = new int[layers];
+		labelWords = new int[layers];
+
+		boolean changed[] = new boolean[layers];
+		if (previous == null || previous.rowLabels == null || previous.layerRows != layerRows) {
+			Arrays.fill(changed, true);
+		} else {
+			for (int row = 0;row < matrix.getRowCount(); ++row) {
+				BitArray difference = matrix.getRow(row).clone();
+				difference.xor(previous.matrix.getRow(row));
+				if (difference.isEmpty()) {
+					continue;
+				}
+				for (int layer = 0;layer < layers; ++layer) {
+					int bit = difference.nextSetBit(fromColumns[layer]);
+					if (bit >= 0 && bit < toColumns[layer]) {
+						changed[layer] = true;
+					}
+				}
+			}
+		}
+
+		int reused = 0;
+		for (int layer = 0;layer < layers; ++layer) {
+			if (headRows[layer] == null) {
+				// переход по секции невозможен
+				continue;
+			}
+			int nextLayer = (layer + 1) % layers;
+			int shift = nextLayer == 0 ? wrapShift : 0;
+			int from = fromColumns[layer], to = toColumns[layer];
+
+			labelWidths[layer] = to - from;
+			labelWords[layer] = (to - from + Long.SIZE - 1) / Long.SIZE;
+			if (!changed[layer]) {
+				// метки не изменяются после компиляции, поэтому массивы можно разделять
+				rowLabels[layer] = previous.rowLabels[layer];
+				headLabels[layer] = previous.headLabels[layer];
+				prevRowLabels[nextLayer] = previous.prevRowLabels[nextLayer];
+				tailLabels[layer] = previous.tailLabels[layer];
+				++reused;
+				continue;
+			}
+			rowLabels[layer] = labels(layerRows[layer], 0, from, to);
+			headLabels[layer] = labels(headRows[layer], 0, from, to);
+			prevRowLabels[nextLayer] = labels(layerRows[nextLayer], shift, from, to);
+			tailLabels[layer] = labels(tailRows[layer], 0, from, to);
+		}
+		return reused;
+	}
+
+	private long[] labels(int rows[], int shift, int from, int to) {
+		int words = (to - from + Long.SIZE - 1) / Long.SIZE;
+		long labels[] = new long[rows.length * words];
+		for (int i = 0;i < rows.length; ++i) {
+			BitArray label = matrix.getRow(rows[i] - shift).get(from, to);
+			for (int w = 0;w < words; ++w) {
+				labels[i * words + w] = label.getWord(w);
+			}
+		}
+		return labels;
+	}
+
+	/**
+	 * Строит ребра, исходящие из вершины, по скомпилированным меткам.
+	 */
+	ITrellisEdge[] accessors(int layer, long vertexIndex) {
+		return edges(new EdgeCursor().forward(layer, vertexIndex));
+	}
+
+	/**
+	 * Строит ребра, входящие в вершину, по скомпилированным меткам.
+	 */
+	ITrellisEdge[] predecessors(int layer, long vertexIndex) {
+		return edges(new EdgeCursor().backward(layer, vertexIndex));
+	}
+
+	private static ITrellisEdge[] edges(EdgeCursor cursor) {
+		LongEdge edges[] = new LongEdge[cursor.count];
+		while (cursor.next()) {
+			BitArray bits = new BitArray(cursor.width);
+			for (int w = 0;w < cursor.words; ++w) {
+				bits.setWord(w, cursor.label[w]);
+			}
+			edges[cursor.index()] = new LongEdge(cursor.src(), cursor.dst(), bits);
+		}
+		return edges;
+	}
+
+	/**
+	 * Курсор по ребрам вершины, работающий по скомпилированным меткам. Ребра перебираются
+	 * в порядке кода Грея, так что переход к следующему ребру - это сложение метки с одним
+	 * вкладом ряда и смена одного бита индекса соседней вершины. Метка хранится в буфере
+	 * курсора, поэтому перебор не выделяет память.
+	 */
+	final class EdgeCursor implements ITrellisEdgeCursor {
+		private long vertexIndex;
+		/**
+		 * Вершина соседнего яруса на конце текущего ребра.
+		 */
+		private long otherVertex;
+		private boolean forward;
+		/**
+		 * Вклады и позиции в соседнем ярусе рядов, выбираемых ребром.
+		 */
+		private long boundaryLabels[];
+		private int positions[];
+		private int width;
+		private int words;
+		private int count;
+		/**
+		 * Номер шага в коде Грея, -1 перед первым ребром.
+		 */
+		private int step;
+		private long label[] = new long[1];
+		private int weight;
+
+		/**
+		 * Ставит курсор перед ребрами, исходящими из вершины.
+		 */
+		EdgeCursor forward(int layer, long vertexIndex) {
+			reset(vertexIndex, nextVertex(layer, vertexIndex, 0), true, rowLabels[layer],
+					headLabels[layer], headPositions[layer], labelWidths[layer], labelWords[layer]);
+			return this;
+		}
+
+		/**
+		 * Ставит курсор перед ребрами, входящими в вершину.
+		 */
+		EdgeCursor backward(int layer, long vertexIndex) {
+			int prevLayer = (layer - 1 + layerRows.length) % layerRows.length;
+			reset(vertexIndex, prevVertex(layer, vertexIndex, 0), false, prevRowLabels[layer],
+					tailLabels[prevLayer], tailPositions[prevLayer], labelWidths[prevLayer], labelWords[prevLayer]);
+			return this;
+		}
+
+		/**
+		 * Курсор без ребер, для вершин крайних ярусов.
+		 */
+		EdgeCursor empty() {
+			count = 0;
+			step = -1;
+			return this;
+		}
+
+		/**
+		 * @param vertexLabels вклады активных рядов яруса вершины
+		 */
+		private void reset(long vertexIndex, long otherVertex, boolean forward, long vertexLabels[],
+				long boundaryLabels[], int positions[], int width, int words) {
+			this.vertexIndex = vertexIndex;
+			this.otherVertex = otherVertex;
+			this.forward = forward;
+			this.boundaryLabels = boundaryLabels;
+			this.positions = positions;
+			this.width = width;
+			this.words = words;
+			this.count = 1 << positions.length;
+			this.step = -1;
+
+			if (label.length < words) {
+				label = new long[words];
+			}
+			Arrays.fill(label, 0, words, 0);
+			for (long mask = vertexIndex; mask != 0; mask &= mask - 1) {
+				int row = Long.numberOfTrailingZeros(mask);
+				for (int w = 0;w < words; ++w) {
+					label[w] ^= vertexLabels[row * words + w];
+				}
+			}
+		}
+
+		@Override
+		public boolean next() {
+			if (step + 1 >= count) {
+				step = count;
+				return false;
+			}
+
+			++step;
+			if (step > 0) {
+				int bitPos = Integer.numberOfTrailingZeros(step);
+				otherVertex ^= bit(positions[bitPos]);
+				for (int w = 0;w < words; ++w) {
+					label[w] ^= boundaryLabels[bitPos * words + w];
+				}
+			}
+
+			weight = 0;
+			for (int w = 0;w < words; ++w) {
+				weight += Long.bitCount(label[w]);
+			}
+			return true;
+		}
+
+		@Override
+		public int index() {
+			return step ^ (step >>> 1);
+		}
+
+		@Override
+		public long src() {
+			return forward ? vertexIndex : otherVertex;
+		}
+
+		@Override
+		public long dst() {
+			return forward ? otherVertex : vertexIndex;
+		}
+
+		@Override
+		public long target() {
+			return otherVertex;
+		}
+
+		@Override
+		public int bitsCount() {
+			return width;
+		}
+
+		@Override
+		public long word(int wordIndex) {
+			if (wordIndex < 0) {
+				throw new IndexOutOfBoundsException("wordIndex < 0: " + wordIndex);
+			}
+			return wordIndex < words ? label[wordIndex] : 0;
+		}
+
+		/**
+		 * Единственная метрика ребра неявной решетки - вес его метки.
+		 */
+		@Override
+		public int metric(int i) {
+			if (i != 0) {
+				throw new IndexOutOfBoundsException("There is no metric " + i);
+			}
+			return weight;
+		}
+	}
+
+	/**
+	 * Сумма рядов вершины <code>vertexIndex</code> яруса <code>layer</code>, номера рядов
+	 * уменьшены на <code>shift</code>.
+	 */
+	BitArray sum(int layer, long vertexIndex, int shift) {
+		BitArray sum = new BitArray(matrix.getColumnCount());
+		int rows[] = layerRows[layer];
+		for (long mask = vertexIndex; mask != 0; mask &= mask - 1) {
+			sum.xor(matrix.getRow(rows[Long.numberOfTrailingZeros(mask)] - shift));
+		}
+		return sum;
+	}
+
+	/**
+	 * Сумма рядов вершины нулевого яруса в системе отсчета последнего яруса.
+	 */
+	BitArray wrappedSum(long vertexIndex) {
+		return sum(0, vertexIndex, wrapShift);
+	}
+
+	/**
+	 * Индекс вершины следующего яруса, в которую ведет ребро <code>edgeIndex</code>
+	 * (i-й бит - участие i-го начинающегося ряда).
+	 */
+	long nextVertex(int layer, long vertexIndex, int edgeIndex) {
+		int positions[] = forwardPositions[layer];
+		long next = 0;
+		for (long mask = vertexIndex & ~endingMasks[layer]; mask != 0; mask &= mask - 1) {
+			next |= 1L << positions[Long.numberOfTrailingZeros(mask)];
+		}
+
+		int heads[] = headPositions[layer];
+		for (int edges = edgeIndex; edges != 0; edges &= edges - 1) {
+			next |= bit(heads[Integer.numberOfTrailingZeros(edges)]);
+		}
+		return next;
+	}
+
+	/**
+	 * Индекс вершины предыдущего яруса, из которой выходит ребро <code>edgeIndex</code>
+	 * (i-й бит - участие i-го заканчивающегося ряда).
+	 */
+	long prevVertex(int layer, long vertexIndex, int edgeIndex) {
+		int positions[] = backwardPositions[layer];
+		int prevLayer = (layer - 1 + layerRows.length) % layerRows.length;
+		long prev = 0;
+		for (long mask = vertexIndex & ~startingMasks[layer]; mask != 0; mask &= mask - 1) {
+			prev |= 1L << positions[Long.numberOfTrailingZeros(mask)];
+		}
+
+		int tails[] = tailPositions[prevLayer];
+		for (int edges = edgeIndex; edges != 0; edges &= edges - 1) {
+			prev |= bit(tails[Integer.numberOfTrailingZeros(edges)]);
+		}
+		return prev;
+	}
+
+	/**
+	 * Обновляет сумму рядов при переходе по ребру <code>edgeIndex</code> в следующий ярус:
+	 * вычитает заканчивающиеся ряды вершины и прибавляет выбранные начинающиеся.
+	 */
+	void moveSumForward(BitArray sum, int layer, long vertexIndex, int edgeIndex) {
+		int rows[] = layerRows[layer];
+		for (long mask = vertexIndex & endingMasks[layer]; mask != 0; mask &= mask - 1) {
+			sum.xor(matrix.getRow(rows[Long.numberOfTrailingZeros(mask)]));
+		}
+		xorRows(sum, headRows[layer], headPositions[layer], edgeIndex);
+	}
+
+	/**
+	 * Обновляет сумму рядов при переходе по ребру <code>edgeIndex</code> в предыдущий ярус.
+	 * Сумма и ряды должны быть записаны в системе отсчета предыдущего яруса.
+	 */
+	void moveSumBackward(BitArray sum, int layer, long vertexIndex, int edgeIndex) {
+		int prevLayer = (layer - 1 + layerRows.length) % layerRows.length;
+		int shift = layer == 0 ? wrapShift : 0;
+		int rows[] = layerRows[layer];
+		for (long mask = vertexIndex & startingMasks[layer]; mask != 0; mask &= mask - 1) {
+			sum.xor(matrix.getRow(rows[Long.numberOfTrailingZeros(mask)] - shift));
+		}
+		xorRows(sum, tailRows[prevLayer], tailPositions[prevLayer], edgeIndex);
+	}
+
+	/**
+	 * Прибавляет выбранные ребром ряды, активные в ярусе, в который выполняется переход.
+	 */
+	private void xorRows(BitArray sum, int rows[], int positions[], int edgeIndex) {
+		for (int edges = edgeIndex; edges != 0; edges &= edges - 1) {
+			int i = Integer.numberOfTrailingZeros(edges);
+			if (positions[i] >= 0) {
+				sum.xor(matrix.getRow(rows[i]));
+			}
+		}
+	}
+
+	/**
+	 * Строит ребра, исходящие из вершины. Метки ребер - биты суммы рядов на отрезке
+	 * [<code>fromIndex</code>, <code>toIndex</code>). Ребра перебираются в порядке кода Грея,
+	 * поэтому на каждое ребро приходится одно сложение с рядом матрицы.
+	 * @param sum сумма рядов вершины, после вызова восстанавливается
+	 */
+	ITrellisEdge[] accessors(int layer, long vertexIndex, BitArray sum, int fromIndex, int toIndex) {
+		int heads[] = headRows[layer];
+		int positions[] = headPositions[layer];
+		LongEdge edges[] = new LongEdge[1 << heads.length];
+
+		long nextVertex = nextVertex(layer, vertexIndex, 0);
+		edges[0] = new LongEdge(vertexIndex, nextVertex, sum.get(fromIndex, toIndex));
+
+		for (int e = 1;e < edges.length; ++e) {
+			int bitPos = Integer.numberOfTrailingZeros(e);
+			nextVertex ^= bit(positions[bitPos]);
+			sum.xor(matrix.getRow(heads[bitPos]));
+			edges[e ^ (e >>> 1)] = new LongEdge(vertexIndex, nextVertex, sum.get(fromIndex, toIndex));
+		}
+		if (edges.length > 1) {
+			// последнее слово кода Грея содержит только старший бит
+			sum.xor(matrix.getRow(heads[heads.length - 1]));
+		}
+
+		return edges;
+	}
+
+	/**
+	 * Строит ребра, входящие в вершину.
+	 * @param sum сумма рядов вершины в системе отсчета предыдущего яруса, после вызова восстанавливается
+	 * @see #accessors(int, long, BitArray, int, int)
+	 */
+	ITrellisEdge[] predecessors(int layer, long vertexIndex, BitArray sum, int fromIndex, int toIndex) {
+		int prevLayer = (layer - 1 + layerRows.length) % layerRows.length;
+		int tails[] = tailRows[prevLayer];
+		int positions[] = tailPositions[prevLayer];
+		LongEdge edges[] = new LongEdge[1 << tails.length];
+
+		long prevVertex = prevVertex(layer, vertexIndex, 0);
+		edges[0] = new LongEdge(prevVertex, vertexIndex, sum.get(fromIndex, toIndex));
+
+		for (int e = 1;e < edges.length; ++e) {
+			int bitPos = Integer.numberOfTrailingZeros(e);
+			prevVertex ^= bit(positions[bitPos]);
+			sum.xor(matrix.getRow(tails[bitPos]));
+			edges[e ^ (e >>> 1)] = new LongEdge(prevVertex, vertexIndex, sum.get(fromIndex, toIndex));
+		}
+		if (edges.length > 1) {
+			sum.xor(matrix.getRow(tails[tails.length - 1]));
+		}
+
+		return edges;
+	}
+}
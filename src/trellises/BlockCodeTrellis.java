@@ -2,8 +2,6 @@ package trellises;
 
 import java.util.ArrayList;
 import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.SortedSet;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,16 +25,20 @@ public class BlockCodeTrellis implements ITrellis {
 	public class Iterator implements ITrellisIterator {
 		
 		private int layer;
+		/**
+		 * Индекс вершины, i-й бит соответствует i-му активному ряду яруса.
+		 */
 		private long vertexIndex;
 		
 		/**
-		 * Номера рядов, активных в текущем ярусе. Фактически, номера рядов, пересекающих ярус.
+		 * Кодовое слово, полученное, как сумма рядов матрицы, соотвествующих единичным битам номера вершины.
+		 * В режиме скомпилированных меток не используется и равно null.
 		 */
-		SortedSet<Integer> currentActiveRows;
+		BitArray currentSum;
 		/**
-		 * Кодовое слово, полученное, как сумма рядов матрицы, соотвествующих единичным битам номера вершины
+		 * Курсор ребер, создается при первом обращении и не копируется при клонировании.
 		 */
-		BitArray currentSum;
+		private ActiveRowsTable.EdgeCursor edgeCursor;
 		
 		Iterator() {
 		}
@@ -45,9 +47,9 @@ public class BlockCodeTrellis implements ITrellis {
 			this.layer = layer;
 			this.vertexIndex = vertexIndex;
 		
-			currentActiveRows = spanForm.getActiveRowsBefore(sections[layer].beginColumn());
-			Set<Integer> sumRows = TrellisUtils.getSumRows(vertexIndex, currentActiveRows);
-			currentSum = TrellisUtils.getEdgeBits(spanForm.Matr, sumRows, 0, spanForm.Matr.getColumnCount());
+			if (!compiledLabels) {
+				currentSum = rowsTable.sum(layer, vertexIndex, 0);
+			}
 		}
 
 		@Override
@@ -56,15 +58,15 @@ public class BlockCodeTrellis implements ITrellis {
 				return new LongEdge[0];
 			}
 
-
 			int nextLayer = layer + 1;
 
-			ITrellisEdge edges[] = TrellisUtils.buildAccessorsEdges(spanForm.Matr,
-					vertexIndex, currentSum, currentActiveRows,
-					sections[layer].spanHeads, sections[layer].spanTails, sections[layer].beginColumn(), sections[nextLayer].beginColumn());
+			ITrellisEdge edges[] = (currentSum == null) ? rowsTable.accessors(layer, vertexIndex)
+					: rowsTable.accessors(layer, vertexIndex, currentSum, sections[layer].beginColumn(), sections[nextLayer].beginColumn());
 			
-			for (int i = 0; i < edges.length; ++i) {
-				iterLogger.debug("edge " + i + ": " + edges[i]);
+			if (iterLogger.isDebugEnabled()) {
+				for (int i = 0; i < edges.length; ++i) {
+					iterLogger.debug("edge " + i + ": " + edges[i]);
+				}
 			}
 			
 			return edges;
@@ -78,17 +80,35 @@ public class BlockCodeTrellis implements ITrellis {
 			
 			int prevLayer = layer - 1;
 			
-			ITrellisEdge edges[] = TrellisUtils.buildPredcessorsEdges(spanForm.Matr,
-					vertexIndex, currentSum, currentActiveRows,
-					sections[prevLayer].spanHeads, sections[prevLayer].spanTails, sections[prevLayer].beginColumn(), sections[layer].beginColumn());
+			ITrellisEdge edges[] = (currentSum == null) ? rowsTable.predecessors(layer, vertexIndex)
+					: rowsTable.predecessors(layer, vertexIndex, currentSum, sections[prevLayer].beginColumn(), sections[layer].beginColumn());
 			
-			for (int i = 0; i < edges.length; ++i) {
-				iterLogger.debug("edge " + i + ": " + edges[i]);
+			if (iterLogger.isDebugEnabled()) {
+				for (int i = 0; i < edges.length; ++i) {
+					iterLogger.debug("edge " + i + ": " + edges[i]);
+				}
 			}
 
 			return edges;
 		}
 
+		@Override
+		public ITrellisEdgeCursor forwardEdges() {
+			return hasForward() ? edgeCursor().forward(layer, vertexIndex) : edgeCursor().empty();
+		}
+
+		@Override
+		public ITrellisEdgeCursor backwardEdges() {
+			return hasBackward() ? edgeCursor().backward(layer, vertexIndex) : edgeCursor().empty();
+		}
+
+		private ActiveRowsTable.EdgeCursor edgeCursor() {
+			if (edgeCursor == null) {
+				edgeCursor = rowsTable.new EdgeCursor();
+			}
+			return edgeCursor;
+		}
+
 		@Override
 		public boolean hasBackward() {
 			return layer > 0;
@@ -110,27 +130,16 @@ public class BlockCodeTrellis implements ITrellis {
 				throw new NoSuchElementException();
 			}
 
-			int prevLayer = (layer - 1 + sections.length) % sections.length;
+			int prevLayer = layer - 1;
 			
-			if (edgeIndex < 0 || edgeIndex >= (1 << sections[prevLayer].spanTails.size())) {
+			if (edgeIndex < 0 || edgeIndex >= (1 << rowsTable.tailsCount(prevLayer))) {
 				throw new IndexOutOfBoundsException("There is no edge with such index.");
 			}
 
-			for (int i = 0; i < sections[prevLayer].spanTails.size(); ++i) {
-				Boundary spanTail = sections[prevLayer].spanTails.get(i);
-				
-				vertexIndex = TrellisUtils.getNextVertexByAdding(vertexIndex, currentActiveRows, spanTail.row, currentSum, spanForm.Matr, (edgeIndex & (1 << i)) != 0);
-				currentActiveRows.add(spanTail.row);
-			}
-
-			for (Boundary spanHead : sections[prevLayer].spanHeads) {
-				int position = currentActiveRows.headSet(spanHead.row).size();
-				if ((vertexIndex & (1 << position)) != 0) {
-					currentSum.xor(spanForm.Matr.getRow(spanHead.row));
-				}
-				vertexIndex = TrellisUtils.getNextVertexByRemoving(vertexIndex, currentActiveRows, spanHead.row, currentSum, spanForm.Matr);
-				currentActiveRows.remove(spanHead.row);
+			if (currentSum != null) {
+				rowsTable.moveSumBackward(currentSum, layer, vertexIndex, edgeIndex);
 			}
+			vertexIndex = rowsTable.prevVertex(layer, vertexIndex, edgeIndex);
 
 			layer = prevLayer;
 		}
@@ -141,27 +150,16 @@ public class BlockCodeTrellis implements ITrellis {
 				throw new NoSuchElementException();
 			}
 
-			if (edgeIndex < 0 || edgeIndex >= (1 << sections[layer].spanHeads.size())) {
+			if (edgeIndex < 0 || edgeIndex >= (1 << rowsTable.headsCount(layer))) {
 				throw new IndexOutOfBoundsException("There is no edge with such index.");
 			}
 
-			for (int i = 0; i < sections[layer].spanHeads.size(); ++i) {
-				Boundary spanHead = sections[layer].spanHeads.get(i);
-				
-				vertexIndex = TrellisUtils.getNextVertexByAdding(vertexIndex, currentActiveRows, spanHead.row, (edgeIndex & (1 << i)) != 0);
-				currentActiveRows.add(spanHead.row);
-				if ((edgeIndex & (1 << i)) != 0) {
-//					currentSumRows.add(spanHead.row);
-					currentSum.xor(spanForm.Matr.getRow(spanHead.row));
-				}
-			}
-			
-			for (Boundary spanTail : sections[layer].spanTails) {
-				vertexIndex = TrellisUtils.getNextVertexByRemoving(vertexIndex, currentActiveRows, spanTail.row, currentSum, spanForm.Matr);
-				currentActiveRows.remove(spanTail.row);
+			if (currentSum != null) {
+				rowsTable.moveSumForward(currentSum, layer, vertexIndex, edgeIndex);
 			}
+			vertexIndex = rowsTable.nextVertex(layer, vertexIndex, edgeIndex);
 
-			layer = (layer + 1) % sections.length;
+			layer = layer + 1;
 		}
 
 		@Override
@@ -171,14 +169,32 @@ public class BlockCodeTrellis implements ITrellis {
 		
 		@Override
 		public ITrellisIterator clone() {
-			return new Iterator(layer, vertexIndex);
+			Iterator iterator = new Iterator();
+			iterator.layer = layer;
+			iterator.vertexIndex = vertexIndex;
+			iterator.currentSum = (currentSum == null) ? null : currentSum.clone();
+			return iterator;
 		}
 	}
 	
 	private SpanForm spanForm;
 	private TrellisSection sections[];
+	private ActiveRowsTable rowsTable;
+	/**
+	 * Собирать массивы ребер из скомпилированных меток, а не из суммы рядов вершины.
+	 */
+	private boolean compiledLabels;
 
 	public BlockCodeTrellis(SpanForm spanForm) {
+		this(spanForm, false);
+	}
+
+	/**
+	 * @param compiledLabels если true, метки ребер собираются из заранее вычисленных для каждой секции
+	 * вкладов активных рядов, сумма рядов вершины при обходе не хранится.
+	 * Курсоры ребер ({@link ITrellisIterator#forwardEdges()}) работают так в обоих режимах
+	 */
+	public BlockCodeTrellis(SpanForm spanForm, boolean compiledLabels) {
 		this.spanForm = spanForm;
 		
 		int k = spanForm.Matr.getRowCount(), n = spanForm.Matr.getColumnCount();
@@ -197,6 +213,22 @@ public class BlockCodeTrellis implements ITrellis {
 		
 		sections = sectionsArray.toArray(new TrellisSection[sectionsArray.size()]);
 		
+		int layerRows[][] = new int[sections.length][];
+		for (int layer = 0; layer < sections.length; ++layer) {
+			layerRows[layer] = TrellisUtils.toArray(spanForm.getActiveRowsBefore(sections[layer].beginColumn()));
+		}
+		// переход из последнего яруса невозможен, поэтому фиктивная секция в таблицу не входит
+		rowsTable = new ActiveRowsTable(spanForm.Matr, layerRows, sections, sections.length - 1, 0);
+		this.compiledLabels = compiledLabels;
+		// скомпилированные метки нужны курсорам ребер в любом режиме
+		int fromColumns[] = new int[sections.length];
+		int toColumns[] = new int[sections.length];
+		for (int layer = 0; layer + 1 < sections.length; ++layer) {
+			fromColumns[layer] = sections[layer].beginColumn();
+			toColumns[layer] = sections[layer + 1].beginColumn();
+		}
+		rowsTable.compileLabels(fromColumns, toColumns);
+		
 		logger.debug("Layers count is " + sections.length);
 	}
 	
@@ -211,19 +243,11 @@ public class BlockCodeTrellis implements ITrellis {
 
 	@Override
 	public long layerSize(int layer) {
-		return 1 << layerComplexity(layer);
+		return 1L << layerComplexity(layer);
 	}
 	
 	public int layerComplexity(int layer) {
-		int column = sections[layer].beginColumn();
-		int activeRowsCount = 0;
-		for (int row = 0; row < spanForm.Matr.getRowCount(); ++row) {
-			if (spanForm.isRowActiveBefore(column, row)) {
-				++activeRowsCount;
-			}
-		}
-		
-		return activeRowsCount;
+		return rowsTable.activeRowsCount(layer);
 	}
 
 	@Override
@@ -0,0 +1,607 @@
+package trellises;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
+import math.BitArray;
+
+/**
+ * Явная решетка, хранимая массивами в формате CSR: вместо объектов вершин и ребер - массивы
+ * смещений, концов ребер, упакованных меток и метрик. На ребро приходится несколько десятков байт
+ * без заголовков объектов и указателей.
+ *
+ * Вершины нумеруются сквозным номером <code>vertexOffsets[layer] + vertexIndex</code>. Исходящие ребра
+ * вершины v - это ребра с номерами [forwardOffsets[v], forwardOffsets[v + 1]), по порядку индексов
+ * ребер в исходной решетке. Входящие ребра хранят номер вершины-начала и номер соответствующего
+ * исходящего ребра, метки и метрики у них общие.
+ *
+ * Решетку можно записать в файл методом {@link #write(File)} и отобразить в память методом
+ * {@link #map(File)}: массивы тогда читаются прямо из страниц файла, загрузка не требует разбора, а
+ * страницы разделяются между процессами. Отображенная решетка доступна только для чтения.
+ *
+ * @author stas
+ *
+ */
+public class CompactTrellis implements ITrellis {
+	private static final int MAGIC = 0x43545231; // "CTR1"
+	private static final int VERSION = 1;
+	/**
+	 * Максимальная метрика ребра, метрики хранятся в байте без знака.
+	 */
+	public static final int MAX_METRIC = 0xFF;
+	/**
+	 * Наибольшее количество вершин и ребер: массив int из них отображается в память одним
+	 * участком файла, который не может быть больше 2 Гб.
+	 */
+	public static final int MAX_ELEMENTS = Integer.MAX_VALUE / 4 - 1;
+	/**
+	 * Наибольшее количество слов меток всех ребер, по той же причине.
+	 */
+	public static final int MAX_LABEL_WORDS = Integer.MAX_VALUE / 8;
+	/**
+	 * Размер буфера, через который массивы записываются в файл.
+	 */
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	public class Iterator implements ITrellisIterator {
+		int layer;
+		int vertexIndex;
+		private EdgeCursor edgeCursor;
+
+		Iterator(int layer, int vertexIndex) {
+			this.layer = layer;
+			this.vertexIndex = vertexIndex;
+		}
+
+		private int vertex() {
+			return vertexOffsets.get(layer) + vertexIndex;
+		}
+
+		@Override
+		public boolean hasForward() {
+			int v = vertex();
+			return forwardOffsets.get(v + 1) > forwardOffsets.get(v);
+		}
+
+		@Override
+		public boolean hasBackward() {
+			int v = vertex();
+			return backwardOffsets.get(v + 1) > backwardOffsets.get(v);
+		}
+
+		@Override
+		public void moveForward(int edgeIndex) throws NoSuchElementException {
+			int v = vertex();
+			int edge = forwardOffsets.get(v) + edgeIndex;
+			if (edgeIndex < 0 || edge >= forwardOffsets.get(v + 1)) {
+				throw new NoSuchElementException("There is no edge " + edgeIndex);
+			}
+
+			vertexIndex = forwardTargets.get(edge);
+			layer = (layer + 1) % layersCount;
+		}
+
+		@Override
+		public void moveBackward(int edgeIndex) throws NoSuchElementException {
+			int v = vertex();
+			int edge = backwardOffsets.get(v) + edgeIndex;
+			if (edgeIndex < 0 || edge >= backwardOffsets.get(v + 1)) {
+				throw new NoSuchElementException("There is no edge " + edgeIndex);
+			}
+
+			vertexIndex = backwardSources.get(edge);
+			layer = (layer - 1 + layersCount) % layersCount;
+		}
+
+		@Override
+		public ITrellisEdge[] getAccessors() {
+			return edges(cursor(new EdgeCursor(), true));
+		}
+
+		@Override
+		public ITrellisEdge[] getPredecessors() {
+			return edges(cursor(new EdgeCursor(), false));
+		}
+
+		private ITrellisEdge[] edges(EdgeCursor cursor) {
+			LongEdge edges[] = new LongEdge[cursor.end - cursor.begin];
+			while (cursor.next()) {
+				BitArray bits = new BitArray(cursor.bitsCount());
+				for (int w = 0; w < bits.wordsCount(); ++w) {
+					bits.setWord(w, cursor.word(w));
+				}
+				edges[cursor.index()] = new LongEdge(cursor.src(), cursor.dst(), bits, new int[] { cursor.metric(0) });
+			}
+			return edges;
+		}
+
+		@Override
+		public ITrellisEdgeCursor forwardEdges() {
+			return cursor(edgeCursor(), true);
+		}
+
+		@Override
+		public ITrellisEdgeCursor backwardEdges() {
+			return cursor(edgeCursor(), false);
+		}
+
+		private EdgeCursor edgeCursor() {
+			if (edgeCursor == null) {
+				edgeCursor = new EdgeCursor();
+			}
+			return edgeCursor;
+		}
+
+		private EdgeCursor cursor(EdgeCursor edgeCursor, boolean forward) {
+			int v = vertex();
+			if (forward) {
+				return edgeCursor.reset(vertexIndex, layer, true, forwardOffsets.get(v), forwardOffsets.get(v + 1));
+			}
+			int prevLayer = (layer - 1 + layersCount) % layersCount;
+			return edgeCursor.reset(vertexIndex, prevLayer, false, backwardOffsets.get(v), backwardOffsets.get(v + 1));
+		}
+
+		@Override
+		public int layer() {
+			return layer;
+		}
+
+		@Override
+		public long vertexIndex() {
+			return vertexIndex;
+		}
+
+		@Override
+		public Iterator clone() {
+			return new Iterator(layer, vertexIndex);
+		}
+	}
+
+	/**
+	 * Курсор по отрезку массива ребер вершины.
+	 */
+	private class EdgeCursor implements ITrellisEdgeCursor {
+		private long vertexIndex;
+		private boolean forward;
+		private int begin;
+		private int end;
+		private int position;
+		/**
+		 * Номер исходящего ребра, хранящего метку и метрику текущего ребра.
+		 */
+		private int edge;
+		private int width;
+
+		/**
+		 * @param sectionLayer ярус перед секцией, в которой лежат ребра
+		 */
+		EdgeCursor reset(long vertexIndex, int sectionLayer, boolean forward, int begin, int end) {
+			this.vertexIndex = vertexIndex;
+			this.forward = forward;
+			this.begin = begin;
+			this.end = end;
+			this.position = begin - 1;
+			this.width = labelWidths.get(sectionLayer);
+			return this;
+		}
+
+		@Override
+		public boolean next() {
+			if (position < end) {
+				++position;
+			}
+			if (position == end) {
+				return false;
+			}
+			edge = forward ? position : backwardEdges.get(position);
+			return true;
+		}
+
+		@Override
+		public int index() {
+			return position - begin;
+		}
+
+		@Override
+		public long src() {
+			return forward ? vertexIndex : backwardSources.get(position);
+		}
+
+		@Override
+		public long dst() {
+			return forward ? forwardTargets.get(position) : vertexIndex;
+		}
+
+		@Override
+		public long target() {
+			return forward ? forwardTargets.get(position) : backwardSources.get(position);
+		}
+
+		@Override
+		public int bitsCount() {
+			return width;
+		}
+
+		@Override
+		public long word(int wordIndex) {
+			if (wordIndex < 0) {
+				throw new IndexOutOfBoundsException("wordIndex < 0: " + wordIndex);
+			}
+			return wordIndex < labelWords ? labels.get(edge * labelWords + wordIndex) : 0;
+		}
+
+		@Override
+		public int metric(int i) {
+			if (i != 0) {
+				throw new IndexOutOfBoundsException("There is no metric " + i);
+			}
+			return metrics.get(edge) & MAX_METRIC;
+		}
+	}
+
+	private final int layersCount;
+	private final int labelWords;
+	/**
+	 * Ширина меток секции после яруса.
+	 */
+	private final IntBuffer labelWidths;
+	/**
+	 * Сквозной номер первой вершины яруса, последний элемент - количество вершин.
+	 */
+	private final IntBuffer vertexOffsets;
+	private final IntBuffer forwardOffsets;
+	/**
+	 * Индекс конца исходящего ребра в следующем ярусе.
+	 */
+	private final IntBuffer forwardTargets;
+	private final IntBuffer backwardOffsets;
+	/**
+	 * Индекс начала входящего ребра в предыдущем ярусе и номер соответствующего исходящего ребра.
+	 */
+	private final IntBuffer backwardSources;
+	private final IntBuffer backwardEdges;
+	/**
+	 * Метки исходящих ребер, ребро e занимает слова [e * labelWords, (e + 1) * labelWords).
+	 */
+	private final LongBuffer labels;
+	private final ByteBuffer metrics;
+
+	/**
+	 * Строит компактную копию решетки. Ребра из последнего яруса в нулевой копируются только для
+	 * циклической решетки, иначе последний ярус считается концом решетки.
+	 * @param trellis исходная решетка, количество вершин и ребер - не больше {@link #MAX_ELEMENTS},
+	 * слов меток всех ребер - не больше {@link #MAX_LABEL_WORDS}
+	 * @param cyclic решетка сверточного кода, в которой из последнего яруса есть переход в нулевой
+	 * @param metric номер метрики исходной решетки, которая сохраняется
+	 */
+	public CompactTrellis(ITrellis trellis, boolean cyclic, int metric) {
+		layersCount = trellis.layersCount();
+		int vertexOffsets[] = new int[layersCount + 1];
+		for (int layer = 0; layer < layersCount; ++layer) {
+			long end = vertexOffsets[layer] + trellis.layerSize(layer);
+			if (end > MAX_ELEMENTS) {
+				throw new IllegalArgumentException("Too many vertices in trellis: " + end);
+			}
+			vertexOffsets[layer + 1] = (int)end;
+		}
+		int vertexCount = vertexOffsets[layersCount];
+		int transitions = cyclic ? layersCount : layersCount - 1;
+
+		// ширина меток и количество ребер
+		int labelWidths[] = new int[layersCount];
+		int forwardOffsets[] = new int[vertexCount + 1];
+		long edgeCount = 0;
+		for (int layer = 0; layer < layersCount; ++layer) {
+			for (int j = 0; j < trellis.layerSize(layer); ++j) {
+				int v = vertexOffsets[layer] + j;
+				forwardOffsets[v] = (int)edgeCount;
+				if (layer >= transitions) {
+					continue;
+				}
+				ITrellisIterator iterator = trellis.iterator(layer, j);
+				if (!iterator.hasForward()) {
+					continue;
+				}
+				ITrellisEdgeCursor edges = iterator.forwardEdges();
+				while (edges.next()) {
+					labelWidths[layer] = Math.max(labelWidths[layer], edges.bitsCount());
+					++edgeCount;
+				}
+			}
+		}
+		if (edgeCount > MAX_ELEMENTS) {
+			throw new IllegalArgumentException("Too many edges in trellis: " + edgeCount);
+		}
+		forwardOffsets[vertexCount] = (int)edgeCount;
+		int edgesCount = (int)edgeCount;
+
+		int maxWidth = 0;
+		for (int width : labelWidths) {
+			maxWidth = Math.max(maxWidth, width);
+		}
+		labelWords = (maxWidth + Long.SIZE - 1) / Long.SIZE;
+		if ((long)edgesCount * labelWords > MAX_LABEL_WORDS) {
+			throw new IllegalArgumentException("Labels of " + edgesCount + " edges are too long: " + maxWidth);
+		}
+
+		// исходящие ребра
+		int forwardTargets[] = new int[edgesCount];
+		long labels[] = new long[edgesCount * labelWords];
+		byte metrics[] = new byte[edgesCount];
+		for (int layer = 0; layer < transitions; ++layer) {
+			for (int j = 0; j < trellis.layerSize(layer); ++j) {
+				int v = vertexOffsets[layer] + j;
+				if (forwardOffsets[v] == forwardOffsets[v + 1]) {
+					continue;
+				}
+				ITrellisEdgeCursor edges = trellis.iterator(layer, j).forwardEdges();
+				while (edges.next()) {
+					int e = forwardOffsets[v] + edges.index();
+					forwardTargets[e] = (int)edges.dst();
+					for (int w = 0; w < labelWords; ++w) {
+						labels[e * labelWords + w] = edges.word(w);
+					}
+					int edgeMetric = edges.metric(metric);
+					if (edgeMetric < 0 || edgeMetric > MAX_METRIC) {
+						throw new IllegalArgumentException("Metric " + edgeMetric + " of edge " + e + " doesn't fit in byte");
+					}
+					metrics[e] = (byte)edgeMetric;
+				}
+			}
+		}
+
+		// входящие ребра: каждому ребру ставится в соответствие исходящее ребро с теми же концами и меткой
+		int backwardOffsets[] = new int[vertexCount + 1];
+		int backwardSources[] = new int[edgesCount];
+		int backwardEdges[] = new int[edgesCount];
+		BitSet matched = new BitSet(edgesCount);
+		int position = 0;
+		for (int layer = 0; layer < layersCount; ++layer) {
+			int prevLayer = (layer - 1 + layersCount) % layersCount;
+			for (int j = 0; j < trellis.layerSize(layer); ++j) {
+				int v = vertexOffsets[layer] + j;
+				backwardOffsets[v] = position;
+				if (prevLayer >= transitions) {
+					continue;
+				}
+				ITrellisIterator iterator = trellis.iterator(layer, j);
+				if (!iterator.hasBackward()) {
+					continue;
+				}
+				ITrellisEdgeCursor edges = iterator.backwardEdges();
+				int begin = position;
+				while (edges.next()) {
+					int src = (int)edges.src();
+					int u = vertexOffsets[prevLayer] + src;
+					int e = forwardOffsets[u];
+					while (e < forwardOffsets[u + 1]
+							&& (matched.get(e) || forwardTargets[e] != j || !sameLabel(labels, e, edges))) {
+						++e;
+					}
+					if (e == forwardOffsets[u + 1]) {
+						throw new IllegalArgumentException("Predecessor " + edges.index() + " of vertex (" + layer + ", " + j
+								+ ") doesn't match any accessor of vertex (" + prevLayer + ", " + src + ")");
+					}
+					matched.set(e);
+					backwardSources[begin + edges.index()] = src;
+					backwardEdges[begin + edges.index()] = e;
+					++position;
+				}
+			}
+		}
+		backwardOffsets[vertexCount] = position;
+		if (position != edgesCount) {
+			throw new IllegalArgumentException("Trellis has " + edgesCount + " accessors, but " + position + " predecessors");
+		}
+
+		this.labelWidths = IntBuffer.wrap(labelWidths);
+		this.vertexOffsets = IntBuffer.wrap(vertexOffsets);
+		this.forwardOffsets = IntBuffer.wrap(forwardOffsets);
+		this.forwardTargets = IntBuffer.wrap(forwardTargets);
+		this.backwardOffsets = IntBuffer.wrap(backwardOffsets);
+		this.backwardSources = IntBuffer.wrap(backwardSources);
+		this.backwardEdges = IntBuffer.wrap(backwardEdges);
+		this.labels = LongBuffer.wrap(labels);
+		this.metrics = ByteBuffer.wrap(metrics);
+	}
+
+	private boolean sameLabel(long labels[], int e, ITrellisEdgeCursor edges) {
+		for (int w = 0; w < labelWords; ++w) {
+			if (labels[e * labelWords + w] != edges.word(w)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private CompactTrellis(int layersCount, int labelWords, IntBuffer labelWidths, IntBuffer vertexOffsets,
+			IntBuffer forwardOffsets, IntBuffer forwardTargets, IntBuffer backwardOffsets, IntBuffer backwardSources,
+			IntBuffer backwardEdges, LongBuffer labels, ByteBuffer metrics) {
+		this.layersCount = layersCount;
+		this.labelWords = labelWords;
+		this.labelWidths = labelWidths;
+		this.vertexOffsets = vertexOffsets;
+		this.forwardOffsets = forwardOffsets;
+		this.forwardTargets = forwardTargets;
+		this.backwardOffsets = backwardOffsets;
+		this.backwardSources = backwardSources;
+		this.backwardEdges = backwardEdges;
+		this.labels = labels;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public int layersCount() {
+		return layersCount;
+	}
+
+	@Override
+	public long layerSize(int layer) {
+		return vertexOffsets.get(layer + 1) - vertexOffsets.get(layer);
+	}
+
+	@Override
+	public ITrellisIterator iterator(int layer, long vertexIndex) {
+		if (layer < 0 || layer >= layersCount || vertexIndex < 0 || vertexIndex >= layerSize(layer)) {
+			throw new IndexOutOfBoundsException(layer + ", " + vertexIndex);
+		}
+		return new Iterator(layer, (int)vertexIndex);
+	}
+
+	/**
+	 * @return количество ребер решетки
+	 */
+	public int edgesCount() {
+		return forwardTargets.limit();
+	}
+
+	/**
+	 * Записывает решетку в файл. Формат: заголовок из 5 чисел int (сигнатура, версия, количество
+	 * ярусов, вершин и ребер, слов в метке), затем массивы в порядке полей, каждый с границы 8 байт.
+	 * Порядок байтов - big-endian. Массивы записываются через буфер фиксированного размера.
+	 */
+	public void write(File file) throws IOException {
+		int vertexCount = vertexOffsets.get(layersCount);
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try {
+			out.setLength(0);
+			FileChannel channel = out.getChannel();
+			ByteBuffer header = ByteBuffer.allocate(6 * 4);
+			header.putInt(MAGIC).putInt(VERSION).putInt(layersCount).putInt(vertexCount)
+					.putInt(edgesCount()).putInt(labelWords);
+			header.flip();
+			writeFully(channel, header);
+
+			long position = align(header.capacity());
+			position = writeInts(channel, position, labelWidths, layersCount);
+			position = writeInts(channel, position, vertexOffsets, layersCount + 1);
+			position = writeInts(channel, position, forwardOffsets, vertexCount + 1);
+			position = writeInts(channel, position, forwardTargets, edgesCount());
+			position = writeInts(channel, position, backwardOffsets, vertexCount + 1);
+			position = writeInts(channel, position, backwardSources, edgesCount());
+			position = writeInts(channel, position, backwardEdges, edgesCount());
+
+			position = writeLongs(channel, position, labels, edgesCount() * labelWords);
+
+			ByteBuffer metricsCopy = metrics.duplicate();
+			metricsCopy.clear();
+			channel.position(position);
+			writeFully(channel, metricsCopy);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static long writeInts(FileChannel channel, long position, IntBuffer values, int count) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+		channel.position(position);
+		for (int i = 0; i < count; ++i) {
+			if (buffer.remaining() < 4) {
+				flush(channel, buffer);
+			}
+			buffer.putInt(values.get(i));
+		}
+		flush(channel, buffer);
+		return align(position + count * 4L);
+	}
+
+	private static long writeLongs(FileChannel channel, long position, LongBuffer values, int count) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+		channel.position(position);
+		for (int i = 0; i < count; ++i) {
+			if (buffer.remaining() < 8) {
+				flush(channel, buffer);
+			}
+			buffer.putLong(values.get(i));
+		}
+		flush(channel, buffer);
+		return align(position + count * 8L);
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		writeFully(channel, buffer);
+		buffer.clear();
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private static long align(long position) {
+		return (position + 7) & ~7L;
+	}
+
+	/**
+	 * Отображает в память решетку, записанную методом {@link #write(File)}. Файл не должен
+	 * изменяться, пока решетка используется.
+	 * @throws IOException если файл не является файлом решетки
+	 */
+	public static CompactTrellis map(File file) throws IOException {
+		RandomAccessFile in = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = in.getChannel();
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 6 * 4);
+			if (header.getInt() != MAGIC) {
+				throw new IOException("File " + file + " doesn't contain trellis");
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported version of trellis file: " + version);
+			}
+			int layersCount = header.getInt();
+			int vertexCount = header.getInt();
+			int edgesCount = header.getInt();
+			int labelWords = header.getInt();
+			if (layersCount < 0 || vertexCount < 0 || vertexCount > MAX_ELEMENTS || edgesCount < 0 || edgesCount > MAX_ELEMENTS
+					|| labelWords < 0 || (long)edgesCount * labelWords > MAX_LABEL_WORDS) {
+				throw new IOException("Wrong trellis sizes in " + file);
+			}
+
+			long position = align(header.capacity());
+			IntBuffer labelWidths = mapInts(channel, position, layersCount);
+			position = align(position + layersCount * 4L);
+			IntBuffer vertexOffsets = mapInts(channel, position, layersCount + 1);
+			position = align(position + (layersCount + 1) * 4L);
+			IntBuffer forwardOffsets = mapInts(channel, position, vertexCount + 1);
+			position = align(position + (vertexCount + 1) * 4L);
+			IntBuffer forwardTargets = mapInts(channel, position, edgesCount);
+			position = align(position + edgesCount * 4L);
+			IntBuffer backwardOffsets = mapInts(channel, position, vertexCount + 1);
+			position = align(position + (vertexCount + 1) * 4L);
+			IntBuffer backwardSources = mapInts(channel, position, edgesCount);
+			position = align(position + edgesCount * 4L);
+			IntBuffer backwardEdges = mapInts(channel, position, edgesCount);
+			position = align(position + edgesCount * 4L);
+			LongBuffer labels = map(channel, position, edgesCount * labelWords * 8L).asLongBuffer();
+			position = align(position + edgesCount * labelWords * 8L);
+			ByteBuffer metrics = map(channel, position, edgesCount);
+
+			return new CompactTrellis(layersCount, labelWords, labelWidths, vertexOffsets, forwardOffsets,
+					forwardTargets, backwardOffsets, backwardSources, backwardEdges, labels, metrics);
+		} finally {
+			// отображение остается действительным после закрытия файла
+			in.close();
+		}
+	}
+
+	private static IntBuffer mapInts(FileChannel channel, long position, int count) throws IOException {
+		return map(channel, position, count * 4L).asIntBuffer();
+	}
+
+	private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+		if (position + size > channel.size()) {
+			throw new IOException("Trellis file is truncated");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+	}
+}
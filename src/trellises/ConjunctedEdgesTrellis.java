@@ -19,6 +19,7 @@ public class ConjunctedEdgesTrellis implements ITrellis {
 	public class Iterator implements ITrellisIterator {
 		int layer;
 		int vertexIndex;
+		private EdgeArrayCursor edgeCursor;
 		
 		public Iterator(int layer, int vertexIndex) {
 			this.layer = layer;
@@ -95,6 +96,22 @@ public class ConjunctedEdgesTrellis implements ITrellis {
 			return vertexIndex;
 		}
 		
+		@Override
+		public ITrellisEdgeCursor forwardEdges() {
+			if (edgeCursor == null) {
+				edgeCursor = new EdgeArrayCursor();
+			}
+			return edgeCursor.reset(getAccessors(), true);
+		}
+
+		@Override
+		public ITrellisEdgeCursor backwardEdges() {
+			if (edgeCursor == null) {
+				edgeCursor = new EdgeArrayCursor();
+			}
+			return edgeCursor.reset(getPredecessors(), false);
+		}
+
 		@Override
 		public Iterator clone() {
 			return new Iterator(layer, vertexIndex);
@@ -1,11 +1,8 @@
 package trellises;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 import math.BitArray;
 import math.ConvCodeSpanForm;
@@ -21,88 +18,94 @@ public class ConvCodeTrellis  implements ITrellis {
 
 	public class Iterator implements ITrellisIterator {
 		int layer;
-		long vertexIndex;
-
 		/**
-		 * Номера рядов, активных в текущем ярусе. Фактически, номера рядов, пересекающих ярус.
+		 * Индекс вершины, i-й бит соответствует i-му активному ряду яруса.
 		 */
-		SortedSet<Integer> currentActiveRows;
+		long vertexIndex;
 		/**
-		 * Номера рядов, определяющих номер вершины в ярусе. Так же данные ряды складываются при вычислении меток на ребрах. 
+		 * Кодовое слово, полученное, как сумма рядов, соответствующих единичным битам индекса вершины.
+		 * В режиме скомпилированных меток не используется и равно null.
 		 */
-		Set<Integer> currentSumRows;
+		BitArray currentSum;
 		/**
-		 * Кодовое слово, полученное, как сумма рядов из currentSumRows
+		 * Курсор ребер, создается при первом обращении и не копируется при клонировании.
 		 */
-		BitArray currentSum;
+		private ActiveRowsTable.EdgeCursor edgeCursor;
 		
 
 		Iterator(int layer, long vertexIndex) {
 			this.layer = layer;
 			this.vertexIndex = vertexIndex;
 
-			currentActiveRows = spanForm.getActiveRowsBefore(sections[layer].beginColumn());
-			currentSumRows = TrellisUtils.getSumRows(vertexIndex, currentActiveRows);
-			currentSum = TrellisUtils.getEdgeBits(spanForm.matrix, currentSumRows, 0, spanForm.matrix.getColumnCount());
+			if (!compiledLabels) {
+				currentSum = rowsTable.sum(layer, vertexIndex, 0);
+			}
+		}
+		
+		private Iterator(Iterator iterator) {
+			this.layer = iterator.layer;
+			this.vertexIndex = iterator.vertexIndex;
+			if (iterator.currentSum != null) {
+				this.currentSum = iterator.currentSum.clone();
+			}
 		}
 		
 		@Override
 		public ITrellisEdge[] getAccessors() {
-			// получаем следующие активные ряды: добавляем к текущим начавшийся активный ряд и удаляем завершившийся
+			if (currentSum == null) {
+				return rowsTable.accessors(layer, vertexIndex);
+			}
 
 			int nextLayer = (layer + 1) % sections.length;
 			
 			int fromIndex = (layer == 0) ? 0 : sections[layer].beginColumn();
 			int toIndex = (nextLayer == 0) ? c : sections[nextLayer].beginColumn();
-//			ITrellisEdge edges[] = TrellisUtils.buildAccessorsEdges(spanForm.matrix, vertexIndex, 
-//					currentSum, currentSumRows, currentActiveRows, 
-//					sections[layer].spanHeads, fromIndex, toIndex);
-			ITrellisEdge edges[] = TrellisUtils.buildAccessorsEdges(spanForm.matrix,
-					vertexIndex, currentSum, currentActiveRows,
-					sections[layer].spanHeads, sections[layer].spanTails, fromIndex, toIndex);
 
-			
-			return edges;
+			return rowsTable.accessors(layer, vertexIndex, currentSum, fromIndex, toIndex);
 		}
 
 		@Override
 		public ITrellisEdge[] getPredecessors() {
-			int prevLayer = (layer - 1 + sections.length) % sections.length;
-			
-			SortedSet<Integer> activeRows;
-			Set<Integer> sumRows;
-			BitArray sum;
-			
-			if (layer == 0) {
-				// предыдущий слой вычисляется на предыдущем блоке матриц, осуществляем сдвиг.
-				activeRows = new TreeSet<Integer>();
-				for (Integer row : currentActiveRows) {
-					activeRows.add(row - b);
-				}
-				sumRows = new HashSet<Integer>();
-				for (Integer row : currentSumRows) {
-					sumRows.add(row - b);
-				}
-				sum = TrellisUtils.getEdgeBits(spanForm.matrix, sumRows, 0, spanForm.matrix.getColumnCount());
+			ITrellisEdge edges[];
+			if (currentSum == null) {
+				edges = rowsTable.predecessors(layer, vertexIndex);
 			} else {
-				activeRows = currentActiveRows;
-				sumRows = currentSumRows;
-				sum = currentSum;
+				int prevLayer = (layer - 1 + sections.length) % sections.length;
+				
+				// предыдущий слой вычисляется на предыдущем блоке матриц, осуществляем сдвиг.
+				BitArray sum = (layer == 0) ? rowsTable.wrappedSum(vertexIndex) : currentSum;
+	
+				int fromIndex = (prevLayer == 0) ? 0 : sections[prevLayer].beginColumn();
+				int toIndex = (layer == 0) ? c : sections[layer].beginColumn();
+				edges = rowsTable.predecessors(layer, vertexIndex, sum, fromIndex, toIndex);
 			}
-
-			int fromIndex = (prevLayer == 0) ? 0 : sections[prevLayer].beginColumn();
-			int toIndex = (layer == 0) ? c : sections[layer].beginColumn();
-			ITrellisEdge edges[] = TrellisUtils.buildPredcessorsEdges(spanForm.matrix,
-					vertexIndex, sum, activeRows,
-					sections[prevLayer].spanHeads, sections[prevLayer].spanTails, fromIndex, toIndex);
 			
-			for (int i = 0; i < edges.length; ++i) {
-				iterLogger.debug("edge " + i + ": " + edges[i]);
+			if (iterLogger.isDebugEnabled()) {
+				for (int i = 0; i < edges.length; ++i) {
+					iterLogger.debug("edge " + i + ": " + edges[i]);
+				}
 			}
 
 			return edges;
 		}
 
+		@Override
+		public ITrellisEdgeCursor forwardEdges() {
+			return edgeCursor().forward(layer, vertexIndex);
+		}
+
+		@Override
+		public ITrellisEdgeCursor backwardEdges() {
+			return edgeCursor().backward(layer, vertexIndex);
+		}
+
+		private ActiveRowsTable.EdgeCursor edgeCursor() {
+			if (edgeCursor == null) {
+				edgeCursor = rowsTable.new EdgeCursor();
+			}
+			return edgeCursor;
+		}
+
 		@Override
 		public boolean hasBackward() {
 			return true;
@@ -117,95 +120,37 @@ public class ConvCodeTrellis  implements ITrellis {
 		public void moveBackward(int edgeIndex) throws NoSuchElementException {
 			int prevLayer = (layer - 1 + sections.length) % sections.length;
 			
-			if (edgeIndex < 0 || edgeIndex >= (1 << sections[prevLayer].spanTails.size())) {
+			if (edgeIndex < 0 || edgeIndex >= (1 << rowsTable.tailsCount(prevLayer))) {
 				throw new IndexOutOfBoundsException("There is no edge with such index.");
 			}
 
-			if (layer == 0) {
-				TreeSet<Integer> shiftedActiveRows = new TreeSet<Integer>();
-				for (Integer row : currentActiveRows) {
-					shiftedActiveRows.add(row - b);
-				}
-				currentActiveRows = shiftedActiveRows;
-
-				HashSet<Integer> shiftedSumRows = new HashSet<Integer>();
-				for (Integer row : currentSumRows) {
-					shiftedSumRows.add(row - b);
-				}
-				currentSumRows = shiftedSumRows;
-
-				currentSum = TrellisUtils.getEdgeBits(spanForm.matrix, currentSumRows, 0, spanForm.matrix.getColumnCount());
-			}
-			
-			for (int i = 0; i < sections[prevLayer].spanTails.size(); i++) {
-				Boundary spanTail = sections[prevLayer].spanTails.get(i);
-
-				vertexIndex = TrellisUtils.getNextVertexByAdding(vertexIndex, currentActiveRows, spanTail.row, (edgeIndex & (1 << i)) != 0);
-				currentActiveRows.add(spanTail.row);
-				if ((edgeIndex & (1 << i)) != 0) {
-					currentSumRows.add(spanTail.row);
-					currentSum.xor(spanForm.matrix.getRow(spanTail.row));
+			if (currentSum != null) {
+				if (layer == 0) {
+					currentSum = rowsTable.wrappedSum(vertexIndex);
 				}
+				rowsTable.moveSumBackward(currentSum, layer, vertexIndex, edgeIndex);
 			}
-
-			for (Boundary spanHead : sections[prevLayer].spanHeads) {
-				vertexIndex = TrellisUtils.getNextVertexByRemoving(vertexIndex, currentActiveRows, spanHead.row);
-				currentActiveRows.remove(spanHead.row);
-				if (currentSumRows.contains(spanHead.row)) {
-					currentSum.xor(spanForm.matrix.getRow(spanHead.row));
-					currentSumRows.remove(spanHead.row);
-				}
-			}
-			
-//			vertexIndex = TrellisUtils.getVertexIndex(currentSumRows, currentActiveRows);
+			vertexIndex = rowsTable.prevVertex(layer, vertexIndex, edgeIndex);
 
 			layer = prevLayer;
 		}
 
 		@Override
 		public void moveForward(int edgeIndex) throws NoSuchElementException {
-			if (edgeIndex < 0 || edgeIndex >= (1 << sections[layer].spanHeads.size())) {
+			if (edgeIndex < 0 || edgeIndex >= (1 << rowsTable.headsCount(layer))) {
 				throw new IndexOutOfBoundsException("There is no edge with such index.");
 			}
 
-			for (int i = 0; i < sections[layer].spanHeads.size(); ++i) {
-				Boundary spanHead = sections[layer].spanHeads.get(i);
-				
-				vertexIndex = TrellisUtils.getNextVertexByAdding(vertexIndex, currentActiveRows, spanHead.row, (edgeIndex & (1 << i)) != 0);
-				currentActiveRows.add(spanHead.row);
-				if ((edgeIndex & (1 << i)) != 0) {
-					currentSumRows.add(spanHead.row);
-					currentSum.xor(spanForm.matrix.getRow(spanHead.row));
-				}
+			if (currentSum != null) {
+				rowsTable.moveSumForward(currentSum, layer, vertexIndex, edgeIndex);
 			}
-			
-			for (Boundary spanTail : sections[layer].spanTails) {
-				vertexIndex = TrellisUtils.getNextVertexByRemoving(vertexIndex, currentActiveRows, spanTail.row);
-				currentActiveRows.remove(spanTail.row);
-				if (currentSumRows.contains(spanTail.row)) {
-					currentSum.xor(spanForm.matrix.getRow(spanTail.row));
-					currentSumRows.remove(spanTail.row);
-				}
-			}
-
-//			vertexIndex = TrellisUtils.getVertexIndex(currentSumRows, currentActiveRows);
+			vertexIndex = rowsTable.nextVertex(layer, vertexIndex, edgeIndex);
 
 			layer = (layer + 1) % sections.length;
 			
-			if (layer == 0) {
-				TreeSet<Integer> shiftedActiveRows = new TreeSet<Integer>();
-				for (Integer row : currentActiveRows) {
-					shiftedActiveRows.add(row + b);
-				}
-				currentActiveRows = shiftedActiveRows;
-
-				HashSet<Integer> shiftedSumRows = new HashSet<Integer>();
-				for (Integer row : currentSumRows) {
-					shiftedSumRows.add(row + b);
-				}
-				currentSumRows = shiftedSumRows;
-
-				currentSum = TrellisUtils.getEdgeBits(spanForm.matrix, currentSumRows, 0, spanForm.matrix.getColumnCount());
+			if (layer == 0 && currentSum != null) {
+				// ряды следующего блока сдвинуты на b относительно текущего
+				currentSum = rowsTable.sum(layer, vertexIndex, 0);
 			}
 		}
 
@@ -221,7 +166,7 @@ public class ConvCodeTrellis  implements ITrellis {
 		
 		@Override
 		public Iterator clone() {
-			return new Iterator(layer, vertexIndex);
+			return new Iterator(this);
 		}		
 	}
 	
@@ -229,16 +174,59 @@ public class ConvCodeTrellis  implements ITrellis {
 	private int v;		// overal constraint length
 	private int b, c;
 	private TrellisSection sections[];
+	private ActiveRowsTable rowsTable;
+	/**
+	 * Собирать массивы ребер из скомпилированных меток, а не из суммы рядов вершины.
+	 */
+	private boolean compiledLabels;
+	/**
+	 * Границы секций в столбцах матрицы.
+	 */
+	private int fromColumns[];
+	private int toColumns[];
+	private int reusedSections;
 
 	public ConvCodeTrellis(ConvCodeSpanForm spanForm) {
+		this(spanForm, false);
+	}
+
+	/**
+	 * @param compiledLabels если true, вклады рядов в метки ребер вычисляются заранее для каждого яруса,
+	 * и метка ребра получается сложением нескольких слов без вычисления суммы рядов вершины.
+	 * Курсоры ребер ({@link ITrellisIterator#forwardEdges()}) работают так в обоих режимах
+	 */
+	public ConvCodeTrellis(ConvCodeSpanForm spanForm, boolean compiledLabels) {
+		this(spanForm, compiledLabels, null);
+	}
+
+	/**
+	 * Строит решетку, переиспользуя решетку <code>previous</code> кода с той же формой спеновой формы
+	 * (размеры, степени строк, начала и концы строк). У таких решеток одинаковые секции и активные
+	 * ряды, поэтому берутся готовые переходы, а метки пересчитываются только в секциях, столбцы
+	 * которых изменились. Если форма отличается, решетка строится заново.
+	 * @param previous решетка, построенная ранее, или null
+	 */
+	public ConvCodeTrellis(ConvCodeSpanForm spanForm, boolean compiledLabels, ConvCodeTrellis previous) {
 		this.spanForm = spanForm;
+		this.compiledLabels = compiledLabels;
+		b = spanForm.getRowCount();
+		c = spanForm.matrix.getColumnCount();
+
+		if (previous != null && sameShape(previous.spanForm, spanForm)) {
+			v = previous.v;
+			sections = previous.sections;
+			rowsTable = new ActiveRowsTable(previous.rowsTable, spanForm.matrix);
+			reusedSections = rowsTable.compileLabels(previous.fromColumns, previous.toColumns, previous.rowsTable);
+			fromColumns = previous.fromColumns;
+			toColumns = previous.toColumns;
+			logger.debug("Reused " + reusedSections + " of " + sections.length + " sections");
+			return;
+		}
+
 		v = 0;
 		for (int i = 0; i < v; ++i) {
 			v += spanForm.degrees[i];
 		}
-		
-		b = spanForm.getRowCount();
-		c = spanForm.matrix.getColumnCount();
 		logger.debug("Construction of trellis for " + b + "/" + c + " code");
 
 		ArrayList<TrellisSection> sectionsArray = TrellisUtils.buildSections(spanForm);
@@ -254,9 +242,39 @@ public class ConvCodeTrellis  implements ITrellis {
 		
 		sections = sectionsArray.toArray(new TrellisSection[sectionsArray.size()]);
 		
+		int layerRows[][] = new int[sections.length][];
+		for (int layer = 0; layer < sections.length; ++layer) {
+			layerRows[layer] = TrellisUtils.toArray(spanForm.getActiveRowsBefore(sections[layer].beginColumn()));
+		}
+		rowsTable = new ActiveRowsTable(spanForm.matrix, layerRows, sections, sections.length, b);
+		// скомпилированные метки нужны курсорам ребер в любом режиме
+		fromColumns = new int[sections.length];
+		toColumns = new int[sections.length];
+		for (int layer = 0; layer < sections.length; ++layer) {
+			int nextLayer = (layer + 1) % sections.length;
+			fromColumns[layer] = (layer == 0) ? 0 : sections[layer].beginColumn();
+			toColumns[layer] = (nextLayer == 0) ? c : sections[nextLayer].beginColumn();
+		}
+		rowsTable.compileLabels(fromColumns, toColumns);
+		
 		logger.debug("Layers count is " + sections.length);
 	}
 
+	private static boolean sameShape(ConvCodeSpanForm a, ConvCodeSpanForm b) {
+		return a.matrix.getRowCount() == b.matrix.getRowCount()
+				&& a.matrix.getColumnCount() == b.matrix.getColumnCount()
+				&& Arrays.equals(a.degrees, b.degrees)
+				&& Arrays.equals(a.spanHeads, b.spanHeads)
+				&& Arrays.equals(a.spanTails, b.spanTails);
+	}
+
+	/**
+	 * Количество секций, метки которых взяты из решетки, переданной в конструктор.
+	 */
+	public int reusedSections() {
+		return reusedSections;
+	}
+
 	@Override
 	public ITrellisIterator iterator(int layer, long vertexIndex) {
 		return new Iterator(layer, vertexIndex);
@@ -264,19 +282,11 @@ public class ConvCodeTrellis  implements ITrellis {
 
 	@Override
 	public long layerSize(int layer) {
-		return 1 << layerComplexity(layer);
+		return 1L << layerComplexity(layer);
 	}
 
 	public int layerComplexity(int layer) {
-		int column = sections[layer].beginColumn();
-		int activeRowsCount = 0;
-		for (int row = 0; row < spanForm.matrix.getRowCount(); ++row) {
-			if (spanForm.isRowActiveBefore(column, row)) {
-				++activeRowsCount;
-			}
-		}
-		
-		return activeRowsCount;
+		return rowsTable.activeRowsCount(layer);
 	}
 	
 	@Override
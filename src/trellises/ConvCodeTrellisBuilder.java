@@ -0,0 +1,46 @@
+package trellises;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import math.ConvCodeSpanForm;
+
+/**
+ * Построитель решеток для последовательности близких сверточных кодов, например, кодов из
+ * перечислителя. Каждая решетка строится на основе последней построенной
+ * ({@link ConvCodeTrellis#ConvCodeTrellis(ConvCodeSpanForm, boolean, ConvCodeTrellis)}), так что для
+ * кодов с одинаковой формой спеновой формы пересчитываются только метки измененных секций.
+ *
+ * Построитель можно использовать из нескольких потоков: последняя решетка публикуется через
+ * volatile поле, и каждый поток берет за основу ту, которую успел увидеть.
+ *
+ * @author stas
+ *
+ */
+public class ConvCodeTrellisBuilder {
+	private volatile ConvCodeTrellis last;
+	private final AtomicLong trellises = new AtomicLong();
+	private final AtomicLong sections = new AtomicLong();
+	private final AtomicLong reusedSections = new AtomicLong();
+
+	public ConvCodeTrellis build(ConvCodeSpanForm spanForm) {
+		ConvCodeTrellis trellis = new ConvCodeTrellis(spanForm, false, last);
+		last = trellis;
+
+		trellises.incrementAndGet();
+		sections.addAndGet(trellis.layersCount());
+		reusedSections.addAndGet(trellis.reusedSections());
+		return trellis;
+	}
+
+	public long getTrellisesCount() {
+		return trellises.get();
+	}
+
+	public long getSectionsCount() {
+		return sections.get();
+	}
+
+	public long getReusedSectionsCount() {
+		return reusedSections.get();
+	}
+}
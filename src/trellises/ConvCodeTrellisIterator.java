@@ -16,6 +16,7 @@ public class ConvCodeTrellisIterator implements ITrellisIterator {
 	final Trellis trellis;
 	int depth;
 	int vertexIndex;
+	private EdgeArrayCursor edgeCursor;
 	
 	ConvCodeTrellisIterator(Trellis trellis, int depth, int vertexIndex) {
 		this.trellis = trellis;
@@ -72,6 +73,22 @@ public class ConvCodeTrellisIterator implements ITrellisIterator {
 		--depth;
 	}
 	
+	@Override
+	public ITrellisEdgeCursor forwardEdges() {
+		if (edgeCursor == null) {
+			edgeCursor = new EdgeArrayCursor();
+		}
+		return edgeCursor.reset(getAccessors(), true);
+	}
+
+	@Override
+	public ITrellisEdgeCursor backwardEdges() {
+		if (edgeCursor == null) {
+			edgeCursor = new EdgeArrayCursor();
+		}
+		return edgeCursor.reset(getPredecessors(), false);
+	}
+
 	@Override
 	public ITrellisIterator clone() {
 		return new ConvCodeTrellisIterator(trellis, depth, vertexIndex);
@@ -7,6 +7,7 @@ public class CyclicTrellisIterator implements ITrellisIterator {
 	final Trellis trellis;
 	int layer;
 	int vertexIndex;
+	private EdgeArrayCursor edgeCursor;
 	
 	public CyclicTrellisIterator(Trellis trellis, int layer, int vertexIndex) {
 		this.trellis = trellis;
@@ -56,6 +57,22 @@ public class CyclicTrellisIterator implements ITrellisIterator {
 		return vertexIndex;
 	}
 
+	@Override
+	public ITrellisEdgeCursor forwardEdges() {
+		if (edgeCursor == null) {
+			edgeCursor = new EdgeArrayCursor();
+		}
+		return edgeCursor.reset(getAccessors(), true);
+	}
+
+	@Override
+	public ITrellisEdgeCursor backwardEdges() {
+		if (edgeCursor == null) {
+			edgeCursor = new EdgeArrayCursor();
+		}
+		return edgeCursor.reset(getPredecessors(), false);
+	}
+
 	@Override
 	public ITrellisIterator clone() {
 		return new CyclicTrellisIterator(trellis, layer, vertexIndex);
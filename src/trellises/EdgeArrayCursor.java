@@ -0,0 +1,73 @@
+package trellises;
+
+/**
+ * Курсор по готовому массиву ребер. Используется решетками, которые хранят ребра
+ * в явном виде или строят их массивом, сам курсор память не выделяет.
+ *
+ * @author stas
+ *
+ */
+public class EdgeArrayCursor implements ITrellisEdgeCursor {
+	private ITrellisEdge edges[];
+	private boolean forward;
+	private int index;
+
+	public EdgeArrayCursor() {
+		edges = new ITrellisEdge[0];
+	}
+
+	/**
+	 * Устанавливает курсор перед первым ребром массива.
+	 * @param forward true для исходящих ребер, false для входящих
+	 * @return этот курсор
+	 */
+	public EdgeArrayCursor reset(ITrellisEdge edges[], boolean forward) {
+		this.edges = edges;
+		this.forward = forward;
+		this.index = -1;
+		return this;
+	}
+
+	@Override
+	public boolean next() {
+		if (index < edges.length) {
+			++index;
+		}
+		return index < edges.length;
+	}
+
+	@Override
+	public int index() {
+		return index;
+	}
+
+	@Override
+	public long src() {
+		return edges[index].src();
+	}
+
+	@Override
+	public long dst() {
+		return edges[index].dst();
+	}
+
+	@Override
+	public long target() {
+		return forward ? edges[index].dst() : edges[index].src();
+	}
+
+	@Override
+	public int bitsCount() {
+		return edges[index].bits().getFixedSize();
+	}
+
+	@Override
+	public long word(int wordIndex) {
+		return edges[index].bits().getWord(wordIndex);
+	}
+
+	@Override
+	public int metric(int i) {
+		return edges[index].metric(i);
+	}
+}
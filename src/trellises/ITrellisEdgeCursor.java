@@ -0,0 +1,57 @@
+package trellises;
+
+/**
+ * Курсор по ребрам вершины решетки: вместо массива объектов ребер выдает параметры
+ * текущего ребра через примитивные методы и не выделяет память при переборе.
+ *
+ * Курсор принадлежит итератору, который его вернул, и переиспользуется: повторный вызов
+ * {@link ITrellisIterator#forwardEdges()} или {@link ITrellisIterator#backwardEdges()} сбрасывает
+ * его, а после перемещения итератора значения курсора не определены. Клоны итератора
+ * получают собственные курсоры.
+ *
+ * Пример обхода:
+ * <pre>
+ * ITrellisEdgeCursor edges = iterator.forwardEdges();
+ * while (edges.next()) {
+ *     ... edges.index(), edges.target(), edges.metric(0) ...
+ * }
+ * </pre>
+ *
+ * @author stas
+ *
+ */
+public interface ITrellisEdgeCursor {
+	/**
+	 * Переходит к следующему ребру, до первого вызова курсор стоит перед первым ребром.
+	 * Порядок ребер может не совпадать с их номерами, но первым всегда идет ребро с номером 0.
+	 * @return <code>false</code>, если ребра закончились
+	 */
+	public boolean next();
+	/**
+	 * @return номер текущего ребра, который передается в {@link ITrellisIterator#moveForward(int)}
+	 * или {@link ITrellisIterator#moveBackward(int)}
+	 */
+	public int index();
+	/**
+	 * @return индекс вершины, из которой выходит ребро
+	 */
+	public long src();
+	/**
+	 * @return индекс вершины, в которую ведет ребро
+	 */
+	public long dst();
+	/**
+	 * @return индекс вершины на другом конце ребра: <code>dst()</code> для исходящих ребер,
+	 * <code>src()</code> для входящих
+	 */
+	public long target();
+	/**
+	 * @return количество бит в метке ребра
+	 */
+	public int bitsCount();
+	/**
+	 * Слово метки ребра в формате {@link math.BitArray#getWord(int)}.
+	 */
+	public long word(int wordIndex);
+	public int metric(int i);
+}
@@ -13,6 +13,17 @@ public interface ITrellisIterator extends Cloneable {
 	
 	public ITrellisEdge[] getAccessors();
 	public ITrellisEdge[] getPredecessors();
+	/**
+	 * Курсор по ребрам, исходящим из текущей вершины, в отличие от {@link #getAccessors()}
+	 * не выделяет память на каждое ребро.
+	 * @see ITrellisEdgeCursor
+	 */
+	public ITrellisEdgeCursor forwardEdges();
+	/**
+	 * Курсор по ребрам, входящим в текущую вершину.
+	 * @see ITrellisEdgeCursor
+	 */
+	public ITrellisEdgeCursor backwardEdges();
 	
 
 	public int layer();
@@ -12,6 +12,7 @@ public class LightTrellis implements ITrellis {
 	public class Iterator implements ITrellisIterator {
 		int layer;
 		int vertexIndex;
+		private EdgeArrayCursor edgeCursor;
 		
 		public Iterator(int layer, int vertexIndex) {
 			this.layer = layer;
@@ -69,6 +70,22 @@ public class LightTrellis implements ITrellis {
 			return vertexIndex;
 		}
 		
+		@Override
+		public ITrellisEdgeCursor forwardEdges() {
+			if (edgeCursor == null) {
+				edgeCursor = new EdgeArrayCursor();
+			}
+			return edgeCursor.reset(getAccessors(), true);
+		}
+
+		@Override
+		public ITrellisEdgeCursor backwardEdges() {
+			if (edgeCursor == null) {
+				edgeCursor = new EdgeArrayCursor();
+			}
+			return edgeCursor.reset(getPredecessors(), false);
+		}
+
 		@Override
 		public Iterator clone() {
 			return new Iterator(layer, vertexIndex);
@@ -59,6 +59,16 @@ public class TBCodeTrellisIterator implements ITrellisIterator {
 		return iter.getPredecessors();
 	}
 
+	@Override
+	public ITrellisEdgeCursor forwardEdges() {
+		return iter.forwardEdges();
+	}
+
+	@Override
+	public ITrellisEdgeCursor backwardEdges() {
+		return iter.backwardEdges();
+	}
+
 	@Override
 	public boolean hasBackward() {
 		return layer > 0;
@@ -1,5 +1,7 @@
 package trellises;
 
+import math.ConvCodeSpanForm;
+
 public class TailbitingCodeTrellis implements ITrellis {
 	ITrellis trellis;
 	int cycles;
@@ -8,6 +10,14 @@ public class TailbitingCodeTrellis implements ITrellis {
 		this((ITrellis)trellis, cycles);
 	}
 	
+	/**
+	 * Создает решетку tailbiting кода по спеновой форме сверточного кода.
+	 * @param compiledLabels использовать скомпилированные метки ребер, см. {@link ConvCodeTrellis#ConvCodeTrellis(ConvCodeSpanForm, boolean)}
+	 */
+	public TailbitingCodeTrellis(ConvCodeSpanForm spanForm, int cycles, boolean compiledLabels) {
+		this(new ConvCodeTrellis(spanForm, compiledLabels), cycles);
+	}
+	
 	/**
 	 * Создает решетку tailbiting кода на лету на основе решетки сверточного кода. Входная решетка <code>trellis</code> должна быть циклической.
 	 * @param trellis решетка сверточного кода.
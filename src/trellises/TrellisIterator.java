@@ -7,6 +7,7 @@ public class TrellisIterator implements ITrellisIterator {
 	final Trellis trellis;
 	int layer;
 	int vertexIndex;
+	private EdgeArrayCursor edgeCursor;
 	
 	public TrellisIterator(final Trellis trellis, int layer, int vertexIndex) {
 		this.trellis = trellis;
@@ -64,6 +65,22 @@ public class TrellisIterator implements ITrellisIterator {
 		return vertexIndex;
 	}
 
+	@Override
+	public ITrellisEdgeCursor forwardEdges() {
+		if (edgeCursor == null) {
+			edgeCursor = new EdgeArrayCursor();
+		}
+		return edgeCursor.reset(getAccessors(), true);
+	}
+
+	@Override
+	public ITrellisEdgeCursor backwardEdges() {
+		if (edgeCursor == null) {
+			edgeCursor = new EdgeArrayCursor();
+		}
+		return edgeCursor.reset(getPredecessors(), false);
+	}
+
 	@Override
 	public ITrellisIterator clone() {
 		return new TrellisIterator(trellis, layer, vertexIndex);
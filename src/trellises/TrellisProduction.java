@@ -9,6 +9,7 @@ public class TrellisProduction implements ITrellis {
 
 	public class Iterator implements ITrellisIterator {
 		final ITrellisIterator iter1, iter2;
+		private EdgeArrayCursor edgeCursor;
 		
 		public Iterator(int layer, long vertexIndex) {
 			iter1 = trellis1.iterator(layer, vertexIndex % trellis1.layerSize(layer));
@@ -113,6 +114,22 @@ public class TrellisProduction implements ITrellis {
 		public long vertexIndex() {
 			return iter1.vertexIndex() + iter2.vertexIndex() * trellis1.layerSize(layer());
 		}
+
+		@Override
+		public ITrellisEdgeCursor forwardEdges() {
+			if (edgeCursor == null) {
+				edgeCursor = new EdgeArrayCursor();
+			}
+			return edgeCursor.reset(getAccessors(), true);
+		}
+
+		@Override
+		public ITrellisEdgeCursor backwardEdges() {
+			if (edgeCursor == null) {
+				edgeCursor = new EdgeArrayCursor();
+			}
+			return edgeCursor.reset(getPredecessors(), false);
+		}
 		
 		public Iterator clone() {
 			return new Iterator(iter1, iter2);
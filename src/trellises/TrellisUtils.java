@@ -41,6 +41,18 @@ public class TrellisUtils {
 		return sumRows;
 	}
 
+	/**
+	 * Возвращает номера рядов в виде упорядоченного массива.
+	 */
+	public static int[] toArray(SortedSet<Integer> rows) {
+		int array[] = new int[rows.size()];
+		int i = 0;
+		for (int row : rows) {
+			array[i++] = row;
+		}
+		return array;
+	}
+
 	/**
 	 * Возвращает индекс вершины в ярусе, соотвествующий рядам 
 	 * <code>sumRows</code>.
@@ -17,6 +17,7 @@ public class Trellises {
 		public class Iterator implements ITrellisIterator {
 			private ITrellisIterator iterator;
 			private int position;
+			private EdgeArrayCursor edgeCursor;
 			
 			private class EdgeWrapper implements ITrellisEdge {
 				private ITrellisEdge edge;
@@ -117,6 +118,22 @@ public class Trellises {
 			public long vertexIndex() { 
 				return iterator.vertexIndex();
 			}
+
+			@Override
+			public ITrellisEdgeCursor forwardEdges() {
+				if (edgeCursor == null) {
+					edgeCursor = new EdgeArrayCursor();
+				}
+				return edgeCursor.reset(getAccessors(), true);
+			}
+
+			@Override
+			public ITrellisEdgeCursor backwardEdges() {
+				if (edgeCursor == null) {
+					edgeCursor = new EdgeArrayCursor();
+				}
+				return edgeCursor.reset(getPredecessors(), false);
+			}
 			
 			@Override
 			public Iterator clone() {
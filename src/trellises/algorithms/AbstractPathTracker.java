@@ -3,7 +3,7 @@ package trellises.algorithms;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-import trellises.ITrellisEdge;
+import trellises.ITrellisEdgeCursor;
 import trellises.ITrellisIterator;
 
 public abstract class AbstractPathTracker<T extends AbstractPathTracker<T>> implements PathTracker<T>, Comparable<PathTracker<?>> {
@@ -59,16 +59,12 @@ public abstract class AbstractPathTracker<T extends AbstractPathTracker<T>> impl
 
 	@Override
 	public Iterator<T> forwardIterator() {
-		final ITrellisEdge edges[] = iterator.getAccessors();
-		
-		return new ForwardIterator(edges);
+		return new ForwardIterator(iterator.forwardEdges());
 	}
 
 	@Override
 	public Iterator<T> backwardIterator() {
-		final ITrellisEdge edges[] = iterator.getPredecessors();
-		
-		return new BackwardIterator(edges);
+		return new BackwardIterator(iterator.backwardEdges());
 	}
 
 	public abstract T clone();
@@ -96,65 +92,64 @@ public abstract class AbstractPathTracker<T extends AbstractPathTracker<T>> impl
 		return "(" + iterator.layer() + ", " + iterator.vertexIndex() + ", w: " + weight + ")";
 	}
 
-	private class ForwardIterator implements java.util.Iterator<T> {
-		int i;
-		final ITrellisEdge edges[];
+	/**
+	 * Итератор по соседним вершинам поверх курсора ребер итератора решетки. Курсор
+	 * принадлежит итератору этой вершины, поэтому одновременно допустим только один
+	 * такой итератор на вершину.
+	 */
+	private abstract class EdgesIterator implements java.util.Iterator<T> {
+		final ITrellisEdgeCursor edges;
+		boolean hasNext;
 		
-		ForwardIterator(ITrellisEdge edges[]) {
-			this.i = 0;
+		EdgesIterator(ITrellisEdgeCursor edges) {
 			this.edges = edges;
+			this.hasNext = edges.next();
 		}
+
 		@Override
 		public boolean hasNext() {
-			return i < edges.length;
+			return hasNext;
 		}
 
 		@Override
 		public T next() {
-			try {
-				final T tracker = T.this.clone();
-				tracker.iterator.moveForward(i);
-				tracker.weight += edges[i++].metric(metric);
-				return tracker;
-			} catch (NullPointerException e) {
-				throw new NoSuchElementException(e.getMessage());
+			if (!hasNext) {
+				throw new NoSuchElementException();
 			}
+			final T tracker = AbstractPathTracker.this.clone();
+			move(tracker.iterator, edges.index());
+			tracker.weight += edges.metric(metric);
+			hasNext = edges.next();
+			return tracker;
 		}
 
+		abstract void move(ITrellisIterator iterator, int edgeIndex);
+
 		@Override
 		public void remove() {
 			throw new UnsupportedOperationException();
 		}
 	}
 
-	private class BackwardIterator implements java.util.Iterator<T> {
-		int i;
-		final ITrellisEdge edges[];
-		
-		BackwardIterator(ITrellisEdge edges[]) {
-			this.i = 0;
-			this.edges = edges;
+	private class ForwardIterator extends EdgesIterator {
+		ForwardIterator(ITrellisEdgeCursor edges) {
+			super(edges);
 		}
+
 		@Override
-		public boolean hasNext() {
-			return i < edges.length;
+		void move(ITrellisIterator iterator, int edgeIndex) {
+			iterator.moveForward(edgeIndex);
 		}
+	}
 
-		@Override
-		public T next() {
-			try {
-				final T tracker = T.this.clone();
-				tracker.iterator.moveBackward(i);
-				tracker.weight += edges[i++].metric(metric);
-				return tracker;
-			} catch (NullPointerException e) {
-				throw new NoSuchElementException(e.getMessage());
-			}
+	private class BackwardIterator extends EdgesIterator {
+		BackwardIterator(ITrellisEdgeCursor edges) {
+			super(edges);
 		}
 
 		@Override
-		public void remove() {
-			throw new UnsupportedOperationException();
+		void move(ITrellisIterator iterator, int edgeIndex) {
+			iterator.moveBackward(edgeIndex);
 		}
 	}
 }
@@ -2,14 +2,20 @@ package trellises.algorithms;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import trellises.ITrellisEdge;
+import trellises.ITrellis;
+import trellises.ITrellisEdgeCursor;
 import trellises.ITrellisIterator;
 
 /**
@@ -20,6 +26,15 @@ import trellises.ITrellisIterator;
 public class BeastAlgorithm {
 	private static Logger logger = LoggerFactory.getLogger(BeastAlgorithm.class);
 
+	/**
+	 * Минимальный размер фронта, начиная с которого он раскрывается параллельно, по умолчанию.
+	 */
+	public static final int PARALLEL_MIN_FRONT_SIZE = 1 << 12;
+	/**
+	 * Количество частей фронта на один процессор при параллельном раскрытии.
+	 */
+	private static final int PARTS_PER_PROCESSOR = 4;
+
 	static public int comparePathTrackers(PathTracker<?> a, PathTracker<?> b) {
 		if (a.layer() == b.layer()) {
 			return (int) (a.vertexIndex() - b.vertexIndex());
@@ -28,7 +43,7 @@ public class BeastAlgorithm {
 	}
 
 	static public <T extends PathTracker<T>> Front<T> getBestFront() {
-		return new ArrayLayeredFront<T>();
+		return new LongHashLayeredFront<T>();
 //		return new HashMapLayeredFront<T>();
 //		return new TreeSetFront<T>();
 	}
@@ -47,11 +62,30 @@ public class BeastAlgorithm {
 	 *  <code>toor</code> лежат на нулевом пути, и ищутся все ненулевые пути между ними.  
 	 */
 	public static int countMinDist(final ITrellisIterator root, final ITrellisIterator toor, int metric, int upperBound) {
+		return countMinDist(root, toor, metric, upperBound, null);
+	}
+
+	/**
+	 * Параллельный вариант {@link #countMinDist(ITrellisIterator, ITrellisIterator, int, int)}, 
+	 * фронты раскрываются задачами, выполняемыми <code>executor</code>. Результат совпадает 
+	 * с результатом последовательного алгоритма.
+	 * 
+	 * @param executor пул потоков для раскрытия фронтов, <code>null</code> - последовательный алгоритм
+	 */
+	public static int countMinDist(final ITrellisIterator root, final ITrellisIterator toor, int metric, int upperBound, ExecutorService executor) {
+		return countMinDist(root, toor, metric, upperBound, executor, PARALLEL_MIN_FRONT_SIZE);
+	}
+
+	/**
+	 * @param parallelMinFrontSize минимальный размер фронта, который раскрывается параллельно
+	 */
+	public static int countMinDist(final ITrellisIterator root, final ITrellisIterator toor, int metric, int upperBound, 
+			ExecutorService executor, int parallelMinFrontSize) {
 		final PathWeightCounter rootPath = new PathWeightCounter(root, metric);
 		final PathWeightCounter toorPath = new PathWeightCounter(toor, metric);
 
 		MinWeightCounter<PathWeightCounter> trackProcessor = new MinWeightCounter<PathWeightCounter>(); 
-		findOptimalTrack(rootPath, toorPath, upperBound, trackProcessor);
+		findOptimalTrack(rootPath, toorPath, upperBound, trackProcessor, executor, parallelMinFrontSize);
 		int minDist = trackProcessor.getMinWeight();
 		int minLayer = trackProcessor.getMinLayer();
 		long minVertexIndex = trackProcessor.getMinVertexIndex();
@@ -61,6 +95,42 @@ public class BeastAlgorithm {
 		return minDist;
 	}
 
+	/**
+	 * Проверяет, есть ли между вершинами <code>root</code> и <code>toor</code> ненулевой путь
+	 * веса меньше <code>weight</code>, т.е. верно ли, что min/free dist меньше <code>weight</code>.
+	 * 
+	 * В отличие от {@link #countMinDist(ITrellisIterator, ITrellisIterator, int, int)}, 
+	 * <code>weight</code> здесь не страховочная оценка: раскрытие фронтов прекращается, как только 
+	 * сумма порогов прямого и обратного фронтов достигает <code>weight</code> (все пути меньшего 
+	 * веса к этому моменту уже найдены), или на первом раунде, в котором найден ненулевой путь. 
+	 * Для кодов, отбраковываемых поиском, это заметно дешевле вычисления расстояния.
+	 */
+	public static boolean hasPathLighterThan(final ITrellisIterator root, final ITrellisIterator toor, int metric, int weight) {
+		return hasPathLighterThan(root, toor, metric, weight, null);
+	}
+
+	/**
+	 * Параллельный вариант {@link #hasPathLighterThan(ITrellisIterator, ITrellisIterator, int, int)}.
+	 * @param executor пул потоков для раскрытия фронтов, <code>null</code> - последовательный алгоритм
+	 */
+	public static boolean hasPathLighterThan(final ITrellisIterator root, final ITrellisIterator toor, int metric, int weight, ExecutorService executor) {
+		if (weight <= 0) {
+			return false;
+		}
+		
+		final PathWeightCounter rootPath = new PathWeightCounter(root, metric);
+		final PathWeightCounter toorPath = new PathWeightCounter(toor, metric);
+
+		MinWeightCounter<PathWeightCounter> trackProcessor = new MinWeightCounter<PathWeightCounter>(); 
+		// цикл в findOptimalTrack раскрывает фронты, пока сумма порогов не превышает upperBound,
+		// последний раунд доводит ее до weight
+		findOptimalTrack(rootPath, toorPath, weight - 1, trackProcessor, executor);
+		
+		logger.debug("weight = {}, found track weight = {}", weight, trackProcessor.getMinWeight());
+		
+		return trackProcessor.getMinWeight() < weight;
+	}
+
 	/**
 	 * Алгоритм BEAST для поиска минимального/свободного расстояния кода в решетке.
 	 * 
@@ -115,6 +185,37 @@ public class BeastAlgorithm {
 	 * @return произвольный один из кратчайших ненулевых путей между вершинами root и toor
 	 */
 	public static <T extends PathTracker<T>> void findOptimalTrack(final T root, final T toor, final int upperBound, final TrackProcessor<T> trackProcessor) {
+		findOptimalTrack(root, toor, upperBound, trackProcessor, null);
+	}
+
+	/**
+	 * Вариант {@link #findOptimalTrack(PathTracker, PathTracker, int, TrackProcessor)} с параллельным
+	 * раскрытием фронтов. 
+	 * 
+	 * Раскрытие фронта идет раундами: все вершины текущего фронта с весом меньше порога 
+	 * раскрываются, а полученные вершины попадают в новый фронт или во фронт следующего 
+	 * раунда, где из эквивалентных путей остается путь минимального веса. Результат раунда 
+	 * не зависит от порядка раскрытия вершин, поэтому достаточно большие фронты делятся на части, 
+	 * которые раскрываются независимо в локальные фронты, а затем объединяются. Таким образом, 
+	 * веса вершин во фронтах и найденные треки совпадают с последовательным алгоритмом.
+	 * 
+	 * Процедуры T.forwardIterator() и T.backwardIterator() вызываются из разных потоков, 
+	 * итераторы решетки при этом не должны изменять общих данных.
+	 * 
+	 * @param executor пул потоков для раскрытия фронтов, <code>null</code> - последовательный алгоритм
+	 */
+	public static <T extends PathTracker<T>> void findOptimalTrack(final T root, final T toor, final int upperBound, final TrackProcessor<T> trackProcessor, ExecutorService executor) {
+		findOptimalTrack(root, toor, upperBound, trackProcessor, executor, PARALLEL_MIN_FRONT_SIZE);
+	}
+
+	/**
+	 * @param parallelMinFrontSize минимальный размер фронта, который раскрывается параллельно
+	 */
+	public static <T extends PathTracker<T>> void findOptimalTrack(final T root, final T toor, final int upperBound, final TrackProcessor<T> trackProcessor, 
+			ExecutorService executor, int parallelMinFrontSize) {
+		if (parallelMinFrontSize <= 0) {
+			throw new IllegalArgumentException("Minimal parallel front size should be positive: " + parallelMinFrontSize);
+		}
 		Front<T> Forward = getBestFront(), Backward = getBestFront();
 		int tresholdForward = 0, tresholdBackward = 0;
 	
@@ -139,10 +240,10 @@ public class BeastAlgorithm {
 		while (tresholdForward + tresholdBackward <= upperBound && !trackFound) {
 			if (Forward.size() < Backward.size()) {
 				++tresholdForward;
-				Forward = findForwardFront(Forward, tresholdForward, root);
+				Forward = findForwardFront(Forward, tresholdForward, root, executor, parallelMinFrontSize);
 			} else {
 				++tresholdBackward;
-				Backward = findBackwardFront(Backward, tresholdBackward);
+				Backward = findBackwardFront(Backward, tresholdBackward, executor, parallelMinFrontSize);
 			}
 
 			logger.debug("Forward size = {}, Backward size = {}", Forward.size(), Backward.size());
@@ -162,6 +263,17 @@ public class BeastAlgorithm {
 		}
 	}
 	
+	/**
+	 * Вычисляет спектр путей решетки сверточного кода, отходящих от нулевого пути в нулевом ярусе,
+	 * до веса <code>maxWeight</code> включительно.
+	 * 
+	 * @return массив длины <code>maxWeight</code>, (w - 1)-й элемент - число путей веса w
+	 * @see SpectrumCounter
+	 */
+	public static long[] findSpectrum(ITrellis trellis, int maxWeight, int metric) {
+		return new SpectrumCounter(trellis, metric).findSpectrum(maxWeight);
+	}
+	
 	public static long[] findSpectrum(ITrellisIterator root, ITrellisIterator toor, int maxWeight, int metric) {
 		TreeMap<Integer, TreeSet<PathCounter>> forwards = new TreeMap<Integer, TreeSet<PathCounter>>();
 		TreeMap<Integer, TreeSet<PathCounter>> backwards = new TreeMap<Integer, TreeSet<PathCounter>>();
@@ -268,16 +380,16 @@ public class BeastAlgorithm {
 						continue;
 					}
 					// идем из вершины вперед.
-					for (int i = 0; i < vertex.iterator.getAccessors().length; ++i) {
-						ITrellisEdge edge = vertex.iterator.getAccessors()[i];
-						if (vertex.iterator.vertexIndex() == 0 && edge.metric(metric) == 0) {
+					ITrellisEdgeCursor edges = vertex.iterator.forwardEdges();
+					while (edges.next()) {
+						if (vertex.iterator.vertexIndex() == 0 && edges.metric(metric) == 0) {
 							// Запрещаем нулевой путь
 							continue;
 						}
 
 						PathCounter newVertex = new PathCounter(vertex);
-						newVertex.iterator.moveForward(i);
-						newVertex.weight += edge.metric(metric);
+						newVertex.iterator.moveForward(edges.index());
+						newVertex.weight += edges.metric(metric);
 
 						if (newVertex.weight >= weight) {
 							if (newForwards.get(newVertex.weight) == null) {
@@ -338,16 +450,16 @@ public class BeastAlgorithm {
 						continue;
 					}
 					// идем из вершины назад.
-					for (int i = 0; i < vertex.iterator.getPredecessors().length; ++i) {
-						ITrellisEdge edge = vertex.iterator.getPredecessors()[i];
-						if (vertex.iterator.vertexIndex() == 0 && edge.metric(metric) == 0) {
+					ITrellisEdgeCursor edges = vertex.iterator.backwardEdges();
+					while (edges.next()) {
+						if (vertex.iterator.vertexIndex() == 0 && edges.metric(metric) == 0) {
 							// Запрещаем нулевой путь
 							continue;
 						}
 
 						PathCounter newVertex = new PathCounter(vertex);
-						newVertex.iterator.moveBackward(i);
-						newVertex.weight += edge.metric(metric);
+						newVertex.iterator.moveBackward(edges.index());
+						newVertex.weight += edges.metric(metric);
 
 						if (newVertex.weight > weight) {
 							if (newBackwards.get(vertex.weight) == null) {
@@ -392,55 +504,21 @@ public class BeastAlgorithm {
 	 */
 	
 	private static <T extends PathTracker<T>> Front<T> findForwardFront(Front<T> Forward,
-			final int tresholdForward, final PathTracker<T> root) {
+			final int tresholdForward, final PathTracker<T> root, ExecutorService executor, int parallelMinFrontSize) {
 		logger.debug("tresholdForward = {}", tresholdForward);
 		
 		Front<T> newForward = getBestFront();
+		FrontExpansion<T> expansion = new FrontExpansion<T>() {
+			@Override
+			void expand(T vertex, Front<T> newForward, Front<T> oldForward) {
+				expandForward(vertex, tresholdForward, root, newForward, oldForward);
+			}
+		};
 		
 		while (!Forward.isEmpty()) {
 			final Front<T> oldForward = getBestFront();
 			
-			for (Iterator<T> iterator = Forward.iterator(); iterator.hasNext();) {
-				final T vertex = iterator.next();
-				iterator.remove();
-				
-				if (vertex.weight() >= tresholdForward) {
-					addTheLeastPath(newForward, vertex);
-					continue;
-				}
-				
-				if (!vertex.hasForward()) {
-					continue;
-				}
-				
-				// вес пути path < tresholdForward
-				Iterator<T> iter = vertex.forwardIterator(); 
-				if (vertex.vertexIndex() == 0 && vertex != root) {
-					T nextVertex = iter.next();
-					if (nextVertex.weight() == vertex.weight()) { // переход по нулевому ребру из нулевой вершины яруса - нулевой цикл
-						// проходим по всем вершинам нулевого цикла и сразу переходим из каждой из них по ненулевому пути.					
-						T zeroPath = nextVertex;
-						
-						while (zeroPath.layer() != vertex.layer() && zeroPath.hasForward()) {
-							Iterator<T> iter2 = zeroPath.forwardIterator();
-							T nextZeroPath = iter2.next();
-							while (iter2.hasNext()) {
-								T nonZeroVertex = iter2.next();
-								addToForwardFrontByTreshold(nonZeroVertex, tresholdForward, newForward, oldForward);
-							}
-							zeroPath = nextZeroPath;
-						}
-					} else {
-						addToForwardFrontByTreshold(nextVertex, tresholdForward, newForward, oldForward);
-					}
-				}
-				
-				while (iter.hasNext()) {
-					T nextVertex = iter.next();
-										
-					addToForwardFrontByTreshold(nextVertex, tresholdForward, newForward, oldForward);
-				}
-			}
+			expandFront(Forward, expansion, newForward, oldForward, executor, parallelMinFrontSize);
 			
 			Forward.addAll(oldForward);
 		}
@@ -449,6 +527,46 @@ public class BeastAlgorithm {
 		return newForward;
 	}
 
+	private static <T extends PathTracker<T>> void expandForward(final T vertex, final int tresholdForward, 
+			final PathTracker<T> root, final Front<T> newForward, final Front<T> oldForward) {
+		if (vertex.weight() >= tresholdForward) {
+			addTheLeastPath(newForward, vertex);
+			return;
+		}
+		
+		if (!vertex.hasForward()) {
+			return;
+		}
+		
+		// вес пути path < tresholdForward
+		Iterator<T> iter = vertex.forwardIterator(); 
+		if (vertex.vertexIndex() == 0 && vertex != root) {
+			T nextVertex = iter.next();
+			if (nextVertex.weight() == vertex.weight()) { // переход по нулевому ребру из нулевой вершины яруса - нулевой цикл
+				// проходим по всем вершинам нулевого цикла и сразу переходим из каждой из них по ненулевому пути.					
+				T zeroPath = nextVertex;
+				
+				while (zeroPath.layer() != vertex.layer() && zeroPath.hasForward()) {
+					Iterator<T> iter2 = zeroPath.forwardIterator();
+					T nextZeroPath = iter2.next();
+					while (iter2.hasNext()) {
+						T nonZeroVertex = iter2.next();
+						addToForwardFrontByTreshold(nonZeroVertex, tresholdForward, newForward, oldForward);
+					}
+					zeroPath = nextZeroPath;
+				}
+			} else {
+				addToForwardFrontByTreshold(nextVertex, tresholdForward, newForward, oldForward);
+			}
+		}
+		
+		while (iter.hasNext()) {
+			T nextVertex = iter.next();
+								
+			addToForwardFrontByTreshold(nextVertex, tresholdForward, newForward, oldForward);
+		}
+	}
+
 	/**
 	 * @param vertex
 	 * @param tresholdForward
@@ -465,43 +583,131 @@ public class BeastAlgorithm {
 	}
 
 	private static <T extends PathTracker<T>> Front<T> findBackwardFront(Front<T> Backward,
-			final int tresholdBackward) {
+			final int tresholdBackward, ExecutorService executor, int parallelMinFrontSize) {
 		logger.debug("tresholdBackward = {}", tresholdBackward);
 
 		Front<T> newBackward = getBestFront();
+		FrontExpansion<T> expansion = new FrontExpansion<T>() {
+			@Override
+			void expand(T vertex, Front<T> newBackward, Front<T> oldBackward) {
+				expandBackward(vertex, tresholdBackward, newBackward, oldBackward);
+			}
+		};
 		
 		while (!Backward.isEmpty()) {
 			final Front<T> oldBackward = getBestFront();
 			
-			for (Iterator<T> iterator = Backward.iterator(); iterator.hasNext();) {
+			expandFront(Backward, expansion, newBackward, oldBackward, executor, parallelMinFrontSize);
+			
+			Backward.addAll(oldBackward);
+		}
+		
+		logger.debug("newBackward: size = {}, {}",  newBackward.size(), newBackward);
+		return newBackward;
+	}
+
+	private static <T extends PathTracker<T>> void expandBackward(final T vertex, final int tresholdBackward, 
+			final Front<T> newBackward, final Front<T> oldBackward) {
+		if (!vertex.hasBackward()) {
+			return;
+		}
+		
+		Iterator<T> iter = vertex.backwardIterator();
+		if (vertex.vertexIndex() == 0) {
+			T nextVertex = iter.next();
+			if (nextVertex.weight() > vertex.weight()) {
+				addToBackwardByTreshold(tresholdBackward, newBackward,
+						oldBackward, vertex, nextVertex);
+			}
+		}
+		while (iter.hasNext()) {
+			T nextVertex = iter.next();
+			
+			addToBackwardByTreshold(tresholdBackward, newBackward,
+					oldBackward, vertex, nextVertex);
+		}
+	}
+
+	/**
+	 * Раскрытие одной вершины фронта.
+	 */
+	private static abstract class FrontExpansion<T extends PathTracker<T>> {
+		abstract void expand(T vertex, Front<T> newFront, Front<T> oldFront);
+	}
+	
+	/**
+	 * Один раунд раскрытия фронта: все вершины <code>front</code> удаляются из него и раскрываются
+	 * в <code>newFront</code> и <code>oldFront</code>. Если задан <code>executor</code> и фронт достаточно 
+	 * велик, части фронта раскрываются параллельно в локальные фронты, которые затем объединяются 
+	 * в порядке частей.
+	 */
+	private static <T extends PathTracker<T>> void expandFront(final Front<T> front, final FrontExpansion<T> expansion,
+			final Front<T> newFront, final Front<T> oldFront, ExecutorService executor, int parallelMinFrontSize) {
+		if (executor == null || front.size() < parallelMinFrontSize) {
+			for (Iterator<T> iterator = front.iterator(); iterator.hasNext();) {
 				final T vertex = iterator.next();
 				iterator.remove();
 				
-				if (!vertex.hasBackward()) {
-					continue;
+				expansion.expand(vertex, newFront, oldFront);
+			}
+			return;
+		}
+		
+		final ArrayList<T> vertices = new ArrayList<T>(front.size());
+		for (Iterator<T> iterator = front.iterator(); iterator.hasNext();) {
+			vertices.add(iterator.next());
+			iterator.remove();
+		}
+		
+		int parts = Math.min(Runtime.getRuntime().availableProcessors() * PARTS_PER_PROCESSOR, 
+				Math.max(vertices.size() * PARTS_PER_PROCESSOR / parallelMinFrontSize, 1));
+		List<Future<List<Front<T>>>> futures = new ArrayList<Future<List<Front<T>>>>(parts);
+		
+		for (int part = 0;part < parts; ++part) {
+			final int from = (int)((long)vertices.size() * part / parts);
+			final int to = (int)((long)vertices.size() * (part + 1) / parts);
+			
+			futures.add(executor.submit(new Callable<List<Front<T>>>() {
+				@Override
+				public List<Front<T>> call() throws Exception {
+					Front<T> localNew = getBestFront(), localOld = getBestFront();
+					
+					for (int i = from;i < to; ++i) {
+						expansion.expand(vertices.get(i), localNew, localOld);
+					}
+					
+					List<Front<T>> fronts = new ArrayList<Front<T>>(2);
+					fronts.add(localNew);
+					fronts.add(localOld);
+					return fronts;
 				}
+			}));
+		}
+		
+		try {
+			for (Future<List<Front<T>>> future : futures) {
+				List<Front<T>> fronts = future.get();
 				
-				Iterator<T> iter = vertex.backwardIterator();
-				if (vertex.vertexIndex() == 0) {
-					T nextVertex = iter.next();
-					if (nextVertex.weight() > vertex.weight()) {
-						addToBackwardByTreshold(tresholdBackward, newBackward,
-								oldBackward, vertex, nextVertex);
-					}
+				for (T vertex : fronts.get(0)) {
+					addTheLeastPath(newFront, vertex);
 				}
-				while (iter.hasNext()) {
-					T nextVertex = iter.next();
-					
-					addToBackwardByTreshold(tresholdBackward, newBackward,
-							oldBackward, vertex, nextVertex);
+				for (T vertex : fronts.get(1)) {
+					addTheLeastPath(oldFront, vertex);
 				}
 			}
-			
-			Backward.addAll(oldBackward);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Front expansion was interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException)e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			for (Future<List<Front<T>>> future : futures) {
+				future.cancel(true);
+			}
 		}
-		
-		logger.debug("newBackward: size = {}, {}",  newBackward.size(), newBackward);
-		return newBackward;
 	}
 
 	/**
@@ -0,0 +1,270 @@
+package trellises.algorithms;
+
+import math.BitArray;
+import trellises.ITrellis;
+
+/**
+ * Списочный декодер Витерби: для каждой вершины хранит <code>L</code> лучших выживших путей и
+ * выдает <code>L</code> лучших кодовых слов.
+ *
+ * Выжившие пути вершины - упорядоченный по метрике массив из не более чем <code>L</code> метрик и
+ * обратных указателей (номер входящего ребра, ранг пути в списке вершины-начала), сами пути
+ * не копируются, а восстанавливаются по указателям. Поскольку списки предшественников упорядочены,
+ * а метрика ребра одна на весь список, <code>L</code> лучших путей вершины получаются слиянием
+ * списков через кучу размера степени захода вершины, то есть за O(L log d) на вершину.
+ *
+ * Метрика - корреляционная для BPSK (0 передается как +1, 1 как -1). Жесткое решение сводится
+ * к ней подстановкой ±1, метрика таких путей пересчитывается в расстояние Хэмминга.
+ *
+ * Декодер хранит рабочие буферы и не является потокобезопасным.
+ *
+ * @author stas
+ *
+ */
+public class ListViterbiDecoder {
+	private final PredecessorTable table;
+	private final int listSize;
+
+	private float metrics[];
+	private float nextMetrics[];
+	private int counts[];
+	private int nextCounts[];
+	/**
+	 * Обратные указатели путей всех шагов: для пути ранга r вершины v шага - номер входящего
+	 * ребра * L + ранг пути в вершине-начале.
+	 */
+	private int pointers[] = new int[0];
+	private float branchMetrics[];
+	/**
+	 * Куча для слияния списков: ключ, номер списка, ранг в списке.
+	 */
+	private float heapKeys[];
+	private int heapLists[];
+	private int heapRanks[];
+	private int heapSize;
+
+	/**
+	 * @param trellis решетка кода, размеры ярусов должны помещаться в int
+	 * @param cyclic решетка сверточного кода, по которой можно пройти несколько циклов
+	 * @param listSize количество хранимых путей на вершину и выдаваемых слов
+	 */
+	public ListViterbiDecoder(ITrellis trellis, boolean cyclic, int listSize) {
+		if (listSize <= 0) {
+			throw new IllegalArgumentException("List size should be positive: " + listSize);
+		}
+		this.table = new PredecessorTable(trellis, cyclic);
+		this.listSize = listSize;
+
+		metrics = new float[table.maxLayerSize * listSize];
+		nextMetrics = new float[table.maxLayerSize * listSize];
+		counts = new int[table.maxLayerSize];
+		nextCounts = new int[table.maxLayerSize];
+		branchMetrics = new float[table.maxInDegree];
+		int heapCapacity = Math.max(table.maxInDegree, table.maxLayerSize);
+		heapKeys = new float[heapCapacity];
+		heapLists = new int[heapCapacity];
+		heapRanks = new int[heapCapacity];
+	}
+
+	/**
+	 * Декодирует слово с жестким решением, метрики результатов - расстояния Хэмминга.
+	 * @param startVertex вершина нулевого яруса, из которой начинаются пути, -1 - любая
+	 * @param endVertex вершина последнего яруса, в которой заканчиваются пути, -1 - любая
+	 * @return не более <code>L</code> решений в порядке возрастания метрики
+	 */
+	public ViterbiDecoder.Decision[] decode(BitArray received, int startVertex, int endVertex) {
+		float signal[] = new float[received.getFixedSize()];
+		for (int i = 0;i < signal.length; ++i) {
+			signal[i] = received.get(i) ? -1 : 1;
+		}
+
+		ViterbiDecoder.Decision decisions[] = decode(signal, startVertex, endVertex);
+		for (ViterbiDecoder.Decision decision : decisions) {
+			// корреляция = 2 * расстояние - длина
+			decision.metric = Math.round((decision.metric + signal.length) / 2);
+		}
+		return decisions;
+	}
+
+	/**
+	 * Декодирует слово с мягким решением.
+	 * @param received принятые значения, положительные соответствуют нулю
+	 * @see #decode(BitArray, int, int)
+	 */
+	public ViterbiDecoder.Decision[] decode(float received[], int startVertex, int endVertex) {
+		int positions[] = table.positions(received.length);
+		int steps = positions.length - 1;
+		int endLayer = steps % table.layersCount;
+
+		long cells = 0;
+		for (int s = 0;s < steps; ++s) {
+			cells += (long)table.layerSizes[(s + 1) % table.layersCount] * listSize;
+		}
+		if (cells > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Traceback memory is too large: " + cells + " pointers");
+		}
+		if (pointers.length < cells) {
+			pointers = new int[(int)cells];
+		}
+
+		for (int v = 0;v < table.layerSizes[0]; ++v) {
+			counts[v] = (startVertex < 0 || v == startVertex) ? 1 : 0;
+			metrics[v * listSize] = 0;
+		}
+
+		int base = 0;
+		for (int s = 0;s < steps; ++s) {
+			int section = s % table.layersCount;
+			int size = table.layerSizes[(section + 1) % table.layersCount];
+			int offsets[] = table.offsets[section];
+			int sources[] = table.sources[section];
+			int from = positions[s];
+			float sum = 0;
+			for (int i = from;i < positions[s + 1]; ++i) {
+				sum += received[i];
+			}
+
+			for (int v = 0;v < size; ++v) {
+				heapSize = 0;
+				for (int e = offsets[v];e < offsets[v + 1]; ++e) {
+					int i = e - offsets[v];
+					branchMetrics[i] = branchMetric(received, section, e, from, sum);
+					int src = sources[e];
+					if (counts[src] > 0) {
+						push(metrics[src * listSize] + branchMetrics[i], i, 0);
+					}
+				}
+
+				int count = 0;
+				while (heapSize > 0 && count < listSize) {
+					float key = heapKeys[0];
+					int i = heapLists[0], r = heapRanks[0];
+					pop();
+
+					nextMetrics[v * listSize + count] = key;
+					pointers[base + v * listSize + count] = i * listSize + r;
+					++count;
+
+					int src = sources[offsets[v] + i];
+					if (r + 1 < counts[src]) {
+						push(metrics[src * listSize + r + 1] + branchMetrics[i], i, r + 1);
+					}
+				}
+				nextCounts[v] = count;
+			}
+
+			base += size * listSize;
+			float tmpMetrics[] = metrics;
+			metrics = nextMetrics;
+			nextMetrics = tmpMetrics;
+			int tmpCounts[] = counts;
+			counts = nextCounts;
+			nextCounts = tmpCounts;
+		}
+
+		// слияние списков концевых вершин
+		heapSize = 0;
+		for (int v = 0;v < table.layerSizes[endLayer]; ++v) {
+			if ((endVertex < 0 || v == endVertex) && counts[v] > 0) {
+				push(metrics[v * listSize], v, 0);
+			}
+		}
+		ViterbiDecoder.Decision found[] = new ViterbiDecoder.Decision[listSize];
+		int count = 0;
+		while (heapSize > 0 && count < listSize) {
+			float key = heapKeys[0];
+			int v = heapLists[0], r = heapRanks[0];
+			pop();
+
+			found[count] = traceback(positions, v, r);
+			found[count].metric = key;
+			++count;
+			if (r + 1 < counts[v]) {
+				push(metrics[v * listSize + r + 1], v, r + 1);
+			}
+		}
+
+		ViterbiDecoder.Decision decisions[] = new ViterbiDecoder.Decision[count];
+		System.arraycopy(found, 0, decisions, 0, count);
+		return decisions;
+	}
+
+	/**
+	 * Корреляционная метрика ребра: -сумма по отрезку + 2 * сумма по единичным битам метки.
+	 */
+	private float branchMetric(float received[], int section, int e, int from, float sum) {
+		int words = table.words[section];
+		float ones = 0;
+		for (int w = 0;w < words; ++w) {
+			for (long mask = table.labels[section][e * words + w]; mask != 0; mask &= mask - 1) {
+				ones += received[from + w * Long.SIZE + Long.numberOfTrailingZeros(mask)];
+			}
+		}
+		return 2 * ones - sum;
+	}
+
+	private ViterbiDecoder.Decision traceback(int positions[], int end, int rank) {
+		int steps = positions.length - 1;
+		ViterbiDecoder.Decision decision = new ViterbiDecoder.Decision();
+		decision.codeWord = new BitArray(positions[steps]);
+		decision.endVertex = end;
+
+		int base = 0;
+		for (int s = 0;s < steps; ++s) {
+			base += table.layerSizes[(s + 1) % table.layersCount] * listSize;
+		}
+
+		int v = end, r = rank;
+		for (int s = steps - 1;s >= 0; --s) {
+			int section = s % table.layersCount;
+			base -= table.layerSizes[(section + 1) % table.layersCount] * listSize;
+			int pointer = pointers[base + v * listSize + r];
+			int e = table.offsets[section][v] + pointer / listSize;
+			table.writeLabel(decision.codeWord, section, e, positions[s]);
+			v = table.sources[section][e];
+			r = pointer % listSize;
+		}
+		decision.startVertex = v;
+		return decision;
+	}
+
+	private void push(float key, int list, int rank) {
+		int i = heapSize++;
+		while (i > 0) {
+			int parent = (i - 1) / 2;
+			if (heapKeys[parent] <= key) {
+				break;
+			}
+			heapKeys[i] = heapKeys[parent];
+			heapLists[i] = heapLists[parent];
+			heapRanks[i] = heapRanks[parent];
+			i = parent;
+		}
+		heapKeys[i] = key;
+		heapLists[i] = list;
+		heapRanks[i] = rank;
+	}
+
+	private void pop() {
+		--heapSize;
+		float key = heapKeys[heapSize];
+		int list = heapLists[heapSize], rank = heapRanks[heapSize];
+		int i = 0;
+		while (2 * i + 1 < heapSize) {
+			int child = 2 * i + 1;
+			if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+				++child;
+			}
+			if (key <= heapKeys[child]) {
+				break;
+			}
+			heapKeys[i] = heapKeys[child];
+			heapLists[i] = heapLists[child];
+			heapRanks[i] = heapRanks[child];
+			i = child;
+		}
+		heapKeys[i] = key;
+		heapLists[i] = list;
+		heapRanks[i] = rank;
+	}
+}
@@ -0,0 +1,211 @@
+package trellises.algorithms;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Фронт, ярусы которого хранятся в таблицах {@link LongObjectHashMap}: поиск вершины
+ * по индексу не упаковывает индекс в Long и не создает узлов HashMap.
+ *
+ * Таблицы опустевших ярусов возвращаются в пул текущего потока и используются
+ * следующими фронтами. BEAST на каждой итерации создает и опустошает множество
+ * фронтов, поэтому повторное использование таблиц заметно снижает нагрузку на сборщик мусора.
+ * Пул ограничен по числу и емкости таблиц, пулинг можно отключить в конструкторе.
+ *
+ * @author stas
+ *
+ * @param <T>
+ */
+public class LongHashLayeredFront<T extends PathTracker<T>> extends AbstractFront<T> implements Front<T> {
+	public static int LAYERS_MAX = ArrayLayeredFront.LAYERS_MAX;
+	/**
+	 * Максимальное количество таблиц в пуле одного потока.
+	 */
+	static final int POOL_SIZE = 256;
+	/**
+	 * Таблицы большей емкости в пул не возвращаются, чтобы обход небольших ярусов
+	 * не требовал просмотра большого количества пустых ячеек.
+	 */
+	static final int POOLED_CAPACITY_MAX = 1 << 12;
+
+	private static final ThreadLocal<ArrayDeque<LongObjectHashMap<?>>> pool = new ThreadLocal<ArrayDeque<LongObjectHashMap<?>>>() {
+		@Override
+		protected ArrayDeque<LongObjectHashMap<?>> initialValue() {
+			return new ArrayDeque<LongObjectHashMap<?>>();
+		}
+	};
+
+	protected LongObjectHashMap<T> layers[];
+	/**
+	 * Если фронт содержит хотя бы один не пустой ярус, {@code minLayer} равен индексу первого яруса, содержащего вершины, иначе <code>minLayer > maxLayer</code>.
+	 */
+	protected int minLayer = Integer.MAX_VALUE;
+	/**
+	 * Если фронт содержит хотя бы один не пустой ярус, {@code maxLayer} равен индексу последнего яруса, содержащего вершины, иначе <code>maxLayer < minLayer</code>.
+	 */
+	protected int maxLayer = Integer.MIN_VALUE;
+	private final boolean pooling;
+
+	public LongHashLayeredFront() {
+		this(LAYERS_MAX, true);
+	}
+
+	@SuppressWarnings("unchecked")
+	public LongHashLayeredFront(int layersNumber, boolean pooling) {
+		layers = (LongObjectHashMap<T>[])new LongObjectHashMap<?>[layersNumber];
+		this.pooling = pooling;
+	}
+
+	@SuppressWarnings("unchecked")
+	private LongObjectHashMap<T> acquireLayer() {
+		if (pooling) {
+			LongObjectHashMap<?> layer = pool.get().pollLast();
+			if (layer != null) {
+				return (LongObjectHashMap<T>)layer;
+			}
+		}
+		return new LongObjectHashMap<T>();
+	}
+
+	private void releaseLayer(LongObjectHashMap<T> layer) {
+		if (pooling && layer.capacity() <= POOLED_CAPACITY_MAX) {
+			ArrayDeque<LongObjectHashMap<?>> tables = pool.get();
+			if (tables.size() < POOL_SIZE) {
+				layer.clear();
+				tables.addLast(layer);
+			}
+		}
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T> () {
+			int layerIndex = minLayer - 1;
+			Iterator<T> iter = null;
+			@Override
+			public boolean hasNext() {
+				return (iter != null && iter.hasNext()) || layerIndex < maxLayer;
+			}
+
+			@Override
+			public T next() {
+				if (iter == null || !iter.hasNext()) {
+					if (layerIndex >= maxLayer) {
+						throw new NoSuchElementException();
+					}
+					do {
+						++layerIndex;
+					} while (layers[layerIndex] == null);
+
+					iter = layers[layerIndex].iterator();
+				}
+				return iter.next();
+			}
+
+			@Override
+			public void remove() {
+				iter.remove();
+				--size;
+				if (layers[layerIndex].isEmpty()) {
+					removeLayer(layerIndex);
+				}
+			}
+		};
+	}
+
+	@Override
+	public boolean add(T t) {
+		LongObjectHashMap<T> layerMap = layers[t.layer()];
+		if (layerMap == null) {
+			layerMap = acquireLayer();
+			layers[t.layer()] = layerMap;
+
+			minLayer = Math.min(minLayer, t.layer());
+			maxLayer = Math.max(maxLayer, t.layer());
+		}
+
+		if (layerMap.containsKey(t.vertexIndex())) {
+			return false;
+		}
+		layerMap.put(t.vertexIndex(), t);
+		++size;
+		return true;
+	}
+
+	@Override
+	public T get(int layer, long vertexIndex) {
+		LongObjectHashMap<T> layerMap = layers[layer];
+		if (layerMap == null) {
+			return null;
+		}
+		return layerMap.get(vertexIndex);
+	}
+
+	@Override
+	public Iterable<T> getLayer(int layer) {
+		return layers[layer];
+	}
+
+	@Override
+	public boolean remove(int layer, long vertexIndex) {
+		LongObjectHashMap<T> layerMap = layers[layer];
+		if (layerMap == null) {
+			return false;
+		}
+		T removed = layerMap.remove(vertexIndex);
+		if (removed != null) {
+			--size;
+			if (layerMap.isEmpty()) {
+				removeLayer(layer);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Таблица яруса возвращается в пул. Итератор фронта, удаливший последний элемент
+	 * яруса, продолжает обход со следующего яруса и к таблице больше не обращается.
+	 */
+	private void removeLayer(int layer) {
+		LongObjectHashMap<T> layerMap = layers[layer];
+		layers[layer] = null;
+		releaseLayer(layerMap);
+		if (size == 0) {
+			minLayer = Integer.MAX_VALUE;
+			maxLayer = Integer.MIN_VALUE;
+		} else {
+			if (layer == maxLayer) {
+				do {
+					--maxLayer;
+				} while (layers[maxLayer] == null);
+			} else if (layer == minLayer) {
+				do {
+					++minLayer;
+				} while (layers[minLayer] == null);
+			}
+		}
+	}
+
+	@Override
+	public boolean contains(int layer, long vertexIndex) {
+		LongObjectHashMap<T> layerMap = layers[layer];
+		if (layerMap == null) {
+			return false;
+		}
+		return layerMap.containsKey(vertexIndex);
+	}
+
+	@Override
+	public void clear() {
+		for (int layer = minLayer; layer <= maxLayer; ++layer) {
+			if (layers[layer] != null) {
+				releaseLayer(layers[layer]);
+				layers[layer] = null;
+			}
+		}
+		size = 0;
+		minLayer = Integer.MAX_VALUE;
+		maxLayer = Integer.MIN_VALUE;
+	}
+}
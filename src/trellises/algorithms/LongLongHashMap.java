@@ -0,0 +1,123 @@
+package trellises.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * Хэш-таблица с открытой адресацией, отображающая неотрицательные ключи типа long
+ * в счетчики типа long. Ключи и значения хранятся в двух массивах, свободная ячейка
+ * помечается ключом -1. Удаление не поддерживается.
+ *
+ * Обход выполняется по номерам ячеек: <code>for (int i = 0;i < map.capacity(); ++i) if (map.isUsed(i)) ...</code>
+ *
+ * @author stas
+ *
+ */
+public class LongLongHashMap {
+	private static final long FREE = -1;
+	private static final int MIN_CAPACITY = 8;
+
+	private long keys[];
+	private long values[];
+	private int shift;
+	private int size;
+
+	public LongLongHashMap() {
+		allocate(MIN_CAPACITY);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+		Arrays.fill(keys, FREE);
+		shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+		size = 0;
+	}
+
+	private int slot(long key) {
+		return (int)((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int capacity() {
+		return keys.length;
+	}
+
+	public boolean isUsed(int slot) {
+		return keys[slot] != FREE;
+	}
+
+	public long keyAt(int slot) {
+		return keys[slot];
+	}
+
+	public long valueAt(int slot) {
+		return values[slot];
+	}
+
+	/**
+	 * @return значение, связанное с ключом <code>key</code>, или 0
+	 */
+	public long get(long key) {
+		int mask = keys.length - 1;
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			if (keys[i] == key) {
+				return values[i];
+			}
+			if (keys[i] == FREE) {
+				return 0;
+			}
+		}
+	}
+
+	/**
+	 * Прибавляет <code>delta</code> к значению, связанному с ключом <code>key</code>.
+	 */
+	public void add(long key, long delta) {
+		if (key < 0) {
+			throw new IllegalArgumentException("Negative keys are not supported: " + key);
+		}
+
+		int mask = keys.length - 1;
+		int i = slot(key);
+		while (keys[i] != FREE) {
+			if (keys[i] == key) {
+				values[i] += delta;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+
+		keys[i] = key;
+		values[i] = delta;
+		// заполнение не более 1/2
+		if (++size * 2 > keys.length) {
+			rehash();
+		}
+	}
+
+	private void rehash() {
+		long oldKeys[] = keys;
+		long oldValues[] = values;
+
+		allocate(oldKeys.length * 2);
+		int mask = keys.length - 1;
+		for (int j = 0;j < oldKeys.length; ++j) {
+			if (oldKeys[j] != FREE) {
+				int i = slot(oldKeys[j]);
+				while (keys[i] != FREE) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = oldValues[j];
+				++size;
+			}
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package trellises.algorithms;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Хэш-таблица с открытой адресацией и ключами типа long. В отличие от HashMap&lt;Long, V&gt;
+ * не упаковывает ключи в объекты и не создает узлов для элементов: ключи и значения
+ * лежат в двух параллельных массивах, коллизии разрешаются линейным пробированием.
+ *
+ * Удаленные элементы помечаются специальным значением, поэтому удаление во время обхода
+ * (через итератор значений) не перемещает остальные элементы и не нарушает обход.
+ * Помеченные ячейки освобождаются при очередном перехешировании.
+ *
+ * @author stas
+ *
+ * @param <V> тип значений
+ */
+public class LongObjectHashMap<V> implements Iterable<V> {
+	private static final Object REMOVED = new Object();
+	private static final int MIN_CAPACITY = 8;
+	/**
+	 * Максимальная доля занятых (в т.ч. удаленными элементами) ячеек, в процентах.
+	 */
+	private static final int MAX_LOAD_PERCENT = 60;
+
+	private long keys[];
+	/**
+	 * null - свободная ячейка, REMOVED - удаленный элемент.
+	 */
+	private Object values[];
+	private int mask;
+	private int shift;
+	private int size;
+	/**
+	 * Количество занятых ячеек, включая удаленные элементы.
+	 */
+	private int used;
+
+	public LongObjectHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize ожидаемое количество элементов
+	 */
+	public LongObjectHashMap(int expectedSize) {
+		allocate(capacityFor(expectedSize));
+	}
+
+	private static int capacityFor(int size) {
+		int capacity = MIN_CAPACITY;
+		while ((long)capacity * MAX_LOAD_PERCENT / 100 <= size) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+		size = 0;
+		used = 0;
+	}
+
+	/**
+	 * Фибоначчиево хэширование: индексы вершин решетки идут подряд, старшие биты
+	 * произведения распределяют их по таблице равномерно.
+	 */
+	private int slot(long key) {
+		return (int)((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+	/**
+	 * @return номер ячейки с ключом <code>key</code> или -1
+	 */
+	private int find(long key) {
+		for (int i = slot(key);; i = (i + 1) & mask) {
+			Object value = values[i];
+			if (value == null) {
+				return -1;
+			}
+			if (value != REMOVED && keys[i] == key) {
+				return i;
+			}
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Емкость таблицы (количество ячеек).
+	 */
+	public int capacity() {
+		return values.length;
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int i = find(key);
+		return i < 0 ? null : (V)values[i];
+	}
+
+	public boolean containsKey(long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Связывает <code>value</code> с ключом <code>key</code>.
+	 * @return предыдущее значение или null
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		if (value == null) {
+			throw new IllegalArgumentException("Null values are not supported");
+		}
+
+		int removedSlot = -1;
+		int i = slot(key);
+		for (;; i = (i + 1) & mask) {
+			Object current = values[i];
+			if (current == null) {
+				break;
+			}
+			if (current == REMOVED) {
+				if (removedSlot < 0) {
+					removedSlot = i;
+				}
+			} else if (keys[i] == key) {
+				values[i] = value;
+				return (V)current;
+			}
+		}
+
+		if (removedSlot >= 0) {
+			i = removedSlot;
+		} else {
+			++used;
+		}
+		keys[i] = key;
+		values[i] = value;
+		++size;
+
+		if ((long)used * 100 > (long)values.length * MAX_LOAD_PERCENT) {
+			rehash(capacityFor(size));
+		}
+		return null;
+	}
+
+	/**
+	 * Удаляет значение, связанное с ключом <code>key</code>.
+	 * @return удаленное значение или null
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int i = find(key);
+		if (i < 0) {
+			return null;
+		}
+		V value = (V)values[i];
+		removeAt(i);
+		return value;
+	}
+
+	private void removeAt(int i) {
+		values[i] = REMOVED;
+		--size;
+	}
+
+	/**
+	 * Удаляет все элементы, сохраняя емкость таблицы.
+	 */
+	public void clear() {
+		if (used > 0) {
+			Arrays.fill(values, null);
+		}
+		size = 0;
+		used = 0;
+	}
+
+	private void rehash(int capacity) {
+		long oldKeys[] = keys;
+		Object oldValues[] = values;
+
+		allocate(capacity);
+		for (int j = 0;j < oldValues.length; ++j) {
+			Object value = oldValues[j];
+			if (value != null && value != REMOVED) {
+				int i = slot(oldKeys[j]);
+				while (values[i] != null) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = oldKeys[j];
+				values[i] = value;
+				++size;
+				++used;
+			}
+		}
+	}
+
+	/**
+	 * Итератор по значениям таблицы. Поддерживает удаление текущего элемента,
+	 * добавление элементов во время обхода не допускается.
+	 */
+	@Override
+	public Iterator<V> iterator() {
+		return new Iterator<V>() {
+			final Object iterValues[] = values;
+			int next = advance(0);
+			int current = -1;
+
+			private int advance(int i) {
+				while (i < iterValues.length && (iterValues[i] == null || iterValues[i] == REMOVED)) {
+					++i;
+				}
+				return i;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next < iterValues.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public V next() {
+				if (next >= iterValues.length) {
+					throw new NoSuchElementException();
+				}
+				current = next;
+				next = advance(next + 1);
+				return (V)iterValues[current];
+			}
+
+			@Override
+			public void remove() {
+				if (current < 0 || iterValues[current] == REMOVED) {
+					throw new IllegalStateException();
+				}
+				if (iterValues != values) {
+					throw new java.util.ConcurrentModificationException();
+				}
+				removeAt(current);
+			}
+		};
+	}
+}
@@ -3,7 +3,7 @@ package trellises.algorithms;
 import java.util.ArrayList;
 import java.util.Iterator;
 
-import trellises.ITrellisEdge;
+import trellises.ITrellisEdgeCursor;
 import trellises.ITrellisIterator;
 
 /**
@@ -50,13 +50,13 @@ public class PathPicker implements PathTracker<PathPicker>, Comparable<PathTrack
 
 	@Override
 	public Iterator<PathPicker> forwardIterator() {
-		ITrellisEdge edges[] = iterator.getAccessors();
+		ITrellisEdgeCursor edges = iterator.forwardEdges();
 		
-		ArrayList<PathPicker> trackers = new ArrayList<PathPicker>(edges.length);
-		for (int i = 0; i < edges.length; ++i) {
+		ArrayList<PathPicker> trackers = new ArrayList<PathPicker>();
+		while (edges.next()) {
 			PathPicker tracker = this.clone();
-			tracker.iterator.moveForward(i);
-			path.addVertex(iterator.vertexIndex(), edges[i].metric(metric));
+			tracker.iterator.moveForward(edges.index());
+			path.addVertex(iterator.vertexIndex(), edges.metric(metric));
 			trackers.add(tracker);
 		}
 
@@ -65,13 +65,13 @@ public class PathPicker implements PathTracker<PathPicker>, Comparable<PathTrack
 
 	@Override
 	public Iterator<PathPicker> backwardIterator() {
-		ITrellisEdge edges[] = iterator.getPredecessors();
+		ITrellisEdgeCursor edges = iterator.backwardEdges();
 		
-		ArrayList<PathPicker> trackers = new ArrayList<PathPicker>(edges.length);
-		for (int i = 0; i < edges.length; ++i) {
+		ArrayList<PathPicker> trackers = new ArrayList<PathPicker>();
+		while (edges.next()) {
 			PathPicker tracker = this.clone();
-			tracker.iterator.moveBackward(i);
-			path.addVertex(iterator.vertexIndex(), edges[i].metric(metric));
+			tracker.iterator.moveBackward(edges.index());
+			path.addVertex(iterator.vertexIndex(), edges.metric(metric));
 			trackers.add(tracker);
 		}
 
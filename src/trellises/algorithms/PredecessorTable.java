@@ -0,0 +1,155 @@
+package trellises.algorithms;
+
+import math.BitArray;
+import trellises.ITrellis;
+import trellises.ITrellisEdgeCursor;
+
+/**
+ * Входящие ребра решетки, переписанные по секциям в массивы для декодеров Витерби.
+ *
+ * Для секции <code>l</code> (ребра из яруса <code>l</code> в ярус <code>l + 1</code>, в циклической
+ * решетке из последнего яруса в нулевой) входящие ребра вершины v - это ребра с номерами
+ * [offsets[l][v], offsets[l][v + 1]) в порядке их индексов в решетке. Для ребра хранятся начало и
+ * метка, упакованная в <code>words[l]</code> слов.
+ *
+ * @author stas
+ *
+ */
+final class PredecessorTable {
+	final int layersCount;
+	final int sectionsCount;
+	final int layerSizes[];
+	final int maxLayerSize;
+	final int offsets[][];
+	final int sources[][];
+	final long labels[][];
+	final int widths[];
+	final int words[];
+	final int maxWords;
+	final int maxInDegree;
+
+	/**
+	 * @param cyclic решетка сверточного кода, в которой есть переход из последнего яруса в нулевой
+	 */
+	PredecessorTable(ITrellis trellis, boolean cyclic) {
+		layersCount = trellis.layersCount();
+		sectionsCount = cyclic ? layersCount : layersCount - 1;
+		layerSizes = new int[layersCount];
+		int maxSize = 0;
+		for (int layer = 0;layer < layersCount; ++layer) {
+			long size = trellis.layerSize(layer);
+			if (size > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Layer " + layer + " is too large: " + size);
+			}
+			layerSizes[layer] = (int)size;
+			maxSize = Math.max(maxSize, layerSizes[layer]);
+		}
+		maxLayerSize = maxSize;
+
+		offsets = new int[sectionsCount][];
+		sources = new int[sectionsCount][];
+		labels = new long[sectionsCount][];
+		widths = new int[sectionsCount];
+		words = new int[sectionsCount];
+		int maxWords = 0, maxInDegree = 0;
+
+		for (int section = 0;section < sectionsCount; ++section) {
+			int next = (section + 1) % layersCount;
+			int sectionOffsets[] = new int[layerSizes[next] + 1];
+			int edges = 0;
+			for (int v = 0;v < layerSizes[next]; ++v) {
+				sectionOffsets[v] = edges;
+				ITrellisEdgeCursor cursor = trellis.iterator(next, v).backwardEdges();
+				int degree = 0;
+				while (cursor.next()) {
+					widths[section] = Math.max(widths[section], cursor.bitsCount());
+					++degree;
+				}
+				edges += degree;
+				maxInDegree = Math.max(maxInDegree, degree);
+			}
+			sectionOffsets[layerSizes[next]] = edges;
+
+			int sectionWords = (widths[section] + Long.SIZE - 1) / Long.SIZE;
+			int sectionSources[] = new int[edges];
+			long sectionLabels[] = new long[edges * sectionWords];
+			for (int v = 0;v < layerSizes[next]; ++v) {
+				ITrellisEdgeCursor cursor = trellis.iterator(next, v).backwardEdges();
+				while (cursor.next()) {
+					int e = sectionOffsets[v] + cursor.index();
+					sectionSources[e] = (int)cursor.src();
+					for (int w = 0;w < sectionWords; ++w) {
+						sectionLabels[e * sectionWords + w] = cursor.word(w);
+					}
+				}
+			}
+
+			offsets[section] = sectionOffsets;
+			sources[section] = sectionSources;
+			labels[section] = sectionLabels;
+			words[section] = sectionWords;
+			maxWords = Math.max(maxWords, sectionWords);
+		}
+		this.maxWords = maxWords;
+		this.maxInDegree = maxInDegree;
+	}
+
+	/**
+	 * Позиции начала меток шагов при проходе по решетке из нулевого яруса: шаг s идет по секции
+	 * <code>s % layersCount</code> и занимает биты [positions[s], positions[s + 1]).
+	 * @param length длина принятого слова
+	 * @throws IllegalArgumentException если слово не делится на целое число секций
+	 */
+	int[] positions(int length) {
+		int steps = 0;
+		for (int position = 0;position < length; ++steps) {
+			if (steps >= sectionsCount && sectionsCount < layersCount) {
+				throw new IllegalArgumentException("Word of length " + length + " is longer than trellis");
+			}
+			position += widths[steps % layersCount];
+		}
+
+		int positions[] = new int[steps + 1];
+		for (int s = 0;s < steps; ++s) {
+			positions[s + 1] = positions[s] + widths[s % layersCount];
+		}
+		if (positions[steps] != length) {
+			throw new IllegalArgumentException("Length " + length + " doesn't match trellis sections");
+		}
+		return positions;
+	}
+
+	/**
+	 * Количество бит для хранения номера входящего ребра.
+	 */
+	int choiceBits() {
+		return 32 - Integer.numberOfLeadingZeros(Math.max(maxInDegree - 1, 0));
+	}
+
+	/**
+	 * Слово <code>w</code> отрезка длины <code>width</code>, начинающегося с бита <code>from</code>,
+	 * в формате {@link BitArray#getWord(int)}.
+	 */
+	static long word(BitArray array, int from, int w, int width) {
+		int begin = from + w * Long.SIZE;
+		int count = Math.min(Long.SIZE, width - w * Long.SIZE);
+		int index = begin / Long.SIZE, shift = begin % Long.SIZE;
+
+		long word = array.getWord(index) >>> shift;
+		if (shift != 0 && shift + count > Long.SIZE) {
+			word |= array.getWord(index + 1) << (Long.SIZE - shift);
+		}
+		return count == Long.SIZE ? word : word & ((1L << count) - 1);
+	}
+
+	/**
+	 * Записывает метку ребра <code>e</code> секции в биты слова, начиная с <code>from</code>.
+	 */
+	void writeLabel(BitArray word, int section, int e, int from) {
+		for (int w = 0;w < words[section]; ++w) {
+			for (long mask = labels[section][e * words[section] + w]; mask != 0; mask &= mask - 1) {
+				word.set(from + w * Long.SIZE + Long.numberOfTrailingZeros(mask));
+			}
+		}
+	}
+}
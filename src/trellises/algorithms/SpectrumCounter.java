@@ -0,0 +1,333 @@
+package trellises.algorithms;
+
+import java.util.Arrays;
+
+import trellises.ITrellis;
+import trellises.ITrellisEdgeCursor;
+import trellises.ITrellisIterator;
+
+/**
+ * Вычисление весового спектра сверточного кода встречным обходом решетки (в духе BEAST).
+ *
+ * Считаются пути, которые выходят из нулевой вершины яруса <code>startLayer</code> по ребру
+ * ненулевого веса и заканчиваются при первом возвращении на нулевой путь (в вершину с индексом 0
+ * любого яруса). Нулевой путь должен проходить только через вершины с индексом 0.
+ *
+ * Для вычисления спектра до веса <code>maxWeight</code> выбирается порог <code>t</code>:
+ * <ul>
+ * <li>прямой обход раскрывает префиксы веса меньше <code>t</code> и запоминает вершины, в которых
+ * вес префикса впервые достигает <code>t</code>, вместе с числом таких префиксов;</li>
+ * <li>обратный обход от всех вершин нулевого пути считает число суффиксов веса не более
+ * <code>maxWeight - t</code> для каждой вершины;</li>
+ * <li>спектр получается хэш-соединением прямого и обратного фронтов по вершине: каждый путь
+ * учитывается ровно один раз, в вершине, где вес его префикса впервые достиг порога.</li>
+ * </ul>
+ *
+ * Фронты хранятся по весам и ярусам в таблицах {@link LongLongHashMap} (индекс вершины - число путей).
+ * Ребра вершины при первом посещении считываются курсором ({@link ITrellisEdgeCursor}) в примитивные
+ * массивы яруса, повторные посещения - а вершина посещается на каждом уровне веса и в обоих
+ * обходах - идут по этим массивам без создания объектов. Память таблиц пропорциональна числу
+ * посещенных вершин. Вершина решетки определяется парой (ярус, индекс), поэтому итераторы
+ * <code>trellis</code> не должны хранить дополнительного состояния.
+ *
+ * Экземпляр не потокобезопасен: таблицы ребер заполняются во время обхода.
+ *
+ * @author stas
+ *
+ */
+public class SpectrumCounter {
+	private final ITrellis trellis;
+	private final int metric;
+	private final int layers;
+	/**
+	 * Максимальное число раундов раскрытия ребер нулевого веса на одном уровне веса.
+	 * Превышение означает наличие цикла нулевого веса вне нулевого пути (катастрофический код).
+	 */
+	private final long maxZeroRounds;
+	private final EdgeTable forwardEdges[];
+	private final EdgeTable backwardEdges[];
+
+	/**
+	 * Ребра посещенных вершин яруса: ребра вершины занимают отрезок массивов, позиция
+	 * которого хранится в <code>positions</code> (см. {@link SpectrumCounter#edges}).
+	 */
+	private static class EdgeTable {
+		final LongLongHashMap positions = new LongLongHashMap();
+		long targets[] = new long[16];
+		int weights[] = new int[16];
+		int size = 0;
+
+		void append(long target, int weight) {
+			if (size == targets.length) {
+				targets = Arrays.copyOf(targets, 2 * size);
+				weights = Arrays.copyOf(weights, 2 * size);
+			}
+			targets[size] = target;
+			weights[size] = weight;
+			++size;
+		}
+	}
+
+	/**
+	 * @param trellis решетка кода
+	 * @param metric номер метрики на ребрах, используемой для вычисления веса пути
+	 */
+	public SpectrumCounter(ITrellis trellis, int metric) {
+		this.trellis = trellis;
+		this.metric = metric;
+		this.layers = trellis.layersCount();
+
+		long vertices = 0;
+		for (int layer = 0;layer < layers; ++layer) {
+			vertices += trellis.layerSize(layer);
+		}
+		this.maxZeroRounds = vertices + 1;
+		this.forwardEdges = new EdgeTable[layers];
+		this.backwardEdges = new EdgeTable[layers];
+	}
+
+	/**
+	 * Вычисляет спектр путей, выходящих из нулевой вершины нулевого яруса.
+	 * @see #findSpectrum(int, int)
+	 */
+	public long[] findSpectrum(int maxWeight) {
+		return findSpectrum(0, maxWeight);
+	}
+
+	/**
+	 * @param startLayer ярус, в котором пути отходят от нулевого пути
+	 * @param maxWeight максимальный вес путей
+	 * @return массив длины <code>maxWeight</code>, (w - 1)-й элемент - число путей веса w
+	 */
+	public long[] findSpectrum(int startLayer, int maxWeight) {
+		if (maxWeight < 0) {
+			throw new IllegalArgumentException("maxWeight < 0: " + maxWeight);
+		}
+
+		long spectrum[] = new long[maxWeight + 1];
+		int treshold = (maxWeight + 1) / 2;
+
+		LongLongHashMap forwards[][] = countForwardFront(startLayer, treshold, maxWeight, spectrum);
+		LongLongHashMap backwards[][] = countBackwardFront(maxWeight - treshold);
+
+		// хэш-соединение фронтов по вершинам
+		for (int weight = treshold;weight <= maxWeight; ++weight) {
+			for (int layer = 0;layer < layers; ++layer) {
+				LongLongHashMap forward = forwards[weight][layer];
+				if (forward == null) {
+					continue;
+				}
+
+				for (int i = 0;i < forward.capacity(); ++i) {
+					if (!forward.isUsed(i)) {
+						continue;
+					}
+					long vertexIndex = forward.keyAt(i);
+					long prefixes = forward.valueAt(i);
+
+					for (int suffixWeight = 0;weight + suffixWeight <= maxWeight; ++suffixWeight) {
+						LongLongHashMap backward = backwards[suffixWeight][layer];
+						if (backward != null) {
+							spectrum[weight + suffixWeight] += prefixes * backward.get(vertexIndex);
+						}
+					}
+				}
+			}
+		}
+
+		long result[] = new long[maxWeight];
+		System.arraycopy(spectrum, 1, result, 0, maxWeight);
+		return result;
+	}
+
+	/**
+	 * Прямой обход. Пути, вернувшиеся на нулевой путь, сразу учитываются в спектре.
+	 * @return фронты по весам и ярусам; для весов >= <code>treshold</code> содержат
+	 * вершины, в которых вес префикса впервые достиг порога
+	 */
+	private LongLongHashMap[][] countForwardFront(int startLayer, int treshold, int maxWeight, long spectrum[]) {
+		LongLongHashMap levels[][] = new LongLongHashMap[maxWeight + 1][layers];
+
+		LongLongHashMap start[] = new LongLongHashMap[layers];
+		start[startLayer] = new LongLongHashMap();
+		start[startLayer].add(0, 1);
+
+		for (int weight = 0;weight < treshold; ++weight) {
+			LongLongHashMap current[] = weight == 0 ? start : levels[weight];
+
+			for (long round = 0;current != null; ++round) {
+				if (round > maxZeroRounds) {
+					throw new IllegalArgumentException("Trellis contains a zero weight cycle outside the zero path");
+				}
+
+				LongLongHashMap zeroWeight[] = null;
+				for (int layer = 0;layer < layers; ++layer) {
+					LongLongHashMap front = current[layer];
+					if (front == null) {
+						continue;
+					}
+					int nextLayer = (layer + 1) % layers;
+
+					for (int i = 0;i < front.capacity(); ++i) {
+						if (!front.isUsed(i)) {
+							continue;
+						}
+						long vertexIndex = front.keyAt(i);
+						long paths = front.valueAt(i);
+						long position = edges(forwardEdges, layer, vertexIndex, true);
+						EdgeTable table = forwardEdges[layer];
+
+						for (int e = (int)position - 1, end = e + (int)(position >>> 32);e < end; ++e) {
+							long dst = table.targets[e];
+							int edgeWeight = table.weights[e];
+							int pathWeight = weight + edgeWeight;
+
+							if ((vertexIndex == 0 && edgeWeight == 0) || pathWeight > maxWeight) {
+								// запрещаем нулевой путь
+								continue;
+							}
+							if (dst == 0) {
+								// вернулись на нулевой путь
+								spectrum[pathWeight] += paths;
+								continue;
+							}
+							if (edgeWeight == 0) {
+								zeroWeight = add(zeroWeight, nextLayer, dst, paths);
+							}
+							if (edgeWeight != 0 || pathWeight >= treshold) {
+								levels[pathWeight] = add(levels[pathWeight], nextLayer, dst, paths);
+							}
+						}
+					}
+				}
+				current = zeroWeight;
+			}
+		}
+
+		return levels;
+	}
+
+	/**
+	 * Обратный обход от вершин нулевого пути.
+	 * @return фронты по весам и ярусам: число путей заданного веса из вершины до нулевого пути,
+	 * проходящих только через ненулевые вершины
+	 */
+	private LongLongHashMap[][] countBackwardFront(int maxWeight) {
+		LongLongHashMap levels[][] = new LongLongHashMap[maxWeight + 1][layers];
+
+		LongLongHashMap zeroPath[] = new LongLongHashMap[layers];
+		for (int layer = 0;layer < layers; ++layer) {
+			zeroPath[layer] = new LongLongHashMap();
+			zeroPath[layer].add(0, 1);
+		}
+
+		for (int weight = 0;weight <= maxWeight; ++weight) {
+			LongLongHashMap current[] = weight == 0 ? zeroPath : copy(levels[weight]);
+
+			for (long round = 0;current != null; ++round) {
+				if (round > maxZeroRounds) {
+					throw new IllegalArgumentException("Trellis contains a zero weight cycle outside the zero path");
+				}
+
+				LongLongHashMap zeroWeight[] = null;
+				for (int layer = 0;layer < layers; ++layer) {
+					LongLongHashMap front = current[layer];
+					if (front == null) {
+						continue;
+					}
+					int prevLayer = (layer - 1 + layers) % layers;
+
+					for (int i = 0;i < front.capacity(); ++i) {
+						if (!front.isUsed(i)) {
+							continue;
+						}
+						long vertexIndex = front.keyAt(i);
+						long paths = front.valueAt(i);
+						long position = edges(backwardEdges, layer, vertexIndex, false);
+						EdgeTable table = backwardEdges[layer];
+
+						for (int e = (int)position - 1, end = e + (int)(position >>> 32);e < end; ++e) {
+							long src = table.targets[e];
+							int edgeWeight = table.weights[e];
+							int pathWeight = weight + edgeWeight;
+
+							if (src == 0 || pathWeight > maxWeight) {
+								// путь не может проходить через нулевую вершину
+								continue;
+							}
+							if (edgeWeight == 0) {
+								zeroWeight = add(zeroWeight, prevLayer, src, paths);
+							}
+							levels[pathWeight] = add(levels[pathWeight], prevLayer, src, paths);
+						}
+					}
+				}
+				current = zeroWeight;
+			}
+		}
+
+		return levels;
+	}
+
+	/**
+	 * Позиция ребер вершины в таблице яруса: младшие 32 бита - начало отрезка плюс 1 (чтобы
+	 * отличать от отсутствующей записи), старшие - количество ребер. При первом обращении
+	 * ребра вершины дописываются в таблицу.
+	 */
+	private long edges(EdgeTable tables[], int layer, long vertexIndex, boolean forward) {
+		if (tables[layer] == null) {
+			tables[layer] = new EdgeTable();
+		}
+		EdgeTable table = tables[layer];
+		long position = table.positions.get(vertexIndex);
+
+		if (position != 0) {
+			return position;
+		}
+
+		ITrellisIterator iterator = trellis.iterator(layer, vertexIndex);
+		ITrellisEdgeCursor edges = forward ? iterator.forwardEdges() : iterator.backwardEdges();
+		int start = table.size;
+
+		while (edges.next()) {
+			table.append(edges.target(), edges.metric(metric));
+		}
+		position = ((long)(table.size - start) << 32) | (start + 1);
+		table.positions.add(vertexIndex, position);
+		return position;
+	}
+
+	private LongLongHashMap[] add(LongLongHashMap level[], int layer, long vertexIndex, long paths) {
+		if (level == null) {
+			level = new LongLongHashMap[layers];
+		}
+		if (level[layer] == null) {
+			level[layer] = new LongLongHashMap();
+		}
+		level[layer].add(vertexIndex, paths);
+		return level;
+	}
+
+	private LongLongHashMap[] copy(LongLongHashMap level[]) {
+		boolean empty = true;
+		for (LongLongHashMap front : level) {
+			empty &= front == null;
+		}
+		if (empty) {
+			return null;
+		}
+
+		LongLongHashMap copy[] = new LongLongHashMap[layers];
+		for (int layer = 0;layer < layers; ++layer) {
+			if (level[layer] != null) {
+				copy[layer] = new LongLongHashMap();
+				for (int i = 0;i < level[layer].capacity(); ++i) {
+					if (level[layer].isUsed(i)) {
+						copy[layer].add(level[layer].keyAt(i), level[layer].valueAt(i));
+					}
+				}
+			}
+		}
+		return copy;
+	}
+}
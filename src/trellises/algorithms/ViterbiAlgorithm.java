@@ -3,7 +3,7 @@ package trellises.algorithms;
 import java.util.Map;
 import java.util.TreeMap;
 
-import trellises.ITrellisEdge;
+import trellises.ITrellisEdgeCursor;
 import trellises.ITrellisIterator;
 import trellises.IntEdge;
 import trellises.Trellis;
@@ -177,12 +177,15 @@ public class ViterbiAlgorithm {
 		}
 		
 		Map<Long, WeightedIterator> layer = new TreeMap<Long, WeightedIterator>();
-		ITrellisEdge edges[] = root.getAccessors();
+		ITrellisEdgeCursor edges = root.forwardEdges();
 		// выполняем переход по всем ребрам, кроме ребра нулевого пути
-		for (int i = (root.vertexIndex() == 0 ? 1 : 0); i < edges.length; ++i) {
+		while (edges.next()) {
+			if (root.vertexIndex() == 0 && edges.index() == 0) {
+				continue;
+			}
 			ITrellisIterator iterator = root.clone();
-			iterator.moveForward(i);
-			WeightedIterator next = new WeightedIterator(iterator, edges[i].metric(metric));
+			iterator.moveForward(edges.index());
+			WeightedIterator next = new WeightedIterator(iterator, edges.metric(metric));
 			
 			long vertexIndex = next.iterator.vertexIndex();
 			if (!layer.containsKey(next.iterator.vertexIndex()) || layer.get(vertexIndex).weight > next.weight) {
@@ -197,11 +200,14 @@ public class ViterbiAlgorithm {
 			Map<Long, WeightedIterator> nextLayer = new TreeMap<Long, WeightedIterator>();
 			
 			for (WeightedIterator current : layer.values()) {
-				ITrellisEdge edges2[] = current.iterator.getAccessors();
-				for (int i = 1; i < edges2.length; ++i) {
+				ITrellisEdgeCursor edges2 = current.iterator.forwardEdges();
+				while (edges2.next()) {
+					if (edges2.index() == 0) {
+						continue;
+					}
 					ITrellisIterator iterator = current.iterator.clone();
-					iterator.moveForward(i);
-					WeightedIterator next = new WeightedIterator(iterator, current.weight + edges2[i].metrics()[metric]);
+					iterator.moveForward(edges2.index());
+					WeightedIterator next = new WeightedIterator(iterator, current.weight + edges2.metric(metric));
 					
 					long vertexIndex = next.iterator.vertexIndex();
 					if (!nextLayer.containsKey(next.iterator.vertexIndex()) || nextLayer.get(vertexIndex).weight > next.weight) {
@@ -0,0 +1,359 @@
+package trellises.algorithms;
+
+import math.BitArray;
+import trellises.ITrellis;
+
+/**
+ * Декодер Витерби с операцией сложение-сравнение-выбор (ACS) над массивами примитивов.
+ *
+ * Решетка один раз переписывается в массивы входящих ребер по секциям ({@link PredecessorTable}),
+ * метрики вершин хранятся в двух массивах (текущий и следующий ярус), которые меняются местами на
+ * каждом шаге. Выжившие пути не копируются: для каждой вершины каждого шага запоминается только
+ * номер выбранного входящего ребра, упакованный в <code>ceil(log2(степень захода))</code> бит,
+ * кодовое слово восстанавливается обратным проходом.
+ *
+ * Жесткое решение использует целочисленную метрику Хэмминга (popcount от xor меток), мягкое -
+ * корреляционную метрику для BPSK (0 передается как +1, 1 как -1). Пакетный режим декодирует
+ * несколько слов за один проход по решетке: метрики всех слов одной вершины лежат рядом, так
+ * что ребра секции читаются один раз на пакет.
+ *
+ * Декодер хранит рабочие буферы и не является потокобезопасным: для параллельного
+ * декодирования нужен декодер на поток.
+ *
+ * @author stas
+ *
+ */
+public class ViterbiDecoder {
+	/**
+	 * Метрика недостижимой вершины.
+	 */
+	private static final int INT_INFINITY = Integer.MAX_VALUE / 2;
+
+	/**
+	 * Результат декодирования одного слова.
+	 */
+	public static class Decision {
+		/**
+		 * Кодовое слово, соответствующее лучшему пути.
+		 */
+		public BitArray codeWord;
+		/**
+		 * Метрика лучшего пути: расстояние Хэмминга для жесткого решения, корреляционная метрика для мягкого.
+		 */
+		public double metric;
+		/**
+		 * Вершины нулевого и последнего яруса, через которые проходит лучший путь.
+		 */
+		public int startVertex;
+		public int endVertex;
+	}
+
+	final PredecessorTable table;
+	private final int choiceBits;
+
+	private int intMetrics[] = new int[0];
+	private int intNextMetrics[] = new int[0];
+	private float floatMetrics[] = new float[0];
+	private float floatNextMetrics[] = new float[0];
+	private long survivors[] = new long[0];
+	private int choices[] = new int[0];
+
+	/**
+	 * @param trellis решетка кода, размеры ярусов должны помещаться в int
+	 * @param cyclic решетка сверточного кода, по которой можно пройти несколько циклов
+	 */
+	public ViterbiDecoder(ITrellis trellis, boolean cyclic) {
+		table = new PredecessorTable(trellis, cyclic);
+		choiceBits = table.choiceBits();
+	}
+
+	/**
+	 * Декодирует слово с жестким решением.
+	 * @param startVertex вершина нулевого яруса, из которой начинаются пути, -1 - любая
+	 * @param endVertex вершина последнего яруса, в которой заканчиваются пути, -1 - лучшая
+	 */
+	public Decision decode(BitArray received, int startVertex, int endVertex) {
+		return decode(new BitArray[] { received }, startVertex, endVertex)[0];
+	}
+
+	/**
+	 * Декодирует пакет слов одинаковой длины с жестким решением за один проход по решетке.
+	 * @see #decode(BitArray, int, int)
+	 */
+	public Decision[] decode(BitArray received[], int startVertex, int endVertex) {
+		int batch = received.length;
+		if (batch == 0) {
+			return new Decision[0];
+		}
+		int length = received[0].getFixedSize();
+		for (BitArray word : received) {
+			if (word.getFixedSize() != length) {
+				throw new IllegalArgumentException("Words of different lengths in batch: " + length + ", " + word.getFixedSize());
+			}
+		}
+		int positions[] = table.positions(length);
+		int steps = positions.length - 1;
+		int endLayer = steps % table.layersCount;
+		prepare(batch, steps);
+		if (intMetrics.length < table.maxLayerSize * batch) {
+			intMetrics = new int[table.maxLayerSize * batch];
+			intNextMetrics = new int[table.maxLayerSize * batch];
+		}
+
+		int metrics[] = intMetrics, nextMetrics[] = intNextMetrics;
+		for (int v = 0;v < table.layerSizes[0]; ++v) {
+			for (int b = 0;b < batch; ++b) {
+				metrics[v * batch + b] = (startVertex < 0 || v == startVertex) ? 0 : INT_INFINITY;
+			}
+		}
+
+		long word[] = new long[table.maxWords * batch];
+		long survivorBase = 0;
+		for (int s = 0;s < steps; ++s) {
+			int section = s % table.layersCount;
+			int size = table.layerSizes[(section + 1) % table.layersCount];
+			int words = table.words[section];
+			int offsets[] = table.offsets[section];
+			int sources[] = table.sources[section];
+			long labels[] = table.labels[section];
+			for (int b = 0;b < batch; ++b) {
+				for (int w = 0;w < words; ++w) {
+					word[b * words + w] = PredecessorTable.word(received[b], positions[s], w, table.widths[section]);
+				}
+			}
+
+			for (int v = 0;v < size; ++v) {
+				for (int b = 0;b < batch; ++b) {
+					nextMetrics[v * batch + b] = INT_INFINITY;
+					choices[b] = 0;
+				}
+				for (int e = offsets[v];e < offsets[v + 1]; ++e) {
+					int src = sources[e] * batch;
+					for (int b = 0;b < batch; ++b) {
+						int metric = metrics[src + b];
+						if (metric >= INT_INFINITY) {
+							continue;
+						}
+						for (int w = 0;w < words; ++w) {
+							metric += Long.bitCount(labels[e * words + w] ^ word[b * words + w]);
+						}
+						if (metric < nextMetrics[v * batch + b]) {
+							nextMetrics[v * batch + b] = metric;
+							choices[b] = e - offsets[v];
+						}
+					}
+				}
+				storeChoices(survivorBase + (long)v * batch, batch);
+			}
+
+			survivorBase += (long)size * batch;
+			int tmp[] = metrics;
+			metrics = nextMetrics;
+			nextMetrics = tmp;
+		}
+
+		Decision decisions[] = new Decision[batch];
+		for (int b = 0;b < batch; ++b) {
+			int end = endVertex;
+			if (end < 0) {
+				end = 0;
+				for (int v = 1;v < table.layerSizes[endLayer]; ++v) {
+					if (metrics[v * batch + b] < metrics[end * batch + b]) {
+						end = v;
+					}
+				}
+			}
+			decisions[b] = traceback(positions, batch, b, end);
+			decisions[b].metric = metrics[end * batch + b];
+		}
+		return decisions;
+	}
+
+	/**
+	 * Декодирует слово с мягким решением.
+	 * @param received принятые значения, положительные соответствуют нулю
+	 * @see #decode(BitArray, int, int)
+	 */
+	public Decision decode(float received[], int startVertex, int endVertex) {
+		return decode(new float[][] { received }, startVertex, endVertex)[0];
+	}
+
+	/**
+	 * Декодирует пакет слов одинаковой длины с мягким решением за один проход по решетке.
+	 * @see #decode(float[], int, int)
+	 */
+	public Decision[] decode(float received[][], int startVertex, int endVertex) {
+		int batch = received.length;
+		if (batch == 0) {
+			return new Decision[0];
+		}
+		int length = received[0].length;
+		for (float word[] : received) {
+			if (word.length != length) {
+				throw new IllegalArgumentException("Words of different lengths in batch: " + length + ", " + word.length);
+			}
+		}
+		int positions[] = table.positions(length);
+		int steps = positions.length - 1;
+		int endLayer = steps % table.layersCount;
+		prepare(batch, steps);
+		if (floatMetrics.length < table.maxLayerSize * batch) {
+			floatMetrics = new float[table.maxLayerSize * batch];
+			floatNextMetrics = new float[table.maxLayerSize * batch];
+		}
+
+		float metrics[] = floatMetrics, nextMetrics[] = floatNextMetrics;
+		for (int v = 0;v < table.layerSizes[0]; ++v) {
+			for (int b = 0;b < batch; ++b) {
+				metrics[v * batch + b] = (startVertex < 0 || v == startVertex) ? 0 : Float.POSITIVE_INFINITY;
+			}
+		}
+
+		// метрика ребра: -сумма по отрезку + 2 * сумма по единичным битам метки
+		float base[] = new float[batch];
+		long survivorBase = 0;
+		for (int s = 0;s < steps; ++s) {
+			int section = s % table.layersCount;
+			int size = table.layerSizes[(section + 1) % table.layersCount];
+			int words = table.words[section];
+			int offsets[] = table.offsets[section];
+			int sources[] = table.sources[section];
+			long labels[] = table.labels[section];
+			int from = positions[s];
+			for (int b = 0;b < batch; ++b) {
+				base[b] = 0;
+				for (int i = from;i < positions[s + 1]; ++i) {
+					base[b] -= received[b][i];
+				}
+			}
+
+			for (int v = 0;v < size; ++v) {
+				for (int b = 0;b < batch; ++b) {
+					nextMetrics[v * batch + b] = Float.POSITIVE_INFINITY;
+					choices[b] = 0;
+				}
+				for (int e = offsets[v];e < offsets[v + 1]; ++e) {
+					int src = sources[e] * batch;
+					for (int b = 0;b < batch; ++b) {
+						float metric = metrics[src + b];
+						if (metric == Float.POSITIVE_INFINITY) {
+							continue;
+						}
+						float ones = 0;
+						for (int w = 0;w < words; ++w) {
+							for (long mask = labels[e * words + w]; mask != 0; mask &= mask - 1) {
+								ones += received[b][from + w * Long.SIZE + Long.numberOfTrailingZeros(mask)];
+							}
+						}
+						metric += base[b] + 2 * ones;
+						if (metric < nextMetrics[v * batch + b]) {
+							nextMetrics[v * batch + b] = metric;
+							choices[b] = e - offsets[v];
+						}
+					}
+				}
+				storeChoices(survivorBase + (long)v * batch, batch);
+			}
+
+			survivorBase += (long)size * batch;
+			float tmp[] = metrics;
+			metrics = nextMetrics;
+			nextMetrics = tmp;
+		}
+
+		Decision decisions[] = new Decision[batch];
+		for (int b = 0;b < batch; ++b) {
+			int end = endVertex;
+			if (end < 0) {
+				end = 0;
+				for (int v = 1;v < table.layerSizes[endLayer]; ++v) {
+					if (metrics[v * batch + b] < metrics[end * batch + b]) {
+						end = v;
+					}
+				}
+			}
+			decisions[b] = traceback(positions, batch, b, end);
+			decisions[b].metric = metrics[end * batch + b];
+		}
+		return decisions;
+	}
+
+	/**
+	 * Выделяет память под выжившие пути <code>steps</code> шагов и выбор ребер пакета.
+	 */
+	private void prepare(int batch, int steps) {
+		long bits = 0;
+		for (int s = 0;s < steps; ++s) {
+			bits += (long)table.layerSizes[(s + 1) % table.layersCount] * batch * choiceBits;
+		}
+		long words = (bits + Long.SIZE - 1) / Long.SIZE;
+		if (words > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Survivor memory is too large: " + bits + " bits");
+		}
+		if (survivors.length < words) {
+			survivors = new long[(int)words];
+		}
+		if (choices.length < batch) {
+			choices = new int[batch];
+		}
+	}
+
+	/**
+	 * Записывает выбранные ребра пакета в память выживших путей, начиная с ячейки <code>cell</code>.
+	 */
+	private void storeChoices(long cell, int batch) {
+		if (choiceBits == 0) {
+			return;
+		}
+		for (int b = 0;b < batch; ++b) {
+			long bit = (cell + b) * choiceBits;
+			int index = (int)(bit / Long.SIZE), shift = (int)(bit % Long.SIZE);
+			long mask = (1L << choiceBits) - 1;
+
+			survivors[index] = (survivors[index] & ~(mask << shift)) | ((long)choices[b] << shift);
+			if (shift + choiceBits > Long.SIZE) {
+				int high = Long.SIZE - shift;
+				survivors[index + 1] = (survivors[index + 1] & ~(mask >>> high)) | ((long)choices[b] >>> high);
+			}
+		}
+	}
+
+	private int loadChoice(long cell) {
+		if (choiceBits == 0) {
+			return 0;
+		}
+		long bit = cell * choiceBits;
+		int index = (int)(bit / Long.SIZE), shift = (int)(bit % Long.SIZE);
+		long value = survivors[index] >>> shift;
+		if (shift + choiceBits > Long.SIZE) {
+			value |= survivors[index + 1] << (Long.SIZE - shift);
+		}
+		return (int)(value & ((1L << choiceBits) - 1));
+	}
+
+	/**
+	 * Восстанавливает путь слова <code>b</code> пакета, заканчивающийся в вершине <code>end</code>.
+	 */
+	private Decision traceback(int positions[], int batch, int b, int end) {
+		int steps = positions.length - 1;
+		Decision decision = new Decision();
+		decision.codeWord = new BitArray(positions[steps]);
+		decision.endVertex = end;
+
+		long survivorBase = 0;
+		for (int s = 0;s < steps; ++s) {
+			survivorBase += (long)table.layerSizes[(s + 1) % table.layersCount] * batch;
+		}
+
+		int v = end;
+		for (int s = steps - 1;s >= 0; --s) {
+			int section = s % table.layersCount;
+			survivorBase -= (long)table.layerSizes[(section + 1) % table.layersCount] * batch;
+			int e = table.offsets[section][v] + loadChoice(survivorBase + (long)v * batch + b);
+			table.writeLabel(decision.codeWord, section, e, positions[s]);
+			v = table.sources[section][e];
+		}
+		decision.startVertex = v;
+		return decision;
+	}
+}
@@ -0,0 +1,241 @@
+package trellises.algorithms;
+
+import math.BitArray;
+import trellises.ITrellis;
+
+/**
+ * Декодер Витерби с циклическим повтором (wrap-around Viterbi algorithm, WAVA) для решеток
+ * tailbiting кодов.
+ *
+ * Кодовые слова tailbiting кода - пути решетки, начинающиеся и заканчивающиеся в одной и той же
+ * вершине. Вместо отдельного прохода Витерби из каждой вершины нулевого яруса декодер проходит
+ * решетку целиком из всех вершин сразу, запоминая для каждой вершины начало ее выжившего пути.
+ * Если лучший путь прохода замкнут, он и есть решение. Иначе метрики последнего яруса становятся
+ * начальными метриками следующего прохода, так что число проходов ограничено
+ * {@link #getMaxIterations()}, а время декодирования линейно по длине блока.
+ *
+ * Решением считается лучший из замкнутых путей всех проходов (его метрика считается без
+ * начальной метрики прохода); если замкнутых путей не нашлось, возвращается лучший путь
+ * последнего прохода с признаком {@link Decision#tailbiting} = false.
+ *
+ * Метрика - корреляционная для BPSK (0 передается как +1, 1 как -1), для жесткого решения
+ * пересчитывается в расстояние Хэмминга. Декодер хранит рабочие буферы и не является потокобезопасным.
+ *
+ * @author stas
+ *
+ */
+public class WrapAroundViterbiDecoder {
+	/**
+	 * Результат декодирования с числом выполненных проходов.
+	 */
+	public static class Decision extends ViterbiDecoder.Decision {
+		/**
+		 * Найденный путь начинается и заканчивается в одной вершине.
+		 */
+		public boolean tailbiting;
+		/**
+		 * Количество проходов по решетке.
+		 */
+		public int iterations;
+	}
+
+	private final PredecessorTable table;
+	private final int maxIterations;
+
+	private float startMetrics[];
+	private float metrics[];
+	private float nextMetrics[];
+	private int origins[];
+	private int nextOrigins[];
+	private int choices[] = new int[0];
+
+	/**
+	 * @param trellis решетка tailbiting кода (например, {@link trellises.TailbitingCodeTrellis}), нулевой и
+	 * последний ярусы которой соответствуют одним и тем же состояниям
+	 * @param maxIterations максимальное количество проходов по решетке
+	 */
+	public WrapAroundViterbiDecoder(ITrellis trellis, int maxIterations) {
+		if (maxIterations <= 0) {
+			throw new IllegalArgumentException("Iterations count should be positive: " + maxIterations);
+		}
+		if (trellis.layerSize(0) != trellis.layerSize(trellis.layersCount() - 1)) {
+			throw new IllegalArgumentException("First and last layers of tailbiting trellis differ: "
+					+ trellis.layerSize(0) + ", " + trellis.layerSize(trellis.layersCount() - 1));
+		}
+		this.table = new PredecessorTable(trellis, false);
+		this.maxIterations = maxIterations;
+
+		startMetrics = new float[table.layerSizes[0]];
+		metrics = new float[table.maxLayerSize];
+		nextMetrics = new float[table.maxLayerSize];
+		origins = new int[table.maxLayerSize];
+		nextOrigins = new int[table.maxLayerSize];
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	/**
+	 * Декодирует слово с жестким решением, метрика результата - расстояние Хэмминга.
+	 * @param received слово длины tailbiting кода
+	 */
+	public Decision decode(BitArray received) {
+		float signal[] = new float[received.getFixedSize()];
+		for (int i = 0;i < signal.length; ++i) {
+			signal[i] = received.get(i) ? -1 : 1;
+		}
+
+		Decision decision = decode(signal);
+		// корреляция = 2 * расстояние - длина
+		decision.metric = Math.round((decision.metric + signal.length) / 2);
+		return decision;
+	}
+
+	/**
+	 * Декодирует слово с мягким решением.
+	 * @param received принятые значения, положительные соответствуют нулю
+	 */
+	public Decision decode(float received[]) {
+		int positions[] = table.positions(received.length);
+		int steps = positions.length - 1;
+		if (steps != table.sectionsCount) {
+			throw new IllegalArgumentException("Length " + received.length + " doesn't match tailbiting code length");
+		}
+		long cells = 0;
+		for (int s = 0;s < steps; ++s) {
+			cells += table.layerSizes[s + 1];
+		}
+		if (cells > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Survivor memory is too large: " + cells + " choices");
+		}
+		if (choices.length < cells) {
+			choices = new int[(int)cells];
+		}
+
+		int size = table.layerSizes[0];
+		for (int v = 0;v < size; ++v) {
+			startMetrics[v] = 0;
+		}
+
+		Decision best = null;
+		int iteration = 0;
+		while (iteration < maxIterations) {
+			++iteration;
+			pass(received, positions);
+
+			int bestEnd = 0;
+			for (int v = 1;v < size; ++v) {
+				if (metrics[v] < metrics[bestEnd]) {
+					bestEnd = v;
+				}
+			}
+			for (int v = 0;v < size; ++v) {
+				if (origins[v] != v) {
+					continue;
+				}
+				float metric = metrics[v] - startMetrics[v];
+				if (best == null || metric < best.metric) {
+					best = traceback(positions, v);
+					best.metric = metric;
+					best.tailbiting = true;
+				}
+			}
+
+			if (origins[bestEnd] == bestEnd) {
+				break;
+			}
+			if (iteration == maxIterations && best == null) {
+				best = traceback(positions, bestEnd);
+				best.metric = metrics[bestEnd] - startMetrics[origins[bestEnd]];
+				best.tailbiting = false;
+				break;
+			}
+
+			// нормировка, чтобы метрики не росли от прохода к проходу
+			for (int v = 0;v < size; ++v) {
+				startMetrics[v] = metrics[v] - metrics[bestEnd];
+			}
+		}
+
+		best.iterations = iteration;
+		return best;
+	}
+
+	/**
+	 * Проход по решетке с начальными метриками <code>startMetrics</code>: метрики и начала выживших
+	 * путей последнего яруса остаются в <code>metrics</code> и <code>origins</code>.
+	 */
+	private void pass(float received[], int positions[]) {
+		for (int v = 0;v < table.layerSizes[0]; ++v) {
+			metrics[v] = startMetrics[v];
+			origins[v] = v;
+		}
+
+		int base = 0;
+		for (int s = 0;s < table.sectionsCount; ++s) {
+			int size = table.layerSizes[s + 1];
+			int words = table.words[s];
+			int offsets[] = table.offsets[s];
+			int sources[] = table.sources[s];
+			long labels[] = table.labels[s];
+			int from = positions[s];
+			// метрика ребра: -сумма по отрезку + 2 * сумма по единичным битам метки
+			float sum = 0;
+			for (int i = from;i < positions[s + 1]; ++i) {
+				sum += received[i];
+			}
+
+			for (int v = 0;v < size; ++v) {
+				float bestMetric = Float.POSITIVE_INFINITY;
+				int choice = 0;
+				for (int e = offsets[v];e < offsets[v + 1]; ++e) {
+					float ones = 0;
+					for (int w = 0;w < words; ++w) {
+						for (long mask = labels[e * words + w]; mask != 0; mask &= mask - 1) {
+							ones += received[from + w * Long.SIZE + Long.numberOfTrailingZeros(mask)];
+						}
+					}
+					float metric = metrics[sources[e]] + 2 * ones - sum;
+					if (metric < bestMetric) {
+						bestMetric = metric;
+						choice = e - offsets[v];
+					}
+				}
+				nextMetrics[v] = bestMetric;
+				nextOrigins[v] = bestMetric == Float.POSITIVE_INFINITY ? -1 : origins[sources[offsets[v] + choice]];
+				choices[base + v] = choice;
+			}
+
+			base += size;
+			float tmpMetrics[] = metrics;
+			metrics = nextMetrics;
+			nextMetrics = tmpMetrics;
+			int tmpOrigins[] = origins;
+			origins = nextOrigins;
+			nextOrigins = tmpOrigins;
+		}
+	}
+
+	private Decision traceback(int positions[], int end) {
+		int steps = positions.length - 1;
+		Decision decision = new Decision();
+		decision.codeWord = new BitArray(positions[steps]);
+		decision.endVertex = end;
+
+		int base = 0;
+		for (int s = 0;s < steps; ++s) {
+			base += table.layerSizes[s + 1];
+		}
+
+		int v = end;
+		for (int s = steps - 1;s >= 0; --s) {
+			base -= table.layerSizes[s + 1];
+			int e = table.offsets[s][v] + choices[base + v];
+			table.writeLabel(decision.codeWord, s, e, positions[s]);
+			v = table.sources[s][e];
+		}
+		decision.startVertex = v;
+		return decision;
+	}
+}
@@ -13,6 +13,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import trellises.BlockCodeTrellis;
+import trellises.ITrellisEdge;
+import trellises.ITrellisIterator;
 import math.BitArray;
 import math.BlockCodeAlgs;
 import math.Matrix;
@@ -72,6 +74,80 @@ public class BlockCodeTrellisTest {
 		TrellisesTest.trellisBackwardTraversalShouldGiveCodeWord(code, trellis);
 	}
 	
+	/**
+	 * Ряд веса 1 начинается и заканчивается в одной секции: ребра с ним должны вести
+	 * в те же вершины, что и переходы по ним.
+	 */
+	@Test
+	public void edgesShouldMatchMovesForSingleColumnRow() {
+		BitArray row0 = new BitArray(4); row0.set(0); row0.set(2);
+		BitArray row1 = new BitArray(4); row1.set(1);
+		BitArray row2 = new BitArray(4); row2.set(2); row2.set(3);
+		BlockCode code = new BlockCode(new Matrix(new BitArray[] { row0, row1, row2 }), true);
+		trellis = new BlockCodeTrellis(code.getGeneratorSpanForm());
+
+		for (int layer = 0; layer < trellis.layersCount(); ++layer) {
+			for (long vertex = 0; vertex < trellis.layerSize(layer); ++vertex) {
+				ITrellisIterator iterator = trellis.iterator(layer, vertex);
+				ITrellisEdge accessors[] = iterator.getAccessors();
+				for (int e = 0; e < accessors.length; ++e) {
+					ITrellisIterator next = iterator.clone();
+					next.moveForward(e);
+					assertEquals(vertex, accessors[e].src());
+					assertEquals(next.vertexIndex(), accessors[e].dst());
+					assertTrue(accessors[e].dst() < trellis.layerSize(layer + 1));
+				}
+
+				ITrellisEdge predecessors[] = iterator.getPredecessors();
+				for (int e = 0; e < predecessors.length; ++e) {
+					ITrellisIterator prev = iterator.clone();
+					prev.moveBackward(e);
+					assertEquals(vertex, predecessors[e].dst());
+					assertEquals(prev.vertexIndex(), predecessors[e].src());
+				}
+			}
+		}
+
+		TrellisesTest.trellisForwardTraversalShouldGiveCodeWord(code, trellis, 1);
+	}
+
+	@Test
+	public void compiledLabelsShouldGiveSameEdges() {
+		trellis = new BlockCodeTrellis(code.getGeneratorSpanForm());
+		BlockCodeTrellis compiled = new BlockCodeTrellis(code.getGeneratorSpanForm(), true);
+
+		for (int layer = 0; layer < trellis.layersCount(); ++layer) {
+			for (long vertex = 0; vertex < trellis.layerSize(layer); ++vertex) {
+				ITrellisIterator iterator = trellis.iterator(layer, vertex);
+				ITrellisIterator compiledIterator = compiled.iterator(layer, vertex);
+
+				assertSameEdges(iterator.getAccessors(), compiledIterator.getAccessors());
+				assertSameEdges(iterator.getPredecessors(), compiledIterator.getPredecessors());
+			}
+		}
+	}
+
+	@Test
+	public void edgeCursorsShouldMatchEdgeArrays() {
+		trellis = new BlockCodeTrellis(code.getGeneratorSpanForm());
+
+		for (int layer = 0; layer < trellis.layersCount(); ++layer) {
+			for (long vertex = 0; vertex < trellis.layerSize(layer); ++vertex) {
+				TrellisesTest.edgeCursorsShouldMatchEdges(trellis.iterator(layer, vertex));
+			}
+		}
+	}
+
+	private static void assertSameEdges(ITrellisEdge expected[], ITrellisEdge actual[]) {
+		assertEquals(expected.length, actual.length);
+		for (int e = 0; e < expected.length; ++e) {
+			assertEquals(expected[e].src(), actual[e].src());
+			assertEquals(expected[e].dst(), actual[e].dst());
+			assertEquals(expected[e].bits(), actual[e].bits());
+			assertEquals(expected[e].metric(0), actual[e].metric(0));
+		}
+	}
+
 	@Test
 	public void visualizeTrellis() {
 		trellis = new BlockCodeTrellis(code.getGeneratorSpanForm());
@@ -0,0 +1,144 @@
+package trellises.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import trellises.BlockCodeTrellis;
+import trellises.CompactTrellis;
+import trellises.ConvCodeTrellis;
+import trellises.ITrellis;
+import trellises.ITrellisIterator;
+import trellises.TailbitingCodeTrellis;
+import trellises.algorithms.BeastAlgorithm;
+import codes.BlockCode;
+import codes.ConvCode;
+import math.BitArray;
+import math.ConvCodeSpanForm.SpanFormException;
+import math.Matrix;
+import math.Poly;
+import math.PolyMatrix;
+
+public class CompactTrellisTest {
+	ConvCode code;
+	BlockCode blockCode;
+
+	public CompactTrellisTest() {
+		PolyMatrix generator = new PolyMatrix(1, 2);
+		generator.set(0, 0, new Poly(new int [] {0, 1, 2}));
+		generator.set(0, 1, new Poly(new int [] {0, 2}));
+		code = new ConvCode(generator, true);
+
+		BitArray row0 = new BitArray(6); row0.set(0); row0.set(1); row0.set(3);
+		BitArray row1 = new BitArray(6); row1.set(1); row1.set(4); row1.set(5);
+		BitArray row2 = new BitArray(6); row2.set(2); row2.set(3); row2.set(4);
+		blockCode = new BlockCode(new Matrix(new BitArray[] { row0, row1, row2 }), true);
+	}
+
+	@Test
+	public void cyclicTrellisShouldBeCopied() throws SpanFormException {
+		ITrellis trellis = new ConvCodeTrellis(code.spanForm());
+		CompactTrellis compact = new CompactTrellis(trellis, true, 0);
+
+		TrellisesTest.testTrellisEquality(trellis, compact);
+		assertEdgeCursorsMatch(compact);
+	}
+
+	@Test
+	public void blockCodeTrellisShouldBeCopied() {
+		ITrellis trellis = new BlockCodeTrellis(blockCode.getGeneratorSpanForm());
+		CompactTrellis compact = new CompactTrellis(trellis, false, 0);
+
+		TrellisesTest.testTrellisEquality(trellis, compact);
+		assertEdgeCursorsMatch(compact);
+	}
+
+	@Test
+	public void mappedTrellisShouldBeEqualToWritten() throws IOException {
+		ITrellis trellis = new BlockCodeTrellis(blockCode.getGeneratorSpanForm());
+		CompactTrellis compact = new CompactTrellis(trellis, false, 0);
+
+		File file = File.createTempFile("trellis", ".bin");
+		try {
+			compact.write(file);
+			CompactTrellis mapped = CompactTrellis.map(file);
+
+			assertEquals(compact.edgesCount(), mapped.edgesCount());
+			TrellisesTest.testTrellisEquality(trellis, mapped);
+			assertEdgeCursorsMatch(mapped);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void tailbitingDistanceShouldBePreserved() throws SpanFormException, IOException {
+		ITrellis trellis = new TailbitingCodeTrellis(code.spanForm(), 5, false);
+		CompactTrellis compact = new CompactTrellis(trellis, false, 0);
+
+		File file = File.createTempFile("trellis", ".bin");
+		try {
+			compact.write(file);
+			CompactTrellis mapped = CompactTrellis.map(file);
+
+			for (long vertex = 0; vertex < trellis.layerSize(0); ++vertex) {
+				int expected = BeastAlgorithm.countMinDist(trellis.iterator(0, vertex),
+						trellis.iterator(trellis.layersCount() - 1, vertex), 0, 10);
+				int actual = BeastAlgorithm.countMinDist(mapped.iterator(0, vertex),
+						mapped.iterator(mapped.layersCount() - 1, vertex), 0, 10);
+				assertEquals(expected, actual);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void arraysLargerThanWriteBufferShouldBeWritten() throws SpanFormException, IOException {
+		PolyMatrix generator = new PolyMatrix(1, 2);
+		generator.set(0, 0, new Poly(new int [] {0, 1, 3, 4, 6}));
+		generator.set(0, 1, new Poly(new int [] {0, 3, 4, 5, 6}));
+		ITrellis trellis = new TailbitingCodeTrellis(new ConvCode(generator, true).spanForm(), 200, true);
+		CompactTrellis compact = new CompactTrellis(trellis, false, 0);
+
+		// буфер записи - 64 Кб, т.е. 16К чисел int
+		assertTrue(compact.edgesCount() > 1 << 14);
+
+		File file = File.createTempFile("trellis", ".bin");
+		try {
+			compact.write(file);
+			CompactTrellis mapped = CompactTrellis.map(file);
+
+			assertEquals(compact.edgesCount(), mapped.edgesCount());
+			TrellisesTest.testTrellisEquality(compact, mapped);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void foreignFileShouldNotBeMapped() throws IOException {
+		File file = File.createTempFile("trellis", ".bin");
+		try {
+			new CompactTrellis(new BlockCodeTrellis(blockCode.getGeneratorSpanForm()), false, 0).write(file);
+			java.io.RandomAccessFile out = new java.io.RandomAccessFile(file, "rw");
+			out.writeInt(0);
+			out.close();
+			CompactTrellis.map(file);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static void assertEdgeCursorsMatch(ITrellis trellis) {
+		for (int layer = 0; layer < trellis.layersCount(); ++layer) {
+			for (long vertex = 0; vertex < trellis.layerSize(layer); ++vertex) {
+				ITrellisIterator iterator = trellis.iterator(layer, vertex);
+				TrellisesTest.edgeCursorsShouldMatchEdges(iterator);
+			}
+		}
+	}
+}
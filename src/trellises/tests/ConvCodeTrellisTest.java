@@ -14,6 +14,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import trellises.ConvCodeTrellis;
+import trellises.ConvCodeTrellisBuilder;
 import trellises.ITrellis;
 import trellises.ITrellisEdge;
 import trellises.ITrellisIterator;
@@ -23,6 +24,7 @@ import math.ConvCodeSpanForm;
 import math.ConvCodeSpanForm.SpanFormException;
 import math.Poly;
 import math.PolyMatrix;
+import search_procedures.conv_codes.ExhaustiveCCEnumByGenMatr;
 
 
 public class ConvCodeTrellisTest {
@@ -72,6 +74,33 @@ public class ConvCodeTrellisTest {
 		randomTraversalShouldBeEquivalentForTrellises(G);
 	}
 
+	@Test
+	public void incrementalTrellisesShouldMatchRebuilt() throws SpanFormException {
+		ExhaustiveCCEnumByGenMatr enumerator = new ExhaustiveCCEnumByGenMatr(1, 2, 3);
+		ConvCodeTrellisBuilder builder = new ConvCodeTrellisBuilder();
+		int built = 0;
+
+		for (ConvCode code = enumerator.next(); code != null; code = enumerator.next()) {
+			if (code.generator().get(0, 0).isZero() || code.generator().get(0, 1).isZero()) {
+				continue;
+			}
+			ConvCodeSpanForm spanForm = code.spanForm();
+			ConvCodeTrellis trellis = builder.build(spanForm);
+			ConvCodeTrellis rebuilt = new ConvCodeTrellis(spanForm);
+			++built;
+
+			TrellisesTest.testTrellisEquality(rebuilt, trellis);
+			for (int layer = 0; layer < trellis.layersCount(); ++layer) {
+				for (long vertex = 0; vertex < trellis.layerSize(layer); ++vertex) {
+					TrellisesTest.edgeCursorsShouldMatchEdges(trellis.iterator(layer, vertex));
+				}
+			}
+		}
+
+		assertEquals(built, builder.getTrellisesCount());
+		assertTrue(builder.getReusedSectionsCount() > 0);
+	}
+
 	private void randomTraversalShouldBeEquivalentForTrellises(PolyMatrix generator) {
 		PolyMatrix minBaseG = ConvCodeAlgs.getMinimalBaseGenerator(generator);
 		ConvCodeSpanForm spanForm = null;
@@ -84,6 +113,7 @@ public class ConvCodeTrellisTest {
 
 		ITrellis explicitTrellis = ConvCodeAlgs.buildTrellis(spanForm);
 		ITrellis lightTrellis = new ConvCodeTrellis(spanForm);
+		ITrellis compiledTrellis = new ConvCodeTrellis(spanForm, true);
 		
 		assertEquals(explicitTrellis.layersCount(), lightTrellis.layersCount());
 		for (int layer = 0; layer < explicitTrellis.layersCount(); ++layer) {
@@ -100,21 +130,28 @@ public class ConvCodeTrellisTest {
 		
 		ITrellisIterator explicit = explicitTrellis.iterator(layer, vertexIndex);
 		ITrellisIterator light = lightTrellis.iterator(layer, vertexIndex);
+		ITrellisIterator compiled = compiledTrellis.iterator(layer, vertexIndex);
 		
 		for (int i = 0; i < steps; ++i) {
 			boolean direction = rand.nextBoolean();
 			
 			ITrellisEdge explicitEdges[];
 			ITrellisEdge lightEdges[];
+			ITrellisEdge compiledEdges[];
 			if (direction) {
 				explicitEdges = explicit.getAccessors();
 				lightEdges = light.getAccessors();
-				
+				compiledEdges = compiled.getAccessors();
 			} else {
 				explicitEdges = explicit.getPredecessors();
 				lightEdges = light.getPredecessors();
+				compiledEdges = compiled.getPredecessors();
 			}
 			
+			TrellisesTest.edgeCursorsShouldMatchEdges(explicit);
+			TrellisesTest.edgeCursorsShouldMatchEdges(light);
+			TrellisesTest.edgeCursorsShouldMatchEdges(compiled);
+
 			assertEquals(explicitEdges.length, lightEdges.length);
 			int edge = rand.nextInt(explicitEdges.length);
 			if (direction) {
@@ -127,19 +164,25 @@ public class ConvCodeTrellisTest {
 				assertEquals(explicitEdges[e].src(), lightEdges[e].src());
 				assertEquals(explicitEdges[e].dst(), lightEdges[e].dst());
 				assertEquals(explicitEdges[e].bits(), lightEdges[e].bits());
+				assertEquals(explicitEdges[e].src(), compiledEdges[e].src());
+				assertEquals(explicitEdges[e].dst(), compiledEdges[e].dst());
+				assertEquals(explicitEdges[e].bits(), compiledEdges[e].bits());
 			}
 			
 			if (direction) {
 				explicit.moveForward(edge);
 				light.moveForward(edge);
+				compiled.moveForward(edge);
 			} else {
 				explicit.moveBackward(edge);
 				light.moveBackward(edge);
+				compiled.moveBackward(edge);
 			}
 			
 			logger.debug("layer = " + explicit.layer() + ", vertexIndex = " + explicit.vertexIndex());
 			assertEquals(explicit.layer(), light.layer());
 			assertEquals(explicit.vertexIndex(), light.vertexIndex());
+			assertEquals(explicit.vertexIndex(), compiled.vertexIndex());
 		}
 	}
 
@@ -0,0 +1,134 @@
+package trellises.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import trellises.BlockCodeTrellis;
+import trellises.ConvCodeTrellis;
+import trellises.ITrellis;
+import trellises.algorithms.ListViterbiDecoder;
+import trellises.algorithms.ViterbiDecoder;
+import codes.BlockCode;
+import codes.ConvCode;
+import math.BitArray;
+import math.ConvCodeSpanForm.SpanFormException;
+import math.Matrix;
+import math.Poly;
+import math.PolyMatrix;
+
+public class ListViterbiDecoderTest {
+	BlockCode code;
+	List<BitArray> codeWords;
+
+	public ListViterbiDecoderTest() {
+		BitArray row0 = new BitArray(6); row0.set(0); row0.set(1); row0.set(3);
+		BitArray row1 = new BitArray(6); row1.set(1); row1.set(4); row1.set(5);
+		BitArray row2 = new BitArray(6); row2.set(2); row2.set(3); row2.set(4);
+		code = new BlockCode(new Matrix(new BitArray[] { row0, row1, row2 }), true);
+
+		codeWords = new ArrayList<BitArray>();
+		for (int word = 0; word < 1 << code.getK(); ++word) {
+			BitArray infWord = new BitArray(code.getK());
+			for (int i = 0; i < code.getK(); ++i) {
+				infWord.set(i, (word & (1 << i)) != 0);
+			}
+			codeWords.add(code.encodeSeq(infWord));
+		}
+	}
+
+	@Test
+	public void fullListShouldContainAllCodeWordsInOrder() {
+		ListViterbiDecoder decoder = new ListViterbiDecoder(new BlockCodeTrellis(code.getGeneratorSpanForm()),
+				false, codeWords.size());
+
+		for (int word = 0; word < 1 << code.getN(); ++word) {
+			BitArray received = new BitArray(code.getN(), word);
+			ViterbiDecoder.Decision decisions[] = decoder.decode(received, 0, 0);
+
+			assertEquals(codeWords.size(), decisions.length);
+			List<Integer> expected = new ArrayList<Integer>();
+			for (BitArray codeWord : codeWords) {
+				expected.add(distance(received, codeWord));
+			}
+			Collections.sort(expected);
+
+			Set<BitArray> found = new HashSet<BitArray>();
+			for (int i = 0; i < decisions.length; ++i) {
+				assertTrue(codeWords.contains(decisions[i].codeWord));
+				assertTrue(found.add(decisions[i].codeWord));
+				assertEquals(distance(received, decisions[i].codeWord), (int)decisions[i].metric);
+				assertEquals((int)expected.get(i), (int)decisions[i].metric);
+			}
+		}
+	}
+
+	@Test
+	public void firstDecisionShouldMatchViterbi() {
+		ITrellis trellis = new BlockCodeTrellis(code.getGeneratorSpanForm());
+		ListViterbiDecoder listDecoder = new ListViterbiDecoder(trellis, false, 3);
+		ViterbiDecoder decoder = new ViterbiDecoder(trellis, false);
+
+		Random random = new Random(1);
+		for (int test = 0; test < 100; ++test) {
+			float received[] = new float[code.getN()];
+			for (int i = 0; i < received.length; ++i) {
+				received[i] = (float)random.nextGaussian();
+			}
+
+			ViterbiDecoder.Decision decisions[] = listDecoder.decode(received, 0, 0);
+			ViterbiDecoder.Decision decision = decoder.decode(received, 0, 0);
+
+			assertEquals(3, decisions.length);
+			assertEquals(decision.metric, decisions[0].metric, 1e-4);
+			for (int i = 1; i < decisions.length; ++i) {
+				assertTrue(decisions[i - 1].metric <= decisions[i].metric);
+			}
+		}
+	}
+
+	@Test
+	public void convCodeListShouldBeSortedAndDistinct() throws SpanFormException {
+		PolyMatrix generator = new PolyMatrix(1, 2);
+		generator.set(0, 0, new Poly(new int [] {0, 1, 2}));
+		generator.set(0, 1, new Poly(new int [] {0, 2}));
+		ITrellis trellis = new ConvCodeTrellis(new ConvCode(generator, true).spanForm());
+		ListViterbiDecoder listDecoder = new ListViterbiDecoder(trellis, true, 16);
+		ViterbiDecoder decoder = new ViterbiDecoder(trellis, true);
+
+		Random random = new Random(2);
+		for (int test = 0; test < 20; ++test) {
+			BitArray received = new BitArray(24);
+			for (int i = 0; i < received.getFixedSize(); ++i) {
+				received.set(i, random.nextBoolean());
+			}
+
+			ViterbiDecoder.Decision decisions[] = listDecoder.decode(received, 0, -1);
+			assertEquals(16, decisions.length);
+			assertEquals(decoder.decode(received, 0, -1).metric, decisions[0].metric, 0);
+
+			Set<BitArray> found = new HashSet<BitArray>();
+			for (int i = 0; i < decisions.length; ++i) {
+				assertEquals(0, decisions[i].startVertex);
+				assertTrue(found.add(decisions[i].codeWord));
+				assertEquals(distance(received, decisions[i].codeWord), (int)decisions[i].metric);
+				if (i > 0) {
+					assertTrue(decisions[i - 1].metric <= decisions[i].metric);
+				}
+			}
+		}
+	}
+
+	private static int distance(BitArray a, BitArray b) {
+		BitArray sum = a.clone();
+		sum.xor(b);
+		return sum.cardinality();
+	}
+}
@@ -0,0 +1,162 @@
+package trellises.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import trellises.algorithms.LongHashLayeredFront;
+import trellises.algorithms.LongObjectHashMap;
+import trellises.algorithms.PathTracker;
+
+public class LongHashLayeredFrontTest {
+	static class Tracker implements PathTracker<Tracker> {
+		int layer;
+		long vertexIndex;
+
+		Tracker(int layer, long vertexIndex) {
+			this.layer = layer;
+			this.vertexIndex = vertexIndex;
+		}
+
+		@Override
+		public int layer() {
+			return layer;
+		}
+
+		@Override
+		public long vertexIndex() {
+			return vertexIndex;
+		}
+
+		@Override
+		public int weight() {
+			return 0;
+		}
+
+		@Override
+		public boolean hasForward() {
+			return false;
+		}
+
+		@Override
+		public boolean hasBackward() {
+			return false;
+		}
+
+		@Override
+		public Iterator<Tracker> forwardIterator() {
+			return null;
+		}
+
+		@Override
+		public Iterator<Tracker> backwardIterator() {
+			return null;
+		}
+	}
+
+	@Test
+	public void mapMatchesHashMap() {
+		Random random = new Random(1);
+		LongObjectHashMap<Long> map = new LongObjectHashMap<Long>();
+		HashMap<Long, Long> expected = new HashMap<Long, Long>();
+
+		for (int i = 0;i < 100000; ++i) {
+			long key = random.nextInt(5000) * 0x100000001L;
+			long value = random.nextLong();
+
+			switch (random.nextInt(3)) {
+			case 0:
+				assertEquals(expected.put(key, value), map.put(key, value));
+				break;
+			case 1:
+				assertEquals(expected.remove(key), map.remove(key));
+				break;
+			default:
+				assertEquals(expected.get(key), map.get(key));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+
+		int count = 0;
+		for (Long value : map) {
+			assertTrue(expected.containsValue(value));
+			++count;
+		}
+		assertEquals(expected.size(), count);
+	}
+
+	@Test
+	public void removalDuringIteration() {
+		LongObjectHashMap<Long> map = new LongObjectHashMap<Long>();
+		for (long key = 0;key < 1000; ++key) {
+			map.put(key, key);
+		}
+
+		int visited = 0;
+		for (Iterator<Long> iter = map.iterator(); iter.hasNext();) {
+			long value = iter.next();
+			if (value % 2 == 0) {
+				iter.remove();
+			}
+			++visited;
+		}
+
+		assertEquals(1000, visited);
+		assertEquals(500, map.size());
+		for (long key = 0;key < 1000; ++key) {
+			assertEquals(key % 2 == 1, map.containsKey(key));
+		}
+	}
+
+	@Test
+	public void frontOperations() {
+		Random random = new Random(2);
+		LongHashLayeredFront<Tracker> front = new LongHashLayeredFront<Tracker>();
+		Map<Long, Tracker> expected = new HashMap<Long, Tracker>();
+
+		for (int i = 0;i < 20000; ++i) {
+			int layer = random.nextInt(20);
+			long vertexIndex = random.nextInt(100);
+			long key = layer * 1000L + vertexIndex;
+
+			if (random.nextBoolean()) {
+				Tracker tracker = new Tracker(layer, vertexIndex);
+				boolean added = front.add(tracker);
+				assertEquals(!expected.containsKey(key), added);
+				if (added) {
+					expected.put(key, tracker);
+				}
+			} else {
+				front.remove(layer, vertexIndex);
+				expected.remove(key);
+			}
+			assertEquals(expected.size(), front.size());
+			assertSame(expected.get(key), front.get(layer, vertexIndex));
+		}
+
+		// опустошение фронта через итератор, как в BEAST
+		LongHashLayeredFront<Tracker> other = new LongHashLayeredFront<Tracker>();
+		int previousLayer = -1;
+		for (Iterator<Tracker> iter = front.iterator(); iter.hasNext();) {
+			Tracker tracker = iter.next();
+			assertTrue(tracker.layer() >= previousLayer);
+			previousLayer = tracker.layer();
+			assertSame(expected.remove(tracker.layer() * 1000L + tracker.vertexIndex()), tracker);
+			iter.remove();
+			other.add(new Tracker(tracker.layer(), tracker.vertexIndex()));
+		}
+		assertTrue(expected.isEmpty());
+		assertTrue(front.isEmpty());
+		assertNull(front.get(0, 0));
+		assertFalse(other.isEmpty());
+	}
+}
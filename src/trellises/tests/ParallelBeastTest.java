@@ -0,0 +1,74 @@
+package trellises.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import math.ConvCodeSpanForm.SpanFormException;
+import math.MinDistance;
+import math.Poly;
+import math.PolyMatrix;
+
+import org.junit.Test;
+
+import codes.ConvCode;
+
+import trellises.ITrellis;
+import trellises.algorithms.BeastAlgorithm;
+
+public class ParallelBeastTest {
+
+	private ConvCode randomCode(Random random, int n, int degree) {
+		PolyMatrix mat = new PolyMatrix(1, n);
+
+		for (int j = 0;j < n; ++j) {
+			Poly poly = new Poly();
+			for (int d = 0;d <= degree; ++d) {
+				if (random.nextBoolean()) {
+					poly.setCoeff(d, true);
+				}
+			}
+			mat.set(0, j, poly);
+		}
+		mat.get(0, 0).setCoeff(0, true);
+		mat.get(0, 1).setCoeff(0, true);
+		mat.get(0, 1).setCoeff(degree, true);
+
+		return new ConvCode(mat, false);
+	}
+
+	@Test
+	public void sameDistancesAsSerial() throws SpanFormException {
+		Random random = new Random(1);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+
+		try {
+			int checked = 0;
+			for (int test = 0;test < 20; ++test) {
+				ConvCode code = randomCode(random, 2 + test % 2, 3 + test % 6);
+				int serial;
+				try {
+					serial = MinDistance.findFreeDist(code);
+				} catch (RuntimeException e) {
+					// катастрофический код, для которого BEAST не применим
+					continue;
+				}
+
+				ITrellis trellis = code.getTrellis();
+				// раскрываем параллельно даже небольшие фронты
+				int parallel = BeastAlgorithm.countMinDist(trellis.iterator(0, 0), trellis.iterator(trellis.layersCount() - 1, 0), 
+						0, code.getN() * (code.getDelay() + 1), executor, 2);
+
+				assertEquals(serial, parallel);
+				assertEquals(serial, MinDistance.findFreeDist(code, executor));
+				++checked;
+			}
+			assertTrue(checked > 10);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package trellises.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+import in_out_interfaces.IOPolyMatrix;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import math.MinDistance;
+
+import org.junit.Test;
+
+import codes.ConvCode;
+
+import trellises.IntEdge;
+import trellises.Trellis;
+import trellises.Trellises;
+import trellises.algorithms.BeastAlgorithm;
+
+public class SpectrumCounterTest {
+
+	private Trellis trellis(String codeStr) {
+		ConvCode code = null;
+		try {
+			code = new ConvCode(IOPolyMatrix.readMatrixOct(new BufferedReader(new StringReader(codeStr))), false);
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail("Unexpected exception.");
+		}
+
+		Trellis trellis = Trellises.trellisFromParityCheckHR(code.parityCheck());
+		MinDistance.computeDistanceMetrics(trellis);
+		return trellis;
+	}
+
+	/**
+	 * Перебор путей в глубину, путь заканчивается при возвращении в нулевую вершину.
+	 */
+	private void countPaths(Trellis trellis, int layer, int vertexIndex, int weight, int maxWeight, long spectrum[]) {
+		if (weight > 0 && vertexIndex == 0) {
+			++spectrum[weight - 1];
+			return;
+		}
+
+		for (IntEdge edge : trellis.Layers[layer][vertexIndex].Accessors) {
+			int edgeWeight = edge.metrics[0];
+			if ((vertexIndex == 0 && edgeWeight == 0) || weight + edgeWeight > maxWeight) {
+				continue;
+			}
+			countPaths(trellis, (layer + 1) % trellis.Layers.length, edge.dst, weight + edgeWeight, maxWeight, spectrum);
+		}
+	}
+
+	private void testSpectrum(String codeStr, int maxWeight) {
+		Trellis trellis = trellis(codeStr);
+		long expected[] = new long[maxWeight];
+
+		countPaths(trellis, 0, 0, 0, maxWeight, expected);
+		for (int weight = 0;weight <= maxWeight; ++weight) {
+			long prefix[] = new long[weight];
+			System.arraycopy(expected, 0, prefix, 0, weight);
+			assertArrayEquals(prefix, BeastAlgorithm.findSpectrum(trellis, weight, 0));
+		}
+	}
+
+	@Test
+	public void highRateCodeSpectrum() {
+		testSpectrum("3, 5, 1, 7, 11, 13", 7);
+	}
+
+	@Test
+	public void lowRateCodeSpectrum() {
+		testSpectrum("5, 7", 9);
+		testSpectrum("133, 171", 14);
+	}
+}
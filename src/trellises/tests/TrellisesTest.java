@@ -23,6 +23,7 @@ import trellises.BlockCodeTrellis;
 import trellises.ConjunctedEdgesTrellis;
 import trellises.ITrellis;
 import trellises.ITrellisEdge;
+import trellises.ITrellisEdgeCursor;
 import trellises.Trellis;
 import trellises.ITrellisIterator;
 import trellises.Trellises;
@@ -203,6 +204,43 @@ public class TrellisesTest {
 		}
 	}
 
+	/**
+	 * Проверяет, что курсоры ребер итератора выдают те же ребра, что и массивы ребер.
+	 */
+	static public void edgeCursorsShouldMatchEdges(ITrellisIterator iterator) {
+		assertCursorMatchesEdges(iterator.forwardEdges(), iterator.getAccessors(), true);
+		assertCursorMatchesEdges(iterator.backwardEdges(), iterator.getPredecessors(), false);
+	}
+
+	static private void assertCursorMatchesEdges(ITrellisEdgeCursor cursor, ITrellisEdge edges[], boolean forward) {
+		boolean visited[] = new boolean[edges.length];
+		int count = 0;
+		while (cursor.next()) {
+			int e = cursor.index();
+			if (count == 0) {
+				assertEquals(0, e);
+			}
+			assertFalse(visited[e]);
+			visited[e] = true;
+			++count;
+
+			assertEquals(edges[e].src(), cursor.src());
+			assertEquals(edges[e].dst(), cursor.dst());
+			assertEquals(forward ? edges[e].dst() : edges[e].src(), cursor.target());
+			for (int m = 0; m < edges[e].metrics().length; ++m) {
+				assertEquals(edges[e].metric(m), cursor.metric(m));
+			}
+
+			BitArray bits = edges[e].bits();
+			assertEquals(bits.getFixedSize(), cursor.bitsCount());
+			for (int w = 0; w < bits.wordsCount(); ++w) {
+				assertEquals(bits.getWord(w), cursor.word(w));
+			}
+		}
+		assertEquals(edges.length, count);
+		assertFalse(cursor.next());
+	}
+
 	static public void testInBeast(ITrellisIterator root, ITrellisIterator toor, int metric, int expectedMinDist) {
 		int minDist = BeastAlgorithm.countMinDist(root, toor, metric, expectedMinDist + 1);
 		assertEquals(expectedMinDist, minDist);
@@ -0,0 +1,154 @@
+package trellises.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import trellises.BlockCodeTrellis;
+import trellises.ConvCodeTrellis;
+import trellises.ITrellis;
+import trellises.ITrellisEdgeCursor;
+import trellises.ITrellisIterator;
+import trellises.algorithms.ViterbiDecoder;
+import codes.BlockCode;
+import codes.ConvCode;
+import math.BitArray;
+import math.ConvCodeSpanForm.SpanFormException;
+import math.Matrix;
+import math.Poly;
+import math.PolyMatrix;
+
+public class ViterbiDecoderTest {
+	BlockCode code;
+	List<BitArray> codeWords;
+
+	public ViterbiDecoderTest() {
+		BitArray row0 = new BitArray(6); row0.set(0); row0.set(1); row0.set(3);
+		BitArray row1 = new BitArray(6); row1.set(1); row1.set(4); row1.set(5);
+		BitArray row2 = new BitArray(6); row2.set(2); row2.set(3); row2.set(4);
+		code = new BlockCode(new Matrix(new BitArray[] { row0, row1, row2 }), true);
+
+		codeWords = new ArrayList<BitArray>();
+		for (int word = 0; word < 1 << code.getK(); ++word) {
+			BitArray infWord = new BitArray(code.getK());
+			for (int i = 0; i < code.getK(); ++i) {
+				infWord.set(i, (word & (1 << i)) != 0);
+			}
+			codeWords.add(code.encodeSeq(infWord));
+		}
+	}
+
+	@Test
+	public void hardDecisionShouldBeMaximumLikelihood() {
+		ViterbiDecoder decoder = new ViterbiDecoder(new BlockCodeTrellis(code.getGeneratorSpanForm()), false);
+
+		for (int word = 0; word < 1 << code.getN(); ++word) {
+			BitArray received = new BitArray(code.getN(), word);
+			ViterbiDecoder.Decision decision = decoder.decode(received, 0, 0);
+
+			assertTrue(codeWords.contains(decision.codeWord));
+			assertEquals(distance(received, decision.codeWord), (int)decision.metric);
+			int minDistance = Integer.MAX_VALUE;
+			for (BitArray codeWord : codeWords) {
+				minDistance = Math.min(minDistance, distance(received, codeWord));
+			}
+			assertEquals(minDistance, (int)decision.metric);
+		}
+	}
+
+	@Test
+	public void batchShouldMatchSingleWords() {
+		ViterbiDecoder decoder = new ViterbiDecoder(new BlockCodeTrellis(code.getGeneratorSpanForm()), false);
+
+		BitArray received[] = new BitArray[1 << code.getN()];
+		for (int word = 0; word < received.length; ++word) {
+			received[word] = new BitArray(code.getN(), word);
+		}
+		ViterbiDecoder.Decision decisions[] = decoder.decode(received, 0, 0);
+
+		for (int word = 0; word < received.length; ++word) {
+			ViterbiDecoder.Decision decision = decoder.decode(received[word], 0, 0);
+			assertEquals(decision.codeWord, decisions[word].codeWord);
+			assertEquals(decision.metric, decisions[word].metric, 0);
+		}
+	}
+
+	@Test
+	public void softDecisionShouldDecodeNoiselessWords() {
+		ViterbiDecoder decoder = new ViterbiDecoder(new BlockCodeTrellis(code.getGeneratorSpanForm()), false);
+
+		float received[][] = new float[codeWords.size()][];
+		for (int i = 0; i < codeWords.size(); ++i) {
+			received[i] = modulate(codeWords.get(i), 0.9f);
+		}
+		ViterbiDecoder.Decision decisions[] = decoder.decode(received, 0, 0);
+
+		for (int i = 0; i < codeWords.size(); ++i) {
+			assertEquals(codeWords.get(i), decisions[i].codeWord);
+			assertEquals(-0.9 * code.getN(), decisions[i].metric, 1e-4);
+		}
+	}
+
+	@Test
+	public void convCodeWordWithSingleErrorShouldBeCorrected() throws SpanFormException {
+		PolyMatrix generator = new PolyMatrix(1, 2);
+		generator.set(0, 0, new Poly(new int [] {0, 1, 2}));
+		generator.set(0, 1, new Poly(new int [] {0, 2}));
+		ITrellis trellis = new ConvCodeTrellis(new ConvCode(generator, true).spanForm());
+		ViterbiDecoder decoder = new ViterbiDecoder(trellis, true);
+
+		Random random = new Random(1);
+		for (int test = 0; test < 100; ++test) {
+			// кодовое слово - случайный путь из нулевой вершины длины 20 циклов, возвращающийся в нулевую вершину
+			int steps = 20 * trellis.layersCount();
+			ITrellisIterator iterator = trellis.iterator(0, 0);
+			List<BitArray> labels = new ArrayList<BitArray>();
+			int length = 0;
+			for (int s = 0; s < steps; ++s) {
+				ITrellisEdgeCursor edges = iterator.forwardEdges();
+				int count = 0;
+				while (edges.next()) {
+					++count;
+				}
+				int edge = s < steps - 2 * trellis.layersCount() ? random.nextInt(count) : 0;
+				BitArray label = iterator.getAccessors()[edge].bits();
+				labels.add(label);
+				length += label.getFixedSize();
+				iterator.moveForward(edge);
+			}
+			BitArray codeWord = new BitArray(length);
+			int position = 0;
+			for (BitArray label : labels) {
+				for (int i = 0; i < label.getFixedSize(); ++i) {
+					codeWord.set(position++, label.get(i));
+				}
+			}
+
+			BitArray received = codeWord.clone();
+			received.flip(random.nextInt(length));
+			ViterbiDecoder.Decision decision = decoder.decode(received, 0, (int)iterator.vertexIndex());
+
+			assertEquals(codeWord, decision.codeWord);
+			assertEquals(1, (int)decision.metric);
+			assertEquals(0, decision.startVertex);
+		}
+	}
+
+	private static int distance(BitArray a, BitArray b) {
+		BitArray sum = a.clone();
+		sum.xor(b);
+		return sum.cardinality();
+	}
+
+	private static float[] modulate(BitArray word, float amplitude) {
+		float signal[] = new float[word.getFixedSize()];
+		for (int i = 0; i < signal.length; ++i) {
+			signal[i] = word.get(i) ? -amplitude : amplitude;
+		}
+		return signal;
+	}
+}
@@ -0,0 +1,164 @@
+package trellises.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import trellises.ITrellis;
+import trellises.ITrellisEdge;
+import trellises.ITrellisIterator;
+import trellises.TailbitingCodeTrellis;
+import trellises.algorithms.WrapAroundViterbiDecoder;
+import codes.ConvCode;
+import math.BitArray;
+import math.ConvCodeSpanForm.SpanFormException;
+import math.Poly;
+import math.PolyMatrix;
+
+public class WrapAroundViterbiDecoderTest {
+	ITrellis trellis;
+	List<BitArray> codeWords;
+	int length;
+
+	public WrapAroundViterbiDecoderTest() throws SpanFormException {
+		PolyMatrix generator = new PolyMatrix(1, 2);
+		generator.set(0, 0, new Poly(new int [] {0, 1, 2}));
+		generator.set(0, 1, new Poly(new int [] {0, 2}));
+		trellis = new TailbitingCodeTrellis(new ConvCode(generator, true).spanForm(), 8, false);
+
+		codeWords = new ArrayList<BitArray>();
+		for (long vertex = 0; vertex < trellis.layerSize(0); ++vertex) {
+			collectCodeWords(trellis.iterator(0, vertex), vertex, new ArrayList<BitArray>());
+		}
+		length = codeWords.get(0).getFixedSize();
+	}
+
+	/**
+	 * Все пути из вершины <code>vertex</code> нулевого яруса, возвращающиеся в нее же.
+	 */
+	private void collectCodeWords(ITrellisIterator iterator, long vertex, List<BitArray> labels) {
+		if (iterator.layer() == trellis.layersCount() - 1) {
+			if (iterator.vertexIndex() == vertex) {
+				codeWords.add(concat(labels));
+			}
+			return;
+		}
+		ITrellisEdge edges[] = iterator.getAccessors();
+		for (int e = 0; e < edges.length; ++e) {
+			ITrellisIterator next = iterator.clone();
+			next.moveForward(e);
+			labels.add(edges[e].bits());
+			collectCodeWords(next, vertex, labels);
+			labels.remove(labels.size() - 1);
+		}
+	}
+
+	@Test
+	public void codeWordsShouldBeDecodedInOneIteration() {
+		WrapAroundViterbiDecoder decoder = new WrapAroundViterbiDecoder(trellis, 4);
+
+		for (BitArray codeWord : codeWords) {
+			WrapAroundViterbiDecoder.Decision decision = decoder.decode(codeWord);
+
+			assertEquals(codeWord, decision.codeWord);
+			assertEquals(0, (int)decision.metric);
+			assertTrue(decision.tailbiting);
+			assertEquals(decision.startVertex, decision.endVertex);
+			assertEquals(1, decision.iterations);
+		}
+	}
+
+	@Test
+	public void singleErrorsShouldBeCorrected() {
+		WrapAroundViterbiDecoder decoder = new WrapAroundViterbiDecoder(trellis, 4);
+
+		Random random = new Random(1);
+		for (int test = 0; test < 200; ++test) {
+			BitArray codeWord = codeWords.get(random.nextInt(codeWords.size()));
+			BitArray received = codeWord.clone();
+			received.flip(random.nextInt(length));
+			WrapAroundViterbiDecoder.Decision decision = decoder.decode(received);
+
+			assertEquals(codeWord, decision.codeWord);
+			assertEquals(1, (int)decision.metric);
+			assertTrue(decision.tailbiting);
+			assertTrue(decision.iterations <= decoder.getMaxIterations());
+		}
+	}
+
+	@Test
+	public void decisionsShouldBeNearMaximumLikelihood() {
+		WrapAroundViterbiDecoder decoder = new WrapAroundViterbiDecoder(trellis, 4);
+
+		Random random = new Random(1);
+		int tests = 500, optimal = 0;
+		for (int test = 0; test < tests; ++test) {
+			BitArray received = codeWords.get(random.nextInt(codeWords.size())).clone();
+			received.flip(random.nextInt(length));
+			received.flip(random.nextInt(length));
+
+			int minDistance = Integer.MAX_VALUE;
+			for (BitArray codeWord : codeWords) {
+				minDistance = Math.min(minDistance, distance(received, codeWord));
+			}
+			WrapAroundViterbiDecoder.Decision decision = decoder.decode(received);
+
+			if (decision.tailbiting) {
+				assertTrue(codeWords.contains(decision.codeWord));
+				assertEquals(distance(received, decision.codeWord), (int)decision.metric);
+				assertTrue(decision.metric >= minDistance);
+				if (decision.metric == minDistance) {
+					++optimal;
+				}
+			}
+		}
+		// WAVA не гарантирует оптимальность, но почти всегда находит ближайшее слово
+		assertTrue("optimal: " + optimal, optimal >= tests * 95 / 100);
+	}
+
+	@Test
+	public void softDecisionShouldDecodeNoiselessWords() {
+		WrapAroundViterbiDecoder decoder = new WrapAroundViterbiDecoder(trellis, 4);
+
+		for (BitArray codeWord : codeWords) {
+			float received[] = new float[length];
+			for (int i = 0; i < length; ++i) {
+				received[i] = codeWord.get(i) ? -0.7f : 0.7f;
+			}
+			WrapAroundViterbiDecoder.Decision decision = decoder.decode(received);
+
+			assertEquals(codeWord, decision.codeWord);
+			assertEquals(-0.7 * length, decision.metric, 1e-4);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void wordOfWrongLengthShouldBeRejected() {
+		new WrapAroundViterbiDecoder(trellis, 4).decode(new BitArray(length - 2));
+	}
+
+	private static BitArray concat(List<BitArray> labels) {
+		int size = 0;
+		for (BitArray label : labels) {
+			size += label.getFixedSize();
+		}
+		BitArray word = new BitArray(size);
+		int position = 0;
+		for (BitArray label : labels) {
+			for (int i = 0; i < label.getFixedSize(); ++i) {
+				word.set(position++, label.get(i));
+			}
+		}
+		return word;
+	}
+
+	private static int distance(BitArray a, BitArray b) {
+		BitArray sum = a.clone();
+		sum.xor(b);
+		return sum.cardinality();
+	}
+}